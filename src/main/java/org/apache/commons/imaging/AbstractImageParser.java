@@ -87,6 +87,10 @@ public abstract class AbstractImageParser<T extends ImagingParameters<T>> extend
     /**
      * Gets an array of new instances of all image parsers.
      *
+     * <p>
+     * Use {@link org.apache.commons.imaging.internal.ImageParserFactory#getImageParsers()} to get the shared instances used by {@link Imaging}.
+     * </p>
+     *
      * @return A valid array of image parsers
      */
     public static List<AbstractImageParser<?>> getAllImageParsers() {
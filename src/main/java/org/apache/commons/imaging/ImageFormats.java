@@ -16,6 +16,8 @@
  */
 package org.apache.commons.imaging;
 
+import static org.apache.commons.imaging.MagicNumberTrie.ANY;
+
 /**
  * Enumerates known image formats.
  */
@@ -23,36 +25,43 @@ public enum ImageFormats implements ImageFormat {
 
     // @formatter:off
     UNKNOWN(),
-    BMP("bmp", "dib"),
-    DCX("dcx"),
-    GIF("gif"),
-    ICNS("icns"),
+    BMP(new int[][] { { 0x42, 0x4D } }, "bmp", "dib"),
+    DCX(new int[][] { { 0xB1, 0x68 } }, "dcx"),
+    GIF(new int[][] { { 0x47, 0x49 } }, "gif"),
+    ICNS(new int[][] { { 0x69, 0x63 } }, "icns"),
     ICO("ico"),
-    JBIG2(),
-    JPEG("jpg", "jpeg"),
-    PAM("pam"),
-    PSD("psd"),
-    PBM("pbm"),
-    PGM("pgm"),
+    JBIG2(new int[][] { { 0x97, 0x4A, 0x42, 0x32 } }),
+    JPEG(new int[][] { { 0xFF, 0xD8 } }, "jpg", "jpeg"),
+    PAM(new int[][] { { 0x50, 0x37 } }, "pam"),
+    PSD(new int[][] { { 0x38, 0x42 } }, "psd"),
+    PBM(new int[][] { { 0x50, 0x31 }, { 0x50, 0x34 } }, "pbm"),
+    PGM(new int[][] { { 0x50, 0x32 }, { 0x50, 0x35 } }, "pgm"),
     PNM("pnm"),
-    PPM("ppm"),
+    PPM(new int[][] { { 0x50, 0x33 }, { 0x50, 0x36 } }, "ppm"),
     PCX("pcx", "pcc"),
-    PNG("png"),
-    RGBE("hdr", "pic"),
+    PNG(new int[][] { { 0x89, 0x50 } }, "png"),
+    RGBE(new int[][] { { 0x23, 0x3F } }, "hdr", "pic"),
     TGA(),
-    TIFF("tif", "tiff"),
+    TIFF(new int[][] { { 0x4D, 0x4D }, { 0x49, 0x49 } }, "tif", "tiff"),
     WBMP("wbmp"),
-    WEBP("webp"),
+    // "RIFF", the file size and "WEBP"
+    WEBP(new int[][] { { 0x52, 0x49, 0x46, 0x46, ANY, ANY, ANY, ANY, 0x57, 0x45, 0x42, 0x50 } }, "webp"),
     XBM("xbm"),
     XPM("xpm");
     // @formatter:on
 
+    private final int[][] magicNumbers;
     private final String[] extensions;
 
-    ImageFormats(final String... extensions) {
+    ImageFormats(final int[][] magicNumbers, final String... extensions) {
+        this.magicNumbers = magicNumbers;
         this.extensions = extensions;
     }
 
+    ImageFormats(final String... extensions) {
+        this(new int[0][], extensions);
+    }
+
     @Override
     public String getDefaultExtension() {
         return this.extensions != null ? this.extensions[0] : null;
@@ -63,6 +72,15 @@ public enum ImageFormats implements ImageFormat {
         return this.extensions.clone();
     }
 
+    /**
+     * Gets the byte sequences that the data of this format starts with, as unsigned values or {@link MagicNumberTrie#ANY}.
+     *
+     * @return the magic numbers, empty if the format has none.
+     */
+    int[][] getMagicNumbers() {
+        return magicNumbers;
+    }
+
     @Override
     public String getName() {
         return name();
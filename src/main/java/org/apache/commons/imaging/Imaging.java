@@ -26,13 +26,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.stream.Stream;
 
 import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.bytesource.FileChannelByteSource;
 import org.apache.commons.imaging.common.ImageMetadata;
 import org.apache.commons.imaging.common.XmpEmbeddable;
 import org.apache.commons.imaging.icc.IccProfileInfo;
@@ -86,36 +89,15 @@ import org.apache.commons.imaging.internal.ImageParserFactory;
  */
 public final class Imaging {
 
-    private static final int[] MAGIC_NUMBERS_GIF = { 0x47, 0x49, };
-    private static final int[] MAGIC_NUMBERS_PNG = { 0x89, 0x50, };
-    private static final int[] MAGIC_NUMBERS_JPEG = { 0xff, 0xd8, };
-    private static final int[] MAGIC_NUMBERS_BMP = { 0x42, 0x4d, };
-    private static final int[] MAGIC_NUMBERS_TIFF_MOTOROLA = { 0x4D, 0x4D, };
-    private static final int[] MAGIC_NUMBERS_TIFF_INTEL = { 0x49, 0x49, };
-    private static final int[] MAGIC_NUMBERS_PAM = { 0x50, 0x37, };
-    private static final int[] MAGIC_NUMBERS_PSD = { 0x38, 0x42, };
-    private static final int[] MAGIC_NUMBERS_PBM_A = { 0x50, 0x31, };
-    private static final int[] MAGIC_NUMBERS_PBM_B = { 0x50, 0x34, };
-    private static final int[] MAGIC_NUMBERS_PGM_A = { 0x50, 0x32, };
-    private static final int[] MAGIC_NUMBERS_PGM_B = { 0x50, 0x35, };
-    private static final int[] MAGIC_NUMBERS_PPM_A = { 0x50, 0x33, };
-    private static final int[] MAGIC_NUMBERS_PPM_B = { 0x50, 0x36, };
-    private static final int[] MAGIC_NUMBERS_JBIG2_1 = { 0x97, 0x4A, };
-    private static final int[] MAGIC_NUMBERS_JBIG2_2 = { 0x42, 0x32, };
-    private static final int[] MAGIC_NUMBERS_ICNS = { 0x69, 0x63, };
-    private static final int[] MAGIC_NUMBERS_DCX = { 0xB1, 0x68, };
-    private static final int[] MAGIC_NUMBERS_RGBE = { 0x23, 0x3F, };
-    private static final int[] MAGIC_NUMBERS_RIFF_1 = { 0x52, 0x49, };
-    private static final int[] MAGIC_NUMBERS_RIFF_2 = { 0x46, 0x46, };
-    private static final byte[] MAGIC_NUMBERS_WEBP = { 0x57, 0x45, 0x42, 0x50, };
-
-    private static boolean compareBytePair(final int[] a, final int[] b) {
-        if (a.length != 2 && b.length != 2) {
-            throw new IllegalArgumentException("Invalid Byte Pair.");
-        }
-        return a[0] == b[0] && a[1] == b[1];
+    private static final class ImageFileExtensions {
+
+        /** The lower case extensions of all parsers. */
+        static final String[] ALL = ImageParserFactory.getImageParsers().stream().map(AbstractImageParser::getAcceptedExtensions)
+                .filter(Objects::nonNull).flatMap(Stream::of).map(extension -> extension.toLowerCase(Locale.ROOT)).distinct().toArray(String[]::new);
     }
 
+    private static final MagicNumberTrie MAGIC_NUMBERS = new MagicNumberTrie(ImageFormats.values());
+
     /**
      * Write the ImageInfo and format-specific information for the image content of the specified byte array to a string.
      *
@@ -142,7 +124,9 @@ public final class Imaging {
      * @throws IOException      In the event of unsuccessful read or access operation.
      */
     public static String dumpImageFile(final File file) throws ImagingException, IOException {
-        return dumpImageFile(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return dumpImageFile(byteSource);
+        }
     }
 
     /**
@@ -171,7 +155,9 @@ public final class Imaging {
      * @throws IOException      In the event of unsuccessful read or access operation.
      */
     public static List<BufferedImage> getAllBufferedImages(final File file) throws ImagingException, IOException {
-        return getAllBufferedImages(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return getAllBufferedImages(byteSource);
+        }
     }
 
     /**
@@ -225,7 +211,9 @@ public final class Imaging {
      * @throws IOException      in the event of an unrecoverable I/O exception.
      */
     public static BufferedImage getBufferedImage(final File file) throws ImagingException, IOException {
-        return getBufferedImage(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return getBufferedImage(byteSource);
+        }
     }
 
     /**
@@ -296,7 +284,9 @@ public final class Imaging {
      * @throws IOException      in the event of an unrecoverable I/O condition.
      */
     public static FormatCompliance getFormatCompliance(final File file) throws ImagingException, IOException {
-        return getFormatCompliance(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return getFormatCompliance(byteSource);
+        }
     }
 
     /**
@@ -338,7 +328,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static ICC_Profile getIccProfile(final File file) throws ImagingException, IOException {
-        return getIccProfile(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return getIccProfile(byteSource);
+        }
     }
 
     /**
@@ -392,7 +384,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static byte[] getIccProfileBytes(final File file) throws ImagingException, IOException {
-        return getIccProfileBytes(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return getIccProfileBytes(byteSource);
+        }
     }
 
     /**
@@ -438,7 +432,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static ImageInfo getImageInfo(final File file) throws ImagingException, IOException {
-        return getImageInfo(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return getImageInfo(byteSource);
+        }
     }
 
     /**
@@ -519,7 +515,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static Dimension getImageSize(final File file) throws ImagingException, IOException {
-        return getImageSize(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return getImageSize(byteSource);
+        }
     }
 
     /**
@@ -587,7 +585,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static ImageMetadata getMetadata(final File file) throws ImagingException, IOException {
-        return getMetadata(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return getMetadata(byteSource);
+        }
     }
 
     /**
@@ -653,7 +653,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static String getXmpXml(final File file) throws ImagingException, IOException {
-        return getXmpXml(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return getXmpXml(byteSource);
+        }
     }
 
     /**
@@ -701,115 +703,32 @@ public final class Imaging {
      * @throws IOException              in the event of an unrecoverable I/O condition.
      */
     public static ImageFormat guessFormat(final ByteSource byteSource) throws IOException {
+        return guessFormat(byteSource, new byte[MAGIC_NUMBERS.getMaxLength()]);
+    }
+
+    private static ImageFormat guessFormat(final ByteSource byteSource, final byte[] magic) throws IOException {
         if (byteSource == null) {
             return ImageFormats.UNKNOWN;
         }
 
-        try (InputStream is = byteSource.getInputStream()) {
-            final int i1 = is.read();
-            final int i2 = is.read();
-            if (i1 < 0 || i2 < 0) {
-                throw new IllegalArgumentException("Couldn't read magic numbers to guess format.");
-            }
+        final int magicLength = byteSource.read(0, ByteBuffer.wrap(magic));
+        if (magicLength < 2) {
+            throw new IllegalArgumentException("Couldn't read magic numbers to guess format.");
+        }
 
-            final int b1 = i1 & 0xff;
-            final int b2 = i2 & 0xff;
-            final int[] bytePair = { b1, b2, };
+        final ImageFormat format = MAGIC_NUMBERS.match(magic, magicLength);
+        if (format != ImageFormats.UNKNOWN) {
+            return format;
+        }
 
-            if (compareBytePair(MAGIC_NUMBERS_GIF, bytePair)) {
-                return ImageFormats.GIF;
-                // } else if (b1 == 0x00 && b2 == 0x00) // too similar to TGA
-                // {
-                // return ImageFormat.IMAGE_FORMAT_ICO;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_PNG, bytePair)) {
-                return ImageFormats.PNG;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_JPEG, bytePair)) {
-                return ImageFormats.JPEG;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_BMP, bytePair)) {
-                return ImageFormats.BMP;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_TIFF_MOTOROLA, bytePair)) {
-                return ImageFormats.TIFF;
+        return Stream.of(ImageFormats.values()).filter(imageFormat -> Stream.of(imageFormat.getExtensions()).anyMatch(extension -> {
+            final String fileName = byteSource.getFileName();
+            if (fileName == null || fileName.trim().isEmpty()) {
+                return false;
             }
-            if (compareBytePair(MAGIC_NUMBERS_TIFF_INTEL, bytePair)) {
-                return ImageFormats.TIFF;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_PSD, bytePair)) {
-                return ImageFormats.PSD;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_PAM, bytePair)) {
-                return ImageFormats.PAM;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_PBM_A, bytePair)) {
-                return ImageFormats.PBM;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_PBM_B, bytePair)) {
-                return ImageFormats.PBM;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_PGM_A, bytePair)) {
-                return ImageFormats.PGM;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_PGM_B, bytePair)) {
-                return ImageFormats.PGM;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_PPM_A, bytePair)) {
-                return ImageFormats.PPM;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_PPM_B, bytePair)) {
-                return ImageFormats.PPM;
-            }
-            if (compareBytePair(MAGIC_NUMBERS_JBIG2_1, bytePair)) {
-                final int i3 = is.read();
-                final int i4 = is.read();
-                if (i3 < 0 || i4 < 0) {
-                    throw new IllegalArgumentException("Couldn't read magic numbers to guess format.");
-                }
-
-                final int b3 = i3 & 0xff;
-                final int b4 = i4 & 0xff;
-                final int[] bytePair2 = { b3, b4, };
-                if (compareBytePair(MAGIC_NUMBERS_JBIG2_2, bytePair2)) {
-                    return ImageFormats.JBIG2;
-                }
-            } else if (compareBytePair(MAGIC_NUMBERS_ICNS, bytePair)) {
-                return ImageFormats.ICNS;
-            } else if (compareBytePair(MAGIC_NUMBERS_DCX, bytePair)) {
-                return ImageFormats.DCX;
-            } else if (compareBytePair(MAGIC_NUMBERS_RGBE, bytePair)) {
-                return ImageFormats.RGBE;
-            } else if (compareBytePair(MAGIC_NUMBERS_RIFF_1, bytePair)) {
-                final int i3 = is.read();
-                final int i4 = is.read();
-                if (i3 < 0 || i4 < 0) {
-                    throw new IllegalArgumentException("Couldn't read magic numbers to guess format.");
-                }
-
-                final int b3 = i3 & 0xff;
-                final int b4 = i4 & 0xff;
-                final int[] bytePair2 = { b3, b4, };
-                if (compareBytePair(MAGIC_NUMBERS_RIFF_2, bytePair2)) {
-                    final byte[] bytes = new byte[4];
-                    if (is.read(bytes) < 4) { // Skip file size
-                        throw new IllegalArgumentException("Couldn't read magic numbers to guess format.");
-                    }
-
-                    if (is.read(bytes) == 4 && Arrays.equals(MAGIC_NUMBERS_WEBP, bytes)) {
-                        return ImageFormats.WEBP;
-                    }
-                }
-            }
-            return Stream.of(ImageFormats.values()).filter(imageFormat -> Stream.of(imageFormat.getExtensions()).anyMatch(extension -> {
-                final String fileName = byteSource.getFileName();
-                if (fileName == null || fileName.trim().isEmpty()) {
-                    return false;
-                }
-                final String fileExtension = fileName.substring(fileName.lastIndexOf('.') + 1);
-                return extension != null && !extension.trim().isEmpty() && fileExtension.equalsIgnoreCase(extension);
-            })).findFirst().orElse(ImageFormats.UNKNOWN);
-        }
+            final String fileExtension = fileName.substring(fileName.lastIndexOf('.') + 1);
+            return extension != null && !extension.trim().isEmpty() && fileExtension.equalsIgnoreCase(extension);
+        })).findFirst().orElse(ImageFormats.UNKNOWN);
     }
 
     /**
@@ -826,7 +745,31 @@ public final class Imaging {
      * @throws IOException in the event of an unrecoverable I/O condition.
      */
     public static ImageFormat guessFormat(final File file) throws IOException {
-        return guessFormat(ByteSource.file(file));
+        try (FileChannelByteSource byteSource = ByteSource.channel(file)) {
+            return guessFormat(byteSource);
+        }
+    }
+
+    /**
+     * Attempts to determine the image formats of several sources based on their "magic numbers", see {@link #guessFormat(ByteSource)}.
+     *
+     * <p>
+     * The sources are classified one after the other, reusing the same header buffer. Sources that must be closed remain open.
+     * </p>
+     *
+     * @param byteSources the sources of image data.
+     * @return the formats of the sources, in the same order.
+     * @throws IllegalArgumentException in the event of an unsuccessful attempt to read the image data of one of the sources.
+     * @throws IOException              in the event of an unrecoverable I/O condition.
+     * @since 1.0.0-alpha6
+     */
+    public static List<ImageFormat> guessFormats(final Collection<? extends ByteSource> byteSources) throws IOException {
+        final byte[] magic = new byte[MAGIC_NUMBERS.getMaxLength()];
+        final List<ImageFormat> formats = new ArrayList<>(byteSources.size());
+        for (final ByteSource byteSource : byteSources) {
+            formats.add(guessFormat(byteSource, magic));
+        }
+        return formats;
     }
 
     /**
@@ -857,11 +800,9 @@ public final class Imaging {
 
         final String normalizedFileName = fileName.toLowerCase(Locale.ROOT);
 
-        for (final AbstractImageParser<?> imageParser : AbstractImageParser.getAllImageParsers()) {
-            for (final String extension : imageParser.getAcceptedExtensions()) {
-                if (normalizedFileName.endsWith(extension.toLowerCase(Locale.ROOT))) {
-                    return true;
-                }
+        for (final String extension : ImageFileExtensions.ALL) {
+            if (normalizedFileName.endsWith(extension)) {
+                return true;
             }
         }
 
@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.io.function.IOSupplier;
+
+/**
+ * Runs the reading methods of {@link Imaging} asynchronously.
+ *
+ * <p>
+ * Each call returns a {@link CompletableFuture} that is completed on the executor of this instance. At most {@code maxInFlight} calls run at the same
+ * time; later calls wait, in the order they were made, until an earlier one completes. This bounds the memory used by concurrent decoding without
+ * blocking the caller. By default, calls run on virtual threads when the JVM supports them (Java 21 and later), and on daemon threads otherwise.
+ * </p>
+ * <p>
+ * Cancelling a returned future interrupts the thread running it, and the BMP, JPEG, PNG and TIFF decoders then stop at the next row, band or strip. Futures
+ * derived from a returned future, for example with {@code thenApply}, do not pass cancellation on, so cancel the returned future itself.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+public final class ImagingAsync {
+
+    private static final class DefaultExecutor {
+
+        static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                // only available on Java 21 and later
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (final ReflectiveOperationException e) {
+                return Executors.newCachedThreadPool(runnable -> {
+                    final Thread thread = new Thread(runnable, ImagingAsync.class.getSimpleName());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+
+    private final class Task<T> extends CompletableFuture<T> implements Runnable {
+
+        private final IOSupplier<T> supplier;
+
+        // the thread running the task, guarded by this
+        private Thread thread;
+
+        Task(final IOSupplier<T> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            synchronized (this) {
+                if (cancelled && thread != null) {
+                    thread.interrupt();
+                }
+            }
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            try {
+                synchronized (this) {
+                    if (isDone()) {
+                        return;
+                    }
+                    thread = Thread.currentThread();
+                }
+                try {
+                    complete(supplier.get());
+                } catch (final Throwable e) {
+                    completeExceptionally(e);
+                } finally {
+                    synchronized (this) {
+                        thread = null;
+                    }
+                    if (isCancelled()) {
+                        // do not leave our interrupt to the next task of the executor thread
+                        Thread.interrupted();
+                    }
+                }
+            } finally {
+                permits.release();
+                dispatch();
+            }
+        }
+    }
+
+    private final Executor executor;
+
+    private final Semaphore permits;
+
+    private final Queue<Task<?>> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs an instance on the default executor, running as many calls at the same time as there are processors.
+     */
+    public ImagingAsync() {
+        this(DefaultExecutor.INSTANCE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an instance on the given executor.
+     *
+     * @param executor    runs the calls.
+     * @param maxInFlight the maximum number of calls that run at the same time.
+     * @throws IllegalArgumentException if {@code maxInFlight} is less than 1.
+     */
+    public ImagingAsync(final Executor executor, final int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Invalid maximum number of calls in flight " + maxInFlight + ", must be at least 1");
+        }
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    private void dispatch() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            final Task<?> task = pending.poll();
+            if (task == null) {
+                permits.release();
+            } else {
+                try {
+                    executor.execute(task);
+                } catch (final RejectedExecutionException e) {
+                    permits.release();
+                    task.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the first image from a byte array, see {@link Imaging#getBufferedImage(byte[])}.
+     *
+     * @param bytes the image data, which must not be modified until the future is done.
+     * @return the future image.
+     */
+    public CompletableFuture<BufferedImage> getBufferedImage(final byte[] bytes) {
+        return submit(() -> Imaging.getBufferedImage(bytes));
+    }
+
+    /**
+     * Reads the first image from a file, see {@link Imaging#getBufferedImage(File)}.
+     *
+     * @param file the image file.
+     * @return the future image.
+     */
+    public CompletableFuture<BufferedImage> getBufferedImage(final File file) {
+        return submit(() -> Imaging.getBufferedImage(file));
+    }
+
+    /**
+     * Reads the image information of a byte array, see {@link Imaging#getImageInfo(byte[])}.
+     *
+     * @param bytes the image data, which must not be modified until the future is done.
+     * @return the future image information.
+     */
+    public CompletableFuture<ImageInfo> getImageInfo(final byte[] bytes) {
+        return submit(() -> Imaging.getImageInfo(bytes));
+    }
+
+    /**
+     * Reads the image information of a file, see {@link Imaging#getImageInfo(File)}.
+     *
+     * @param file the image file.
+     * @return the future image information.
+     */
+    public CompletableFuture<ImageInfo> getImageInfo(final File file) {
+        return submit(() -> Imaging.getImageInfo(file));
+    }
+
+    /**
+     * Reads the image size of a byte array, see {@link Imaging#getImageSize(byte[])}.
+     *
+     * @param bytes the image data, which must not be modified until the future is done.
+     * @return the future image size.
+     */
+    public CompletableFuture<Dimension> getImageSize(final byte[] bytes) {
+        return submit(() -> Imaging.getImageSize(bytes));
+    }
+
+    /**
+     * Reads the image size of a file, see {@link Imaging#getImageSize(File)}.
+     *
+     * @param file the image file.
+     * @return the future image size.
+     */
+    public CompletableFuture<Dimension> getImageSize(final File file) {
+        return submit(() -> Imaging.getImageSize(file));
+    }
+
+    /**
+     * Reads the metadata of a byte array, see {@link Imaging#getMetadata(byte[])}.
+     *
+     * @param bytes the image data, which must not be modified until the future is done.
+     * @return the future metadata, completed with null if the image has none.
+     */
+    public CompletableFuture<ImageMetadata> getMetadata(final byte[] bytes) {
+        return submit(() -> Imaging.getMetadata(bytes));
+    }
+
+    /**
+     * Reads the metadata of a file, see {@link Imaging#getMetadata(File)}.
+     *
+     * @param file the image file.
+     * @return the future metadata, completed with null if the image has none.
+     */
+    public CompletableFuture<ImageMetadata> getMetadata(final File file) {
+        return submit(() -> Imaging.getMetadata(file));
+    }
+
+    /**
+     * Runs any other operation under the limit of calls in flight of this instance.
+     *
+     * @param <T>      the result type.
+     * @param supplier the operation, which may call {@link org.apache.commons.imaging.common.Interrupts#check()} to support cancellation.
+     * @return the future result.
+     */
+    public <T> CompletableFuture<T> submit(final IOSupplier<T> supplier) {
+        final Task<T> task = new Task<>(Objects.requireNonNull(supplier, "supplier"));
+        pending.add(task);
+        dispatch();
+        return task;
+    }
+}
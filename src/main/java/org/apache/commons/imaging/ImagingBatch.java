@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.jpeg.JpegImagingParameters;
+import org.apache.commons.imaging.formats.tiff.TiffImagingParameters;
+import org.apache.commons.imaging.internal.ImageParserFactory;
+
+/**
+ * Decodes many images on one {@link ForkJoinPool}.
+ *
+ * <p>
+ * Each image is decoded by its own task. Decoders that can split an image also run the parts on the same pool, so that idle workers steal them instead of
+ * waiting: JPEG restart intervals and TIFF strips and tiles are decoded in parallel, see
+ * {@link JpegImagingParameters#setRestartIntervalExecutor(java.util.concurrent.Executor)} and
+ * {@link TiffImagingParameters#setImageDataExecutor(java.util.concurrent.Executor)}.
+ * </p>
+ * <p>
+ * Results are delivered to a {@link Callback} as soon as each image is done, so the decoded images do not have to be kept until the end of the batch. A
+ * failure only affects its own image. Only a bounded number of images is queued at any time, so the sources may come from a lazy iterable of any size.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+public final class ImagingBatch {
+
+    /**
+     * Receives the results of a batch. The methods are called concurrently from the workers of the pool.
+     */
+    public interface Callback {
+
+        /**
+         * Called when an image has been decoded.
+         *
+         * @param byteSource the source of the image.
+         * @param image      the decoded image.
+         */
+        void onImage(ByteSource byteSource, BufferedImage image);
+
+        /**
+         * Called when an image could not be decoded.
+         *
+         * @param byteSource the source of the image.
+         * @param exception  the reason.
+         */
+        void onFailure(ByteSource byteSource, Exception exception);
+    }
+
+    /**
+     * The throughput of a batch.
+     */
+    public static final class Statistics {
+
+        private final long imageCount;
+        private final long failureCount;
+        private final long byteCount;
+        private final long elapsedNanos;
+
+        Statistics(final long imageCount, final long failureCount, final long byteCount, final long elapsedNanos) {
+            this.imageCount = imageCount;
+            this.failureCount = failureCount;
+            this.byteCount = byteCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Gets the number of bytes of the decoded images.
+         *
+         * @return the number of bytes read from the sources of the decoded images.
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        /**
+         * Gets the wall clock time of the batch.
+         *
+         * @return the elapsed time in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Gets the number of images that could not be decoded.
+         *
+         * @return the number of failures.
+         */
+        public long getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * Gets the number of decoded images.
+         *
+         * @return the number of images passed to {@link Callback#onImage(ByteSource, BufferedImage)}.
+         */
+        public long getImageCount() {
+            return imageCount;
+        }
+
+        /**
+         * Gets the decoding throughput in images.
+         *
+         * @return the number of decoded images per second.
+         */
+        public double getImagesPerSecond() {
+            return perSecond(imageCount);
+        }
+
+        /**
+         * Gets the decoding throughput in megabytes of source data.
+         *
+         * @return the number of megabytes (2<sup>20</sup> bytes) of decoded images per second.
+         */
+        public double getMegabytesPerSecond() {
+            return perSecond(byteCount / 1_048_576.0);
+        }
+
+        private double perSecond(final double count) {
+            return elapsedNanos == 0 ? 0 : count * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d images, %d failures, %.1f images/s, %.1f MB/s", imageCount, failureCount, getImagesPerSecond(), getMegabytesPerSecond());
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs an instance on the common pool.
+     */
+    public ImagingBatch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs an instance on the given pool.
+     *
+     * @param pool runs the decoding.
+     */
+    public ImagingBatch(final ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
+
+    /**
+     * Decodes the first image of each source.
+     *
+     * <p>
+     * Sources that implement {@link Closeable}, such as {@link org.apache.commons.imaging.bytesource.FileChannelByteSource}, are closed once their image is
+     * done. This method returns when all images are done. It must not be called from a task of the pool itself.
+     * </p>
+     *
+     * @param byteSources the sources, iterated on the calling thread.
+     * @param callback    receives the results.
+     * @return the throughput of the batch.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the pool. Images already queued are still decoded.
+     */
+    public Statistics decode(final Iterable<? extends ByteSource> byteSources, final Callback callback) throws InterruptedException {
+        Objects.requireNonNull(callback, "callback");
+        final long start = System.nanoTime();
+        final AtomicLong imageCount = new AtomicLong();
+        final AtomicLong failureCount = new AtomicLong();
+        final AtomicLong byteCount = new AtomicLong();
+        final AtomicReference<RuntimeException> callbackException = new AtomicReference<>();
+        // enough queued images to keep every worker busy, without reading ahead the whole iterable
+        final int maxQueued = 4 * pool.getParallelism();
+        final Semaphore queued = new Semaphore(maxQueued);
+        for (final ByteSource byteSource : byteSources) {
+            queued.acquire();
+            if (callbackException.get() != null) {
+                queued.release();
+                break;
+            }
+            pool.execute(() -> {
+                try {
+                    final BufferedImage image;
+                    try {
+                        image = decode(byteSource);
+                        byteCount.addAndGet(size(byteSource));
+                    } catch (final Exception e) {
+                        failureCount.incrementAndGet();
+                        callback.onFailure(byteSource, e);
+                        return;
+                    } finally {
+                        close(byteSource);
+                    }
+                    imageCount.incrementAndGet();
+                    callback.onImage(byteSource, image);
+                } catch (final RuntimeException e) {
+                    // a broken callback ends the batch instead of being lost in the pool
+                    callbackException.compareAndSet(null, e);
+                } finally {
+                    queued.release();
+                }
+            });
+        }
+        queued.acquire(maxQueued);
+        if (callbackException.get() != null) {
+            throw callbackException.get();
+        }
+        return new Statistics(imageCount.get(), failureCount.get(), byteCount.get(), System.nanoTime() - start);
+    }
+
+    private void close(final ByteSource byteSource) {
+        if (byteSource instanceof Closeable) {
+            try {
+                ((Closeable) byteSource).close();
+            } catch (final IOException ignored) {
+                // the image is already decoded
+            }
+        }
+    }
+
+    private <T extends ImagingParameters<T>> BufferedImage decode(final ByteSource byteSource) throws IOException {
+        final AbstractImageParser<T> parser = ImageParserFactory.getImageParser(byteSource);
+        final T params = parser.getDefaultParameters();
+        if (params instanceof JpegImagingParameters) {
+            ((JpegImagingParameters) params).setRestartIntervalExecutor(pool);
+        } else if (params instanceof TiffImagingParameters) {
+            ((TiffImagingParameters) params).setImageDataExecutor(pool);
+        }
+        return parser.getBufferedImage(byteSource, params);
+    }
+
+    private long size(final ByteSource byteSource) {
+        try {
+            return byteSource.size();
+        } catch (final IOException e) {
+            // the image is decoded, only the byte count of the statistics misses it
+            return 0;
+        }
+    }
+}
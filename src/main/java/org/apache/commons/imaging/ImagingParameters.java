@@ -17,6 +17,8 @@
 package org.apache.commons.imaging;
 
 import org.apache.commons.imaging.common.BufferedImageFactory;
+import org.apache.commons.imaging.common.ImagingListener;
+import org.apache.commons.imaging.common.PixelBufferPool;
 
 /**
  * Imaging parameters.
@@ -53,6 +55,16 @@ public class ImagingParameters<E extends ImagingParameters<E>> {
      */
     private PixelDensity pixelDensity;
 
+    /**
+     * Supplies the pixel and sample arrays of decoders. Default is {@code null}, allocating new arrays.
+     */
+    private PixelBufferPool pixelBufferPool;
+
+    /**
+     * Receives the timings of the phases of decoding. Default is {@code null}, not measuring anything.
+     */
+    private ImagingListener imagingListener;
+
     /**
      * Returns this instance typed as the subclass type {@code E}.
      * <p>
@@ -77,6 +89,26 @@ public class ImagingParameters<E extends ImagingParameters<E>> {
         return fileName;
     }
 
+    /**
+     * Gets the listener that receives the timings of the phases of decoding.
+     *
+     * @return the listener, or {@code null} if decoders do not measure their phases.
+     * @since 1.0.0-alpha6
+     */
+    public ImagingListener getImagingListener() {
+        return imagingListener;
+    }
+
+    /**
+     * Gets the pool that decoders draw their pixel and sample arrays from.
+     *
+     * @return the pool, or {@code null} if decoders allocate new arrays.
+     * @since 1.0.0-alpha6
+     */
+    public PixelBufferPool getPixelBufferPool() {
+        return pixelBufferPool;
+    }
+
     public PixelDensity getPixelDensity() {
         return pixelDensity;
     }
@@ -95,6 +127,31 @@ public class ImagingParameters<E extends ImagingParameters<E>> {
         return asThis();
     }
 
+    /**
+     * Sets the listener that receives the timings of the phases of decoding.
+     *
+     * @param imagingListener the listener, or {@code null} to not measure anything.
+     * @return this instance.
+     * @since 1.0.0-alpha6
+     */
+    public E setImagingListener(final ImagingListener imagingListener) {
+        this.imagingListener = imagingListener;
+        return asThis();
+    }
+
+    /**
+     * Sets the pool that decoders draw their pixel and sample arrays from. The BMP, GIF, JPEG, PNM and TIFF decoders use it for the pixels of the decoded
+     * image and for their temporary arrays.
+     *
+     * @param pixelBufferPool the pool, or {@code null} to allocate new arrays.
+     * @return this instance.
+     * @since 1.0.0-alpha6
+     */
+    public E setPixelBufferPool(final PixelBufferPool pixelBufferPool) {
+        this.pixelBufferPool = pixelBufferPool;
+        return asThis();
+    }
+
     public E setPixelDensity(final PixelDensity pixelDensity) {
         this.pixelDensity = pixelDensity;
         return asThis();
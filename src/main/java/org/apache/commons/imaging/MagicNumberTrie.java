@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging;
+
+/**
+ * Matches the first bytes of image data against the magic numbers of {@link ImageFormats}, compiled into a byte trie.
+ *
+ * <p>
+ * Matching follows one path per header byte, backtracking only at {@link #ANY} bytes, so its cost does not grow with the number of formats.
+ * </p>
+ */
+final class MagicNumberTrie {
+
+    /** Matches any value in a magic number. */
+    static final int ANY = -1;
+
+    private static final class Node {
+
+        // children by unsigned byte value, allocated on first use
+        private Node[] next;
+        // child for ANY
+        private Node any;
+        // the format whose magic number ends here
+        private ImageFormat format;
+
+        private Node add(final int value) {
+            if (value == ANY) {
+                if (any == null) {
+                    any = new Node();
+                }
+                return any;
+            }
+            if (next == null) {
+                next = new Node[256];
+            }
+            if (next[value] == null) {
+                next[value] = new Node();
+            }
+            return next[value];
+        }
+    }
+
+    /**
+     * Matches a node and its children.
+     *
+     * @return the matched format, {@link ImageFormats#UNKNOWN} if nothing matches, or null if the header ends before a magic number could be matched.
+     */
+    private static ImageFormat match(final Node node, final byte[] header, final int length, final int index) {
+        if (node.format != null) {
+            return node.format;
+        }
+        if (index == length) {
+            return null;
+        }
+        ImageFormat result = ImageFormats.UNKNOWN;
+        if (node.next != null && node.next[header[index] & 0xff] != null) {
+            result = match(node.next[header[index] & 0xff], header, length, index + 1);
+            if (result != null && result != ImageFormats.UNKNOWN) {
+                return result;
+            }
+        }
+        if (node.any != null) {
+            final ImageFormat format = match(node.any, header, length, index + 1);
+            if (format != ImageFormats.UNKNOWN) {
+                return format;
+            }
+        }
+        return result;
+    }
+
+    private final Node root = new Node();
+
+    private final int maxLength;
+
+    /**
+     * Compiles the magic numbers of the given formats. When formats share a magic number, the first one wins.
+     *
+     * @param formats the formats to match.
+     */
+    MagicNumberTrie(final ImageFormats... formats) {
+        int max = 0;
+        for (final ImageFormats format : formats) {
+            for (final int[] magicNumber : format.getMagicNumbers()) {
+                Node node = root;
+                for (final int value : magicNumber) {
+                    node = node.add(value);
+                }
+                if (node.format == null) {
+                    node.format = format;
+                }
+                max = Math.max(max, magicNumber.length);
+            }
+        }
+        this.maxLength = max;
+    }
+
+    /**
+     * Gets the number of header bytes needed to match any of the magic numbers.
+     *
+     * @return the length of the longest magic number.
+     */
+    int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Matches the start of image data.
+     *
+     * @param header the first bytes of the data.
+     * @param length the number of valid bytes in {@code header}.
+     * @return the format whose magic number the data starts with, or {@link ImageFormats#UNKNOWN} if there is none.
+     * @throws IllegalArgumentException if the data ends in the middle of a magic number.
+     */
+    ImageFormat match(final byte[] header, final int length) {
+        final ImageFormat format = match(root, header, length, 0);
+        if (format == null) {
+            throw new IllegalArgumentException("Couldn't read magic numbers to guess format.");
+        }
+        return format;
+    }
+}
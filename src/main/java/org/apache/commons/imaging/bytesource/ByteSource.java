@@ -19,9 +19,13 @@ package org.apache.commons.imaging.bytesource;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Objects;
 
+import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.BinaryFunctions;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.build.AbstractOrigin;
@@ -39,6 +43,30 @@ public class ByteSource {
         return new ByteSource(new ByteArrayOrigin(array), name);
     }
 
+    /**
+     * Creates a byte source that opens a file once and reads it with positional reads until it is closed.
+     *
+     * @param file the file to read.
+     * @return a byte source over the file, to be closed by the caller.
+     * @see FileChannelByteSource
+     * @since 1.0.0-alpha6
+     */
+    public static FileChannelByteSource channel(final File file) {
+        return new FileChannelByteSource(file.toPath());
+    }
+
+    /**
+     * Creates a byte source that opens a file once and reads it with positional reads until it is closed.
+     *
+     * @param file the file to read.
+     * @return a byte source over the file, to be closed by the caller.
+     * @see FileChannelByteSource
+     * @since 1.0.0-alpha6
+     */
+    public static FileChannelByteSource channel(final Path file) {
+        return new FileChannelByteSource(file);
+    }
+
     public static ByteSource file(final File file) {
         return new ByteSource(new FileOrigin(file), file.getName());
     }
@@ -62,6 +90,60 @@ public class ByteSource {
         return new InputStreamByteSource(is, name);
     }
 
+    /**
+     * Creates a byte source that reads a stream once, caching it for random access.
+     *
+     * <p>
+     * At most {@code memoryLimit} bytes of the stream are kept on the heap; the rest is cached in a temporary file. The byte source implements
+     * {@link java.io.Closeable}; closing it closes and deletes the temporary file.
+     * </p>
+     *
+     * @param is          the stream to read.
+     * @param name        the file name of the stream, may be null.
+     * @param memoryLimit the number of bytes to cache on the heap at most.
+     * @return a byte source over the stream.
+     * @since 1.0.0-alpha6
+     */
+    public static ByteSource inputStream(final InputStream is, final String name, final long memoryLimit) {
+        if (memoryLimit < 0) {
+            throw new IllegalArgumentException("Invalid memory limit " + memoryLimit + ", must not be negative");
+        }
+        return new InputStreamByteSource(is, name, memoryLimit);
+    }
+
+    /**
+     * Creates a byte source that maps a file into memory.
+     *
+     * <p>
+     * Random access reads such as {@link #getByteArray(long, int)} then no longer open the file, which helps formats like TIFF that read many strips or
+     * tiles scattered over the file. Files larger than 2 GB are mapped in several windows.
+     * </p>
+     * <p>
+     * On some platforms a mapped file cannot be deleted or written until the mapping has been garbage collected.
+     * </p>
+     *
+     * @param file the file to map.
+     * @return a byte source over the mapped file.
+     * @throws IOException if the file cannot be opened or mapped.
+     * @since 1.0.0-alpha6
+     */
+    public static ByteSource mapped(final File file) throws IOException {
+        return mapped(file.toPath());
+    }
+
+    /**
+     * Creates a byte source that maps a file into memory.
+     *
+     * @param file the file to map.
+     * @return a byte source over the mapped file.
+     * @throws IOException if the file cannot be opened or mapped.
+     * @see #mapped(File)
+     * @since 1.0.0-alpha6
+     */
+    public static ByteSource mapped(final Path file) throws IOException {
+        return new MappedFileByteSource(file);
+    }
+
     public static ByteSource path(final Path file) {
         return new ByteSource(new PathOrigin(file), Objects.toString(file.getFileName(), null));
     }
@@ -78,6 +160,38 @@ public class ByteSource {
         return origin.getByteArray(position, length);
     }
 
+    /**
+     * Opens the file of a file or path byte source once for a series of reads, such as the chunks of a PNG file or the directories of a TIFF file. Reads
+     * from a file or path byte source itself open the file every time.
+     *
+     * @return a byte source over the same file, which the caller must close, or null if this byte source does not open a file for every read.
+     * @since 1.0.0-alpha6
+     */
+    public FileChannelByteSource openChannel() {
+        if (origin instanceof FileOrigin || origin instanceof PathOrigin) {
+            return new FileChannelByteSource(origin.getPath());
+        }
+        return null;
+    }
+
+    /**
+     * Gets a range of bytes as a buffer.
+     *
+     * <p>
+     * Byte sources over mapped files return a read-only view of the mapping without copying the bytes; others wrap the result of
+     * {@link #getByteArray(long, int)}.
+     * </p>
+     *
+     * @param position the offset of the first byte.
+     * @param length   the number of bytes.
+     * @return a buffer holding the bytes between its position and limit.
+     * @throws IOException if the range cannot be read.
+     * @since 1.0.0-alpha6
+     */
+    public ByteBuffer getByteBuffer(final long position, final int length) throws IOException {
+        return ByteBuffer.wrap(getByteArray(position, length));
+    }
+
     public final String getFileName() {
         return fileName;
     }
@@ -86,6 +200,74 @@ public class ByteSource {
         return origin.getInputStream();
     }
 
+    /**
+     * Reads bytes at a position into a buffer, like {@link FileChannel#read(ByteBuffer, long)}.
+     *
+     * <p>
+     * Unlike {@link #getByteArray(long, int)}, this does not allocate, so callers can reuse one buffer for many reads. File and path byte sources open the
+     * file for every read, see {@link #openChannel()} for a series of reads.
+     * </p>
+     *
+     * @param position the offset of the first byte to read.
+     * @param dst      receives the bytes from its position, up to its limit or the end of the data.
+     * @return the number of bytes read, -1 if the position is at or after the end of the data.
+     * @throws IOException if the bytes cannot be read.
+     * @since 1.0.0-alpha6
+     */
+    public int read(final long position, final ByteBuffer dst) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("Negative position " + position);
+        }
+        if (origin instanceof FileOrigin || origin instanceof PathOrigin) {
+            try (FileChannel channel = FileChannel.open(origin.getPath(), StandardOpenOption.READ)) {
+                int total = 0;
+                while (dst.hasRemaining()) {
+                    final int read = channel.read(dst, position + total);
+                    if (read < 0) {
+                        return total == 0 ? -1 : total;
+                    }
+                    total += read;
+                }
+                return total;
+            }
+        }
+        final long size = size();
+        if (position >= size) {
+            return -1;
+        }
+        final int length = (int) Math.min(dst.remaining(), size - position);
+        if (origin instanceof ByteArrayOrigin) {
+            dst.put(origin.getByteArray(), (int) position, length);
+        } else {
+            dst.put(getByteArray(position, length));
+        }
+        return length;
+    }
+
+    /**
+     * Reads exactly {@code length} bytes at a position into an array.
+     *
+     * @param position the offset of the first byte to read.
+     * @param dst      receives the bytes.
+     * @param offset   the index in {@code dst} of the first byte.
+     * @param length   the number of bytes to read.
+     * @throws ImagingException if the data ends before {@code position + length}.
+     * @throws IOException      if the bytes cannot be read.
+     * @since 1.0.0-alpha6
+     */
+    public void readInto(final long position, final byte[] dst, final int offset, final int length) throws IOException {
+        if (position < 0 || length < 0 || position + length < 0) {
+            throw new ImagingException("Could not read block (block start: " + position + ", block length: " + length + ").");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(dst, offset, length);
+        while (buffer.hasRemaining()) {
+            if (read(position + buffer.position() - offset, buffer) < 0) {
+                throw new ImagingException(
+                        "Could not read block (block start: " + position + ", block length: " + length + ", data length: " + size() + ").");
+            }
+        }
+    }
+
     /**
      * This operation can be VERY expensive; for InputStream byte sources, the entire stream must be drained to determine its length.
      *
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.bytesource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
+import org.apache.commons.io.build.AbstractOrigin.PathOrigin;
+
+/**
+ * A file that is opened once and then read with positional reads, by {@link #getByteArray(long, int)}, {@link #read(long, ByteBuffer)} and every stream
+ * from {@link #getInputStream()} alike.
+ *
+ * <p>
+ * The start of the file is read ahead once and kept, so that format detection and the headers that parsers read first don't read the file again. This
+ * matters for files on file systems where every open or read is a round trip, such as object stores.
+ * </p>
+ * <p>
+ * {@link #close()} closes the file, reads after that fail. If a thread is interrupted while it reads, the file channel is closed under every thread that uses
+ * it; the next read opens the file again.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+public final class FileChannelByteSource extends ByteSource implements Closeable {
+
+    private final class ChannelInputStream extends InputStream {
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private long bufferStart;
+        private int bufferLength;
+        private long position;
+        private long mark;
+
+        private boolean fill() throws IOException {
+            if (position >= bufferStart && position < bufferStart + bufferLength) {
+                return true;
+            }
+            bufferStart = position;
+            bufferLength = Math.max(0, FileChannelByteSource.this.read(position, ByteBuffer.wrap(buffer)));
+            return bufferLength > 0;
+        }
+
+        @Override
+        public synchronized void mark(final int readLimit) {
+            mark = position;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return 0xff & buffer[(int) (position++ - bufferStart)];
+        }
+
+        @Override
+        public int read(final byte[] array, final int off, final int len) throws IOException {
+            Objects.requireNonNull(array, "array");
+            if (off < 0 || len < 0 || len > array.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (len >= BUFFER_SIZE && (position < bufferStart || position >= bufferStart + bufferLength)) {
+                // large reads go straight to the file
+                final int read = FileChannelByteSource.this.read(position, ByteBuffer.wrap(array, off, len));
+                if (read > 0) {
+                    position += read;
+                }
+                return read;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            final int offset = (int) (position - bufferStart);
+            final int count = Math.min(len, bufferLength - offset);
+            System.arraycopy(buffer, offset, array, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public synchronized void reset() {
+            position = mark;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = Math.max(0, Math.min(n, size() - position));
+            position += skipped;
+            return skipped;
+        }
+    }
+
+    /** The number of bytes read ahead from the start of the file. */
+    static final int HEADER_SIZE = 8192;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path path;
+    private FileChannel channel;
+    private boolean closed;
+    private byte[] header;
+    private long size = -1;
+
+    FileChannelByteSource(final Path path) {
+        super(new PathOrigin(path), Objects.toString(path.getFileName(), null));
+        this.path = path;
+    }
+
+    private synchronized void checkOpen() throws ClosedChannelException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private synchronized FileChannel getChannel() throws IOException {
+        checkOpen();
+        if (channel == null || !channel.isOpen()) {
+            // a channel closed by an interrupted read is discarded
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            size = channel.size();
+        }
+        return channel;
+    }
+
+    /**
+     * Closes the file. Reading this byte source after that throws a {@link ClosedChannelException}.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+            }
+        }
+    }
+
+    @Override
+    public byte[] getByteArray(final long position, final int length) throws IOException {
+        // We include a separate check for int overflow.
+        if (position < 0 || length < 0 || position + length < 0 || position + length > size()) {
+            throw new ImagingException("Could not read block (block start: " + position + ", block length: " + length + ", data length: " + size + ").");
+        }
+        final byte[] bytes = Allocator.byteArray(length);
+        readInto(position, bytes, 0, length);
+        return bytes;
+    }
+
+    private synchronized byte[] getHeader() throws IOException {
+        if (header == null) {
+            final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(HEADER_SIZE, size()));
+            while (buffer.hasRemaining() && getChannel().read(buffer, buffer.position()) >= 0) {
+                // keep reading
+            }
+            header = buffer.position() == buffer.capacity() ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+        }
+        return header;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new ChannelInputStream();
+    }
+
+    /**
+     * Returns null, the file is already open.
+     *
+     * @return null.
+     */
+    @Override
+    public FileChannelByteSource openChannel() {
+        return null;
+    }
+
+    @Override
+    public int read(final long position, final ByteBuffer dst) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("Negative position " + position);
+        }
+        checkOpen();
+        int total = 0;
+        final byte[] header = getHeader();
+        if (position < header.length) {
+            total = Math.min(dst.remaining(), header.length - (int) position);
+            dst.put(header, (int) position, total);
+        }
+        FileChannel channel = dst.hasRemaining() ? getChannel() : null;
+        while (dst.hasRemaining()) {
+            final int read;
+            try {
+                read = channel.read(dst, position + total);
+            } catch (final AsynchronousCloseException e) {
+                // another thread was interrupted while it read from the shared channel, read on from a new one
+                if (e instanceof ClosedByInterruptException) {
+                    throw e;
+                }
+                channel = getChannel();
+                continue;
+            }
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total == 0 && position >= size() ? -1 : total;
+    }
+
+    @Override
+    public synchronized long size() throws IOException {
+        if (size < 0) {
+            getChannel();
+        }
+        return size;
+    }
+
+}
@@ -16,180 +16,243 @@
  */
 package org.apache.commons.imaging.bytesource;
 
-import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.Allocator;
-import org.apache.commons.imaging.common.BinaryFunctions;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.build.AbstractOrigin.InputStreamOrigin;
 
-final class InputStreamByteSource extends ByteSource {
-
-    private final class Block {
+/**
+ * Caches an input stream in fixed size blocks as it is read, so that it can be read again and at random positions.
+ *
+ * <p>
+ * Block {@code i} holds the bytes from {@code i * BLOCK_SIZE}, so any position is found without walking the blocks before it, and the stream is only read
+ * as far as needed. Once the blocks held in memory reach the memory limit, further blocks are written to a temporary file instead.
+ * </p>
+ * <p>
+ * {@link #close()} deletes the temporary file and drops the cached blocks, reads after that fail. The stream itself is left open.
+ * </p>
+ */
+final class InputStreamByteSource extends ByteSource implements Closeable {
 
-        final byte[] bytes;
-        private Block next;
-        private boolean triedNext;
+    private final class BlockInputStream extends InputStream {
 
-        Block(final byte[] bytes) {
-            this.bytes = bytes;
-        }
+        private long position;
+        private long mark;
+        // the block holding the bytes from blockStart, null if not loaded yet
+        private byte[] block;
+        private long blockStart;
+        private int blockLength;
+        private byte[] spillBuffer;
 
-        Block getNext() throws IOException {
-            if (null != next) {
-                return next;
+        /**
+         * Loads the block holding the current position.
+         *
+         * @return false at the end of the stream.
+         */
+        private boolean loadBlock() throws IOException {
+            if (block != null && position >= blockStart && position < blockStart + blockLength) {
+                return true;
             }
-            if (triedNext) {
-                return null;
+            final int index = (int) (position / BLOCK_SIZE);
+            if (spillBuffer == null && memoryLimit != Long.MAX_VALUE) {
+                spillBuffer = new byte[BLOCK_SIZE];
+            }
+            block = getBlock(index, spillBuffer);
+            if (block == null) {
+                return false;
             }
-            triedNext = true;
-            next = readBlock();
-            return next;
+            blockStart = (long) index * BLOCK_SIZE;
+            blockLength = getBlockLength(index);
+            return position < blockStart + blockLength;
         }
 
-    }
+        @Override
+        public synchronized void mark(final int readLimit) {
+            mark = position;
+        }
 
-    private final class BlockInputStream extends InputStream {
-        private Block block;
-        private boolean readFirst;
-        private int blockIndex;
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
 
         @Override
         public int read() throws IOException {
-            if (null == block) {
-                if (readFirst) {
-                    return -1;
-                }
-                block = getFirstBlock();
-                readFirst = true;
-            }
-            if (block != null && blockIndex >= block.bytes.length) {
-                block = block.getNext();
-                blockIndex = 0;
-            }
-            if (null == block) {
-                return -1;
-            }
-            if (blockIndex >= block.bytes.length) {
+            if (!loadBlock()) {
                 return -1;
             }
-            return 0xff & block.bytes[blockIndex++];
+            return 0xff & block[(int) (position++ - blockStart)];
         }
 
         @Override
         public int read(final byte[] array, final int off, final int len) throws IOException {
-            // first section copied verbatim from InputStream
             Objects.requireNonNull(array, "array");
-            if (off < 0 || off > array.length || len < 0 || off + len > array.length || off + len < 0) {
+            if (off < 0 || len < 0 || len > array.length - off) {
                 throw new IndexOutOfBoundsException();
             }
             if (len == 0) {
                 return 0;
             }
-            // optimized block read
-            if (null == block) {
-                if (readFirst) {
-                    return -1;
-                }
-                block = getFirstBlock();
-                readFirst = true;
-            }
-            if (block != null && blockIndex >= block.bytes.length) {
-                block = block.getNext();
-                blockIndex = 0;
-            }
-            if (null == block) {
-                return -1;
-            }
-            if (blockIndex >= block.bytes.length) {
+            if (!loadBlock()) {
                 return -1;
             }
-            final int readSize = Math.min(len, block.bytes.length - blockIndex);
-            System.arraycopy(block.bytes, blockIndex, array, off, readSize);
-            blockIndex += readSize;
+            final int offset = (int) (position - blockStart);
+            final int readSize = Math.min(len, blockLength - offset);
+            System.arraycopy(block, offset, array, off, readSize);
+            position += readSize;
             return readSize;
         }
 
+        @Override
+        public synchronized void reset() {
+            position = mark;
+        }
+
         @Override
         public long skip(final long n) throws IOException {
-            long remaining = n;
             if (n <= 0) {
                 return 0;
             }
-            while (remaining > 0) {
-                // read the first block
-                if (null == block) {
-                    if (readFirst) {
-                        return -1;
-                    }
-                    block = getFirstBlock();
-                    readFirst = true;
-                }
-                // get next block
-                if (block != null && blockIndex >= block.bytes.length) {
-                    block = block.getNext();
-                    blockIndex = 0;
-                }
-                if (null == block) {
-                    break;
-                }
-                if (blockIndex >= block.bytes.length) {
-                    break;
-                }
-                final int readSize = Math.min((int) Math.min(BLOCK_SIZE, remaining), block.bytes.length - blockIndex);
-                blockIndex += readSize;
-                remaining -= readSize;
+            final long skipped = Math.min(n, cache(position + n) - position);
+            if (skipped <= 0) {
+                return 0;
             }
-            return n - remaining;
+            position += skipped;
+            return skipped;
         }
 
     }
 
-    private static final int BLOCK_SIZE = IOUtils.DEFAULT_BUFFER_SIZE;
+    static final int BLOCK_SIZE = IOUtils.DEFAULT_BUFFER_SIZE;
+
     private final InputStream inputStream;
-    private Block headBlock;
-    private byte[] readBuffer;
-    private long streamLength = -1;
+    private final long memoryLimit;
+    // the blocks read so far, null for blocks written to the spill file
+    private final List<byte[]> blocks = new ArrayList<>();
+    private long memoryUsed;
+    private long cachedLength;
+    private boolean endOfStream;
+    private FileChannel spillChannel;
+    private int firstSpilledBlock;
+    private boolean closed;
 
     InputStreamByteSource(final InputStream inputStream, final String fileName) {
+        this(inputStream, fileName, Long.MAX_VALUE);
+    }
+
+    InputStreamByteSource(final InputStream inputStream, final String fileName, final long memoryLimit) {
         super(new InputStreamOrigin(inputStream), fileName);
-        this.inputStream = new BufferedInputStream(inputStream);
+        this.inputStream = inputStream;
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Reads the stream up to an offset, or to its end if that comes first.
+     *
+     * @return the number of bytes cached, at least {@code end} unless the stream is shorter.
+     */
+    private synchronized long cache(final long end) throws IOException {
+        checkOpen();
+        while (cachedLength < end && readBlock()) {
+            // keep reading
+        }
+        return cachedLength;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    /**
+     * Closes the temporary file holding the spilled blocks, which deletes it, and drops the cached blocks.
+     *
+     * @throws IOException if the temporary file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        blocks.clear();
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } finally {
+                spillChannel = null;
+            }
+        }
+    }
+
+    /**
+     * Copies cached bytes.
+     */
+    private void copy(final long position, final ByteBuffer dst, final int count) throws IOException {
+        long pos = position;
+        int remaining = count;
+        while (remaining > 0) {
+            final int index = (int) (pos / BLOCK_SIZE);
+            final int offset = (int) (pos % BLOCK_SIZE);
+            final int n = Math.min(remaining, getBlockLength(index) - offset);
+            final byte[] block = blocks.get(index);
+            if (block != null) {
+                dst.put(block, offset, n);
+            } else {
+                readSpilled(index, offset, dst, n);
+            }
+            pos += n;
+            remaining -= n;
+        }
     }
 
-    @SuppressWarnings("resource") // accesses input stream more than once, don't close here.
     @Override
-    public byte[] getByteArray(final long position, final int length) throws IOException {
+    public synchronized byte[] getByteArray(final long position, final int length) throws IOException {
         // We include a separate check for int overflow.
-        if (position < 0 || length < 0 || position + length < 0 || position + length > size()) {
-            throw new ImagingException(
-                    "Could not read block (block start: " + position + ", block length: " + length + ", data length: " + streamLength + ").");
+        if (position < 0 || length < 0 || position + length < 0 || position + length > cache(position + length)) {
+            throw new ImagingException("Could not read block (block start: " + position + ", block length: " + length + ", data length: "
+                    + (endOfStream ? cachedLength : -1) + ").");
         }
-        final InputStream cis = getInputStream();
-        BinaryFunctions.skipBytes(cis, position);
         final byte[] bytes = Allocator.byteArray(length);
-        int total = 0;
-        while (true) {
-            final int read = cis.read(bytes, total, bytes.length - total);
-            if (read < 1) {
-                throw new ImagingException("Could not read block.");
-            }
-            total += read;
-            if (total >= length) {
-                return bytes;
+        copy(position, ByteBuffer.wrap(bytes), length);
+        return bytes;
+    }
+
+    /**
+     * Gets a block, reading the stream up to it if needed.
+     *
+     * @param index       the block index.
+     * @param spillBuffer receives the block if it was spilled to disk.
+     * @return the block, or null if the stream ends before it.
+     */
+    private synchronized byte[] getBlock(final int index, final byte[] spillBuffer) throws IOException {
+        checkOpen();
+        while (blocks.size() <= index) {
+            if (!readBlock()) {
+                return null;
             }
         }
+        final byte[] block = blocks.get(index);
+        if (block != null) {
+            return block;
+        }
+        readSpilled(index, 0, ByteBuffer.wrap(spillBuffer), getBlockLength(index));
+        return spillBuffer;
     }
 
-    private Block getFirstBlock() throws IOException {
-        if (null == headBlock) {
-            headBlock = readBlock();
-        }
-        return headBlock;
+    private int getBlockLength(final int index) {
+        return (int) Math.min(BLOCK_SIZE, cachedLength - (long) index * BLOCK_SIZE);
     }
 
     @Override
@@ -197,32 +260,79 @@ final class InputStreamByteSource extends ByteSource {
         return new BlockInputStream();
     }
 
-    private Block readBlock() throws IOException {
-        if (null == readBuffer) {
-            readBuffer = new byte[BLOCK_SIZE];
+    private boolean readBlock() throws IOException {
+        if (endOfStream) {
+            return false;
+        }
+        // only the last block may be short, so that block i always starts at i * BLOCK_SIZE
+        final byte[] block = new byte[BLOCK_SIZE];
+        final int read = IOUtils.read(inputStream, block);
+        if (read < BLOCK_SIZE) {
+            endOfStream = true;
+            if (read < 1) {
+                return false;
+            }
+        }
+        if (memoryUsed + BLOCK_SIZE <= memoryLimit) {
+            blocks.add(block);
+            memoryUsed += BLOCK_SIZE;
+        } else {
+            spill(block, read);
+            blocks.add(null);
+        }
+        cachedLength += read;
+        return true;
+    }
+
+    private void readSpilled(final int index, final int offset, final ByteBuffer dst, final int count) throws IOException {
+        final int limit = dst.limit();
+        dst.limit(dst.position() + count);
+        long filePosition = (long) (index - firstSpilledBlock) * BLOCK_SIZE + offset;
+        while (dst.hasRemaining()) {
+            final int read = spillChannel.read(dst, filePosition);
+            if (read < 0) {
+                throw new ImagingException("Could not read block from spill file.");
+            }
+            filePosition += read;
         }
+        dst.limit(limit);
+    }
 
-        final int read = inputStream.read(readBuffer);
-        if (read < 1) {
-            return null;
+    @Override
+    public synchronized int read(final long position, final ByteBuffer dst) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("Negative position " + position);
         }
-        if (read < BLOCK_SIZE) {
-            // return a copy.
-            return new Block(Arrays.copyOf(readBuffer, read));
+        final long end = cache(position + Math.min(dst.remaining(), Long.MAX_VALUE - position));
+        if (position >= end) {
+            return -1;
         }
-        // return current buffer.
-        final byte[] result = readBuffer;
-        readBuffer = null;
-        return new Block(result);
+        final int count = (int) Math.min(dst.remaining(), end - position);
+        copy(position, dst, count);
+        return count;
     }
 
     @Override
     public long size() throws IOException {
-        if (streamLength >= 0) {
-            return streamLength;
+        return cache(Long.MAX_VALUE);
+    }
+
+    private void spill(final byte[] block, final int length) throws IOException {
+        if (spillChannel == null) {
+            final Path spillFile = Files.createTempFile("imaging-", ".tmp");
+            spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            firstSpilledBlock = blocks.size();
+            try {
+                // on most platforms the open channel keeps the data after the file is deleted
+                Files.deleteIfExists(spillFile);
+            } catch (final IOException e) {
+                // deleted when the channel is closed
+            }
         }
-        try (InputStream cis = getInputStream()) {
-            return streamLength = IOUtils.consume(cis);
+        final ByteBuffer buffer = ByteBuffer.wrap(block, 0, length);
+        long filePosition = (long) (blocks.size() - firstSpilledBlock) * BLOCK_SIZE;
+        while (buffer.hasRemaining()) {
+            filePosition += spillChannel.write(buffer, filePosition);
         }
     }
 
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.bytesource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
+import org.apache.commons.io.build.AbstractOrigin.PathOrigin;
+
+/**
+ * A file mapped into memory, read without any system call once mapped.
+ *
+ * <p>
+ * A single mapping is limited to 2 GB, so larger files are mapped as consecutive windows. Each window also maps some of the bytes of the next one, so that
+ * buffers of up to that overlap can always be sliced out of a single window without copying.
+ * </p>
+ */
+final class MappedFileByteSource extends ByteSource {
+
+    private final class MappedInputStream extends InputStream {
+
+        private long position;
+        private long mark;
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, length - position);
+        }
+
+        @Override
+        public synchronized void mark(final int readLimit) {
+            mark = position;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public int read() {
+            if (position >= length) {
+                return -1;
+            }
+            final int b = 0xff & windows[(int) (position / windowStride)].get((int) (position % windowStride));
+            position++;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] array, final int off, final int len) {
+            if (off < 0 || len < 0 || len > array.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= length) {
+                return -1;
+            }
+            final int count = (int) Math.min(len, length - position);
+            copy(position, ByteBuffer.wrap(array, off, count), count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public synchronized void reset() {
+            position = mark;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final long skipped = Math.max(0, Math.min(n, length - position));
+            position += skipped;
+            return skipped;
+        }
+    }
+
+    /** Distance between the starts of consecutive windows. */
+    static final long WINDOW_STRIDE = 1L << 30;
+
+    /** Bytes of the next window also mapped by each window. */
+    static final int WINDOW_OVERLAP = 1 << 28;
+
+    private final long length;
+    private final long windowStride;
+    private final MappedByteBuffer[] windows;
+
+    MappedFileByteSource(final Path path) throws IOException {
+        this(path, WINDOW_STRIDE, WINDOW_OVERLAP);
+    }
+
+    MappedFileByteSource(final Path path, final long windowStride, final int windowOverlap) throws IOException {
+        super(new PathOrigin(path), Objects.toString(path.getFileName(), null));
+        this.windowStride = windowStride;
+        // the mappings stay valid after the channel is closed, until they are garbage collected
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.length = channel.size();
+            final int windowCount = (int) Math.max(1, (length + windowStride - 1) / windowStride);
+            this.windows = new MappedByteBuffer[windowCount];
+            for (int i = 0; i < windowCount; i++) {
+                final long start = i * windowStride;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowStride + windowOverlap, length - start));
+            }
+        }
+    }
+
+    private void checkRange(final long position, final int length) throws ImagingException {
+        // We include a separate check for int overflow.
+        if (position < 0 || length < 0 || position + length < 0 || position + length > this.length) {
+            throw new ImagingException(
+                    "Could not read block (block start: " + position + ", block length: " + length + ", data length: " + this.length + ").");
+        }
+    }
+
+    /**
+     * Copies bytes that may span several windows.
+     */
+    private void copy(final long position, final ByteBuffer dst, final int count) {
+        long pos = position;
+        int remaining = count;
+        while (remaining > 0) {
+            final ByteBuffer window = windows[(int) (pos / windowStride)].duplicate();
+            final int start = (int) (pos % windowStride);
+            final int n = Math.min(remaining, window.limit() - start);
+            window.position(start);
+            window.limit(start + n);
+            dst.put(window);
+            pos += n;
+            remaining -= n;
+        }
+    }
+
+    @Override
+    public byte[] getByteArray(final long position, final int length) throws IOException {
+        checkRange(position, length);
+        final byte[] bytes = Allocator.byteArray(length);
+        copy(position, ByteBuffer.wrap(bytes), length);
+        return bytes;
+    }
+
+    /**
+     * Gets a read-only slice of the mapped file, which only copies the bytes if they span two windows further than the overlap of the windows.
+     */
+    @Override
+    public ByteBuffer getByteBuffer(final long position, final int length) throws IOException {
+        checkRange(position, length);
+        final ByteBuffer window = windows[(int) (position / windowStride)];
+        final int start = (int) (position % windowStride);
+        if (start + length <= window.limit()) {
+            final ByteBuffer slice = window.duplicate();
+            slice.position(start);
+            slice.limit(start + length);
+            return slice.slice().asReadOnlyBuffer();
+        }
+        return ByteBuffer.wrap(getByteArray(position, length)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new MappedInputStream();
+    }
+
+    /**
+     * Returns null, the file is already mapped.
+     *
+     * @return null.
+     */
+    @Override
+    public FileChannelByteSource openChannel() {
+        return null;
+    }
+
+    @Override
+    public int read(final long position, final ByteBuffer dst) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Negative position " + position);
+        }
+        if (position >= length) {
+            return -1;
+        }
+        final int count = (int) Math.min(dst.remaining(), length - position);
+        copy(position, dst, count);
+        return count;
+    }
+
+    @Override
+    public long size() {
+        return length;
+    }
+}
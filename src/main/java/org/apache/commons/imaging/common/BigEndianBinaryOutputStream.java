@@ -47,4 +47,16 @@ final class BigEndianBinaryOutputStream extends BinaryOutputStream {
         write(0xff & value);
     }
 
+    @Override
+    public void write8Bytes(final long value) throws IOException {
+        write((int) (0xff & value >> 56));
+        write((int) (0xff & value >> 48));
+        write((int) (0xff & value >> 40));
+        write((int) (0xff & value >> 32));
+        write((int) (0xff & value >> 24));
+        write((int) (0xff & value >> 16));
+        write((int) (0xff & value >> 8));
+        write((int) (0xff & value));
+    }
+
 }
@@ -54,4 +54,13 @@ public abstract class BinaryOutputStream extends FilterOutputStream {
     public abstract void write3Bytes(int value) throws IOException;
 
     public abstract void write4Bytes(int value) throws IOException;
+
+    /**
+     * Writes an eight-byte integer in the byte order of this stream.
+     *
+     * @param value the value to write.
+     * @throws IOException if an I/O error occurs.
+     * @since 1.0.0-alpha6
+     */
+    public abstract void write8Bytes(long value) throws IOException;
 }
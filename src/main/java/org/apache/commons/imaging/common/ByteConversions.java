@@ -164,6 +164,22 @@ public final class ByteConversions {
         }
     }
 
+    /**
+     * Encodes an array of eight-byte integers into an array of bytes based on the specified byte order.
+     *
+     * @param values    an array of zero or more long integers
+     * @param byteOrder the byte order to be used for encoding
+     * @return an array of 8 bytes per value
+     * @since 1.0.0-alpha6
+     */
+    public static byte[] toBytes(final long[] values, final ByteOrder byteOrder) {
+        final byte[] result = Allocator.byteArray(values.length * 8L);
+        for (int i = 0; i < values.length; i++) {
+            toBytes(values[i], byteOrder, result, i * 8);
+        }
+        return result;
+    }
+
     public static byte[] toBytes(final RationalNumber value, final ByteOrder byteOrder) {
         final byte[] result = new byte[8];
         toBytes(value, byteOrder, result, 0);
@@ -331,7 +347,16 @@ public final class ByteConversions {
         return toLong(bytes, 0, byteOrder);
     }
 
-    private static long toLong(final byte[] bytes, final int offset, final ByteOrder byteOrder) {
+    /**
+     * Gets an eight-byte signed integer from the specified array of bytes.
+     *
+     * @param bytes     an array holding at least 8 bytes from the offset
+     * @param offset    the index of the first byte
+     * @param byteOrder the byte-order for interpreting the input bytes
+     * @return an eight-byte signed integer
+     * @since 1.0.0-alpha6
+     */
+    public static long toLong(final byte[] bytes, final int offset, final ByteOrder byteOrder) {
         final long byte0 = 0xffL & bytes[offset + 0];
         final long byte1 = 0xffL & bytes[offset + 1];
         final long byte2 = 0xffL & bytes[offset + 2];
@@ -59,6 +59,7 @@ public class ImageBuilder {
     private final int height;
     private final boolean hasAlpha;
     private final boolean isAlphaPremultiplied;
+    private final PixelBufferPool pixelBufferPool;
 
     /**
      * Constructs an ImageBuilder instance.
@@ -77,6 +78,7 @@ public class ImageBuilder {
         this.height = height;
         this.hasAlpha = hasAlpha;
         this.isAlphaPremultiplied = false;
+        this.pixelBufferPool = null;
     }
 
     /**
@@ -90,12 +92,30 @@ public class ImageBuilder {
      * @throws RasterFormatException if {@code width} or {@code height} are equal or less than zero
      */
     public ImageBuilder(final int width, final int height, final boolean hasAlpha, final boolean isAlphaPremultiplied) {
+        this(width, height, hasAlpha, isAlphaPremultiplied, null);
+    }
+
+    /**
+     * Constructs an ImageBuilder instance that takes its pixels from a pool.
+     *
+     * @param width                the width of the image to be built
+     * @param height               the height of the image to be built
+     * @param hasAlpha             indicates whether the image has an alpha channel (the selection of alpha channel does not change the memory requirements for
+     *                             the ImageBuilder or resulting BufferedImage.
+     * @param isAlphaPremultiplied indicates whether alpha values are pre-multiplied; this setting is relevant only if alpha is true.
+     * @param pixelBufferPool      the pool of the pixel array, or null to allocate a new array.
+     * @throws RasterFormatException if {@code width} or {@code height} are equal or less than zero
+     * @since 1.0.0-alpha6
+     */
+    public ImageBuilder(final int width, final int height, final boolean hasAlpha, final boolean isAlphaPremultiplied, final PixelBufferPool pixelBufferPool) {
         checkDimensions(width, height);
-        data = Allocator.intArray(width * height);
+        final int size = Allocator.check(width * height, Integer.BYTES);
+        data = pixelBufferPool != null ? pixelBufferPool.intArray(size) : new int[size];
         this.width = width;
         this.height = height;
         this.hasAlpha = hasAlpha;
         this.isAlphaPremultiplied = isAlphaPremultiplied;
+        this.pixelBufferPool = pixelBufferPool;
     }
 
     /**
@@ -218,7 +238,7 @@ public class ImageBuilder {
      */
     public ImageBuilder getSubset(final int x, final int y, final int w, final int h) {
         checkBounds(x, y, w, h);
-        final ImageBuilder b = new ImageBuilder(w, h, hasAlpha, isAlphaPremultiplied);
+        final ImageBuilder b = new ImageBuilder(w, h, hasAlpha, isAlphaPremultiplied, pixelBufferPool);
         for (int i = 0; i < h; i++) {
             final int srcDex = (i + y) * width + x;
             final int outDex = i * w;
@@ -251,6 +271,17 @@ public class ImageBuilder {
         return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), new Properties());
     }
 
+    /**
+     * Gives the pixel array back to the pool it was taken from, if there is one. The builder, and images created from it, must not be used afterwards.
+     *
+     * @since 1.0.0-alpha6
+     */
+    public void release() {
+        if (pixelBufferPool != null) {
+            pixelBufferPool.release(data);
+        }
+    }
+
     /**
      * Sets the RGB or ARGB value for the pixel at position (x,y) within the image builder pixel field. For performance reasons, no bounds checking is applied.
      *
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.common;
+
+import org.apache.commons.imaging.ImageFormat;
+
+/**
+ * Receives the timings of the phases of decoding images, for example to log them, to feed metrics, or to commit them as JDK Flight Recorder events.
+ *
+ * <p>
+ * A listener is set with {@link org.apache.commons.imaging.ImagingParameters#setImagingListener(ImagingListener)}. Decoders measure nothing when no
+ * listener is set. Once a decode has finished, the listener is called on the decoding thread once for each phase the decode went through, in the order
+ * of {@link ImagingPhase}; decodes that fail are not reported. Listeners shared by concurrent decodes must be thread-safe.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+@FunctionalInterface
+public interface ImagingListener {
+
+    /**
+     * Called when a decode has finished, once for each of its phases.
+     *
+     * @param format         the format of the image.
+     * @param phase          the phase.
+     * @param elapsedNanos   the time spent in the phase, in nanoseconds.
+     * @param bytesRead      the number of bytes of the encoded image read from its source in the phase.
+     * @param bytesAllocated the number of bytes the decoding thread allocated in the phase, or -1 if the JVM cannot measure it.
+     */
+    void phaseCompleted(ImageFormat format, ImagingPhase phase, long elapsedNanos, long bytesRead, long bytesAllocated);
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.common;
+
+/**
+ * The phases of decoding an image, as reported to an {@link ImagingListener}.
+ *
+ * <p>
+ * Not every format has every phase, and some formats interleave phases that others keep apart. A JPEG decoder, for example, converts the colors of each
+ * block right after decompressing it, so that work is part of {@link #DECOMPRESS}.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+public enum ImagingPhase {
+
+    /** Reading the headers and the metadata the decoder needs. */
+    HEADER,
+
+    /** Decompressing or decoding the image data. */
+    DECOMPRESS,
+
+    /** Undoing the prediction filters applied before compression, like those of PNG or the TIFF predictors. */
+    UNFILTER,
+
+    /** Converting the samples to ARGB pixels, including palettes and color spaces. */
+    COLOR_CONVERT,
+
+    /** Allocating the pixels and building the image from them. */
+    RASTER_BUILD
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.common;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Lets long running decoding loops stop part-way through when their thread is interrupted, for example when a future of
+ * {@link org.apache.commons.imaging.ImagingAsync} is cancelled.
+ *
+ * @since 1.0.0-alpha6
+ */
+public final class Interrupts {
+
+    /**
+     * Throws if the current thread has been interrupted. The interrupt status of the thread is left set.
+     *
+     * @throws InterruptedIOException if the current thread has been interrupted.
+     */
+    public static void check() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted while processing the image");
+        }
+    }
+
+    private Interrupts() {
+    }
+}
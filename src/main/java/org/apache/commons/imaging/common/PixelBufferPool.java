@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.common;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A pool of pixel and sample arrays that decoders draw from instead of allocating new arrays for every image.
+ *
+ * <p>
+ * Arrays are grouped in size classes, four per power of two, so an array handed out is at most 25% longer than requested and can be reused for any request
+ * of its class. Arrays are cleared before they are handed out. Requests shorter than {@value #MIN_POOLED_LENGTH} elements are not pooled, and released arrays
+ * are only kept while the pool holds less than its limit of bytes; the garbage collector takes the rest.
+ * </p>
+ * <p>
+ * Decoders release their temporary arrays themselves. The pixels of a decoded image belong to the caller, who may give them back with
+ * {@link #release(BufferedImage)} once the image is no longer used. Instances are thread-safe, so one pool can serve many concurrent decodes.
+ * </p>
+ *
+ * @see org.apache.commons.imaging.ImagingParameters#setPixelBufferPool(PixelBufferPool)
+ * @since 1.0.0-alpha6
+ */
+public final class PixelBufferPool {
+
+    /** The shortest array length that is pooled. */
+    public static final int MIN_POOLED_LENGTH = 4096;
+
+    // above this, the size classes would overflow an int
+    private static final int MAX_POOLED_LENGTH = 1 << 30;
+
+    /**
+     * Gets the length of the arrays of the size class of a request.
+     */
+    static int classLength(final int length) {
+        // 4, 5, 6, 7 or 8 times a power of two
+        final int shift = Math.max(0, 29 - Integer.numberOfLeadingZeros(length - 1));
+        return (length - 1 >> shift) + 1 << shift;
+    }
+
+    private static boolean isPooled(final int length) {
+        return length >= MIN_POOLED_LENGTH && length <= MAX_POOLED_LENGTH;
+    }
+
+    private final long maxRetainedBytes;
+
+    // all guarded by this
+    private final Map<Integer, ArrayDeque<byte[]>> byteArrays = new HashMap<>();
+    private final Map<Integer, ArrayDeque<int[]>> intArrays = new HashMap<>();
+    private long retainedBytes;
+
+    /**
+     * Constructs a pool.
+     *
+     * @param maxRetainedBytes the maximum number of bytes of the released arrays kept for reuse.
+     * @throws IllegalArgumentException if {@code maxRetainedBytes} is negative.
+     */
+    public PixelBufferPool(final long maxRetainedBytes) {
+        if (maxRetainedBytes < 0) {
+            throw new IllegalArgumentException("Invalid maximum of retained bytes " + maxRetainedBytes + ", must not be negative");
+        }
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * Gets a cleared byte array.
+     *
+     * @param length the minimum length.
+     * @return an array of at least {@code length} zero bytes.
+     * @throws AllocationRequestException if a new array would exceed the limit of {@link Allocator}.
+     */
+    public byte[] byteArray(final int length) {
+        if (!isPooled(length)) {
+            return Allocator.byteArray(length);
+        }
+        final int classLength = classLength(length);
+        final byte[] array = take(byteArrays, classLength, classLength);
+        if (array == null) {
+            return Allocator.byteArray(classLength);
+        }
+        Arrays.fill(array, 0, length, (byte) 0);
+        return array;
+    }
+
+    /**
+     * Gets the number of bytes of the released arrays currently kept for reuse.
+     *
+     * @return the number of bytes.
+     */
+    public synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Gets a cleared int array.
+     *
+     * @param length the minimum length.
+     * @return an array of at least {@code length} zeros.
+     * @throws AllocationRequestException if a new array would exceed the limit of {@link Allocator}.
+     */
+    public int[] intArray(final int length) {
+        if (!isPooled(length)) {
+            return Allocator.intArray(length);
+        }
+        final int classLength = classLength(length);
+        final int[] array = take(intArrays, classLength, (long) classLength * Integer.BYTES);
+        if (array == null) {
+            return Allocator.intArray(classLength);
+        }
+        Arrays.fill(array, 0, length, 0);
+        return array;
+    }
+
+    private synchronized <A> boolean put(final Map<Integer, ArrayDeque<A>> arrays, final A array, final int length, final long bytes) {
+        if (!isPooled(length) || classLength(length) != length || retainedBytes + bytes > maxRetainedBytes) {
+            return false;
+        }
+        arrays.computeIfAbsent(length, k -> new ArrayDeque<>()).push(array);
+        retainedBytes += bytes;
+        return true;
+    }
+
+    /**
+     * Gives the pixels of an image back to the pool. The image must not be used afterwards.
+     *
+     * <p>
+     * Only images backed by a single int array, as created by the decoders with this pool, are taken; others are ignored.
+     * </p>
+     *
+     * @param image the image, may be null.
+     */
+    public void release(final BufferedImage image) {
+        if (image != null) {
+            final DataBuffer dataBuffer = image.getRaster().getDataBuffer();
+            if (dataBuffer instanceof DataBufferInt && dataBuffer.getNumBanks() == 1) {
+                release(((DataBufferInt) dataBuffer).getData());
+            }
+        }
+    }
+
+    /**
+     * Gives a byte array back to the pool. The array must not be used afterwards.
+     *
+     * @param array the array, may be null. Arrays that were not handed out by a pool are ignored unless their length matches a size class.
+     */
+    public void release(final byte[] array) {
+        if (array != null) {
+            put(byteArrays, array, array.length, array.length);
+        }
+    }
+
+    /**
+     * Gives an int array back to the pool. The array must not be used afterwards.
+     *
+     * @param array the array, may be null. Arrays that were not handed out by a pool are ignored unless their length matches a size class.
+     */
+    public void release(final int[] array) {
+        if (array != null) {
+            put(intArrays, array, array.length, (long) array.length * Integer.BYTES);
+        }
+    }
+
+    private synchronized <A> A take(final Map<Integer, ArrayDeque<A>> arrays, final int classLength, final long bytes) {
+        final ArrayDeque<A> deque = arrays.get(classLength);
+        final A array = deque == null ? null : deque.poll();
+        if (array != null) {
+            retainedBytes -= bytes;
+        }
+        return array;
+    }
+}
@@ -20,6 +20,7 @@ import java.io.IOException;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.ImageBuilder;
+import org.apache.commons.imaging.common.Interrupts;
 
 abstract class AbstractPixelParserSimple extends AbstractPixelParser {
     AbstractPixelParserSimple(final BmpHeaderInfo bhi, final byte[] colorTable, final byte[] imageData) {
@@ -33,6 +34,7 @@ abstract class AbstractPixelParserSimple extends AbstractPixelParser {
     @Override
     public void processImage(final ImageBuilder imageBuilder) throws ImagingException, IOException {
         for (int y = bhi.height - 1; y >= 0; y--) {
+            Interrupts.check();
             for (int x = 0; x < bhi.width; x++) {
                 final int rgb = getNextRgb();
 
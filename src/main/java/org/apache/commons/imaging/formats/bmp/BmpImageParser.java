@@ -45,6 +45,8 @@ import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.BinaryOutputStream;
 import org.apache.commons.imaging.common.ImageBuilder;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.internal.Instrumentation;
 import org.apache.commons.imaging.palette.PaletteFactory;
 import org.apache.commons.imaging.palette.SimplePalette;
 
@@ -120,7 +122,9 @@ public class BmpImageParser extends AbstractImageParser<BmpImagingParameters> {
     }
 
     public BufferedImage getBufferedImage(final InputStream inputStream, final BmpImagingParameters params) throws ImagingException, IOException {
-        final BmpImageContents ic = readImageContents(inputStream, FormatCompliance.getDefault());
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.BMP);
+        instrumentation.enter(ImagingPhase.HEADER);
+        final BmpImageContents ic = readImageContents(instrumentation.count(inputStream), FormatCompliance.getDefault());
 
         final BmpHeaderInfo bhi = ic.bhi;
         // byte[] colorTable = ic.colorTable;
@@ -137,11 +141,16 @@ public class BmpImageParser extends AbstractImageParser<BmpImagingParameters> {
         }
 
         final AbstractPixelParser abstractPixelParser = ic.abstractPixelParser;
-        final ImageBuilder imageBuilder = new ImageBuilder(width, height, true);
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
+        final ImageBuilder imageBuilder = new ImageBuilder(width, height, true, false, params != null ? params.getPixelBufferPool() : null);
+        // run-length decoding and palette lookup are done together
+        instrumentation.enter(ImagingPhase.COLOR_CONVERT);
         abstractPixelParser.processImage(imageBuilder);
 
-        return imageBuilder.getBufferedImage();
-
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
+        final BufferedImage bufferedImage = imageBuilder.getBufferedImage();
+        instrumentation.finish();
+        return bufferedImage;
     }
 
     @Override
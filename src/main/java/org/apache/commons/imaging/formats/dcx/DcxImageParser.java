@@ -37,8 +37,10 @@ import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BinaryOutputStream;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
 import org.apache.commons.imaging.formats.pcx.PcxImageParser;
 import org.apache.commons.imaging.formats.pcx.PcxImagingParameters;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 public class DcxImageParser extends AbstractImageParser<PcxImagingParameters> {
     private static final class DcxHeader {
@@ -87,11 +89,18 @@ public class DcxImageParser extends AbstractImageParser<PcxImagingParameters> {
 
     @Override
     public List<BufferedImage> getAllBufferedImages(final ByteSource byteSource) throws ImagingException, IOException {
-        final DcxHeader dcxHeader = readDcxHeader(byteSource);
+        return getAllBufferedImages(byteSource, Instrumentation.disabled());
+    }
+
+    private List<BufferedImage> getAllBufferedImages(final ByteSource byteSource, final Instrumentation instrumentation) throws ImagingException, IOException {
+        instrumentation.enter(ImagingPhase.HEADER);
+        final DcxHeader dcxHeader = readDcxHeader(byteSource, instrumentation);
         final List<BufferedImage> images = new ArrayList<>();
         final PcxImageParser pcxImageParser = new PcxImageParser();
+        // each page is decoded in one go
+        instrumentation.enter(ImagingPhase.DECOMPRESS);
         for (final long element : dcxHeader.pageTable) {
-            try (InputStream stream = ByteSource.getInputStream(byteSource, element)) {
+            try (InputStream stream = instrumentation.count(ByteSource.getInputStream(byteSource, element))) {
                 images.add(pcxImageParser.getBufferedImage(ByteSource.inputStream(stream, null), new PcxImagingParameters()));
             }
         }
@@ -100,7 +109,9 @@ public class DcxImageParser extends AbstractImageParser<PcxImagingParameters> {
 
     @Override
     public final BufferedImage getBufferedImage(final ByteSource byteSource, final PcxImagingParameters params) throws ImagingException, IOException {
-        final List<BufferedImage> list = getAllBufferedImages(byteSource);
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.DCX);
+        final List<BufferedImage> list = getAllBufferedImages(byteSource, instrumentation);
+        instrumentation.finish();
         return list.isEmpty() ? null : list.get(0);
     }
 
@@ -144,7 +155,11 @@ public class DcxImageParser extends AbstractImageParser<PcxImagingParameters> {
     }
 
     private DcxHeader readDcxHeader(final ByteSource byteSource) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
+        return readDcxHeader(byteSource, Instrumentation.disabled());
+    }
+
+    private DcxHeader readDcxHeader(final ByteSource byteSource, final Instrumentation instrumentation) throws ImagingException, IOException {
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             final int id = read4Bytes("Id", is, "Not a Valid DCX File", getByteOrder());
             final int size = 1024;
             final List<Long> pageTable = Allocator.arrayList(size);
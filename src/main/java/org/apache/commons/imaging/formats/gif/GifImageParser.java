@@ -42,8 +42,11 @@ import org.apache.commons.imaging.common.BinaryFunctions;
 import org.apache.commons.imaging.common.BinaryOutputStream;
 import org.apache.commons.imaging.common.ImageBuilder;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.common.PixelBufferPool;
 import org.apache.commons.imaging.common.XmpEmbeddable;
 import org.apache.commons.imaging.common.XmpImagingParameters;
+import org.apache.commons.imaging.internal.Instrumentation;
 import org.apache.commons.imaging.mylzw.MyLzwCompressor;
 import org.apache.commons.imaging.mylzw.MyLzwDecompressor;
 import org.apache.commons.imaging.palette.Palette;
@@ -224,14 +227,15 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         final List<GifImageData> imageData = findAllImageData(imageContents);
         final List<BufferedImage> result = Allocator.arrayList(imageData.size());
         for (final GifImageData id : imageData) {
-            result.add(getBufferedImage(id, imageContents.globalColorTable));
+            result.add(getBufferedImage(id, imageContents.globalColorTable, null, Instrumentation.disabled()));
         }
         return result;
     }
 
     @Override
     public BufferedImage getBufferedImage(final ByteSource byteSource, final GifImagingParameters params) throws ImagingException, IOException {
-        final GifImageContents imageContents = readFile(byteSource, false);
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.GIF);
+        final GifImageContents imageContents = readFile(byteSource, false, FormatCompliance.getDefault(), instrumentation);
 
         final GifHeaderInfo ghi = imageContents.gifHeaderInfo;
         if (ghi == null) {
@@ -240,11 +244,14 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
 
         final GifImageData imageData = findFirstImageData(imageContents);
 
-        return getBufferedImage(imageData, imageContents.globalColorTable);
+        final BufferedImage bufferedImage = getBufferedImage(imageData, imageContents.globalColorTable, params != null ? params.getPixelBufferPool() : null,
+                instrumentation);
+        instrumentation.finish();
+        return bufferedImage;
     }
 
-    private BufferedImage getBufferedImage(final GifImageData imageData, final byte[] globalColorTable)
-            throws ImagingException {
+    private BufferedImage getBufferedImage(final GifImageData imageData, final byte[] globalColorTable, final PixelBufferPool pixelBufferPool,
+            final Instrumentation instrumentation) throws ImagingException {
         final ImageDescriptor id = imageData.descriptor;
         final GraphicControlExtension gce = imageData.gce;
 
@@ -256,7 +263,10 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
             hasAlpha = true;
         }
 
-        final ImageBuilder imageBuilder = new ImageBuilder(width, height, hasAlpha);
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
+        final ImageBuilder imageBuilder = new ImageBuilder(width, height, hasAlpha, false, pixelBufferPool);
+
+        instrumentation.enter(ImagingPhase.COLOR_CONVERT);
 
         int[] colorTable;
         if (id.localColorTable != null) {
@@ -325,6 +335,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
             }
         }
 
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
         return imageBuilder.getBufferedImage();
     }
 
@@ -495,7 +506,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                 readColorTable(is, ghi.sizeOfGlobalColorTable);
             }
 
-            final List<GifBlock> blocks = readBlocks(ghi, is, true, null);
+            final List<GifBlock> blocks = readBlocks(ghi, is, true, null, Instrumentation.disabled());
 
             final List<String> result = new ArrayList<>();
             for (final GifBlock block : blocks) {
@@ -542,8 +553,8 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         }
     }
 
-    private List<GifBlock> readBlocks(final GifHeaderInfo ghi, final InputStream is, final boolean stopBeforeImageData, final FormatCompliance formatCompliance)
-            throws ImagingException, IOException {
+    private List<GifBlock> readBlocks(final GifHeaderInfo ghi, final InputStream is, final boolean stopBeforeImageData, final FormatCompliance formatCompliance,
+            final Instrumentation instrumentation) throws ImagingException, IOException {
         final List<GifBlock> result = new ArrayList<>();
 
         while (true) {
@@ -554,7 +565,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                 throw new ImagingException("GIF: unexpected end of data");
 
             case IMAGE_SEPARATOR:
-                final ImageDescriptor id = readImageDescriptor(ghi, code, is, stopBeforeImageData, formatCompliance);
+                final ImageDescriptor id = readImageDescriptor(ghi, code, is, stopBeforeImageData, formatCompliance, instrumentation);
                 result.add(id);
                 // if (stopBeforeImageData)
                 // return result;
@@ -632,7 +643,13 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
 
     private GifImageContents readFile(final ByteSource byteSource, final boolean stopBeforeImageData, final FormatCompliance formatCompliance)
             throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
+        return readFile(byteSource, stopBeforeImageData, formatCompliance, Instrumentation.disabled());
+    }
+
+    private GifImageContents readFile(final ByteSource byteSource, final boolean stopBeforeImageData, final FormatCompliance formatCompliance,
+            final Instrumentation instrumentation) throws ImagingException, IOException {
+        instrumentation.enter(ImagingPhase.HEADER);
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             final GifHeaderInfo ghi = readHeader(is, formatCompliance);
 
             byte[] globalColorTable = null;
@@ -640,7 +657,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                 globalColorTable = readColorTable(is, ghi.sizeOfGlobalColorTable);
             }
 
-            final List<GifBlock> blocks = readBlocks(ghi, is, stopBeforeImageData, formatCompliance);
+            final List<GifBlock> blocks = readBlocks(ghi, is, stopBeforeImageData, formatCompliance, instrumentation);
 
             return new GifImageContents(ghi, globalColorTable, blocks);
         }
@@ -745,7 +762,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
     }
 
     private ImageDescriptor readImageDescriptor(final GifHeaderInfo ghi, final int blockCode, final InputStream is, final boolean stopBeforeImageData,
-            final FormatCompliance formatCompliance) throws ImagingException, IOException {
+            final FormatCompliance formatCompliance, final Instrumentation instrumentation) throws ImagingException, IOException {
         final int imageLeftPosition = BinaryFunctions.read2Bytes("Image Left Position", is, "Not a Valid GIF File", getByteOrder());
         final int imageTopPosition = BinaryFunctions.read2Bytes("Image Top Position", is, "Not a Valid GIF File", getByteOrder());
         final int imageWidth = BinaryFunctions.read2Bytes("Image Width", is, "Not a Valid GIF File", getByteOrder());
@@ -795,8 +812,10 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
             final InputStream bais = new ByteArrayInputStream(bytes);
 
             final int size = imageWidth * imageHeight;
+            instrumentation.enter(ImagingPhase.DECOMPRESS);
             final MyLzwDecompressor myLzwDecompressor = new MyLzwDecompressor(lzwMinimumCodeSize, ByteOrder.LITTLE_ENDIAN, false);
             imageData = myLzwDecompressor.decompress(bais, size);
+            instrumentation.enter(ImagingPhase.HEADER);
         } else {
             final int LZWMinimumCodeSize = is.read();
             if (LOGGER.isLoggable(Level.FINEST)) {
@@ -36,6 +36,8 @@ import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.BinaryOutputStream;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 public class IcnsImageParser extends AbstractImageParser<IcnsImagingParameters> {
     private static final class IcnsContents {
@@ -126,9 +128,14 @@ public class IcnsImageParser extends AbstractImageParser<IcnsImagingParameters>
 
     @Override
     public final BufferedImage getBufferedImage(final ByteSource byteSource, final IcnsImagingParameters params) throws ImagingException, IOException {
-        final IcnsContents icnsContents = readImage(byteSource);
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.ICNS);
+        instrumentation.enter(ImagingPhase.HEADER);
+        final IcnsContents icnsContents = readImage(byteSource, instrumentation);
+        // the elements are decoded and converted in one go
+        instrumentation.enter(ImagingPhase.DECOMPRESS);
         final List<BufferedImage> result = IcnsDecoder.decodeAllImages(icnsContents.icnsElements);
         if (!result.isEmpty()) {
+            instrumentation.finish();
             return result.get(0);
         }
         throw new ImagingException("No icons in ICNS file");
@@ -208,7 +215,11 @@ public class IcnsImageParser extends AbstractImageParser<IcnsImagingParameters>
     }
 
     private IcnsContents readImage(final ByteSource byteSource) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
+        return readImage(byteSource, Instrumentation.disabled());
+    }
+
+    private IcnsContents readImage(final ByteSource byteSource, final Instrumentation instrumentation) throws ImagingException, IOException {
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             final IcnsHeader icnsHeader = readIcnsHeader(is);
 
             final List<IcnsElement> icnsElementList = new ArrayList<>();
@@ -43,7 +43,9 @@ import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BinaryOutputStream;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
 import org.apache.commons.imaging.formats.bmp.BmpImageParser;
+import org.apache.commons.imaging.internal.Instrumentation;
 import org.apache.commons.imaging.palette.PaletteFactory;
 import org.apache.commons.imaging.palette.SimplePalette;
 
@@ -268,10 +270,16 @@ public class IcoImageParser extends AbstractImageParser<IcoImagingParameters> {
 
     @Override
     public final BufferedImage getBufferedImage(final ByteSource byteSource, final IcoImagingParameters params) throws ImagingException, IOException {
-        final ImageContents contents = readImage(byteSource);
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.ICO);
+        instrumentation.enter(ImagingPhase.HEADER);
+        final ImageContents contents = readImage(byteSource, instrumentation);
         final FileHeader fileHeader = contents.fileHeader;
         if (fileHeader.iconCount > 0) {
-            return contents.iconDatas[0].readBufferedImage();
+            // the embedded bitmap or PNG is decoded in one go
+            instrumentation.enter(ImagingPhase.DECOMPRESS);
+            final BufferedImage image = contents.iconDatas[0].readBufferedImage();
+            instrumentation.finish();
+            return image;
         }
         throw new ImagingException("No icons in ICO file");
     }
@@ -553,7 +561,11 @@ public class IcoImageParser extends AbstractImageParser<IcoImagingParameters> {
     }
 
     private ImageContents readImage(final ByteSource byteSource) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
+        return readImage(byteSource, Instrumentation.disabled());
+    }
+
+    private ImageContents readImage(final ByteSource byteSource, final Instrumentation instrumentation) throws ImagingException, IOException {
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             final FileHeader fileHeader = readFileHeader(is);
 
             final IconInfo[] fIconInfos = Allocator.array(fileHeader.iconCount, IconInfo[]::new, IconInfo.SHALLOW_SIZE);
@@ -0,0 +1,66 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg;
+
+/**
+ * Chroma subsampling used when writing a color JPEG, expressed as the sampling factors of the luminance component. The two chrominance components always
+ * have sampling factors of 1.
+ *
+ * @since 1.0.0-alpha6
+ */
+public enum JpegChromaSubsampling {
+
+    /**
+     * No subsampling, every pixel has its own chrominance.
+     */
+    YCBCR_444(1, 1),
+
+    /**
+     * Chrominance is shared by two horizontally adjacent pixels.
+     */
+    YCBCR_422(2, 1),
+
+    /**
+     * Chrominance is shared by a block of 2x2 pixels.
+     */
+    YCBCR_420(2, 2);
+
+    private final int horizontalSamplingFactor;
+    private final int verticalSamplingFactor;
+
+    JpegChromaSubsampling(final int horizontalSamplingFactor, final int verticalSamplingFactor) {
+        this.horizontalSamplingFactor = horizontalSamplingFactor;
+        this.verticalSamplingFactor = verticalSamplingFactor;
+    }
+
+    /**
+     * Gets the horizontal sampling factor of the luminance component.
+     *
+     * @return 1 or 2.
+     */
+    public int getHorizontalSamplingFactor() {
+        return horizontalSamplingFactor;
+    }
+
+    /**
+     * Gets the vertical sampling factor of the luminance component.
+     *
+     * @return 1 or 2.
+     */
+    public int getVerticalSamplingFactor() {
+        return verticalSamplingFactor;
+    }
+}
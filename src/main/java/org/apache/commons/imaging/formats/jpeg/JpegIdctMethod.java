@@ -0,0 +1,39 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg;
+
+/**
+ * Inverse DCT used to decode JPEG blocks.
+ *
+ * @since 1.0.0-alpha6
+ */
+public enum JpegIdctMethod {
+
+    /**
+     * Floating point Arai, Agui and Nakajima transform.
+     */
+    FLOAT,
+
+    /**
+     * Fixed point Loeffler, Ligtenberg and Moschytz transform, about as accurate as {@link #FLOAT}.
+     */
+    INTEGER_ACCURATE,
+
+    /**
+     * Fixed point Arai, Agui and Nakajima transform with 8-bit constants, the fastest but least accurate.
+     */
+    INTEGER_FAST
+}
@@ -22,6 +22,7 @@ import static org.apache.commons.imaging.common.BinaryFunctions.startsWith;
 import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.text.NumberFormat;
@@ -43,6 +44,7 @@ import org.apache.commons.imaging.common.ImageMetadata;
 import org.apache.commons.imaging.common.XmpEmbeddable;
 import org.apache.commons.imaging.common.XmpImagingParameters;
 import org.apache.commons.imaging.formats.jpeg.decoder.JpegDecoder;
+import org.apache.commons.imaging.formats.jpeg.encoder.JpegEncoder;
 import org.apache.commons.imaging.formats.jpeg.iptc.IptcParser;
 import org.apache.commons.imaging.formats.jpeg.iptc.PhotoshopApp13Data;
 import org.apache.commons.imaging.formats.jpeg.segments.AbstractSegment;
@@ -205,7 +207,7 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
 
     @Override
     public final BufferedImage getBufferedImage(final ByteSource byteSource, final JpegImagingParameters params) throws ImagingException, IOException {
-        final JpegDecoder jpegDecoder = new JpegDecoder();
+        final JpegDecoder jpegDecoder = new JpegDecoder(params);
         return jpegDecoder.decode(byteSource);
     }
 
@@ -933,4 +935,12 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
 
         return result;
     }
+
+    /**
+     * Writes a baseline JPEG, see {@link JpegEncoder}.
+     */
+    @Override
+    public void writeImage(final BufferedImage src, final OutputStream os, final JpegImagingParameters params) throws ImagingException, IOException {
+        new JpegEncoder(params).encode(src, os);
+    }
 }
@@ -15,6 +15,9 @@
 
 package org.apache.commons.imaging.formats.jpeg;
 
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
 import org.apache.commons.imaging.common.XmpImagingParameters;
 
 /**
@@ -23,5 +26,346 @@ import org.apache.commons.imaging.common.XmpImagingParameters;
  * @since 1.0-alpha3
  */
 public class JpegImagingParameters extends XmpImagingParameters<JpegImagingParameters> {
-    // empty
+
+    /**
+     * Chroma subsampling of written color images.
+     *
+     * <p>
+     * Default value is {@link JpegChromaSubsampling#YCBCR_420}.
+     * </p>
+     */
+    private JpegChromaSubsampling chromaSubsampling = JpegChromaSubsampling.YCBCR_420;
+
+    /**
+     * Inverse DCT used to decode images.
+     *
+     * <p>
+     * Default value is {@link JpegIdctMethod#FLOAT}.
+     * </p>
+     */
+    private JpegIdctMethod idctMethod = JpegIdctMethod.FLOAT;
+
+    /**
+     * Whether written images use Huffman tables computed for the image instead of the example tables of annex K of T.81.
+     *
+     * <p>
+     * Default value is {@code false}.
+     * </p>
+     */
+    private boolean optimizeHuffmanTables;
+
+    /**
+     * Quality of written images, from 1 (smallest) to 100 (best), scaling the example quantization tables of annex K of T.81 like the IJG library does.
+     *
+     * <p>
+     * Default value is {@code 75}.
+     * </p>
+     */
+    private int quality = 75;
+
+    /**
+     * Number of MCUs between the restart markers of written images, 0 for no restart markers.
+     *
+     * <p>
+     * Default value is {@code 0}.
+     * </p>
+     */
+    private int restartInterval;
+
+    /**
+     * Executor used to decode the restart intervals of a scan in parallel, for example {@code ForkJoinPool.commonPool()}.
+     *
+     * <p>
+     * Default value is {@code null}, which decodes on the calling thread.
+     * </p>
+     */
+    private Executor restartIntervalExecutor;
+
+    /**
+     * Denominator of the size the image is decoded at: 1, 2, 4 or 8.
+     *
+     * <p>
+     * Default value is {@code 1}, which decodes at full size.
+     * </p>
+     */
+    private int scaleDenominator = 1;
+
+    /**
+     * X-coordinate of a sub-image.
+     */
+    private int subImageX;
+
+    /**
+     * Y-coordinate of a sub-image.
+     */
+    private int subImageY;
+
+    /**
+     * Width of a sub-image.
+     */
+    private int subImageWidth;
+
+    /**
+     * Height of a sub-image.
+     */
+    private int subImageHeight;
+
+    /**
+     * Clears settings for sub-image. Subsequent read operations will retrieve the entire image.
+     *
+     * @since 1.0.0-alpha6
+     */
+    public void clearSubImage() {
+        subImageWidth = 0;
+        subImageHeight = 0;
+    }
+
+    /**
+     * Gets the chroma subsampling of written color images.
+     *
+     * @return the chroma subsampling.
+     * @since 1.0.0-alpha6
+     */
+    public JpegChromaSubsampling getChromaSubsampling() {
+        return chromaSubsampling;
+    }
+
+    /**
+     * Gets the inverse DCT used to decode images.
+     *
+     * @return the inverse DCT.
+     * @since 1.0.0-alpha6
+     */
+    public JpegIdctMethod getIdctMethod() {
+        return idctMethod;
+    }
+
+    /**
+     * Gets the quality of written images.
+     *
+     * @return the quality, from 1 to 100.
+     * @since 1.0.0-alpha6
+     */
+    public int getQuality() {
+        return quality;
+    }
+
+    /**
+     * Gets the number of MCUs between the restart markers of written images.
+     *
+     * @return the restart interval, 0 if no restart markers are written.
+     * @since 1.0.0-alpha6
+     */
+    public int getRestartInterval() {
+        return restartInterval;
+    }
+
+    /**
+     * Gets the executor used to decode restart intervals in parallel.
+     *
+     * @return the executor, or {@code null} if decoding happens on the calling thread.
+     * @since 1.0.0-alpha6
+     */
+    public Executor getRestartIntervalExecutor() {
+        return restartIntervalExecutor;
+    }
+
+    /**
+     * Gets the denominator of the size the image is decoded at.
+     *
+     * @return 1, 2, 4 or 8.
+     * @since 1.0.0-alpha6
+     */
+    public int getScaleDenominator() {
+        return scaleDenominator;
+    }
+
+    /**
+     * Gets the height for a sub-image setting. For a sub-image setting to be meaningful, both the width and height must be set.
+     *
+     * @return if the sub-image feature is enabled, a value greater than zero; otherwise, zero.
+     * @since 1.0.0-alpha6
+     */
+    public int getSubImageHeight() {
+        return subImageHeight;
+    }
+
+    /**
+     * Gets the width for a sub-image setting. For a sub-image setting to be meaningful, both the width and height must be set.
+     *
+     * @return if the sub-image feature is enabled, a value greater than zero; otherwise, zero.
+     * @since 1.0.0-alpha6
+     */
+    public int getSubImageWidth() {
+        return subImageWidth;
+    }
+
+    /**
+     * Gets the X coordinate of a sub-image. This setting is meaningful only if a sub-image is set.
+     *
+     * @return a positive integer
+     * @since 1.0.0-alpha6
+     */
+    public int getSubImageX() {
+        return subImageX;
+    }
+
+    /**
+     * Gets the Y coordinate of a sub-image. This setting is meaningful only if a sub-image is set.
+     *
+     * @return a positive integer
+     * @since 1.0.0-alpha6
+     */
+    public int getSubImageY() {
+        return subImageY;
+    }
+
+    /**
+     * Tests whether written images use Huffman tables computed for the image.
+     *
+     * @return true if the Huffman tables are optimized; otherwise, false.
+     * @since 1.0.0-alpha6
+     */
+    public boolean isOptimizeHuffmanTables() {
+        return optimizeHuffmanTables;
+    }
+
+    /**
+     * Indicates whether the application has set sub-image parameters.
+     *
+     * @return true if the sub-image parameters are set; otherwise, false.
+     * @since 1.0.0-alpha6
+     */
+    public boolean isSubImageSet() {
+        return subImageWidth > 0 && subImageHeight > 0;
+    }
+
+    /**
+     * Sets the chroma subsampling of written color images. Grayscale images have a single component and are never subsampled.
+     *
+     * @param chromaSubsampling the chroma subsampling.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setChromaSubsampling(final JpegChromaSubsampling chromaSubsampling) {
+        this.chromaSubsampling = Objects.requireNonNull(chromaSubsampling, "chromaSubsampling");
+        return asThis();
+    }
+
+    /**
+     * Sets the inverse DCT used to decode images. The integer transforms only apply to 8-bit images decoded at full size, others always use the float
+     * transforms. Whatever the transform, blocks without AC coefficients are filled with their DC value directly.
+     *
+     * @param idctMethod the inverse DCT.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setIdctMethod(final JpegIdctMethod idctMethod) {
+        this.idctMethod = Objects.requireNonNull(idctMethod, "idctMethod");
+        return asThis();
+    }
+
+    /**
+     * Sets whether written images use Huffman tables computed for the image. Optimized tables usually make the file a few percent smaller, at the cost of a
+     * second pass over the image.
+     *
+     * @param optimizeHuffmanTables true to optimize the Huffman tables.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setOptimizeHuffmanTables(final boolean optimizeHuffmanTables) {
+        this.optimizeHuffmanTables = optimizeHuffmanTables;
+        return asThis();
+    }
+
+    /**
+     * Sets the quality of written images.
+     *
+     * @param quality the quality, from 1 to 100.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the quality is not between 1 and 100.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setQuality(final int quality) {
+        if (quality < 1 || quality > 100) {
+            throw new IllegalArgumentException("Invalid quality " + quality + ", must be between 1 and 100");
+        }
+        this.quality = quality;
+        return asThis();
+    }
+
+    /**
+     * Sets the number of MCUs between the restart markers of written images. Restart markers limit the damage of corrupt data and allow the intervals to be
+     * decoded in parallel, see {@link #setRestartIntervalExecutor(Executor)}.
+     *
+     * @param restartInterval the restart interval, 0 for no restart markers.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the restart interval is not between 0 and 65535.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setRestartInterval(final int restartInterval) {
+        if (restartInterval < 0 || restartInterval > 0xffff) {
+            throw new IllegalArgumentException("Invalid restart interval " + restartInterval + ", must be between 0 and 65535");
+        }
+        this.restartInterval = restartInterval;
+        return asThis();
+    }
+
+    /**
+     * Sets the executor used to decode restart intervals in parallel. Only baseline JPEGs with a DRI segment and matching restart markers benefit from
+     * this; other JPEGs are decoded on the calling thread.
+     *
+     * @param restartIntervalExecutor the executor, or {@code null} to decode on the calling thread.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setRestartIntervalExecutor(final Executor restartIntervalExecutor) {
+        this.restartIntervalExecutor = restartIntervalExecutor;
+        return asThis();
+    }
+
+    /**
+     * Sets the denominator of the size the image is decoded at. A denominator of 2, 4 or 8 decodes a (width / n) x (height / n) image, rounded up, straight
+     * from the DCT coefficients, which is much faster and uses much less memory than scaling down a full size image.
+     *
+     * @param scaleDenominator 1, 2, 4 or 8.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the denominator is not 1, 2, 4 or 8.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setScaleDenominator(final int scaleDenominator) {
+        if (scaleDenominator != 1 && scaleDenominator != 2 && scaleDenominator != 4 && scaleDenominator != 8) {
+            throw new IllegalArgumentException("Invalid scale denominator " + scaleDenominator + ", must be 1, 2, 4 or 8");
+        }
+        this.scaleDenominator = scaleDenominator;
+        return asThis();
+    }
+
+    /**
+     * Sets parameters for performing a partial read operation on an image. Only the MCUs overlapping the sub-image go through the inverse DCT and color
+     * conversion, the others are only entropy decoded, and restart intervals entirely outside of the sub-image are skipped without being read.
+     * <p>
+     * The coordinates are those of the decoded image, so they are divided by the scale denominator like the size of the image is. Note that the corner x and y
+     * coordinates must be positive integers (zero or greater). The width and height must be greater than zero.
+     *
+     * @param x      pixel coordinate of the upper-left corner of the source image, must be zero or greater.
+     * @param y      pixel coordinate of the upper-left corner of the source image, must be zero or greater.
+     * @param width  width of the image subset to be read, must be greater than zero.
+     * @param height height of the image subset to be read, must be greater than zero.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setSubImage(final int x, final int y, final int width, final int height) {
+        if (x < 0 || y < 0) {
+            throw new IllegalArgumentException("Invalid sub-image specification: negative x and y values not allowed");
+        }
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid sub-image specification width and height must be greater than zero");
+        }
+        subImageX = x;
+        subImageY = y;
+        subImageWidth = width;
+        subImageHeight = height;
+        return asThis();
+    }
 }
@@ -17,18 +17,72 @@
 package org.apache.commons.imaging.formats.jpeg;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.bytesource.FileChannelByteSource;
+import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BinaryFileParser;
-import org.apache.commons.imaging.common.BinaryFunctions;
 import org.apache.commons.imaging.common.ByteConversions;
 import org.apache.commons.imaging.internal.Debug;
-import org.apache.commons.io.IOUtils;
 
 public class JpegUtils extends BinaryFileParser {
+
+    /**
+     * Buffers a part of a byte source, so that markers and small segments don't each need a read of the byte source.
+     */
+    private static final class Window {
+
+        private static final int SIZE = 8192;
+
+        private final ByteSource byteSource;
+        private final byte[] buffer = new byte[SIZE];
+        private long start;
+        private int length;
+
+        Window(final ByteSource byteSource) {
+            this.byteSource = byteSource;
+        }
+
+        private void fill(final long position) throws IOException {
+            start = position;
+            length = Math.max(0, byteSource.read(position, ByteBuffer.wrap(buffer)));
+        }
+
+        int read(final long position) throws IOException {
+            if (position < start || position >= start + length) {
+                fill(position);
+                if (length == 0) {
+                    return -1;
+                }
+            }
+            return 0xff & buffer[(int) (position - start)];
+        }
+
+        byte[] readBytes(final long position, final int count, final String exception) throws IOException {
+            final byte[] bytes = Allocator.byteArray(count);
+            if (position >= start && position + count <= start + length) {
+                System.arraycopy(buffer, (int) (position - start), bytes, 0, count);
+            } else if (count < SIZE) {
+                // refill the window, which likely also holds the next marker
+                fill(position);
+                if (count > length) {
+                    throw new IOException(exception);
+                }
+                System.arraycopy(buffer, 0, bytes, 0, count);
+            } else {
+                try {
+                    byteSource.readInto(position, bytes, 0, count);
+                } catch (final ImagingException e) {
+                    throw new IOException(exception, e);
+                }
+            }
+            return bytes;
+        }
+    }
+
     public interface Visitor {
         // return false to exit before reading image data.
         boolean beginSos();
@@ -149,15 +203,31 @@ public class JpegUtils extends BinaryFileParser {
     }
 
     public void traverseJfif(final ByteSource byteSource, final Visitor visitor) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
-            BinaryFunctions.readAndVerifyBytes(is, JpegConstants.SOI, "Not a Valid JPEG File: doesn't begin with 0xffd8");
+        // the file of a file source is opened once for the whole traversal
+        try (FileChannelByteSource channel = byteSource.openChannel()) {
+            final ByteSource source = channel != null ? channel : byteSource;
+            final Window window = new Window(source);
+            long position = 0;
+            for (; position < JpegConstants.SOI.size(); position++) {
+                final int data = window.read(position);
+                if (data < 0) {
+                    throw new ImagingException("Unexpected EOF.");
+                }
+                if ((byte) data != JpegConstants.SOI.get((int) position)) {
+                    throw new ImagingException("Not a Valid JPEG File: doesn't begin with 0xffd8");
+                }
+            }
 
             int markerCount;
             for (markerCount = 0; true; markerCount++) {
                 final byte[] markerBytes = new byte[2];
                 do {
                     markerBytes[0] = markerBytes[1];
-                    markerBytes[1] = BinaryFunctions.readByte("marker", is, "Could not read marker");
+                    final int data = window.read(position++);
+                    if (data < 0) {
+                        throw new IOException("Could not read marker");
+                    }
+                    markerBytes[1] = (byte) data;
                 } while ((0xff & markerBytes[0]) != 0xff || (0xff & markerBytes[1]) == 0xff);
                 final int marker = (0xff & markerBytes[0]) << 8 | 0xff & markerBytes[1];
 
@@ -166,18 +236,21 @@ public class JpegUtils extends BinaryFileParser {
                         return;
                     }
 
-                    final byte[] imageData = IOUtils.toByteArray(is);
+                    final long size = source.size();
+                    final byte[] imageData = window.readBytes(position, (int) Math.max(0, size - position), "Could not read image data");
                     visitor.visitSos(marker, markerBytes, imageData);
                     break;
                 }
 
-                final byte[] segmentLengthBytes = BinaryFunctions.readBytes("segmentLengthBytes", is, 2, "segmentLengthBytes");
+                final byte[] segmentLengthBytes = window.readBytes(position, 2, "segmentLengthBytes, name: segmentLengthBytes, length: 2");
                 final int segmentLength = ByteConversions.toUInt16(segmentLengthBytes, getByteOrder());
                 if (segmentLength < 2) {
                     throw new ImagingException("Invalid segment size");
                 }
 
-                final byte[] segmentData = BinaryFunctions.readBytes("Segment Data", is, segmentLength - 2, "Invalid Segment: insufficient data");
+                final byte[] segmentData = window.readBytes(position + 2, segmentLength - 2,
+                        "Invalid Segment: insufficient data, name: Segment Data, length: " + (segmentLength - 2));
+                position += segmentLength;
 
                 if (!visitor.visitSegment(marker, markerBytes, segmentLength, segmentLengthBytes, segmentData)) {
                     return;
@@ -65,6 +65,9 @@ final class Dct {
     private static final float Q = C2 - C6;
     private static final float R = C2 + C6;
 
+    // C(u) / 2 * cos((2x + 1) * u * pi / (2n)) at [n][n * x + u], for the n-point inverse DCTs of the reduced sizes
+    private static final float[][] REDUCED_IDCT_BASIS = { null, null, reducedIdctBasis(2), null, reducedIdctBasis(4) };
+
     /**
      * Fast forward Dct using AA&N. Taken from the book "JPEG still image data compression standard", by Pennebaker and Mitchell, chapter 4, figure "4-8".
      *
@@ -316,6 +319,56 @@ final class Dct {
         }
     }
 
+    /**
+     * Inverse Dct of the size x size lowest frequency coefficients of an 8x8 matrix, as used to decode a JPEG at 1/2, 1/4 or 1/8 of its size. The samples
+     * produced are approximately the averages of the corresponding (8 / size) x (8 / size) samples of the full inverse Dct.
+     *
+     * <p>
+     * Unlike {@link #inverseDct8x8(float[])} the coefficients must not be prescaled with {@link #scaleDequantizationMatrix(float[])}. Only the top left size x
+     * size coefficients are read, the rest of the matrix is used as scratch space.
+     * </p>
+     *
+     * @param matrix the 64 coefficients in natural order, receives the size x size samples in row-major order.
+     * @param size   the size of the output, 1, 2 or 4.
+     */
+    public static void inverseDctReduced(final float[] matrix, final int size) {
+        if (size == 1) {
+            matrix[0] *= 0.125f;
+            return;
+        }
+        final float[] basis = REDUCED_IDCT_BASIS[size];
+        // rows 4 and up are never read when size <= 4, so they hold the results of the row pass
+        for (int v = 0; v < size; v++) {
+            for (int x = 0; x < size; x++) {
+                float sum = 0;
+                for (int u = 0; u < size; u++) {
+                    sum += basis[size * x + u] * matrix[8 * v + u];
+                }
+                matrix[32 + size * v + x] = sum;
+            }
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                float sum = 0;
+                for (int v = 0; v < size; v++) {
+                    sum += basis[size * y + v] * matrix[32 + size * v + x];
+                }
+                matrix[size * y + x] = sum;
+            }
+        }
+    }
+
+    private static float[] reducedIdctBasis(final int n) {
+        final float[] basis = new float[n * n];
+        for (int x = 0; x < n; x++) {
+            for (int u = 0; u < n; u++) {
+                final double cu = u == 0 ? 1.0 / Math.sqrt(2.0) : 1.0;
+                basis[n * x + u] = (float) (0.5 * cu * Math.cos((2 * x + 1) * u * Math.PI / (2 * n)));
+            }
+        }
+        return basis;
+    }
+
     public static void scaleDequantizationMatrix(final float[] matrix) {
         for (int y = 0; y < 8; y++) {
             for (int x = 0; x < 8; x++) {
@@ -0,0 +1,69 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.formats.jpeg.segments.DhtSegment;
+
+/**
+ * Decodes Huffman codes with a single table probe for codes of up to {@link #LOOKAHEAD_BITS} bits, falling back to the "DECODE" procedure of section
+ * F.2.2.3 of T.81 for longer codes.
+ */
+final class HuffmanLookupTable {
+
+    static final int LOOKAHEAD_BITS = 9;
+
+    private static final int MAX_CODE_LENGTH = 16;
+
+    private final DhtSegment.HuffmanTable huffmanTable;
+
+    // (index into HUFFVAL << 8 | code length) for each lookahead prefix, 0 if the code is longer than LOOKAHEAD_BITS
+    private final int[] lookup = new int[1 << LOOKAHEAD_BITS];
+
+    HuffmanLookupTable(final DhtSegment.HuffmanTable huffmanTable) {
+        this.huffmanTable = huffmanTable;
+        // Run the code search of figure F.16 once for every possible prefix.
+        // Only the index into HUFFVAL is stored, so a corrupt table still fails
+        // while decoding, just like the bit-by-bit search would.
+        for (int prefix = 0; prefix < lookup.length; prefix++) {
+            for (int length = 1; length <= LOOKAHEAD_BITS; length++) {
+                final int code = prefix >> LOOKAHEAD_BITS - length;
+                if (code <= huffmanTable.getMaxCode(length)) {
+                    lookup[prefix] = huffmanTable.getValPtr(length) + code - huffmanTable.getMinCode(length) << 8 | length;
+                    break;
+                }
+            }
+        }
+    }
+
+    int decode(final JpegInputStream is) throws ImagingException {
+        final int entry = lookup[is.peekBits(LOOKAHEAD_BITS)];
+        if (entry != 0) {
+            is.skipBits(entry & 0xff);
+            return huffmanTable.getHuffVal(entry >> 8);
+        }
+        final int bits = is.peekBits(MAX_CODE_LENGTH);
+        for (int length = LOOKAHEAD_BITS + 1; length <= MAX_CODE_LENGTH; length++) {
+            final int code = bits >> MAX_CODE_LENGTH - length;
+            if (code <= huffmanTable.getMaxCode(length)) {
+                is.skipBits(length);
+                return huffmanTable.getHuffVal(huffmanTable.getValPtr(length) + code - huffmanTable.getMinCode(length));
+            }
+        }
+        is.skipBits(MAX_CODE_LENGTH);
+        throw new ImagingException("Invalid Huffman code in entropy data");
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+/**
+ * Fixed point inverse DCTs of 8-bit JPEG blocks, structured like the "islow" and "ifast" transforms of the IJG library.
+ *
+ * <p>
+ * Both work in place on the dequantized coefficients in natural order, first on the columns and then on the rows, and produce samples that still have to be
+ * level shifted by 128 and clamped. Columns and rows whose AC coefficients are all zero take a shortcut.
+ * </p>
+ */
+final class IntegerDct {
+
+    // Loeffler, Ligtenberg and Moschytz, with 13 fraction bits for the constants and 2 extra bits kept between the passes
+    private static final int ACCURATE_CONST_BITS = 13;
+    private static final int ACCURATE_PASS1_BITS = 2;
+    private static final int FIX_0_298631336 = 2446;
+    private static final int FIX_0_390180644 = 3196;
+    private static final int FIX_0_541196100 = 4433;
+    private static final int FIX_0_765366865 = 6270;
+    private static final int FIX_0_899976223 = 7373;
+    private static final int FIX_1_175875602 = 9633;
+    private static final int FIX_1_501321110 = 12299;
+    private static final int FIX_1_847759065 = 15137;
+    private static final int FIX_1_961570560 = 16069;
+    private static final int FIX_2_053119869 = 16819;
+    private static final int FIX_2_562915447 = 20995;
+    private static final int FIX_3_072711026 = 25172;
+
+    // Arai, Agui and Nakajima, with 8 fraction bits for the constants and the coefficients prescaled by 2 bits
+    private static final int FAST_CONST_BITS = 8;
+    private static final int FAST_PASS1_BITS = 2;
+    // extra fraction bits of the prescaled quantization values, dropped right after dequantizing, which keeps small quantization values accurate
+    private static final int FAST_QUANTIZATION_BITS = 8;
+    private static final int FAST_1_082392200 = 277;
+    private static final int FAST_1_414213562 = 362;
+    private static final int FAST_1_847759065 = 473;
+    private static final int FAST_2_613125930 = 669;
+
+    // cos(k * pi / 16) * sqrt(2) for k > 0, 1 for k = 0, with 14 fraction bits
+    private static final int[] AAN_SCALES = new int[8];
+
+    static {
+        for (int k = 0; k < 8; k++) {
+            AAN_SCALES[k] = (int) Math.round((k == 0 ? 1.0 : Math.cos(k * Math.PI / 16) * Math.sqrt(2.0)) * (1 << 14));
+        }
+    }
+
+    private static int descale(final int x, final int n) {
+        return x + (1 << n - 1) >> n;
+    }
+
+    /**
+     * Dequantizes coefficients for {@link #inverseDctFast(int[])}.
+     *
+     * @param block  the quantized coefficients in natural order, receives the dequantized ones.
+     * @param matrix the prescaled quantization matrix from {@link #fastDequantizationMatrix(int[])}.
+     */
+    static void dequantizeFast(final int[] block, final int[] matrix) {
+        for (int i = 0; i < 64; i++) {
+            block[i] = descale(block[i] * matrix[i], FAST_QUANTIZATION_BITS);
+        }
+    }
+
+    /**
+     * Prescales a quantization matrix for {@link #dequantizeFast(int[], int[])}.
+     *
+     * @param quantizationMatrix the quantization matrix in natural order.
+     * @return the prescaled matrix.
+     */
+    static int[] fastDequantizationMatrix(final int[] quantizationMatrix) {
+        final int[] matrix = new int[64];
+        for (int v = 0; v < 8; v++) {
+            for (int u = 0; u < 8; u++) {
+                final long scale = (long) AAN_SCALES[v] * AAN_SCALES[u] + (1 << 13) >> 14;
+                final int n = 14 - FAST_PASS1_BITS - FAST_QUANTIZATION_BITS;
+                matrix[8 * v + u] = (int) (quantizationMatrix[8 * v + u] * scale + (1 << n - 1) >> n);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Inverse DCT with an accuracy close to the float transform.
+     *
+     * @param block the dequantized coefficients, receives the samples.
+     */
+    static void inverseDctAccurate(final int[] block) {
+        for (int i = 0; i < 8; i++) {
+            if ((block[8 + i] | block[16 + i] | block[24 + i] | block[32 + i] | block[40 + i] | block[48 + i] | block[56 + i]) == 0) {
+                final int dc = block[i] << ACCURATE_PASS1_BITS;
+                for (int j = 0; j < 64; j += 8) {
+                    block[j + i] = dc;
+                }
+                continue;
+            }
+            // even part
+            int z2 = block[16 + i];
+            int z3 = block[48 + i];
+            int z1 = (z2 + z3) * FIX_0_541196100;
+            int tmp2 = z1 - z3 * FIX_1_847759065;
+            int tmp3 = z1 + z2 * FIX_0_765366865;
+            z2 = block[i];
+            z3 = block[32 + i];
+            int tmp0 = z2 + z3 << ACCURATE_CONST_BITS;
+            int tmp1 = z2 - z3 << ACCURATE_CONST_BITS;
+            final int tmp10 = tmp0 + tmp3;
+            final int tmp13 = tmp0 - tmp3;
+            final int tmp11 = tmp1 + tmp2;
+            final int tmp12 = tmp1 - tmp2;
+            // odd part
+            tmp0 = block[56 + i];
+            tmp1 = block[40 + i];
+            tmp2 = block[24 + i];
+            tmp3 = block[8 + i];
+            z1 = tmp0 + tmp3;
+            z2 = tmp1 + tmp2;
+            z3 = tmp0 + tmp2;
+            int z4 = tmp1 + tmp3;
+            final int z5 = (z3 + z4) * FIX_1_175875602;
+            tmp0 *= FIX_0_298631336;
+            tmp1 *= FIX_2_053119869;
+            tmp2 *= FIX_3_072711026;
+            tmp3 *= FIX_1_501321110;
+            z1 *= -FIX_0_899976223;
+            z2 *= -FIX_2_562915447;
+            z3 = z3 * -FIX_1_961570560 + z5;
+            z4 = z4 * -FIX_0_390180644 + z5;
+            tmp0 += z1 + z3;
+            tmp1 += z2 + z4;
+            tmp2 += z2 + z3;
+            tmp3 += z1 + z4;
+            final int n = ACCURATE_CONST_BITS - ACCURATE_PASS1_BITS;
+            block[i] = descale(tmp10 + tmp3, n);
+            block[56 + i] = descale(tmp10 - tmp3, n);
+            block[8 + i] = descale(tmp11 + tmp2, n);
+            block[48 + i] = descale(tmp11 - tmp2, n);
+            block[16 + i] = descale(tmp12 + tmp1, n);
+            block[40 + i] = descale(tmp12 - tmp1, n);
+            block[24 + i] = descale(tmp13 + tmp0, n);
+            block[32 + i] = descale(tmp13 - tmp0, n);
+        }
+
+        for (int row = 0; row < 64; row += 8) {
+            if ((block[row + 1] | block[row + 2] | block[row + 3] | block[row + 4] | block[row + 5] | block[row + 6] | block[row + 7]) == 0) {
+                final int dc = descale(block[row], ACCURATE_PASS1_BITS + 3);
+                for (int j = 0; j < 8; j++) {
+                    block[row + j] = dc;
+                }
+                continue;
+            }
+            // even part
+            int z2 = block[row + 2];
+            int z3 = block[row + 6];
+            int z1 = (z2 + z3) * FIX_0_541196100;
+            int tmp2 = z1 - z3 * FIX_1_847759065;
+            int tmp3 = z1 + z2 * FIX_0_765366865;
+            int tmp0 = block[row] + block[row + 4] << ACCURATE_CONST_BITS;
+            int tmp1 = block[row] - block[row + 4] << ACCURATE_CONST_BITS;
+            final int tmp10 = tmp0 + tmp3;
+            final int tmp13 = tmp0 - tmp3;
+            final int tmp11 = tmp1 + tmp2;
+            final int tmp12 = tmp1 - tmp2;
+            // odd part
+            tmp0 = block[row + 7];
+            tmp1 = block[row + 5];
+            tmp2 = block[row + 3];
+            tmp3 = block[row + 1];
+            z1 = tmp0 + tmp3;
+            z2 = tmp1 + tmp2;
+            z3 = tmp0 + tmp2;
+            int z4 = tmp1 + tmp3;
+            final int z5 = (z3 + z4) * FIX_1_175875602;
+            tmp0 *= FIX_0_298631336;
+            tmp1 *= FIX_2_053119869;
+            tmp2 *= FIX_3_072711026;
+            tmp3 *= FIX_1_501321110;
+            z1 *= -FIX_0_899976223;
+            z2 *= -FIX_2_562915447;
+            z3 = z3 * -FIX_1_961570560 + z5;
+            z4 = z4 * -FIX_0_390180644 + z5;
+            tmp0 += z1 + z3;
+            tmp1 += z2 + z4;
+            tmp2 += z2 + z3;
+            tmp3 += z1 + z4;
+            final int n = ACCURATE_CONST_BITS + ACCURATE_PASS1_BITS + 3;
+            block[row] = descale(tmp10 + tmp3, n);
+            block[row + 7] = descale(tmp10 - tmp3, n);
+            block[row + 1] = descale(tmp11 + tmp2, n);
+            block[row + 6] = descale(tmp11 - tmp2, n);
+            block[row + 2] = descale(tmp12 + tmp1, n);
+            block[row + 5] = descale(tmp12 - tmp1, n);
+            block[row + 3] = descale(tmp13 + tmp0, n);
+            block[row + 4] = descale(tmp13 - tmp0, n);
+        }
+    }
+
+    /**
+     * Faster and less accurate inverse DCT, whose coefficients must be dequantized with {@link #dequantizeFast(int[], int[])}.
+     *
+     * @param block the dequantized coefficients, receives the samples.
+     */
+    static void inverseDctFast(final int[] block) {
+        for (int i = 0; i < 8; i++) {
+            if ((block[8 + i] | block[16 + i] | block[24 + i] | block[32 + i] | block[40 + i] | block[48 + i] | block[56 + i]) == 0) {
+                final int dc = block[i];
+                for (int j = 8; j < 64; j += 8) {
+                    block[j + i] = dc;
+                }
+                continue;
+            }
+            // even part
+            int tmp0 = block[i];
+            int tmp1 = block[16 + i];
+            int tmp2 = block[32 + i];
+            int tmp3 = block[48 + i];
+            int tmp10 = tmp0 + tmp2;
+            int tmp11 = tmp0 - tmp2;
+            final int tmp13 = tmp1 + tmp3;
+            int tmp12 = multiplyFast(tmp1 - tmp3, FAST_1_414213562) - tmp13;
+            tmp0 = tmp10 + tmp13;
+            tmp3 = tmp10 - tmp13;
+            tmp1 = tmp11 + tmp12;
+            tmp2 = tmp11 - tmp12;
+            // odd part
+            final int tmp4 = block[8 + i];
+            final int tmp5 = block[24 + i];
+            final int tmp6 = block[40 + i];
+            final int tmp7 = block[56 + i];
+            final int z13 = tmp6 + tmp5;
+            final int z10 = tmp6 - tmp5;
+            final int z11 = tmp4 + tmp7;
+            final int z12 = tmp4 - tmp7;
+            final int odd7 = z11 + z13;
+            tmp11 = multiplyFast(z11 - z13, FAST_1_414213562);
+            final int z5 = multiplyFast(z10 + z12, FAST_1_847759065);
+            tmp10 = multiplyFast(z12, FAST_1_082392200) - z5;
+            tmp12 = multiplyFast(z10, -FAST_2_613125930) + z5;
+            final int odd6 = tmp12 - odd7;
+            final int odd5 = tmp11 - odd6;
+            final int odd4 = tmp10 + odd5;
+            block[i] = tmp0 + odd7;
+            block[56 + i] = tmp0 - odd7;
+            block[8 + i] = tmp1 + odd6;
+            block[48 + i] = tmp1 - odd6;
+            block[16 + i] = tmp2 + odd5;
+            block[40 + i] = tmp2 - odd5;
+            block[32 + i] = tmp3 + odd4;
+            block[24 + i] = tmp3 - odd4;
+        }
+
+        for (int row = 0; row < 64; row += 8) {
+            if ((block[row + 1] | block[row + 2] | block[row + 3] | block[row + 4] | block[row + 5] | block[row + 6] | block[row + 7]) == 0) {
+                final int dc = descale(block[row], FAST_PASS1_BITS + 3);
+                for (int j = 0; j < 8; j++) {
+                    block[row + j] = dc;
+                }
+                continue;
+            }
+            // even part
+            int tmp10 = block[row] + block[row + 4];
+            int tmp11 = block[row] - block[row + 4];
+            final int tmp13 = block[row + 2] + block[row + 6];
+            int tmp12 = multiplyFast(block[row + 2] - block[row + 6], FAST_1_414213562) - tmp13;
+            final int tmp0 = tmp10 + tmp13;
+            final int tmp3 = tmp10 - tmp13;
+            final int tmp1 = tmp11 + tmp12;
+            final int tmp2 = tmp11 - tmp12;
+            // odd part
+            final int z13 = block[row + 5] + block[row + 3];
+            final int z10 = block[row + 5] - block[row + 3];
+            final int z11 = block[row + 1] + block[row + 7];
+            final int z12 = block[row + 1] - block[row + 7];
+            final int odd7 = z11 + z13;
+            tmp11 = multiplyFast(z11 - z13, FAST_1_414213562);
+            final int z5 = multiplyFast(z10 + z12, FAST_1_847759065);
+            tmp10 = multiplyFast(z12, FAST_1_082392200) - z5;
+            tmp12 = multiplyFast(z10, -FAST_2_613125930) + z5;
+            final int odd6 = tmp12 - odd7;
+            final int odd5 = tmp11 - odd6;
+            final int odd4 = tmp10 + odd5;
+            final int n = FAST_PASS1_BITS + 3;
+            block[row] = descale(tmp0 + odd7, n);
+            block[row + 7] = descale(tmp0 - odd7, n);
+            block[row + 1] = descale(tmp1 + odd6, n);
+            block[row + 6] = descale(tmp1 - odd6, n);
+            block[row + 2] = descale(tmp2 + odd5, n);
+            block[row + 5] = descale(tmp2 - odd5, n);
+            block[row + 4] = descale(tmp3 + odd4, n);
+            block[row + 3] = descale(tmp3 - odd4, n);
+        }
+    }
+
+    private static int multiplyFast(final int x, final int c) {
+        // truncating like the IJG code, the error is far below that of the 8-bit constants
+        return x * c >> FAST_CONST_BITS;
+    }
+
+    private IntegerDct() {
+    }
+}
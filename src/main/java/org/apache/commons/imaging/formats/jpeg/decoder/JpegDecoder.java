@@ -18,25 +18,40 @@ package org.apache.commons.imaging.formats.jpeg.decoder;
 import static org.apache.commons.imaging.common.BinaryFunctions.read2Bytes;
 import static org.apache.commons.imaging.common.BinaryFunctions.readBytes;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
-import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.awt.image.DirectColorModel;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.commons.imaging.ImageFormats;
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.color.ColorConversions;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BinaryFileParser;
+import org.apache.commons.imaging.common.ByteConversions;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.common.Interrupts;
+import org.apache.commons.imaging.common.PixelBufferPool;
 import org.apache.commons.imaging.formats.jpeg.JpegConstants;
+import org.apache.commons.imaging.formats.jpeg.JpegIdctMethod;
+import org.apache.commons.imaging.formats.jpeg.JpegImagingParameters;
 import org.apache.commons.imaging.formats.jpeg.JpegUtils;
 import org.apache.commons.imaging.formats.jpeg.segments.DhtSegment;
 import org.apache.commons.imaging.formats.jpeg.segments.DhtSegment.HuffmanTable;
@@ -44,6 +59,7 @@ import org.apache.commons.imaging.formats.jpeg.segments.DqtSegment;
 import org.apache.commons.imaging.formats.jpeg.segments.DqtSegment.QuantizationTable;
 import org.apache.commons.imaging.formats.jpeg.segments.SofnSegment;
 import org.apache.commons.imaging.formats.jpeg.segments.SosSegment;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
 
@@ -56,34 +72,80 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
      * use (int)(x+0.5f) instead for positive numbers.
      */
 
+    private static int clampSample(final float sample, final int max) {
+        if (sample < 0) {
+            return 0;
+        }
+        if (sample > max) {
+            return max;
+        }
+        return fastRound(sample);
+    }
+
+    private static int clampSample(final int sample, final int max) {
+        return sample < 0 ? 0 : sample > max ? max : sample;
+    }
+
     private static int fastRound(final float x) {
         return (int) (x + 0.5f);
     }
 
+    private static boolean hasOnlyDc(final int[] zz) {
+        for (int k = 1; k < 64; k++) {
+            if (zz[k] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the position of the first marker at or after {@code from}, skipping stuffed bytes, restart markers and fill bytes.
+     *
+     * @param data array to examine
+     * @param from position to start at
+     * @return the position of the 0xFF byte starting the marker, or the length of the array if there is none
+     */
+    static int findMarker(final byte[] data, final int from) {
+        for (int pos = from; pos < data.length - 1; pos++) {
+            if ((0xff & data[pos]) == 0xff) {
+                final int b = 0xff & data[pos + 1];
+                if (b != 0 && b != 0xff && (b < (0xff & JpegConstants.RST0_MARKER) || b > (0xff & JpegConstants.RST7_MARKER))) {
+                    return pos;
+                }
+            }
+        }
+        return data.length;
+    }
+
     /**
      * Returns the positions of where each interval in the provided array starts. The number of start positions is also the count of intervals while the number
      * of restart markers found is equal to the number of start positions minus one (because restart markers are between intervals).
      *
      * @param scanPayload array to examine
-     * @return the start positions
+     * @param offset      position of the first byte of the payload
+     * @param length      number of bytes in the payload
+     * @return the start positions, relative to the array
      */
-    static List<Integer> getIntervalStartPositions(final int[] scanPayload) {
+    static List<Integer> getIntervalStartPositions(final byte[] scanPayload, final int offset, final int length) {
         final List<Integer> intervalStarts = new ArrayList<>();
-        intervalStarts.add(0);
+        intervalStarts.add(offset);
         boolean foundFF = false;
         boolean foundD0toD7 = false;
-        int pos = 0;
-        while (pos < scanPayload.length) {
+        int pos = offset;
+        final int end = offset + length;
+        while (pos < end) {
+            final int b = 0xff & scanPayload[pos];
             if (foundFF) {
                 // found 0xFF D0 .. 0xFF D7 => RST marker
-                if (scanPayload[pos] >= (0xff & JpegConstants.RST0_MARKER) && scanPayload[pos] <= (0xff & JpegConstants.RST7_MARKER)) {
+                if (b >= (0xff & JpegConstants.RST0_MARKER) && b <= (0xff & JpegConstants.RST7_MARKER)) {
                     foundD0toD7 = true;
                 } else { // found 0xFF followed by something else => no RST marker
                     foundFF = false;
                 }
             }
 
-            if (scanPayload[pos] == 0xFF) {
+            if (b == 0xFF) {
                 foundFF = true;
             }
 
@@ -100,13 +162,15 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
     }
 
     /**
-     * Returns an array of JpegInputStream where each field contains the JpegInputStream for one interval.
+     * Returns an array of JpegInputStream where each field contains the JpegInputStream for one interval. The streams read directly from the provided array.
      *
      * @param scanPayload array to read intervals from
+     * @param offset      position of the first byte of the payload
+     * @param length      number of bytes in the payload
      * @return JpegInputStreams for all intervals, at least one stream is always provided
      */
-    static JpegInputStream[] splitByRstMarkers(final int[] scanPayload) {
-        final List<Integer> intervalStarts = getIntervalStartPositions(scanPayload);
+    static JpegInputStream[] splitByRstMarkers(final byte[] scanPayload, final int offset, final int length) {
+        final List<Integer> intervalStarts = getIntervalStartPositions(scanPayload, offset, length);
         // get number of intervals in payload to init an array of appropriate length
         final int intervalCount = intervalStarts.size();
         final JpegInputStream[] streams = Allocator.array(intervalCount, JpegInputStream[]::new, JpegInputStream.SHALLOW_SIZE);
@@ -117,32 +181,119 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 // because each restart marker needs two bytes the end of
                 // this interval is two bytes before the next interval starts
                 to = intervalStarts.get(i + 1) - 2;
-            } else { // the last interval ends with the array
-                to = scanPayload.length;
+            } else { // the last interval ends with the payload
+                to = offset + length;
             }
-            final int[] interval = Arrays.copyOfRange(scanPayload, from, to);
-            streams[i] = new JpegInputStream(interval);
+            streams[i] = new JpegInputStream(scanPayload, from, to - from);
         }
         return streams;
     }
 
+    /**
+     * Working memory for decoding MCUs. Each thread decoding restart intervals uses its own instance.
+     */
+    private static final class McuBuffers {
+        final Block[] mcu;
+        final Block[] scaledMcu;
+        final int[] preds;
+        final int[] zz = new int[64];
+        final int[] blockInt = new int[64];
+        final float[] block = new float[64];
+        // chroma terms of the YCbCr conversion, for each chroma sample of a row
+        final int[] redTerms;
+        final int[] greenTerms;
+        final int[] blueTerms;
+
+        McuBuffers(final Block[] mcu, final int hSize, final int vSize, final int componentCount) {
+            this.mcu = mcu;
+            this.scaledMcu = Allocator.array(mcu.length, Block[]::new, Block.SHALLOW_SIZE);
+            Arrays.setAll(scaledMcu, i -> new Block(hSize, vSize));
+            this.preds = Allocator.intArray(componentCount);
+            this.redTerms = Allocator.intArray(hSize);
+            this.greenTerms = Allocator.intArray(hSize);
+            this.blueTerms = Allocator.intArray(hSize);
+        }
+    }
+
     private final DqtSegment.QuantizationTable[] quantizationTables = new DqtSegment.QuantizationTable[4];
-    private final DhtSegment.HuffmanTable[] huffmanDCTables = new DhtSegment.HuffmanTable[4];
-    private final DhtSegment.HuffmanTable[] huffmanACTables = new DhtSegment.HuffmanTable[4];
+    private final HuffmanLookupTable[] huffmanDCTables = new HuffmanLookupTable[4];
+    private final HuffmanLookupTable[] huffmanACTables = new HuffmanLookupTable[4];
     private SofnSegment sofnSegment;
     private SosSegment sosSegment;
     private final float[][] scaledQuantizationTables = new float[4][];
+    // natural order, not prescaled for the AAN inverse DCT, used by the reduced size inverse DCTs
+    private final float[][] quantizationMatrices = new float[4][];
+    // natural order, prescaled when the fast integer inverse DCT is used
+    private final int[][] integerQuantizationMatrices = new int[4][];
     private BufferedImage image;
     private ImagingException imageReadException;
     private IOException ioException;
 
-    private final int[] zz = new int[64];
+    private boolean useTiffRgb;
+
+    private boolean progressive;
 
-    private final int[] blockInt = new int[64];
+    // number of MCUs per restart interval, 0 if restart markers are not used
+    private int restartInterval;
 
-    private final float[] block = new float[64];
+    private final Executor restartIntervalExecutor;
 
-    private boolean useTiffRgb;
+    private final PixelBufferPool pixelBufferPool;
+
+    private final Instrumentation instrumentation;
+
+    private final JpegIdctMethod idctMethod;
+
+    // size of a decoded data unit: 8 at full size, 4, 2 or 1 when the image is scaled down
+    private final int blockSize;
+
+    // size of the decoded image, which is smaller than the frame when the image is scaled down
+    private int outputWidth;
+    private int outputHeight;
+
+    // the requested sub-image, null to decode the entire image
+    private final Rectangle subImage;
+
+    // whether all data units can be upsampled by the MCU writer, or need to be rescaled first
+    private boolean upsampleWhileWriting;
+
+    // the part of the decoded image that is written to the raster
+    private int regionX;
+    private int regionY;
+    private int regionWidth;
+    private int regionHeight;
+
+    // receives the rows as they are decoded instead of an image, null to decode to an image
+    private JpegScanlineSink sink;
+
+    // the row of the region at the start of the pixels being written, which hold a single MCU row when decoding to a sink
+    private int bandY;
+
+    /**
+     * Constructs a new decoder that decodes on the calling thread.
+     */
+    public JpegDecoder() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new decoder.
+     *
+     * @param params the decoding parameters, may be null.
+     * @since 1.0.0-alpha6
+     */
+    public JpegDecoder(final JpegImagingParameters params) {
+        this.restartIntervalExecutor = params != null ? params.getRestartIntervalExecutor() : null;
+        this.pixelBufferPool = params != null ? params.getPixelBufferPool() : null;
+        this.instrumentation = Instrumentation.of(params, ImageFormats.JPEG);
+        this.blockSize = params != null ? 8 / params.getScaleDenominator() : 8;
+        this.idctMethod = params != null ? params.getIdctMethod() : JpegIdctMethod.FLOAT;
+        if (params != null && params.isSubImageSet()) {
+            this.subImage = new Rectangle(params.getSubImageX(), params.getSubImageY(), params.getSubImageWidth(), params.getSubImageHeight());
+        } else {
+            this.subImage = null;
+        }
+    }
 
     private Block[] allocateMcuMemory() throws ImagingException {
         final Block[] mcu = Allocator.array(sosSegment.numberOfComponents, Block[]::new, Block.SHALLOW_SIZE);
@@ -158,18 +309,29 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
             if (frameComponent == null) {
                 throw new ImagingException("Invalid component");
             }
-            final Block fullBlock = new Block(8 * frameComponent.horizontalSamplingFactor, 8 * frameComponent.verticalSamplingFactor);
+            final Block fullBlock = new Block(blockSize * frameComponent.horizontalSamplingFactor, blockSize * frameComponent.verticalSamplingFactor);
             mcu[i] = fullBlock;
         }
         return mcu;
     }
 
+    private Block[] allocateFrameMcuMemory() {
+        final Block[] mcu = Allocator.array(sofnSegment.numberOfComponents, Block[]::new, Block.SHALLOW_SIZE);
+        for (int i = 0; i < sofnSegment.numberOfComponents; i++) {
+            final SofnSegment.Component frameComponent = sofnSegment.getComponents(i);
+            mcu[i] = new Block(blockSize * frameComponent.horizontalSamplingFactor, blockSize * frameComponent.verticalSamplingFactor);
+        }
+        return mcu;
+    }
+
     @Override
     public boolean beginSos() {
         return true;
     }
 
     public BufferedImage decode(final ByteSource byteSource) throws IOException, ImagingException {
+        sink = null;
+        instrumentation.enter(ImagingPhase.HEADER);
         final JpegUtils jpegUtils = new JpegUtils();
         jpegUtils.traverseJfif(byteSource, this);
         if (imageReadException != null) {
@@ -178,23 +340,208 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
         if (ioException != null) {
             throw ioException;
         }
+        instrumentation.finish();
         return image;
     }
 
-    private int decode(final JpegInputStream is, final DhtSegment.HuffmanTable huffmanTable) throws ImagingException {
-        // "DECODE", section F.2.2.3, figure F.16, page 109 of T.81
-        int i = 1;
-        int code = is.nextBit();
-        while (code > huffmanTable.getMaxCode(i)) {
-            i++;
-            code = code << 1 | is.nextBit();
+    /**
+     * Decodes a JPEG into a sink, one MCU row at a time, without holding the whole image in memory. Only the entropy-coded data of the file and, for
+     * progressive JPEGs, the DCT coefficients are kept. Restart intervals are decoded on the calling thread even if an executor is set.
+     *
+     * @param byteSource the JPEG.
+     * @param sink       receives the rows of the image.
+     * @throws ImagingException if the JPEG is invalid or unsupported.
+     * @throws IOException      if an I/O error occurs, or the sink throws one.
+     * @since 1.0.0-alpha6
+     */
+    public void decode(final ByteSource byteSource, final JpegScanlineSink sink) throws IOException, ImagingException {
+        this.sink = Objects.requireNonNull(sink, "sink");
+        try {
+            instrumentation.enter(ImagingPhase.HEADER);
+            new JpegUtils().traverseJfif(byteSource, this);
+            if (imageReadException != null) {
+                throw imageReadException;
+            }
+            if (ioException != null) {
+                throw ioException;
+            }
+            instrumentation.finish();
+        } finally {
+            this.sink = null;
+        }
+    }
+
+    /**
+     * Decodes every scan of a progressive JPEG, starting with the scan whose header was already read, and then converts the accumulated coefficients to
+     * pixels. Traversal of the file stops at the first SOS marker, so the remaining scans and the table segments between them are all in {@code imageData}.
+     */
+    private void decodeProgressive(final byte[] imageData, final int firstScanPayloadOffset, final int hMax, final int vMax, final int xMCUs,
+            final int yMCUs, final int[] pixels) throws ImagingException, IOException {
+        final ProgressiveScanDecoder scanDecoder = new ProgressiveScanDecoder(sofnSegment, hMax, vMax, xMCUs, yMCUs);
+        SosSegment scan = sosSegment;
+        int scanPayloadOffset = firstScanPayloadOffset;
+        while (scan != null) {
+            Interrupts.check();
+            final int scanPayloadEnd = findMarker(imageData, scanPayloadOffset);
+            final JpegInputStream[] intervals = splitByRstMarkers(imageData, scanPayloadOffset, scanPayloadEnd - scanPayloadOffset);
+            scanDecoder.decodeScan(scan, intervals, restartInterval, huffmanDCTables, huffmanACTables);
+
+            // process the table segments up to the next scan
+            scan = null;
+            for (int pos = scanPayloadEnd; pos < imageData.length; pos = findMarker(imageData, pos)) {
+                final int marker = 0xff00 | 0xff & imageData[pos + 1];
+                if (marker == JpegConstants.EOI_MARKER) {
+                    break;
+                }
+                pos += 2;
+                if (pos + 2 > imageData.length) {
+                    throw new ImagingException("Invalid Segment: insufficient data");
+                }
+                final int segmentLength = ByteConversions.toUInt16(imageData, pos, getByteOrder());
+                if (segmentLength < 2) {
+                    throw new ImagingException("Invalid segment size");
+                }
+                if (pos + segmentLength > imageData.length) {
+                    throw new ImagingException("Invalid Segment: insufficient data");
+                }
+                final byte[] segmentData = Arrays.copyOfRange(imageData, pos + 2, pos + segmentLength);
+                if (marker == JpegConstants.SOS_MARKER) {
+                    scan = new SosSegment(marker, segmentData);
+                    scanPayloadOffset = pos + segmentLength;
+                    break;
+                }
+                if (marker == JpegConstants.DHT_MARKER || marker == JpegConstants.DQT_MARKER || marker == JpegConstants.DRI_MARKER) {
+                    visitSegment(marker, Arrays.copyOfRange(imageData, pos - 2, pos), segmentLength, Arrays.copyOfRange(imageData, pos, pos + 2), segmentData);
+                }
+                pos += segmentLength;
+            }
+        }
+
+        final int hSize = blockSize * hMax;
+        final int vSize = blockSize * vMax;
+        final McuBuffers buffers = new McuBuffers(allocateFrameMcuMemory(), hSize, vSize, sofnSegment.numberOfComponents);
+        for (int mcuY = 0; mcuY < yMCUs && mcuY * vSize < regionY + regionHeight; mcuY++) {
+            startBand(mcuY * vSize);
+            for (int mcuX = 0; mcuX < xMCUs; mcuX++) {
+                if (!isMcuInRegion(mcuX * hSize, mcuY * vSize, hSize, vSize)) {
+                    continue;
+                }
+                for (int i = 0; i < sofnSegment.numberOfComponents; i++) {
+                    final SofnSegment.Component frameComponent = sofnSegment.getComponents(i);
+                    for (int y = 0; y < frameComponent.verticalSamplingFactor; y++) {
+                        for (int x = 0; x < frameComponent.horizontalSamplingFactor; x++) {
+                            scanDecoder.getBlock(i, mcuX * frameComponent.horizontalSamplingFactor + x, mcuY * frameComponent.verticalSamplingFactor + y,
+                                    buffers.zz);
+                            inverseTransformBlock(buffers, frameComponent, buffers.mcu[i], x, y);
+                        }
+                    }
+                }
+                writeMcu(buffers, mcuX * hSize, mcuY * vSize, hSize, vSize, pixels);
+            }
+            endBand(mcuY * vSize, vSize, pixels);
+        }
+    }
+
+    /**
+     * Moves the pixels being written to the MCU row starting at row {@code y1} of the decoded image, if the rows are sent to a sink.
+     */
+    private void startBand(final int y1) throws IOException {
+        Interrupts.check();
+        if (sink != null) {
+            bandY = Math.max(y1, regionY) - regionY;
+        }
+    }
+
+    /**
+     * Sends the rows of the region within the MCU row starting at row {@code y1} of the decoded image to the sink, if there is one.
+     */
+    private void endBand(final int y1, final int vSize, final int[] pixels) throws IOException {
+        if (sink != null) {
+            final int rows = Math.min(y1 + vSize, regionY + regionHeight) - Math.max(y1, regionY);
+            if (rows > 0) {
+                sink.rows(bandY, rows, pixels);
+            }
+        }
+    }
+
+    /**
+     * Decodes the restart intervals of the scan on the {@link #restartIntervalExecutor}. Each task decodes a run of consecutive intervals with its own
+     * buffers, straight into the shared raster.
+     *
+     * @throws InterruptedIOException if the thread is interrupted while waiting for the intervals.
+     */
+    private void decodeRestartIntervals(final JpegInputStream[] intervals, final int xMCUs, final int yMCUs, final int hSize, final int vSize,
+            final int[] pixels) throws ImagingException, IOException {
+        final int taskCount = Math.min(intervals.length, 4 * Runtime.getRuntime().availableProcessors());
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[taskCount];
+        for (int t = 0; t < taskCount; t++) {
+            final int firstInterval = (int) ((long) intervals.length * t / taskCount);
+            final int lastInterval = (int) ((long) intervals.length * (t + 1) / taskCount);
+            tasks[t] = CompletableFuture.runAsync(() -> {
+                try {
+                    final McuBuffers buffers = new McuBuffers(allocateMcuMemory(), hSize, vSize, sofnSegment.numberOfComponents);
+                    for (int i = firstInterval; i < lastInterval && !cancelled.get(); i++) {
+                        decodeIntervals(intervals, i, i + 1, buffers, xMCUs, yMCUs, hSize, vSize, pixels);
+                    }
+                } catch (final IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, restartIntervalExecutor);
+        }
+        try {
+            CompletableFuture.allOf(tasks).get();
+        } catch (final InterruptedException e) {
+            // tasks not yet started are dropped, running ones stop after their current interval
+            cancelled.set(true);
+            for (final CompletableFuture<?> task : tasks) {
+                task.cancel(false);
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing the image");
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new ImagingException("Decoding the restart intervals failed", e.getCause());
         }
-        int j = huffmanTable.getValPtr(i);
-        j += code - huffmanTable.getMinCode(i);
-        return huffmanTable.getHuffVal(j);
     }
 
-    private int extend(int v, final int t) {
+    /**
+     * Decodes the restart intervals from {@code firstInterval} (inclusive) to {@code lastInterval} (exclusive). Intervals are independent of each other
+     * because the DC predictions restart with every interval, so decoding an interval stops after its last MCU in the region being decoded, and intervals
+     * without any such MCU are not read at all.
+     */
+    private void decodeIntervals(final JpegInputStream[] intervals, final int firstInterval, final int lastInterval, final McuBuffers buffers,
+            final int xMCUs, final int yMCUs, final int hSize, final int vSize, final int[] pixels) throws ImagingException, IOException {
+        final long mcuCount = (long) xMCUs * yMCUs;
+        for (int i = firstInterval; i < lastInterval; i++) {
+            Interrupts.check();
+            final long start = (long) i * restartInterval;
+            long end = Math.min(mcuCount, start + restartInterval);
+            while (end > start && !isMcuInRegion((int) ((end - 1) % xMCUs) * hSize, (int) ((end - 1) / xMCUs) * vSize, hSize, vSize)) {
+                end--;
+            }
+            Arrays.fill(buffers.preds, 0);
+            for (long m = start; m < end; m++) {
+                final int x1 = (int) (m % xMCUs) * hSize;
+                final int y1 = (int) (m / xMCUs) * vSize;
+                final boolean inRegion = isMcuInRegion(x1, y1, hSize, vSize);
+                readMcu(intervals[i], buffers, inRegion);
+                if (inRegion) {
+                    writeMcu(buffers, x1, y1, hSize, vSize, pixels);
+                }
+            }
+        }
+    }
+
+    static int extend(int v, final int t) {
         // "EXTEND", section F.2.2.1, figure F.12, page 105 of T.81
         int vt = 1 << t - 1;
         if (v < vt) {
@@ -204,7 +551,93 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
         return v;
     }
 
-    private void readMcu(final JpegInputStream is, final int[] preds, final Block[] mcu) throws ImagingException {
+    /**
+     * Dequantizes the coefficients in {@code buffers.zz}, applies the inverse DCT and stores the samples of the resulting data unit at position (x, y) of
+     * {@code fullBlock}. When the image is scaled down, only the lowest frequencies are transformed, into a data unit of {@link #blockSize} squared samples.
+     */
+    private void inverseTransformBlock(final McuBuffers buffers, final SofnSegment.Component frameComponent, final Block fullBlock, final int x, final int y) {
+        final int[] zz = buffers.zz;
+        final float[] block = buffers.block;
+        final int shift = 1 << sofnSegment.precision - 1;
+        final int max = (1 << sofnSegment.precision) - 1;
+        final int rowStride = blockSize * frameComponent.horizontalSamplingFactor;
+        int dstRowOffset = blockSize * y * rowStride + blockSize * x;
+        final boolean integerIdct = idctMethod != JpegIdctMethod.FLOAT && sofnSegment.precision == 8;
+
+        if (blockSize == 8 && hasOnlyDc(zz)) {
+            // Without AC coefficients all samples are equal. Every pass of the float AA&N transform then only adds zeros to the
+            // dequantized DC coefficient, so this is exactly what the full transform would produce.
+            final int sample;
+            if (integerIdct) {
+                sample = clampSample((zz[0] * (int) quantizationMatrices[frameComponent.quantTabDestSelector][0] + 4 >> 3) + shift, max);
+            } else {
+                sample = clampSample(zz[0] * scaledQuantizationTables[frameComponent.quantTabDestSelector][0] + shift, max);
+            }
+            for (int yy = 0; yy < 8; yy++) {
+                Arrays.fill(fullBlock.samples, dstRowOffset, dstRowOffset + 8, sample);
+                dstRowOffset += rowStride;
+            }
+            return;
+        }
+
+        ZigZag.zigZagToBlock(zz, buffers.blockInt);
+        if (blockSize == 8 && integerIdct) {
+            final int[] blockInt = buffers.blockInt;
+            final int[] quantizationMatrix = integerQuantizationMatrices[frameComponent.quantTabDestSelector];
+            if (idctMethod == JpegIdctMethod.INTEGER_FAST) {
+                IntegerDct.dequantizeFast(blockInt, quantizationMatrix);
+                IntegerDct.inverseDctFast(blockInt);
+            } else {
+                for (int j = 0; j < 64; j++) {
+                    blockInt[j] *= quantizationMatrix[j];
+                }
+                IntegerDct.inverseDctAccurate(blockInt);
+            }
+            int srcNext = 0;
+            for (int yy = 0; yy < 8; yy++) {
+                for (int xx = 0; xx < 8; xx++) {
+                    fullBlock.samples[dstRowOffset + xx] = clampSample(blockInt[srcNext++] + shift, max);
+                }
+                dstRowOffset += rowStride;
+            }
+            return;
+        }
+        if (blockSize == 8) {
+            final float[] scaledQuantizationTable = scaledQuantizationTables[frameComponent.quantTabDestSelector];
+            for (int j = 0; j < 64; j++) {
+                block[j] = buffers.blockInt[j] * scaledQuantizationTable[j];
+            }
+            Dct.inverseDct8x8(block);
+        } else {
+            final float[] quantizationMatrix = quantizationMatrices[frameComponent.quantTabDestSelector];
+            for (int v = 0; v < blockSize; v++) {
+                for (int u = 0; u < blockSize; u++) {
+                    block[8 * v + u] = buffers.blockInt[8 * v + u] * quantizationMatrix[8 * v + u];
+                }
+            }
+            Dct.inverseDctReduced(block, blockSize);
+        }
+
+        int srcNext = 0;
+        for (int yy = 0; yy < blockSize; yy++) {
+            for (int xx = 0; xx < blockSize; xx++) {
+                fullBlock.samples[dstRowOffset + xx] = clampSample(block[srcNext++] + shift, max);
+            }
+            dstRowOffset += rowStride;
+        }
+    }
+
+    private boolean isMcuInRegion(final int x1, final int y1, final int hSize, final int vSize) {
+        return x1 < regionX + regionWidth && x1 + hSize > regionX && y1 < regionY + regionHeight && y1 + vSize > regionY;
+    }
+
+    /**
+     * Decodes the next MCU of the scan into {@code buffers.mcu}. If {@code transform} is false, the MCU is only entropy decoded, to move past it in the scan
+     * and keep the DC predictions up to date.
+     */
+    private void readMcu(final JpegInputStream is, final McuBuffers buffers, final boolean transform) throws ImagingException {
+        final int[] preds = buffers.preds;
+        final int[] zz = buffers.zz;
         for (int i = 0; i < sosSegment.numberOfComponents; i++) {
             final SosSegment.Component scanComponent = sosSegment.getComponents(i);
             SofnSegment.Component frameComponent = null;
@@ -217,12 +650,14 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
             if (frameComponent == null) {
                 throw new ImagingException("Invalid component");
             }
-            final Block fullBlock = mcu[i];
+            final Block fullBlock = buffers.mcu[i];
             for (int y = 0; y < frameComponent.verticalSamplingFactor; y++) {
                 for (int x = 0; x < frameComponent.horizontalSamplingFactor; x++) {
-                    Arrays.fill(zz, 0);
+                    if (transform) {
+                        Arrays.fill(zz, 0);
+                    }
                     // page 104 of T.81
-                    final int t = decode(is, huffmanDCTables[scanComponent.dcCodingTableSelector]);
+                    final int t = huffmanDCTables[scanComponent.dcCodingTableSelector].decode(is);
                     int diff = receive(t, is);
                     diff = extend(diff, t);
                     zz[0] = preds[i] + diff;
@@ -231,7 +666,7 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                     // "Decode_AC_coefficients", figure F.13, page 106 of T.81
                     int k = 1;
                     while (true) {
-                        final int rs = decode(is, huffmanACTables[scanComponent.acCodingTableSelector]);
+                        final int rs = huffmanACTables[scanComponent.acCodingTableSelector].decode(is);
                         final int ssss = rs & 0xf;
                         final int rrrr = rs >> 4;
                         final int r = rrrr;
@@ -255,41 +690,20 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                         }
                     }
 
-                    final int shift = 1 << sofnSegment.precision - 1;
-                    final int max = (1 << sofnSegment.precision) - 1;
-
-                    final float[] scaledQuantizationTable = scaledQuantizationTables[frameComponent.quantTabDestSelector];
-                    ZigZag.zigZagToBlock(zz, blockInt);
-                    for (int j = 0; j < 64; j++) {
-                        block[j] = blockInt[j] * scaledQuantizationTable[j];
-                    }
-                    Dct.inverseDct8x8(block);
-
-                    int dstRowOffset = 8 * y * 8 * frameComponent.horizontalSamplingFactor + 8 * x;
-                    int srcNext = 0;
-                    for (int yy = 0; yy < 8; yy++) {
-                        for (int xx = 0; xx < 8; xx++) {
-                            float sample = block[srcNext++];
-                            sample += shift;
-                            int result;
-                            if (sample < 0) {
-                                result = 0;
-                            } else if (sample > max) {
-                                result = max;
-                            } else {
-                                result = fastRound(sample);
-                            }
-                            fullBlock.samples[dstRowOffset + xx] = result;
-                        }
-                        dstRowOffset += 8 * frameComponent.horizontalSamplingFactor;
+                    if (transform) {
+                        inverseTransformBlock(buffers, frameComponent, fullBlock, x, y);
                     }
                 }
             }
         }
     }
 
-    private int receive(final int ssss, final JpegInputStream is) throws ImagingException {
+    static int receive(final int ssss, final JpegInputStream is) throws ImagingException {
         // "RECEIVE", section F.2.2.4, figure F.17, page 110 of T.81
+        if (ssss <= 16) {
+            return ssss == 0 ? 0 : is.getBits(ssss);
+        }
+        // only corrupt DC tables get here
         int i = 0;
         int v = 0;
         while (i != ssss) {
@@ -344,15 +758,20 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
     @Override
     public boolean visitSegment(final int marker, final byte[] markerBytes, final int segmentLength, final byte[] segmentLengthBytes, final byte[] segmentData)
             throws ImagingException, IOException {
+        instrumentation.addBytesRead(markerBytes.length + segmentLengthBytes.length + segmentData.length);
         final int[] sofnSegments = { JpegConstants.SOF0_MARKER, JpegConstants.SOF1_MARKER, JpegConstants.SOF2_MARKER, JpegConstants.SOF3_MARKER,
                 JpegConstants.SOF5_MARKER, JpegConstants.SOF6_MARKER, JpegConstants.SOF7_MARKER, JpegConstants.SOF9_MARKER, JpegConstants.SOF10_MARKER,
                 JpegConstants.SOF11_MARKER, JpegConstants.SOF13_MARKER, JpegConstants.SOF14_MARKER, JpegConstants.SOF15_MARKER, };
 
         if (Arrays.binarySearch(sofnSegments, marker) >= 0) {
-            if (marker != JpegConstants.SOF0_MARKER) {
-                throw new ImagingException("Only sequential, baseline JPEGs " + "are supported at the moment");
+            if (marker != JpegConstants.SOF0_MARKER && marker != JpegConstants.SOF2_MARKER) {
+                throw new ImagingException("Only sequential, baseline and progressive JPEGs " + "are supported at the moment");
             }
             sofnSegment = new SofnSegment(marker, segmentData);
+            progressive = marker == JpegConstants.SOF2_MARKER;
+            if (progressive && sofnSegment.precision != 8) {
+                throw new ImagingException("Only 8-bit progressive JPEGs are supported at the moment");
+            }
         } else if (marker == JpegConstants.DQT_MARKER) {
             final DqtSegment dqtSegment = new DqtSegment(marker, segmentData);
             for (final QuantizationTable table : dqtSegment.quantizationTables) {
@@ -367,13 +786,22 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 for (int j = 0; j < mSize; j++) {
                     quantizationMatrixFloat[j] = quantizationMatrixInt[j];
                 }
+                quantizationMatrices[table.destinationIdentifier] = quantizationMatrixFloat.clone();
+                integerQuantizationMatrices[table.destinationIdentifier] = idctMethod == JpegIdctMethod.INTEGER_FAST
+                        ? IntegerDct.fastDequantizationMatrix(quantizationMatrixInt)
+                        : quantizationMatrixInt;
                 Dct.scaleDequantizationMatrix(quantizationMatrixFloat);
                 scaledQuantizationTables[table.destinationIdentifier] = quantizationMatrixFloat;
             }
+        } else if (marker == JpegConstants.DRI_MARKER) {
+            // a malformed DRI only matters for parallel decoding, which is then not used
+            if (segmentData.length >= 2) {
+                restartInterval = ByteConversions.toUInt16(segmentData, getByteOrder());
+            }
         } else if (marker == JpegConstants.DHT_MARKER) {
             final DhtSegment dhtSegment = new DhtSegment(marker, segmentData);
             for (final HuffmanTable table : dhtSegment.huffmanTables) {
-                DhtSegment.HuffmanTable[] tables;
+                HuffmanLookupTable[] tables;
                 if (table.tableClass == 0) {
                     tables = huffmanDCTables;
                 } else if (table.tableClass == 1) {
@@ -384,7 +812,7 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 if (0 > table.destinationIdentifier || table.destinationIdentifier >= tables.length) {
                     throw new ImagingException("Invalid huffman table identifier " + table.destinationIdentifier);
                 }
-                tables[table.destinationIdentifier] = table;
+                tables[table.destinationIdentifier] = new HuffmanLookupTable(table);
             }
         }
         return true;
@@ -392,21 +820,19 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
 
     @Override
     public void visitSos(final int marker, final byte[] markerBytes, final byte[] imageData) {
+        instrumentation.addBytesRead(markerBytes.length + imageData.length);
         try (ByteArrayInputStream is = new ByteArrayInputStream(imageData)) {
             // read the scan header
             final int segmentLength = read2Bytes("segmentLength", is, "Not a Valid JPEG File", getByteOrder());
             final byte[] sosSegmentBytes = readBytes("SosSegment", is, segmentLength - 2, "Not a Valid JPEG File");
             sosSegment = new SosSegment(marker, sosSegmentBytes);
-            // read the payload of the scan, this is the remainder of image data after the header
+            // the payload of the scan is the remainder of image data after the header
             // the payload contains the entropy-encoded segments (or ECS) divided by RST markers
             // or only one ECS if the entropy-encoded data is not divided by RST markers
             // length of payload = length of image data - length of data already read
-            final int[] scanPayload = Allocator.intArray(imageData.length - segmentLength);
-            int payloadReadCount = 0;
-            while (payloadReadCount < scanPayload.length) {
-                scanPayload[payloadReadCount] = is.read();
-                payloadReadCount++;
-            }
+            // it is decoded in place, without copying it out of imageData
+            final int scanPayloadOffset = segmentLength;
+            final int scanPayloadLength = imageData.length - segmentLength;
 
             int hMax = 0;
             int vMax = 0;
@@ -414,18 +840,56 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 hMax = Math.max(hMax, sofnSegment.getComponents(i).horizontalSamplingFactor);
                 vMax = Math.max(vMax, sofnSegment.getComponents(i).verticalSamplingFactor);
             }
-            final int hSize = 8 * hMax;
-            final int vSize = 8 * vMax;
-
-            final int xMCUs = (sofnSegment.width + hSize - 1) / hSize;
-            final int yMCUs = (sofnSegment.height + vSize - 1) / vSize;
-            final Block[] mcu = allocateMcuMemory();
-            final Block[] scaledMCU = Allocator.array(mcu.length, Block[]::new, Block.SHALLOW_SIZE);
-            Arrays.setAll(scaledMCU, i -> new Block(hSize, vSize));
-            final int[] preds = Allocator.intArray(sofnSegment.numberOfComponents);
-            ColorModel colorModel;
-            WritableRaster raster;
-            Allocator.check(Integer.BYTES * sofnSegment.width * sofnSegment.height);
+            final int hSize = blockSize * hMax;
+            final int vSize = blockSize * vMax;
+
+            upsampleWhileWriting = true;
+            for (int i = 0; i < sofnSegment.numberOfComponents; i++) {
+                final SofnSegment.Component component = sofnSegment.getComponents(i);
+                final int hScale = hMax / component.horizontalSamplingFactor;
+                final int vScale = vMax / component.verticalSamplingFactor;
+                if (hMax % component.horizontalSamplingFactor != 0 || vMax % component.verticalSamplingFactor != 0
+                        || Integer.bitCount(hScale) != 1 || Integer.bitCount(vScale) != 1) {
+                    upsampleWhileWriting = false;
+                }
+            }
+
+            // the MCU grid is that of the full size frame, even if the image is scaled down
+            final int xMCUs = (sofnSegment.width + 8 * hMax - 1) / (8 * hMax);
+            final int yMCUs = (sofnSegment.height + 8 * vMax - 1) / (8 * vMax);
+            final int scaleDenominator = 8 / blockSize;
+            outputWidth = (sofnSegment.width + scaleDenominator - 1) / scaleDenominator;
+            outputHeight = (sofnSegment.height + scaleDenominator - 1) / scaleDenominator;
+            if (subImage != null) {
+                // the same checks as for TIFF sub-images, which are consistent with BufferedImage.getSubimage()
+                if (subImage.x >= outputWidth) {
+                    throw new ImagingException("Subimage x is outside raster.");
+                }
+                if (subImage.x + subImage.width > outputWidth) {
+                    throw new ImagingException("Subimage (x+width) is outside raster.");
+                }
+                if (subImage.y >= outputHeight) {
+                    throw new ImagingException("Subimage y is outside raster.");
+                }
+                if (subImage.y + subImage.height > outputHeight) {
+                    throw new ImagingException("Subimage (y+height) is outside raster.");
+                }
+                regionX = subImage.x;
+                regionY = subImage.y;
+                regionWidth = subImage.width;
+                regionHeight = subImage.height;
+            } else {
+                regionX = 0;
+                regionY = 0;
+                regionWidth = outputWidth;
+                regionHeight = outputHeight;
+            }
+            final Block[] mcu = progressive ? allocateFrameMcuMemory() : allocateMcuMemory();
+            final ColorModel colorModel;
+            // a sink only needs the pixels of one MCU row
+            final int rasterHeight = sink != null ? Math.min(vSize, regionHeight) : regionHeight;
+            final int rasterSize = Allocator.check(regionWidth * rasterHeight, Integer.BYTES);
+            final int[] bandMasks;
             switch (sofnSegment.numberOfComponents) {
             case 4:
                 // Special handling for the application-RGB case: TIFF files with
@@ -434,22 +898,20 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 // with a fourth channel for alpha.
                 if (useTiffRgb) {
                     colorModel = new DirectColorModel(32, 0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000);
-                    raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, sofnSegment.width, sofnSegment.height, BAND_MASK_ARGB, null);
+                    bandMasks = BAND_MASK_ARGB;
                 } else {
                     colorModel = new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff);
-                    raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, sofnSegment.width, sofnSegment.height, BAND_MASK_RGB, null);
+                    bandMasks = BAND_MASK_RGB;
                 }
 
                 break;
             case 3:
                 colorModel = new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff);
-                raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, sofnSegment.width, sofnSegment.height, new int[] { 0x00ff0000, 0x0000ff00, 0x000000ff },
-                        null);
+                bandMasks = BAND_MASK_RGB;
                 break;
             case 1:
                 colorModel = new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff);
-                raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, sofnSegment.width, sofnSegment.height, new int[] { 0x00ff0000, 0x0000ff00, 0x000000ff },
-                        null);
+                bandMasks = BAND_MASK_RGB;
                 // FIXME: why do images come out too bright with CS_GRAY?
                 // colorModel = new ComponentColorModel(
                 // ColorSpace.getInstance(ColorSpace.CS_GRAY), false, true,
@@ -460,116 +922,63 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
             default:
                 throw new ImagingException(sofnSegment.numberOfComponents + " components are invalid or unsupported");
             }
-            final DataBuffer dataBuffer = raster.getDataBuffer();
-
-            final JpegInputStream[] bitInputStreams = splitByRstMarkers(scanPayload);
-            int bitInputStreamCount = 0;
-            JpegInputStream bitInputStream = bitInputStreams[0];
-
-            for (int y1 = 0; y1 < vSize * yMCUs; y1 += vSize) {
-                for (int x1 = 0; x1 < hSize * xMCUs; x1 += hSize) {
-                    // Provide the next interval if an interval is read until it's end
-                    // as long there are unread intervals available
-                    if (!bitInputStream.hasNext()) {
-                        bitInputStreamCount++;
-                        if (bitInputStreamCount < bitInputStreams.length) {
-                            bitInputStream = bitInputStreams[bitInputStreamCount];
-                        }
-                    }
+            instrumentation.enter(ImagingPhase.RASTER_BUILD);
+            // the rasters are all packed into an int per pixel; the pixels of a sink's band are not handed out, so they are not pooled
+            final int[] pixels = pixelBufferPool != null && sink == null ? pixelBufferPool.intArray(rasterSize) : new int[rasterSize];
+            final WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(pixels, rasterSize), regionWidth, rasterHeight, regionWidth, bandMasks,
+                    null);
+            bandY = 0;
+            if (sink != null) {
+                sink.begin(regionWidth, regionHeight);
+            }
+            // the colors of each MCU are converted as soon as it is decoded, so the conversion is part of this phase
+            instrumentation.enter(ImagingPhase.DECOMPRESS);
 
-                    readMcu(bitInputStream, preds, mcu);
-                    rescaleMcu(mcu, hSize, vSize, scaledMCU);
-                    int srcRowOffset = 0;
-                    int dstRowOffset = y1 * sofnSegment.width + x1;
-
-                    // The TIFF-RGB logic was adapted from the original x2,y2 loops
-                    // but special handling was added for TIFF-JPEG RGB colorspace
-                    // and conditional checks were reorganized for efficiency
-                    if (useTiffRgb && (scaledMCU.length == 3 || scaledMCU.length == 4)) {
-                        // The original (legacy) coding for the x2 and y2 loop was:
-                        // for(y2 = 0; y2 < vSize && y1 + y2 < sofnSegment.height; y2++)
-                        // for(x2 = 0; x2 < hSize && x1 + x2 < sofnSegment.width; x2++)
-                        // Here, we pre-compute the limits of the loop to reduce the
-                        // overhead for the loop conditional evaluation.
-                        final int x2Limit;
-                        if (x1 + hSize <= sofnSegment.width) {
-                            x2Limit = hSize;
-                        } else {
-                            x2Limit = sofnSegment.width - x1;
-                        }
-                        final int y2Limit;
-                        if (y1 + vSize <= sofnSegment.height) {
-                            y2Limit = vSize;
-                        } else {
-                            y2Limit = sofnSegment.height - y1;
-                        }
+            if (progressive) {
+                decodeProgressive(imageData, scanPayloadOffset, hMax, vMax, xMCUs, yMCUs, pixels);
+            } else {
+                final JpegInputStream[] bitInputStreams = splitByRstMarkers(imageData, scanPayloadOffset, scanPayloadLength);
+                final boolean independentIntervals = bitInputStreams.length > 1 && restartInterval > 0
+                        && bitInputStreams.length == ((long) xMCUs * yMCUs + restartInterval - 1) / restartInterval;
+                if (restartIntervalExecutor != null && independentIntervals && sink == null) {
+                    decodeRestartIntervals(bitInputStreams, xMCUs, yMCUs, hSize, vSize, pixels);
+                } else if (subImage != null && independentIntervals && sink == null) {
+                    final McuBuffers buffers = new McuBuffers(mcu, hSize, vSize, sofnSegment.numberOfComponents);
+                    decodeIntervals(bitInputStreams, 0, bitInputStreams.length, buffers, xMCUs, yMCUs, hSize, vSize, pixels);
+                } else {
+                    final McuBuffers buffers = new McuBuffers(mcu, hSize, vSize, sofnSegment.numberOfComponents);
+                    int bitInputStreamCount = 0;
+                    JpegInputStream bitInputStream = bitInputStreams[0];
 
-                        if (scaledMCU.length == 4) {
-                            // RGBA colorspace
-                            // Although conventional JPEGs don't include an alpha channel
-                            // TIFF images that use JPEG encoding may do so. For example,
-                            // we have seen this variation in some false-color satellite images
-                            // from the U.S. National Weather Service. Ordinary JPEG files
-                            // may include an APP14 marker of type Unknowm indicating that
-                            // the scaledMCU.length of 3 should be interpreted as the RGB colorspace
-                            // and the 4-channel variation is interpreted as CYMK. But TIFF files
-                            // use their own tags to specify colorspace and do not include the APP14 marker.
-                            for (int y2 = 0; y2 < y2Limit; y2++) {
-                                for (int x2 = 0; x2 < x2Limit; x2++) {
-                                    final int r = scaledMCU[0].samples[srcRowOffset + x2];
-                                    final int g = scaledMCU[1].samples[srcRowOffset + x2];
-                                    final int b = scaledMCU[2].samples[srcRowOffset + x2];
-                                    final int a = scaledMCU[3].samples[srcRowOffset + x2];
-                                    final int rgb = a << 24 | r << 16 | g << 8 | b;
-                                    dataBuffer.setElem(dstRowOffset + x2, rgb);
+                    // nothing below the region needs to be decoded
+                    for (int y1 = 0; y1 < vSize * yMCUs && y1 < regionY + regionHeight; y1 += vSize) {
+                        startBand(y1);
+                        for (int x1 = 0; x1 < hSize * xMCUs; x1 += hSize) {
+                            // Provide the next interval if an interval is read until it's end
+                            // as long there are unread intervals available
+                            if (!bitInputStream.hasNext()) {
+                                bitInputStreamCount++;
+                                if (bitInputStreamCount < bitInputStreams.length) {
+                                    bitInputStream = bitInputStreams[bitInputStreamCount];
+                                    // the DC predictions restart with every interval, section F.2.1.3.1 of T.81
+                                    Arrays.fill(buffers.preds, 0);
                                 }
-                                srcRowOffset += hSize;
-                                dstRowOffset += sofnSegment.width;
                             }
-                        } else {
-                            // scaledMCU.length == 3, standard RGB
-                            for (int y2 = 0; y2 < y2Limit; y2++) {
-                                for (int x2 = 0; x2 < x2Limit; x2++) {
-                                    final int r = scaledMCU[0].samples[srcRowOffset + x2];
-                                    final int g = scaledMCU[1].samples[srcRowOffset + x2];
-                                    final int b = scaledMCU[2].samples[srcRowOffset + x2];
-                                    final int rgb = r << 16 | g << 8 | b;
-                                    dataBuffer.setElem(dstRowOffset + x2, rgb);
-                                }
-                                srcRowOffset += hSize;
-                                dstRowOffset += sofnSegment.width;
-                            }
-                        }
-                    } else {
-                        for (int y2 = 0; y2 < vSize && y1 + y2 < sofnSegment.height; y2++) {
-                            for (int x2 = 0; x2 < hSize && x1 + x2 < sofnSegment.width; x2++) {
-                                if (scaledMCU.length == 4) {
-                                    final int c = scaledMCU[0].samples[srcRowOffset + x2];
-                                    final int m = scaledMCU[1].samples[srcRowOffset + x2];
-                                    final int y = scaledMCU[2].samples[srcRowOffset + x2];
-                                    final int k = scaledMCU[3].samples[srcRowOffset + x2];
-                                    final int rgb = ColorConversions.convertCmykToRgb(c, m, y, k);
-                                    dataBuffer.setElem(dstRowOffset + x2, rgb);
-                                } else if (scaledMCU.length == 3) {
-                                    final int y = scaledMCU[0].samples[srcRowOffset + x2];
-                                    final int cb = scaledMCU[1].samples[srcRowOffset + x2];
-                                    final int cr = scaledMCU[2].samples[srcRowOffset + x2];
-                                    final int rgb = YCbCrConverter.convertYCbCrToRgb(y, cb, cr);
-                                    dataBuffer.setElem(dstRowOffset + x2, rgb);
-                                } else if (mcu.length == 1) {
-                                    final int y = scaledMCU[0].samples[srcRowOffset + x2];
-                                    dataBuffer.setElem(dstRowOffset + x2, y << 16 | y << 8 | y);
-                                } else {
-                                    throw new ImagingException("Unsupported JPEG with " + mcu.length + " components");
-                                }
+
+                            final boolean inRegion = isMcuInRegion(x1, y1, hSize, vSize);
+                            readMcu(bitInputStream, buffers, inRegion);
+                            if (inRegion) {
+                                writeMcu(buffers, x1, y1, hSize, vSize, pixels);
                             }
-                            srcRowOffset += hSize;
-                            dstRowOffset += sofnSegment.width;
                         }
+                        endBand(y1, vSize, pixels);
                     }
                 }
             }
-            image = new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), new Properties());
+            if (sink == null) {
+                instrumentation.enter(ImagingPhase.RASTER_BUILD);
+                image = new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), new Properties());
+            }
             // byte[] remainder = super.getStreamBytes(is);
             // for (int i = 0; i < remainder.length; i++)
             // {
@@ -585,4 +994,130 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
             imageReadException = new ImagingException("Error parsing JPEG", ex);
         }
     }
+
+    /**
+     * Writes the decoded MCU in {@code buffers.mcu} to the pixels, upsampling its subsampled data units while converting them if the sampling factors allow,
+     * or else after rescaling them to the size of the MCU.
+     */
+    private void writeMcu(final McuBuffers buffers, final int x1, final int y1, final int hSize, final int vSize, final int[] pixels)
+            throws ImagingException {
+        if (upsampleWhileWriting) {
+            writeMcu(buffers, buffers.mcu, x1, y1, hSize, vSize, pixels);
+        } else {
+            rescaleMcu(buffers.mcu, hSize, vSize, buffers.scaledMcu);
+            writeMcu(buffers, buffers.scaledMcu, x1, y1, hSize, vSize, pixels);
+        }
+    }
+
+    /**
+     * Converts the part of an MCU within the region to RGB, a row at a time, straight into the pixels of the raster. Each data unit is either the size of the
+     * MCU or smaller by a power of two in each direction, in which case its samples are replicated.
+     */
+    private void writeMcu(final McuBuffers buffers, final Block[] mcu, final int x1, final int y1, final int hSize, final int vSize, final int[] pixels)
+            throws ImagingException {
+        if (mcu.length != 1 && mcu.length != 3 && mcu.length != 4) {
+            throw new ImagingException("Unsupported JPEG with " + mcu.length + " components");
+        }
+        // the part of the MCU within the region, relative to the MCU
+        final int x2Start = Math.max(0, regionX - x1);
+        final int x2Limit = Math.min(hSize, regionX + regionWidth - x1);
+        final int y2Start = Math.max(0, regionY - y1);
+        final int y2Limit = Math.min(vSize, regionY + regionHeight - y1);
+        int dstRowOffset = (y1 + y2Start - regionY - bandY) * regionWidth + x1 - regionX;
+
+        final int[] samples0 = mcu[0].samples;
+        final int hShift0 = Integer.numberOfTrailingZeros(hSize / mcu[0].width);
+        final int vShift0 = Integer.numberOfTrailingZeros(vSize / mcu[0].height);
+        if (mcu.length == 1) {
+            for (int y2 = y2Start; y2 < y2Limit; y2++) {
+                final int row0 = (y2 >> vShift0) * mcu[0].width;
+                for (int x2 = x2Start; x2 < x2Limit; x2++) {
+                    final int y = samples0[row0 + (x2 >> hShift0)];
+                    pixels[dstRowOffset + x2] = y << 16 | y << 8 | y;
+                }
+                dstRowOffset += regionWidth;
+            }
+            return;
+        }
+
+        final int[] samples1 = mcu[1].samples;
+        final int hShift1 = Integer.numberOfTrailingZeros(hSize / mcu[1].width);
+        final int vShift1 = Integer.numberOfTrailingZeros(vSize / mcu[1].height);
+        final int[] samples2 = mcu[2].samples;
+        final int hShift2 = Integer.numberOfTrailingZeros(hSize / mcu[2].width);
+        final int vShift2 = Integer.numberOfTrailingZeros(vSize / mcu[2].height);
+        // Cb and Cr are almost always subsampled alike, and then their terms are only computed once for all the pixels that share them
+        final boolean shareChromaTerms = hShift1 == hShift2 && vShift1 == vShift2 && mcu[1].width == mcu[2].width && (hShift1 > 0 || vShift1 > 0);
+        int chromaRow = -1;
+        for (int y2 = y2Start; y2 < y2Limit; y2++) {
+            final int row0 = (y2 >> vShift0) * mcu[0].width;
+            final int row1 = (y2 >> vShift1) * mcu[1].width;
+            final int row2 = (y2 >> vShift2) * mcu[2].width;
+            if (mcu.length == 3 && !useTiffRgb && shareChromaTerms) {
+                final int[] redTerms = buffers.redTerms;
+                final int[] greenTerms = buffers.greenTerms;
+                final int[] blueTerms = buffers.blueTerms;
+                if (row1 != chromaRow) {
+                    chromaRow = row1;
+                    for (int c = x2Start >> hShift1; c <= x2Limit - 1 >> hShift1; c++) {
+                        final int cb = samples1[row1 + c];
+                        final int cr = samples2[row1 + c];
+                        redTerms[c] = YCbCrConverter.redTerm(cr);
+                        greenTerms[c] = YCbCrConverter.greenTerm(cb, cr);
+                        blueTerms[c] = YCbCrConverter.blueTerm(cb);
+                    }
+                }
+                for (int x2 = x2Start; x2 < x2Limit; x2++) {
+                    final int c = x2 >> hShift1;
+                    pixels[dstRowOffset + x2] = YCbCrConverter.toRgb(samples0[row0 + (x2 >> hShift0)], redTerms[c], greenTerms[c], blueTerms[c]);
+                }
+            } else if (mcu.length == 3 && !useTiffRgb) {
+                for (int x2 = x2Start; x2 < x2Limit; x2++) {
+                    final int y = samples0[row0 + (x2 >> hShift0)];
+                    final int cb = samples1[row1 + (x2 >> hShift1)];
+                    final int cr = samples2[row2 + (x2 >> hShift2)];
+                    pixels[dstRowOffset + x2] = YCbCrConverter.convertYCbCrToRgb(y, cb, cr);
+                }
+            } else if (mcu.length == 3) {
+                // TIFF files with JPEG compression may use the RGB colorspace
+                for (int x2 = x2Start; x2 < x2Limit; x2++) {
+                    final int r = samples0[row0 + (x2 >> hShift0)];
+                    final int g = samples1[row1 + (x2 >> hShift1)];
+                    final int b = samples2[row2 + (x2 >> hShift2)];
+                    pixels[dstRowOffset + x2] = r << 16 | g << 8 | b;
+                }
+            } else {
+                final int[] samples3 = mcu[3].samples;
+                final int row3 = (y2 >> Integer.numberOfTrailingZeros(vSize / mcu[3].height)) * mcu[3].width;
+                final int hShift3 = Integer.numberOfTrailingZeros(hSize / mcu[3].width);
+                if (useTiffRgb) {
+                    // RGBA colorspace
+                    // Although conventional JPEGs don't include an alpha channel
+                    // TIFF images that use JPEG encoding may do so. For example,
+                    // we have seen this variation in some false-color satellite images
+                    // from the U.S. National Weather Service. Ordinary JPEG files
+                    // may include an APP14 marker of type Unknowm indicating that
+                    // the scaledMCU.length of 3 should be interpreted as the RGB colorspace
+                    // and the 4-channel variation is interpreted as CYMK. But TIFF files
+                    // use their own tags to specify colorspace and do not include the APP14 marker.
+                    for (int x2 = x2Start; x2 < x2Limit; x2++) {
+                        final int r = samples0[row0 + (x2 >> hShift0)];
+                        final int g = samples1[row1 + (x2 >> hShift1)];
+                        final int b = samples2[row2 + (x2 >> hShift2)];
+                        final int a = samples3[row3 + (x2 >> hShift3)];
+                        pixels[dstRowOffset + x2] = a << 24 | r << 16 | g << 8 | b;
+                    }
+                } else {
+                    for (int x2 = x2Start; x2 < x2Limit; x2++) {
+                        final int c = samples0[row0 + (x2 >> hShift0)];
+                        final int m = samples1[row1 + (x2 >> hShift1)];
+                        final int y = samples2[row2 + (x2 >> hShift2)];
+                        final int k = samples3[row3 + (x2 >> hShift3)];
+                        pixels[dstRowOffset + x2] = ColorConversions.convertCmykToRgb(c, m, y, k);
+                    }
+                }
+            }
+            dstRowOffset += regionWidth;
+        }
+    }
 }
@@ -15,72 +15,148 @@
 
 package org.apache.commons.imaging.formats.jpeg.decoder;
 
-import java.util.Arrays;
-
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.formats.jpeg.JpegConstants;
 
 final class JpegInputStream {
-    static final int SHALLOW_SIZE = 32;
+    static final int SHALLOW_SIZE = 40;
+    private static final int NOT_STOPPED = 0;
+    private static final int STOPPED_AT_END = -1;
     // Figure F.18, F.2.2.5, page 111 of ITU-T T.81
-    private final int[] interval;
+    // the scan data, shared between intervals; this interval ends at endPos
+    private final byte[] interval;
     // next position in the array to read
     private int nextPos;
-    private int cnt;
-    private int b;
+    // position after the last byte of the interval
+    private final int endPos;
+    // bit reservoir, the lowest bitCount bits are unread
+    private long bits;
+    private int bitCount;
+    // why the reservoir stopped filling: NOT_STOPPED, STOPPED_AT_END or the marker found after 0xFF
+    private int stopReason;
 
-    JpegInputStream(final int[] interval) {
-        this.interval = Arrays.copyOf(interval, interval.length);
-        this.nextPos = 0;
+    JpegInputStream(final byte[] interval) {
+        this(interval, 0, interval.length);
     }
 
     /**
-     * Returns {@code true} as long there are unread fields available, else {@code false}
+     * Constructs a stream reading {@code length} bytes of {@code data}, starting at {@code offset}. The bytes are not copied.
      *
-     * @return {@code true} as long there are unread fields available, else {@code false}
+     * @param data   the array holding the entropy-coded data.
+     * @param offset the position of the first byte of the interval.
+     * @param length the number of bytes in the interval.
      */
-    public boolean hasNext() {
-        return nextPos < this.interval.length;
+    JpegInputStream(final byte[] data, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset > data.length - length) {
+            throw new IndexOutOfBoundsException("Interval [" + offset + ", " + (offset + length) + ") is outside the array of length " + data.length);
+        }
+        this.interval = data;
+        this.nextPos = offset;
+        this.endPos = offset + length;
     }
 
-    public int nextBit() throws ImagingException {
-        if (cnt == 0) {
-            b = read();
-            if (b < 0) {
-                throw new ImagingException("Premature End of File");
+    /**
+     * Loads whole bytes into the reservoir, removing byte stuffing, until it holds more than 56 bits or the end of the interval or a marker is reached.
+     */
+    private void fill() {
+        while (bitCount <= 56 && stopReason == NOT_STOPPED) {
+            if (nextPos >= endPos) {
+                stopReason = STOPPED_AT_END;
+                break;
             }
-            cnt = 8;
+            final int b = 0xff & interval[nextPos];
             if (b == 0xff) {
-                final int b2 = read();
-                if (b2 < 0) {
-                    throw new ImagingException("Premature End of File");
+                if (nextPos + 1 >= endPos) {
+                    stopReason = STOPPED_AT_END;
+                    break;
                 }
+                final int b2 = 0xff & interval[nextPos + 1];
                 if (b2 != 0) {
-                    if (b2 == (0xff & JpegConstants.DNL_MARKER)) {
-                        throw new ImagingException("DNL not yet supported");
-                    }
-                    throw new ImagingException("Invalid marker found " + "in entropy data: 0xFF " + Integer.toHexString(b2));
+                    stopReason = b2;
+                    break;
                 }
+                nextPos += 2;
+            } else {
+                nextPos++;
+            }
+            bits = bits << 8 | b;
+            bitCount += 8;
+        }
+    }
+
+    /**
+     * Returns the next {@code n} bits, at most 16, and removes them from the stream.
+     *
+     * @param n the number of bits to read.
+     * @return the bits, most significant first.
+     * @throws ImagingException if the entropy-coded data ends before {@code n} bits were read.
+     */
+    int getBits(final int n) throws ImagingException {
+        if (bitCount < n) {
+            fill();
+            if (bitCount < n) {
+                throwStopReason();
+            }
+        }
+        bitCount -= n;
+        return (int) (bits >>> bitCount) & (1 << n) - 1;
+    }
+
+    /**
+     * Returns {@code true} as long there are unread fields available, else {@code false}
+     *
+     * @return {@code true} as long there are unread fields available, else {@code false}
+     */
+    public boolean hasNext() {
+        // a whole byte still in the reservoir has not been read as far as callers are concerned
+        return bitCount >= 8 || nextPos < endPos;
+    }
+
+    public int nextBit() throws ImagingException {
+        return getBits(1);
+    }
+
+    /**
+     * Returns the next {@code n} bits, at most 16, without removing them from the stream. Bits past the end of the entropy-coded data read as zeros.
+     *
+     * @param n the number of bits to look at.
+     * @return the bits, most significant first.
+     */
+    int peekBits(final int n) {
+        if (bitCount < n) {
+            fill();
+            if (bitCount < n) {
+                return (int) (bits << n - bitCount) & (1 << n) - 1;
             }
         }
-        final int bit = b >> 7 & 0x1;
-        cnt--;
-        b <<= 1;
-        return bit;
+        return (int) (bits >>> bitCount - n) & (1 << n) - 1;
     }
 
     /**
-     * Returns the value from current field (as {@code InputStream.read()} would do) and set the position of the pointer to the next field to read.
+     * Removes the next {@code n} bits, at most 16, from the stream.
      *
-     * @return the value from current field (as {@code InputStream.read()} would do).
-     * @throws IllegalStateException if the stream hasn't any other value.
+     * @param n the number of bits to skip.
+     * @throws ImagingException if the entropy-coded data ends before {@code n} bits were skipped.
      */
-    int read() {
-        if (!hasNext()) {
+    void skipBits(final int n) throws ImagingException {
+        if (bitCount < n) {
+            fill();
+            if (bitCount < n) {
+                throwStopReason();
+            }
+        }
+        bitCount -= n;
+    }
+
+    private void throwStopReason() throws ImagingException {
+        switch (stopReason) {
+        case STOPPED_AT_END:
             throw new IllegalStateException("This stream hasn't any other value, all values were already read.");
+        default:
+            if (stopReason == (0xff & JpegConstants.DNL_MARKER)) {
+                throw new ImagingException("DNL not yet supported");
+            }
+            throw new ImagingException("Invalid marker found " + "in entropy data: 0xFF " + Integer.toHexString(stopReason));
         }
-        final int value = this.interval[nextPos];
-        this.nextPos++;
-        return value;
     }
 }
@@ -0,0 +1,55 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+import java.io.IOException;
+
+/**
+ * Receives a JPEG from {@link JpegDecoder#decode(org.apache.commons.imaging.bytesource.ByteSource, JpegScanlineSink)} one MCU row at a time, from top to
+ * bottom, instead of as a whole image.
+ *
+ * <p>
+ * The pixels are packed like those of the image returned by {@link JpegDecoder#decode(org.apache.commons.imaging.bytesource.ByteSource)}: 0xRRGGBB, or
+ * 0xAARRGGBB for the RGBA JPEGs of TIFF files.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+@FunctionalInterface
+public interface JpegScanlineSink {
+
+    /**
+     * Called once before the first rows, with the size of the image being decoded, which is the sub-image if one is set.
+     *
+     * @param width  the width of the image.
+     * @param height the height of the image.
+     * @throws IOException to abort decoding.
+     */
+    default void begin(final int width, final int height) throws IOException {
+        // nothing by default
+    }
+
+    /**
+     * Receives the next rows of the image.
+     *
+     * @param y      the index of the first row.
+     * @param height the number of rows, at most the height of an MCU.
+     * @param pixels the pixels of the rows, {@code width} per row starting at index 0. The array is reused for the next rows, so its contents must be
+     *               copied if they are needed later.
+     * @throws IOException to abort decoding.
+     */
+    void rows(int y, int height, int[] pixels) throws IOException;
+}
@@ -0,0 +1,275 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+import java.util.Arrays;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
+import org.apache.commons.imaging.formats.jpeg.segments.SofnSegment;
+import org.apache.commons.imaging.formats.jpeg.segments.SosSegment;
+
+/**
+ * Accumulates the quantized DCT coefficients of a progressive JPEG over all of its scans, see annex G of T.81.
+ *
+ * <p>
+ * One coefficient plane is kept per frame component, holding the 64 coefficients of each block in zig-zag order. The planes are padded to whole MCUs.
+ * </p>
+ */
+final class ProgressiveScanDecoder {
+
+    private final SofnSegment sofnSegment;
+    private final int hMax;
+    private final int vMax;
+    private final int xMCUs;
+    private final int yMCUs;
+    private final short[][] coefficients;
+    private final int[] blocksPerLine;
+    // remaining number of blocks in the current end-of-band run
+    private int eobrun;
+
+    ProgressiveScanDecoder(final SofnSegment sofnSegment, final int hMax, final int vMax, final int xMCUs, final int yMCUs) {
+        this.sofnSegment = sofnSegment;
+        this.hMax = hMax;
+        this.vMax = vMax;
+        this.xMCUs = xMCUs;
+        this.yMCUs = yMCUs;
+        this.coefficients = new short[sofnSegment.numberOfComponents][];
+        this.blocksPerLine = new int[sofnSegment.numberOfComponents];
+        for (int i = 0; i < sofnSegment.numberOfComponents; i++) {
+            final SofnSegment.Component component = sofnSegment.getComponents(i);
+            blocksPerLine[i] = xMCUs * component.horizontalSamplingFactor;
+            final int blocksPerColumn = yMCUs * component.verticalSamplingFactor;
+            Allocator.check(64L * blocksPerLine[i] * blocksPerColumn, Short.BYTES);
+            coefficients[i] = Allocator.shortArray(64 * blocksPerLine[i] * blocksPerColumn);
+        }
+    }
+
+    private void decodeAcFirst(final JpegInputStream is, final HuffmanLookupTable acTable, final SosSegment scan, final short[] plane, final int offset)
+            throws ImagingException {
+        // "Decoding of AC coefficients in the first scan", section G.1.2.2 of T.81
+        if (eobrun > 0) {
+            eobrun--;
+            return;
+        }
+        final int al = scan.successiveApproximationBitLow;
+        for (int k = scan.startOfSpectralSelection; k <= scan.endOfSpectralSelection;) {
+            final int rs = acTable.decode(is);
+            final int s = rs & 0xf;
+            final int r = rs >> 4;
+            if (s == 0) {
+                if (r < 15) {
+                    eobrun = (1 << r) - 1;
+                    if (r > 0) {
+                        eobrun += is.getBits(r);
+                    }
+                    break;
+                }
+                k += 16;
+            } else {
+                k += r;
+                checkCoefficientIndex(k);
+                plane[offset + k] = (short) (JpegDecoder.extend(JpegDecoder.receive(s, is), s) << al);
+                k++;
+            }
+        }
+    }
+
+    private void decodeAcRefine(final JpegInputStream is, final HuffmanLookupTable acTable, final SosSegment scan, final short[] plane, final int offset)
+            throws ImagingException {
+        // "Decoding of AC coefficients in subsequent scans", section G.1.2.3 of T.81
+        final int p1 = 1 << scan.successiveApproximationBitLow;
+        final int m1 = -1 << scan.successiveApproximationBitLow;
+        final int se = scan.endOfSpectralSelection;
+        int k = scan.startOfSpectralSelection;
+        if (eobrun == 0) {
+            for (; k <= se; k++) {
+                final int rs = acTable.decode(is);
+                int r = rs >> 4;
+                int s = rs & 0xf;
+                if (s != 0) {
+                    // newly non-zero coefficients are always +1 or -1 at this bit position
+                    s = is.nextBit() == 1 ? p1 : m1;
+                } else if (r != 15) {
+                    eobrun = 1 << r;
+                    if (r > 0) {
+                        eobrun += is.getBits(r);
+                    }
+                    break;
+                }
+                // skip r zero coefficients, refining the non-zero ones passed over on the way
+                do {
+                    final int coefficient = plane[offset + k];
+                    if (coefficient != 0) {
+                        refine(is, plane, offset + k, p1, m1);
+                    } else if (--r < 0) {
+                        break;
+                    }
+                    k++;
+                } while (k <= se);
+                if (s != 0) {
+                    checkCoefficientIndex(k);
+                    plane[offset + k] = (short) s;
+                }
+            }
+        }
+        if (eobrun > 0) {
+            // the rest of the band only has correction bits for already non-zero coefficients
+            for (; k <= se; k++) {
+                if (plane[offset + k] != 0) {
+                    refine(is, plane, offset + k, p1, m1);
+                }
+            }
+            eobrun--;
+        }
+    }
+
+    private void checkCoefficientIndex(final int k) throws ImagingException {
+        if (k > 63) {
+            throw new ImagingException("Invalid AC coefficient index " + k + " in progressive scan");
+        }
+    }
+
+    private void decodeBlock(final JpegInputStream is, final SosSegment scan, final HuffmanLookupTable dcTable, final HuffmanLookupTable acTable,
+            final int[] preds, final int scanComponent, final short[] plane, final int offset) throws ImagingException {
+        if (scan.startOfSpectralSelection == 0) {
+            if (scan.successiveApproximationBitHigh == 0) {
+                // "Decoding of DC coefficients", section G.1.2.1 of T.81
+                final int t = dcTable.decode(is);
+                preds[scanComponent] += JpegDecoder.extend(JpegDecoder.receive(t, is), t);
+                plane[offset] = (short) (preds[scanComponent] << scan.successiveApproximationBitLow);
+            } else if (is.nextBit() == 1) {
+                plane[offset] |= 1 << scan.successiveApproximationBitLow;
+            }
+        } else if (scan.successiveApproximationBitHigh == 0) {
+            decodeAcFirst(is, acTable, scan, plane, offset);
+        } else {
+            decodeAcRefine(is, acTable, scan, plane, offset);
+        }
+    }
+
+    /**
+     * Decodes one scan into the coefficient planes.
+     *
+     * @param scan            the scan header.
+     * @param intervals       the entropy-coded data of the scan, one stream per restart interval.
+     * @param restartInterval the number of MCUs per restart interval, 0 if restart markers are not used.
+     * @param dcTables        the DC Huffman tables currently defined.
+     * @param acTables        the AC Huffman tables currently defined.
+     * @throws ImagingException if the scan is invalid or its data is corrupt.
+     */
+    void decodeScan(final SosSegment scan, final JpegInputStream[] intervals, final int restartInterval, final HuffmanLookupTable[] dcTables,
+            final HuffmanLookupTable[] acTables) throws ImagingException {
+        final int ss = scan.startOfSpectralSelection;
+        final int se = scan.endOfSpectralSelection;
+        if (ss > se || se > 63 || ss == 0 && se != 0 || ss > 0 && scan.numberOfComponents != 1 || scan.successiveApproximationBitLow > 13) {
+            throw new ImagingException("Invalid progressive scan: spectral selection " + ss + ".." + se + ", successive approximation "
+                    + scan.successiveApproximationBitHigh + "/" + scan.successiveApproximationBitLow);
+        }
+        final int[] components = new int[scan.numberOfComponents];
+        final HuffmanLookupTable[] scanDcTables = new HuffmanLookupTable[scan.numberOfComponents];
+        final HuffmanLookupTable[] scanAcTables = new HuffmanLookupTable[scan.numberOfComponents];
+        for (int i = 0; i < scan.numberOfComponents; i++) {
+            final SosSegment.Component scanComponent = scan.getComponents(i);
+            components[i] = -1;
+            for (int j = 0; j < sofnSegment.numberOfComponents; j++) {
+                if (sofnSegment.getComponents(j).componentIdentifier == scanComponent.scanComponentSelector) {
+                    components[i] = j;
+                    break;
+                }
+            }
+            if (components[i] < 0) {
+                throw new ImagingException("Invalid component");
+            }
+            scanDcTables[i] = dcTables[scanComponent.dcCodingTableSelector];
+            scanAcTables[i] = acTables[scanComponent.acCodingTableSelector];
+        }
+
+        final int[] preds = new int[scan.numberOfComponents];
+        eobrun = 0;
+        int interval = 0;
+        JpegInputStream is = intervals[0];
+        int unitsLeft = restartInterval;
+        if (scan.numberOfComponents == 1) {
+            // a non-interleaved scan only covers the blocks of the component itself, not the MCU padding
+            final int c = components[0];
+            final SofnSegment.Component component = sofnSegment.getComponents(c);
+            final int componentWidth = (sofnSegment.width * component.horizontalSamplingFactor + hMax - 1) / hMax;
+            final int componentHeight = (sofnSegment.height * component.verticalSamplingFactor + vMax - 1) / vMax;
+            final int blocksX = (componentWidth + 7) / 8;
+            final int blocksY = (componentHeight + 7) / 8;
+            for (int blockY = 0; blockY < blocksY; blockY++) {
+                for (int blockX = 0; blockX < blocksX; blockX++) {
+                    if (restartInterval > 0 && unitsLeft-- == 0) {
+                        if (interval + 1 < intervals.length) {
+                            is = intervals[++interval];
+                        }
+                        preds[0] = 0;
+                        eobrun = 0;
+                        unitsLeft = restartInterval - 1;
+                    }
+                    decodeBlock(is, scan, scanDcTables[0], scanAcTables[0], preds, 0, coefficients[c], 64 * (blockY * blocksPerLine[c] + blockX));
+                }
+            }
+        } else {
+            for (int mcuY = 0; mcuY < yMCUs; mcuY++) {
+                for (int mcuX = 0; mcuX < xMCUs; mcuX++) {
+                    if (restartInterval > 0 && unitsLeft-- == 0) {
+                        if (interval + 1 < intervals.length) {
+                            is = intervals[++interval];
+                        }
+                        Arrays.fill(preds, 0);
+                        eobrun = 0;
+                        unitsLeft = restartInterval - 1;
+                    }
+                    for (int i = 0; i < components.length; i++) {
+                        final int c = components[i];
+                        final SofnSegment.Component component = sofnSegment.getComponents(c);
+                        for (int v = 0; v < component.verticalSamplingFactor; v++) {
+                            for (int h = 0; h < component.horizontalSamplingFactor; h++) {
+                                final int blockX = mcuX * component.horizontalSamplingFactor + h;
+                                final int blockY = mcuY * component.verticalSamplingFactor + v;
+                                decodeBlock(is, scan, scanDcTables[i], scanAcTables[i], preds, i, coefficients[c], 64 * (blockY * blocksPerLine[c] + blockX));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the coefficients of one block, in zig-zag order.
+     *
+     * @param component the index of the frame component.
+     * @param blockX    the horizontal block position in the padded component plane.
+     * @param blockY    the vertical block position in the padded component plane.
+     * @param zz        receives the 64 coefficients.
+     */
+    void getBlock(final int component, final int blockX, final int blockY, final int[] zz) {
+        final short[] plane = coefficients[component];
+        final int offset = 64 * (blockY * blocksPerLine[component] + blockX);
+        for (int k = 0; k < 64; k++) {
+            zz[k] = plane[offset + k];
+        }
+    }
+
+    private void refine(final JpegInputStream is, final short[] plane, final int index, final int p1, final int m1) throws ImagingException {
+        if (is.nextBit() == 1 && (plane[index] & p1) == 0) {
+            plane[index] += plane[index] >= 0 ? p1 : m1;
+        }
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.encoder;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.PixelDensity;
+import org.apache.commons.imaging.formats.jpeg.JpegChromaSubsampling;
+import org.apache.commons.imaging.formats.jpeg.JpegImagingParameters;
+
+/**
+ * Writes baseline (SOF0) JPEGs with a JFIF header.
+ *
+ * <p>
+ * Images whose color space is grayscale are written with a single component, all others are converted to YCbCr with the chroma subsampling of the
+ * parameters. Alpha is discarded. The image is read, transformed and entropy coded one MCU row at a time, so the memory used does not depend on the height
+ * of the image.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+public class JpegEncoder {
+
+    // Tables K.1 and K.2 of T.81, in natural order
+    private static final int[] LUMINANCE_QUANTIZATION_TABLE = { //
+            16, 11, 10, 16, 24, 40, 51, 61, //
+            12, 12, 14, 19, 26, 58, 60, 55, //
+            14, 13, 16, 24, 40, 57, 69, 56, //
+            14, 17, 22, 29, 51, 87, 80, 62, //
+            18, 22, 37, 56, 68, 109, 103, 77, //
+            24, 35, 55, 64, 81, 104, 113, 92, //
+            49, 64, 78, 87, 103, 121, 120, 101, //
+            72, 92, 95, 98, 112, 100, 103, 99 };
+
+    private static final int[] CHROMINANCE_QUANTIZATION_TABLE = { //
+            17, 18, 24, 47, 99, 99, 99, 99, //
+            18, 21, 26, 66, 99, 99, 99, 99, //
+            24, 26, 56, 99, 99, 99, 99, 99, //
+            47, 66, 99, 99, 99, 99, 99, 99, //
+            99, 99, 99, 99, 99, 99, 99, 99, //
+            99, 99, 99, 99, 99, 99, 99, 99, //
+            99, 99, 99, 99, 99, 99, 99, 99, //
+            99, 99, 99, 99, 99, 99, 99, 99 };
+
+    // the zig-zag position of each coefficient in natural order, figure A.6 of T.81
+    private static final int[] ZIG_ZAG = { //
+            0, 1, 5, 6, 14, 15, 27, 28, //
+            2, 4, 7, 13, 16, 26, 29, 42, //
+            3, 8, 12, 17, 25, 30, 41, 43, //
+            9, 11, 18, 24, 31, 40, 44, 53, //
+            10, 19, 23, 32, 39, 45, 52, 54, //
+            20, 22, 33, 38, 46, 51, 55, 60, //
+            21, 34, 37, 47, 50, 56, 59, 61, //
+            35, 36, 48, 49, 57, 58, 62, 63 };
+
+    private static final int SOI = 0xffd8;
+    private static final int APP0 = 0xffe0;
+    private static final int DQT = 0xffdb;
+    private static final int SOF0 = 0xffc0;
+    private static final int DHT = 0xffc4;
+    private static final int DRI = 0xffdd;
+    private static final int SOS = 0xffda;
+    private static final int RST0 = 0xffd0;
+    private static final int EOI = 0xffd9;
+
+    private static final int MAX_DIMENSION = 0xffff;
+
+    /**
+     * Scales a quantization table of annex K for a quality, the way the IJG library does.
+     */
+    private static int[] scaleQuantizationTable(final int[] table, final int quality) {
+        final int scale = quality < 50 ? 5000 / quality : 200 - 2 * quality;
+        final int[] scaled = new int[64];
+        for (int i = 0; i < 64; i++) {
+            // at most 255, as baseline JPEGs only allow 8-bit quantization values
+            scaled[i] = Math.min(Math.max((table[i] * scale + 50) / 100, 1), 255);
+        }
+        return scaled;
+    }
+
+    private final int quality;
+    private final JpegChromaSubsampling chromaSubsampling;
+    private final boolean optimizeHuffmanTables;
+    private final int restartInterval;
+    private final PixelDensity pixelDensity;
+
+    /**
+     * Constructs an encoder.
+     *
+     * @param params the quality, chroma subsampling, Huffman table optimization, restart interval and pixel density to write with, or {@code null} for the
+     *               defaults.
+     */
+    public JpegEncoder(final JpegImagingParameters params) {
+        final JpegImagingParameters p = params != null ? params : new JpegImagingParameters();
+        this.quality = p.getQuality();
+        this.chromaSubsampling = p.getChromaSubsampling();
+        this.optimizeHuffmanTables = p.isOptimizeHuffmanTables();
+        this.restartInterval = p.getRestartInterval();
+        this.pixelDensity = p.getPixelDensity();
+    }
+
+    private static void countBlock(final int[] zz, final int pred, final int[] dcFrequencies, final int[] acFrequencies) {
+        dcFrequencies[magnitudeCategory(zz[0] - pred)]++;
+        int run = 0;
+        for (int k = 1; k < 64; k++) {
+            final int coefficient = zz[k];
+            if (coefficient == 0) {
+                run++;
+            } else {
+                for (; run > 15; run -= 16) {
+                    acFrequencies[0xf0]++;
+                }
+                acFrequencies[run << 4 | magnitudeCategory(coefficient)]++;
+                run = 0;
+            }
+        }
+        if (run > 0) {
+            acFrequencies[0x00]++;
+        }
+    }
+
+    private static void downsample(final float[] full, final int fullWidth, final int rows, final int hFactor, final int vFactor, final float[] plane) {
+        final int width = fullWidth / hFactor;
+        final float scale = 1f / (hFactor * vFactor);
+        for (int y = 0; y < rows / vFactor; y++) {
+            for (int x = 0; x < width; x++) {
+                float sum = 0;
+                for (int dy = 0; dy < vFactor; dy++) {
+                    final int offset = (y * vFactor + dy) * fullWidth + x * hFactor;
+                    for (int dx = 0; dx < hFactor; dx++) {
+                        sum += full[offset + dx];
+                    }
+                }
+                plane[y * width + x] = sum * scale;
+            }
+        }
+    }
+
+    /**
+     * Writes an image.
+     *
+     * @param src the image.
+     * @param os  the stream to write to.
+     * @throws ImagingException if the image is too large for a JPEG.
+     * @throws IOException      if an I/O error occurs.
+     */
+    public void encode(final BufferedImage src, final OutputStream os) throws ImagingException, IOException {
+        final int width = src.getWidth();
+        final int height = src.getHeight();
+        if (width > MAX_DIMENSION || height > MAX_DIMENSION) {
+            throw new ImagingException("JPEG dimensions " + width + "x" + height + " exceed the maximum of " + MAX_DIMENSION);
+        }
+        final boolean grayscale = src.getColorModel().getColorSpace().getType() == ColorSpace.TYPE_GRAY;
+        final int numberOfComponents = grayscale ? 1 : 3;
+        final int[] hFactors = new int[numberOfComponents];
+        final int[] vFactors = new int[numberOfComponents];
+        Arrays.fill(hFactors, 1);
+        Arrays.fill(vFactors, 1);
+        if (!grayscale) {
+            hFactors[0] = chromaSubsampling.getHorizontalSamplingFactor();
+            vFactors[0] = chromaSubsampling.getVerticalSamplingFactor();
+        }
+
+        final int[][] quantizationTables = { scaleQuantizationTable(LUMINANCE_QUANTIZATION_TABLE, quality),
+                scaleQuantizationTable(CHROMINANCE_QUANTIZATION_TABLE, quality) };
+        // 1 / Q, scaled to turn the output of the AA&N forward DCT into the quantized DCT coefficients
+        final float[][] multipliers = new float[2][64];
+        for (int t = 0; t < 2; t++) {
+            for (int i = 0; i < 64; i++) {
+                multipliers[t][i] = 1f / quantizationTables[t][i];
+            }
+            ForwardDct.scaleQuantizationMatrix(multipliers[t]);
+        }
+
+        final HuffmanEncodingTable[] dcTables;
+        final HuffmanEncodingTable[] acTables;
+        if (optimizeHuffmanTables) {
+            final int[][] dcFrequencies = new int[2][256];
+            final int[][] acFrequencies = new int[2][256];
+            encodeScan(src, grayscale, hFactors, vFactors, multipliers, null, null, null, dcFrequencies, acFrequencies);
+            dcTables = new HuffmanEncodingTable[] { HuffmanEncodingTable.optimal(dcFrequencies[0]),
+                    grayscale ? null : HuffmanEncodingTable.optimal(dcFrequencies[1]) };
+            acTables = new HuffmanEncodingTable[] { HuffmanEncodingTable.optimal(acFrequencies[0]),
+                    grayscale ? null : HuffmanEncodingTable.optimal(acFrequencies[1]) };
+        } else {
+            dcTables = new HuffmanEncodingTable[] { HuffmanEncodingTable.LUMINANCE_DC, grayscale ? null : HuffmanEncodingTable.CHROMINANCE_DC };
+            acTables = new HuffmanEncodingTable[] { HuffmanEncodingTable.LUMINANCE_AC, grayscale ? null : HuffmanEncodingTable.CHROMINANCE_AC };
+        }
+
+        final JpegOutputStream jos = new JpegOutputStream(os);
+        jos.writeShort(SOI);
+        writeJfifSegment(jos);
+        writeQuantizationTables(jos, quantizationTables, grayscale ? 1 : 2);
+        writeFrameHeader(jos, width, height, hFactors, vFactors);
+        writeHuffmanTables(jos, dcTables, acTables);
+        if (restartInterval > 0) {
+            jos.writeShort(DRI);
+            jos.writeShort(4);
+            jos.writeShort(restartInterval);
+        }
+        writeScanHeader(jos, numberOfComponents);
+        encodeScan(src, grayscale, hFactors, vFactors, multipliers, dcTables, acTables, jos, null, null);
+        jos.padBits();
+        jos.writeShort(EOI);
+        jos.flush();
+    }
+
+    private static void encodeBlock(final int[] zz, final int pred, final HuffmanEncodingTable dcTable, final HuffmanEncodingTable acTable,
+            final JpegOutputStream os) throws IOException {
+        // figures F.4 and F.5 of T.81, with the magnitude category SSSS followed by the low SSSS bits of the value, one less if negative
+        final int diff = zz[0] - pred;
+        int category = magnitudeCategory(diff);
+        os.writeBits(dcTable.getCode(category), dcTable.getCodeLength(category));
+        if (category > 0) {
+            os.writeBits(diff < 0 ? diff - 1 : diff, category);
+        }
+        int run = 0;
+        for (int k = 1; k < 64; k++) {
+            final int coefficient = zz[k];
+            if (coefficient == 0) {
+                run++;
+            } else {
+                for (; run > 15; run -= 16) {
+                    os.writeBits(acTable.getCode(0xf0), acTable.getCodeLength(0xf0));
+                }
+                category = magnitudeCategory(coefficient);
+                final int rs = run << 4 | category;
+                os.writeBits(acTable.getCode(rs), acTable.getCodeLength(rs));
+                os.writeBits(coefficient < 0 ? coefficient - 1 : coefficient, category);
+                run = 0;
+            }
+        }
+        if (run > 0) {
+            os.writeBits(acTable.getCode(0x00), acTable.getCodeLength(0x00));
+        }
+    }
+
+    /**
+     * Transforms and quantizes every block of the image, MCU row by MCU row, and either entropy codes them into {@code os} or counts the symbols they would
+     * be coded with.
+     */
+    private void encodeScan(final BufferedImage src, final boolean grayscale, final int[] hFactors, final int[] vFactors, final float[][] multipliers,
+            final HuffmanEncodingTable[] dcTables, final HuffmanEncodingTable[] acTables, final JpegOutputStream os, final int[][] dcFrequencies,
+            final int[][] acFrequencies) throws IOException {
+        final int width = src.getWidth();
+        final int height = src.getHeight();
+        final int hMax = hFactors[0];
+        final int vMax = vFactors[0];
+        final int mcuWidth = 8 * hMax;
+        final int mcuHeight = 8 * vMax;
+        final int xMCUs = (width + mcuWidth - 1) / mcuWidth;
+        final int yMCUs = (height + mcuHeight - 1) / mcuHeight;
+        final int paddedWidth = xMCUs * mcuWidth;
+        final int numberOfComponents = hFactors.length;
+
+        // the samples of one MCU row, level shifted; chroma is first converted at full resolution and then averaged down
+        final float[][] planes = new float[numberOfComponents][];
+        final float[][] fullPlanes = new float[numberOfComponents][];
+        for (int c = 0; c < numberOfComponents; c++) {
+            fullPlanes[c] = new float[paddedWidth * mcuHeight];
+            planes[c] = hFactors[c] == hMax && vFactors[c] == vMax ? fullPlanes[c] : new float[paddedWidth * mcuHeight / (hMax * vMax)];
+        }
+        final int[] pixels = new int[width * mcuHeight];
+        final float[] block = new float[64];
+        final int[] zz = new int[64];
+        final int[] preds = new int[numberOfComponents];
+        int mcus = 0;
+
+        for (int mcuY = 0; mcuY < yMCUs; mcuY++) {
+            final int y0 = mcuY * mcuHeight;
+            final int rows = Math.min(mcuHeight, height - y0);
+            readRows(src, grayscale, y0, rows, pixels, fullPlanes, paddedWidth, mcuHeight);
+            for (int c = 0; c < numberOfComponents; c++) {
+                if (planes[c] != fullPlanes[c]) {
+                    downsample(fullPlanes[c], paddedWidth, mcuHeight, hMax / hFactors[c], vMax / vFactors[c], planes[c]);
+                }
+            }
+            for (int mcuX = 0; mcuX < xMCUs; mcuX++) {
+                if (restartInterval > 0 && mcus > 0 && mcus % restartInterval == 0) {
+                    if (os != null) {
+                        os.padBits();
+                        os.writeShort(RST0 + (mcus / restartInterval - 1 & 7));
+                    }
+                    Arrays.fill(preds, 0);
+                }
+                mcus++;
+                for (int c = 0; c < numberOfComponents; c++) {
+                    final int table = c == 0 ? 0 : 1;
+                    final int planeWidth = paddedWidth * hFactors[c] / hMax;
+                    for (int v = 0; v < vFactors[c]; v++) {
+                        for (int h = 0; h < hFactors[c]; h++) {
+                            final int offset = 8 * v * planeWidth + 8 * (mcuX * hFactors[c] + h);
+                            for (int y = 0; y < 8; y++) {
+                                System.arraycopy(planes[c], offset + y * planeWidth, block, 8 * y, 8);
+                            }
+                            quantize(block, multipliers[table], zz);
+                            if (os != null) {
+                                encodeBlock(zz, preds[c], dcTables[table], acTables[table], os);
+                            } else {
+                                countBlock(zz, preds[c], dcFrequencies[table], acFrequencies[table]);
+                            }
+                            preds[c] = zz[0];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int magnitudeCategory(final int value) {
+        return 32 - Integer.numberOfLeadingZeros(Math.abs(value));
+    }
+
+    private static void quantize(final float[] block, final float[] multipliers, final int[] zz) {
+        ForwardDct.forwardDct8x8(block);
+        for (int i = 0; i < 64; i++) {
+            // rounds to nearest, the offset keeps the cast from truncating negative values towards zero
+            zz[ZIG_ZAG[i]] = (int) (block[i] * multipliers[i] + 16384.5f) - 16384;
+        }
+    }
+
+    /**
+     * Reads rows of the image into the full resolution planes, converted to YCbCr and level shifted, and pads them to the whole MCU row by repeating the
+     * last column and row.
+     */
+    private static void readRows(final BufferedImage src, final boolean grayscale, final int y0, final int rows, final int[] pixels, final float[][] planes,
+            final int paddedWidth, final int mcuHeight) {
+        final int width = src.getWidth();
+        if (grayscale) {
+            final Raster raster = src.getRaster();
+            raster.getSamples(0, y0, width, rows, 0, pixels);
+            final int bits = raster.getSampleModel().getSampleSize(0);
+            final int max = (1 << bits) - 1;
+            final float[] yPlane = planes[0];
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < width; x++) {
+                    final int sample = pixels[y * width + x];
+                    yPlane[y * paddedWidth + x] = (bits == 8 ? sample : (sample * 255 + max / 2) / max) - 128f;
+                }
+            }
+        } else {
+            if (src.getType() == BufferedImage.TYPE_INT_RGB || src.getType() == BufferedImage.TYPE_INT_ARGB) {
+                // the data elements are already packed RGB, without the color conversion of getRGB()
+                src.getRaster().getDataElements(0, y0, width, rows, pixels);
+            } else {
+                src.getRGB(0, y0, width, rows, pixels, 0, width);
+            }
+            final float[] yPlane = planes[0];
+            final float[] cbPlane = planes[1];
+            final float[] crPlane = planes[2];
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < width; x++) {
+                    final int argb = pixels[y * width + x];
+                    final float r = argb >> 16 & 0xff;
+                    final float g = argb >> 8 & 0xff;
+                    final float b = argb & 0xff;
+                    final int i = y * paddedWidth + x;
+                    // section 7 of JFIF 1.02, with Y shifted by -128 and Cb and Cr by +128 - 128
+                    yPlane[i] = 0.299f * r + 0.587f * g + 0.114f * b - 128f;
+                    cbPlane[i] = -0.168736f * r - 0.331264f * g + 0.5f * b;
+                    crPlane[i] = 0.5f * r - 0.418688f * g - 0.081312f * b;
+                }
+            }
+        }
+        for (final float[] plane : planes) {
+            for (int y = 0; y < rows; y++) {
+                Arrays.fill(plane, y * paddedWidth + width, (y + 1) * paddedWidth, plane[y * paddedWidth + width - 1]);
+            }
+            for (int y = rows; y < mcuHeight; y++) {
+                System.arraycopy(plane, (rows - 1) * paddedWidth, plane, y * paddedWidth, paddedWidth);
+            }
+        }
+    }
+
+    private void writeFrameHeader(final JpegOutputStream os, final int width, final int height, final int[] hFactors, final int[] vFactors)
+            throws IOException {
+        os.writeShort(SOF0);
+        os.writeShort(8 + 3 * hFactors.length);
+        os.writeByte(8);
+        os.writeShort(height);
+        os.writeShort(width);
+        os.writeByte(hFactors.length);
+        for (int c = 0; c < hFactors.length; c++) {
+            os.writeByte(c + 1);
+            os.writeByte(hFactors[c] << 4 | vFactors[c]);
+            os.writeByte(c == 0 ? 0 : 1);
+        }
+    }
+
+    private void writeHuffmanTables(final JpegOutputStream os, final HuffmanEncodingTable[] dcTables, final HuffmanEncodingTable[] acTables)
+            throws IOException {
+        int length = 2;
+        for (int t = 0; t < dcTables.length; t++) {
+            if (dcTables[t] != null) {
+                length += 2 * 17 + dcTables[t].getValues().length + acTables[t].getValues().length;
+            }
+        }
+        os.writeShort(DHT);
+        os.writeShort(length);
+        for (int t = 0; t < dcTables.length; t++) {
+            if (dcTables[t] != null) {
+                writeHuffmanTable(os, 0 << 4 | t, dcTables[t]);
+                writeHuffmanTable(os, 1 << 4 | t, acTables[t]);
+            }
+        }
+    }
+
+    private void writeHuffmanTable(final JpegOutputStream os, final int classAndDestination, final HuffmanEncodingTable table) throws IOException {
+        os.writeByte(classAndDestination);
+        for (final int count : table.getBits()) {
+            os.writeByte(count);
+        }
+        for (final int value : table.getValues()) {
+            os.writeByte(value);
+        }
+    }
+
+    private void writeJfifSegment(final JpegOutputStream os) throws IOException {
+        // units: 0 for an aspect ratio only, 1 for dots per inch, 2 for dots per centimetre
+        int units = 0;
+        double xDensity = 1;
+        double yDensity = 1;
+        if (pixelDensity != null) {
+            if (pixelDensity.isInInches()) {
+                units = 1;
+                xDensity = pixelDensity.horizontalDensityInches();
+                yDensity = pixelDensity.verticalDensityInches();
+            } else if (pixelDensity.isInCentimetres() || pixelDensity.isInMetres()) {
+                units = 2;
+                xDensity = pixelDensity.horizontalDensityCentimetres();
+                yDensity = pixelDensity.verticalDensityCentimetres();
+            } else {
+                xDensity = pixelDensity.getRawHorizontalDensity();
+                yDensity = pixelDensity.getRawVerticalDensity();
+            }
+        }
+        os.writeShort(APP0);
+        os.writeShort(16);
+        os.writeBytes("JFIF\0".getBytes(StandardCharsets.US_ASCII));
+        os.writeByte(1);
+        os.writeByte(2);
+        os.writeByte(units);
+        os.writeShort((int) Math.min(Math.max(Math.round(xDensity), 1), MAX_DIMENSION));
+        os.writeShort((int) Math.min(Math.max(Math.round(yDensity), 1), MAX_DIMENSION));
+        // no thumbnail
+        os.writeByte(0);
+        os.writeByte(0);
+    }
+
+    private void writeQuantizationTables(final JpegOutputStream os, final int[][] quantizationTables, final int count) throws IOException {
+        os.writeShort(DQT);
+        os.writeShort(2 + count * 65);
+        final int[] zigZagOrder = new int[64];
+        for (int t = 0; t < count; t++) {
+            os.writeByte(t);
+            for (int i = 0; i < 64; i++) {
+                zigZagOrder[ZIG_ZAG[i]] = quantizationTables[t][i];
+            }
+            for (final int q : zigZagOrder) {
+                os.writeByte(q);
+            }
+        }
+    }
+
+    private void writeScanHeader(final JpegOutputStream os, final int numberOfComponents) throws IOException {
+        os.writeShort(SOS);
+        os.writeShort(6 + 2 * numberOfComponents);
+        os.writeByte(numberOfComponents);
+        for (int c = 0; c < numberOfComponents; c++) {
+            os.writeByte(c + 1);
+            final int table = c == 0 ? 0 : 1;
+            os.writeByte(table << 4 | table);
+        }
+        // spectral selection 0..63 and no successive approximation
+        os.writeByte(0);
+        os.writeByte(63);
+        os.writeByte(0);
+    }
+}
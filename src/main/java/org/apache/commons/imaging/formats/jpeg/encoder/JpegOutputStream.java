@@ -0,0 +1,100 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.encoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffers the bytes of a JPEG and packs the bits of the entropy-coded data, stuffing a 0 byte after every 0xFF byte, see section F.1.2.3 of T.81.
+ */
+final class JpegOutputStream {
+
+    private final OutputStream os;
+    private final byte[] buffer = new byte[8192];
+    private int count;
+    // bits not yet written, right aligned, always fewer than 8 between calls
+    private int bits;
+    private int bitCount;
+
+    JpegOutputStream(final OutputStream os) {
+        this.os = os;
+    }
+
+    /**
+     * Writes the buffered bytes to the underlying stream.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void flush() throws IOException {
+        os.write(buffer, 0, count);
+        count = 0;
+    }
+
+    /**
+     * Pads the entropy-coded data to a whole byte with 1 bits, as required before a marker.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void padBits() throws IOException {
+        if (bitCount > 0) {
+            writeBits(0x7f, 8 - bitCount);
+        }
+    }
+
+    private void put(final int b) throws IOException {
+        if (count == buffer.length) {
+            flush();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    /**
+     * Writes the low bits of a value to the entropy-coded data.
+     *
+     * @param value  the value.
+     * @param length the number of bits, at most 24.
+     * @throws IOException if an I/O error occurs.
+     */
+    void writeBits(final int value, final int length) throws IOException {
+        bits = bits << length | value & (1 << length) - 1;
+        bitCount += length;
+        while (bitCount >= 8) {
+            bitCount -= 8;
+            final int b = bits >> bitCount & 0xff;
+            put(b);
+            if (b == 0xff) {
+                put(0);
+            }
+        }
+        bits &= (1 << bitCount) - 1;
+    }
+
+    void writeByte(final int b) throws IOException {
+        put(b);
+    }
+
+    void writeBytes(final byte[] bytes) throws IOException {
+        for (final byte b : bytes) {
+            put(b);
+        }
+    }
+
+    void writeShort(final int s) throws IOException {
+        put(s >> 8);
+        put(s);
+    }
+}
@@ -48,6 +48,8 @@ import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 public class PcxImageParser extends AbstractImageParser<PcxImagingParameters> {
     // ZSoft's official spec is at [BROKEN URL] http://www.qzx.com/pc-gpe/pcx.txt
@@ -177,9 +179,15 @@ public class PcxImageParser extends AbstractImageParser<PcxImagingParameters> {
         if (params == null) {
             params = new PcxImagingParameters();
         }
-        try (InputStream is = byteSource.getInputStream()) {
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.PCX);
+        instrumentation.enter(ImagingPhase.HEADER);
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             final PcxHeader pcxHeader = readPcxHeader(is, params.isStrict());
-            return readImage(pcxHeader, is, byteSource);
+            // the run-length decoding writes the raster directly
+            instrumentation.enter(ImagingPhase.DECOMPRESS);
+            final BufferedImage image = readImage(pcxHeader, is, byteSource);
+            instrumentation.finish();
+            return image;
         }
     }
 
@@ -24,6 +24,8 @@ import java.io.InputStream;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.Allocator;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.common.Interrupts;
 import org.apache.commons.imaging.formats.png.chunks.PngChunkPlte;
 import org.apache.commons.imaging.formats.png.scanlinefilters.ScanlineFilter;
 import org.apache.commons.imaging.formats.png.scanlinefilters.ScanlineFilterAverage;
@@ -32,6 +34,7 @@ import org.apache.commons.imaging.formats.png.scanlinefilters.ScanlineFilterPaet
 import org.apache.commons.imaging.formats.png.scanlinefilters.ScanlineFilterSub;
 import org.apache.commons.imaging.formats.png.scanlinefilters.ScanlineFilterUp;
 import org.apache.commons.imaging.formats.png.transparencyfilters.AbstractTransparencyFilter;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 abstract class AbstractScanExpediter {
 
@@ -46,10 +49,11 @@ abstract class AbstractScanExpediter {
     final PngChunkPlte pngChunkPlte;
     final GammaCorrection gammaCorrection;
     final AbstractTransparencyFilter abstractTransparencyFilter;
+    final Instrumentation instrumentation;
 
     AbstractScanExpediter(final int width, final int height, final InputStream is, final BufferedImage bi, final PngColorType pngColorType, final int bitDepth,
             final int bitsPerPixel, final PngChunkPlte pngChunkPLTE, final GammaCorrection gammaCorrection,
-            final AbstractTransparencyFilter abstractTransparencyFilter) {
+            final AbstractTransparencyFilter abstractTransparencyFilter, final Instrumentation instrumentation) {
         this.width = width;
         this.height = height;
         this.is = is;
@@ -61,6 +65,7 @@ abstract class AbstractScanExpediter {
         this.pngChunkPlte = pngChunkPLTE;
         this.gammaCorrection = gammaCorrection;
         this.abstractTransparencyFilter = abstractTransparencyFilter;
+        this.instrumentation = instrumentation;
     }
 
     public abstract void drive() throws ImagingException, IOException;
@@ -70,6 +75,8 @@ abstract class AbstractScanExpediter {
     }
 
     byte[] getNextScanline(final InputStream is, final int length, final byte[] prev, final int bytesPerPixel) throws ImagingException, IOException {
+        Interrupts.check();
+        instrumentation.enter(ImagingPhase.DECOMPRESS);
         final int filterType = is.read();
         if (filterType < 0) {
             throw new ImagingException("PNG: missing filter type");
@@ -80,6 +87,7 @@ abstract class AbstractScanExpediter {
 
         final byte[] scanline = readBytes("scanline", is, length, "PNG: missing image data");
 
+        instrumentation.enter(ImagingPhase.UNFILTER);
         return unfilterScanline(FilterType.values()[filterType], scanline, prev, bytesPerPixel);
     }
 
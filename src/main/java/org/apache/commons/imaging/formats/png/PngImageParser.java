@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -41,10 +42,13 @@ import org.apache.commons.imaging.ImageFormats;
 import org.apache.commons.imaging.ImageInfo;
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.bytesource.FileChannelByteSource;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BinaryFunctions;
+import org.apache.commons.imaging.common.ByteConversions;
 import org.apache.commons.imaging.common.GenericImageMetadata;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
 import org.apache.commons.imaging.common.XmpEmbeddable;
 import org.apache.commons.imaging.common.XmpImagingParameters;
 import org.apache.commons.imaging.formats.png.chunks.AbstractPngTextChunk;
@@ -64,6 +68,7 @@ import org.apache.commons.imaging.formats.png.transparencyfilters.TransparencyFi
 import org.apache.commons.imaging.formats.png.transparencyfilters.TransparencyFilterIndexedColor;
 import org.apache.commons.imaging.formats.png.transparencyfilters.TransparencyFilterTrueColor;
 import org.apache.commons.imaging.icc.IccProfileParser;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 public class PngImageParser extends AbstractImageParser<PngImagingParameters> implements XmpEmbeddable<PngImagingParameters> {
 
@@ -81,6 +86,40 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
         return result.toString();
     }
 
+    private PngChunk createChunk(final int length, final int chunkType, final int crc, final byte[] bytes) throws ImagingException, IOException {
+        if (chunkType == ChunkType.iCCP.value) {
+            return new PngChunkIccp(length, chunkType, crc, bytes);
+        }
+        if (chunkType == ChunkType.tEXt.value) {
+            return new PngChunkText(length, chunkType, crc, bytes);
+        }
+        if (chunkType == ChunkType.zTXt.value) {
+            return new PngChunkZtxt(length, chunkType, crc, bytes);
+        }
+        if (chunkType == ChunkType.IHDR.value) {
+            return new PngChunkIhdr(length, chunkType, crc, bytes);
+        }
+        if (chunkType == ChunkType.PLTE.value) {
+            return new PngChunkPlte(length, chunkType, crc, bytes);
+        }
+        if (chunkType == ChunkType.pHYs.value) {
+            return new PngChunkPhys(length, chunkType, crc, bytes);
+        }
+        if (chunkType == ChunkType.sCAL.value) {
+            return new PngChunkScal(length, chunkType, crc, bytes);
+        }
+        if (chunkType == ChunkType.IDAT.value) {
+            return new PngChunkIdat(length, chunkType, crc, bytes);
+        }
+        if (chunkType == ChunkType.gAMA.value) {
+            return new PngChunkGama(length, chunkType, crc, bytes);
+        }
+        if (chunkType == ChunkType.iTXt.value) {
+            return new PngChunkItxt(length, chunkType, crc, bytes);
+        }
+        return new PngChunk(length, chunkType, crc, bytes);
+    }
+
     @Override
     public boolean dumpImageFile(final PrintWriter pw, final ByteSource byteSource) throws ImagingException, IOException {
         final ImageInfo imageInfo = getImageInfo(byteSource);
@@ -146,9 +185,12 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
 
     @Override
     public BufferedImage getBufferedImage(final ByteSource byteSource, final PngImagingParameters params) throws ImagingException, IOException {
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.PNG);
+        instrumentation.enter(ImagingPhase.HEADER);
 
         final List<PngChunk> chunks = readChunks(byteSource,
-                new ChunkType[] { ChunkType.IHDR, ChunkType.PLTE, ChunkType.IDAT, ChunkType.tRNS, ChunkType.iCCP, ChunkType.gAMA, ChunkType.sRGB, }, false);
+                new ChunkType[] { ChunkType.IHDR, ChunkType.PLTE, ChunkType.IDAT, ChunkType.tRNS, ChunkType.iCCP, ChunkType.gAMA, ChunkType.sRGB, }, false,
+                instrumentation);
 
         if (chunks.isEmpty()) {
             throw new ImagingException("PNG: no chunks");
@@ -263,6 +305,7 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
 
             final boolean hasAlpha = pngColorType.hasAlpha() || abstractTransparencyFilter != null;
 
+            instrumentation.enter(ImagingPhase.RASTER_BUILD);
             BufferedImage result;
             if (pngColorType.isGreyscale()) {
                 result = getBufferedImageFactory(params).getGrayscaleBufferedImage(width, height, hasAlpha);
@@ -278,11 +321,11 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
             switch (pngChunkIHDR.getInterlaceMethod()) {
             case NONE:
                 abstractScanExpediter = new ScanExpediterSimple(width, height, iis, result, pngColorType, bitDepth, bitsPerPixel, pngChunkPLTE, gammaCorrection,
-                        abstractTransparencyFilter);
+                        abstractTransparencyFilter, instrumentation);
                 break;
             case ADAM7:
                 abstractScanExpediter = new ScanExpediterInterlaced(width, height, iis, result, pngColorType, bitDepth, bitsPerPixel, pngChunkPLTE,
-                        gammaCorrection, abstractTransparencyFilter);
+                        gammaCorrection, abstractTransparencyFilter, instrumentation);
                 break;
             default:
                 throw new ImagingException("Unknown InterlaceMethod: " + pngChunkIHDR.getInterlaceMethod());
@@ -291,6 +334,7 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
             abstractScanExpediter.drive();
 
             if (iccProfile != null) {
+                instrumentation.enter(ImagingPhase.COLOR_CONVERT);
                 final boolean isSrgb = new IccProfileParser().isSrgb(iccProfile);
                 if (!isSrgb) {
                     final ICC_ColorSpace cs = new ICC_ColorSpace(iccProfile);
@@ -302,6 +346,7 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
                 }
             }
 
+            instrumentation.finish();
             return result;
 
         }
@@ -579,11 +624,8 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
     // I may not have always preserved byte order correctly.
 
     public boolean hasChunkType(final ByteSource byteSource, final ChunkType chunkType) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
-            readSignature(is);
-            final List<PngChunk> chunks = readChunks(is, new ChunkType[] { chunkType }, true);
-            return !chunks.isEmpty();
-        }
+        final List<PngChunk> chunks = readChunks(byteSource, new ChunkType[] { chunkType }, true);
+        return !chunks.isEmpty();
     }
 
     private boolean keepChunk(final int chunkType, final ChunkType[] chunkTypes) {
@@ -600,11 +642,91 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
         return false;
     }
 
+    private void readChunkBytes(final ByteSource byteSource, final long position, final byte[] buffer, final int length) throws IOException {
+        try {
+            byteSource.readInto(position, buffer, 0, length);
+        } catch (final ImagingException e) {
+            throw new IOException("Not a Valid PNG File", e);
+        }
+    }
+
+    /**
+     * Reads the chunks with positional reads, which skip the data of unwanted chunks without reading it.
+     */
     private List<PngChunk> readChunks(final ByteSource byteSource, final ChunkType[] chunkTypes, final boolean returnAfterFirst)
             throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
-            readSignature(is);
-            return readChunks(is, chunkTypes, returnAfterFirst);
+        return readChunks(byteSource, chunkTypes, returnAfterFirst, Instrumentation.disabled());
+    }
+
+    private List<PngChunk> readChunks(final ByteSource byteSource, final ChunkType[] chunkTypes, final boolean returnAfterFirst,
+            final Instrumentation instrumentation) throws ImagingException, IOException {
+        // the file of a file source is opened once for all chunks
+        try (FileChannelByteSource channel = byteSource.openChannel()) {
+            final ByteSource source = channel != null ? channel : byteSource;
+            // holds the signature, then each chunk length and type, then each CRC
+            final byte[] buffer = new byte[PngConstants.PNG_SIGNATURE.size()];
+            final int signatureLength = Math.max(0, source.read(0, ByteBuffer.wrap(buffer)));
+            instrumentation.addBytesRead(signatureLength);
+            for (int i = 0; i < buffer.length; i++) {
+                if (i >= signatureLength) {
+                    throw new ImagingException("Unexpected EOF.");
+                }
+                if (buffer[i] != PngConstants.PNG_SIGNATURE.get(i)) {
+                    throw new ImagingException("Not a Valid PNG Segment: Incorrect Signature");
+                }
+            }
+
+            final List<PngChunk> result = new ArrayList<>();
+            long position = buffer.length;
+            while (true) {
+                readChunkBytes(source, position, buffer, 8);
+                instrumentation.addBytesRead(8);
+                final int length = ByteConversions.toInt(buffer, 0, getByteOrder());
+                if (length < 0) {
+                    throw new ImagingException("Invalid PNG chunk length: " + length);
+                }
+                final int chunkType = ByteConversions.toInt(buffer, 4, getByteOrder());
+                position += 8;
+
+                if (LOGGER.isLoggable(Level.FINEST)) {
+                    BinaryFunctions.logCharQuad("ChunkType", chunkType);
+                    debugNumber("Length", length, 4);
+                }
+                final boolean keep = keepChunk(chunkType, chunkTypes);
+
+                byte[] bytes = null;
+                if (keep) {
+                    bytes = Allocator.byteArray(length);
+                    try {
+                        source.readInto(position, bytes, 0, length);
+                    } catch (final ImagingException e) {
+                        throw new IOException("Not a Valid PNG File: Couldn't read Chunk Data., name: Chunk Data, length: " + length, e);
+                    }
+                    if (LOGGER.isLoggable(Level.FINEST)) {
+                        debugNumber("bytes", bytes.length, 4);
+                    }
+                    instrumentation.addBytesRead(length);
+                }
+                position += length;
+
+                readChunkBytes(source, position, buffer, 4);
+                instrumentation.addBytesRead(4);
+                final int crc = ByteConversions.toInt(buffer, 0, getByteOrder());
+                position += 4;
+
+                if (keep) {
+                    result.add(createChunk(length, chunkType, crc, bytes));
+                    if (returnAfterFirst) {
+                        return result;
+                    }
+                }
+
+                if (chunkType == ChunkType.IEND.value) {
+                    break;
+                }
+            }
+
+            return result;
         }
     }
 
@@ -638,29 +760,7 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
             final int crc = BinaryFunctions.read4Bytes("CRC", is, "Not a Valid PNG File", getByteOrder());
 
             if (keep) {
-                if (chunkType == ChunkType.iCCP.value) {
-                    result.add(new PngChunkIccp(length, chunkType, crc, bytes));
-                } else if (chunkType == ChunkType.tEXt.value) {
-                    result.add(new PngChunkText(length, chunkType, crc, bytes));
-                } else if (chunkType == ChunkType.zTXt.value) {
-                    result.add(new PngChunkZtxt(length, chunkType, crc, bytes));
-                } else if (chunkType == ChunkType.IHDR.value) {
-                    result.add(new PngChunkIhdr(length, chunkType, crc, bytes));
-                } else if (chunkType == ChunkType.PLTE.value) {
-                    result.add(new PngChunkPlte(length, chunkType, crc, bytes));
-                } else if (chunkType == ChunkType.pHYs.value) {
-                    result.add(new PngChunkPhys(length, chunkType, crc, bytes));
-                } else if (chunkType == ChunkType.sCAL.value) {
-                    result.add(new PngChunkScal(length, chunkType, crc, bytes));
-                } else if (chunkType == ChunkType.IDAT.value) {
-                    result.add(new PngChunkIdat(length, chunkType, crc, bytes));
-                } else if (chunkType == ChunkType.gAMA.value) {
-                    result.add(new PngChunkGama(length, chunkType, crc, bytes));
-                } else if (chunkType == ChunkType.iTXt.value) {
-                    result.add(new PngChunkItxt(length, chunkType, crc, bytes));
-                } else {
-                    result.add(new PngChunk(length, chunkType, crc, bytes));
-                }
+                result.add(createChunk(length, chunkType, crc, bytes));
 
                 if (returnAfterFirst) {
                     return result;
@@ -21,8 +21,10 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.ImagingPhase;
 import org.apache.commons.imaging.formats.png.chunks.PngChunkPlte;
 import org.apache.commons.imaging.formats.png.transparencyfilters.AbstractTransparencyFilter;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 final class ScanExpediterInterlaced extends AbstractScanExpediter {
     private static final int[] STARTING_ROW = { 0, 0, 4, 0, 2, 0, 1 };
@@ -34,8 +36,8 @@ final class ScanExpediterInterlaced extends AbstractScanExpediter {
 
     ScanExpediterInterlaced(final int width, final int height, final InputStream is, final BufferedImage bi, final PngColorType pngColorType,
             final int bitDepth, final int bitsPerPixel, final PngChunkPlte pngChunkPLTE, final GammaCorrection gammaCorrection,
-            final AbstractTransparencyFilter abstractTransparencyFilter) {
-        super(width, height, is, bi, pngColorType, bitDepth, bitsPerPixel, pngChunkPLTE, gammaCorrection, abstractTransparencyFilter);
+            final AbstractTransparencyFilter abstractTransparencyFilter, final Instrumentation instrumentation) {
+        super(width, height, is, bi, pngColorType, bitDepth, bitsPerPixel, pngChunkPLTE, gammaCorrection, abstractTransparencyFilter, instrumentation);
     }
 
     @Override
@@ -59,6 +61,7 @@ final class ScanExpediterInterlaced extends AbstractScanExpediter {
                     final int pixelBytesPerScanLine = getBitsToBytesRoundingUp(bitsPerScanLine);
 
                     final byte[] unfiltered = getNextScanline(is, pixelBytesPerScanLine, prev, bytesPerPixel);
+                    instrumentation.enter(ImagingPhase.COLOR_CONVERT);
 
                     prev = unfiltered;
 
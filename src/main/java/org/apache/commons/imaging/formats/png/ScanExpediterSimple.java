@@ -21,14 +21,16 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.ImagingPhase;
 import org.apache.commons.imaging.formats.png.chunks.PngChunkPlte;
 import org.apache.commons.imaging.formats.png.transparencyfilters.AbstractTransparencyFilter;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 final class ScanExpediterSimple extends AbstractScanExpediter {
     ScanExpediterSimple(final int width, final int height, final InputStream is, final BufferedImage bi, final PngColorType pngColorType, final int bitDepth,
             final int bitsPerPixel, final PngChunkPlte pngChunkPLTE, final GammaCorrection gammaCorrection,
-            final AbstractTransparencyFilter abstractTransparencyFilter) {
-        super(width, height, is, bi, pngColorType, bitDepth, bitsPerPixel, pngChunkPLTE, gammaCorrection, abstractTransparencyFilter);
+            final AbstractTransparencyFilter abstractTransparencyFilter, final Instrumentation instrumentation) {
+        super(width, height, is, bi, pngColorType, bitDepth, bitsPerPixel, pngChunkPLTE, gammaCorrection, abstractTransparencyFilter, instrumentation);
     }
 
     @Override
@@ -39,6 +41,7 @@ final class ScanExpediterSimple extends AbstractScanExpediter {
 
         for (int y = 0; y < height; y++) {
             final byte[] unfiltered = getNextScanline(is, pixelBytesPerScanLine, prev, bytesPerPixel);
+            instrumentation.enter(ImagingPhase.COLOR_CONVERT);
 
             prev = unfiltered;
 
@@ -38,6 +38,8 @@ import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.ImageBuilder;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.internal.Instrumentation;
 import org.apache.commons.imaging.palette.PaletteFactory;
 
 public class PnmImageParser extends AbstractImageParser<PnmImagingParameters> {
@@ -118,17 +120,26 @@ public class PnmImageParser extends AbstractImageParser<PnmImagingParameters> {
 
     @Override
     public BufferedImage getBufferedImage(final ByteSource byteSource, final PnmImagingParameters params) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.PNM);
+        instrumentation.enter(ImagingPhase.HEADER);
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             final AbstractFileInfo info = readHeader(is);
+            instrumentation.setFormat(info.getImageType());
 
             final int width = info.width;
             final int height = info.height;
 
             final boolean hasAlpha = info.hasAlpha();
-            final ImageBuilder imageBuilder = new ImageBuilder(width, height, hasAlpha);
+            instrumentation.enter(ImagingPhase.RASTER_BUILD);
+            final ImageBuilder imageBuilder = new ImageBuilder(width, height, hasAlpha, false, params != null ? params.getPixelBufferPool() : null);
+            // the samples are parsed and converted to pixels together
+            instrumentation.enter(ImagingPhase.COLOR_CONVERT);
             info.readImage(imageBuilder, is);
 
-            return imageBuilder.getBufferedImage();
+            instrumentation.enter(ImagingPhase.RASTER_BUILD);
+            final BufferedImage bufferedImage = imageBuilder.getBufferedImage();
+            instrumentation.finish();
+            return bufferedImage;
         }
     }
 
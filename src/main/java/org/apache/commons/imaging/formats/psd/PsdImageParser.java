@@ -34,6 +34,7 @@ import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.BinaryFunctions;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
 import org.apache.commons.imaging.common.XmpEmbeddable;
 import org.apache.commons.imaging.common.XmpImagingParameters;
 import org.apache.commons.imaging.formats.psd.dataparsers.DataParser;
@@ -46,6 +47,7 @@ import org.apache.commons.imaging.formats.psd.dataparsers.DataParserRgb;
 import org.apache.commons.imaging.formats.psd.datareaders.CompressedDataReader;
 import org.apache.commons.imaging.formats.psd.datareaders.DataReader;
 import org.apache.commons.imaging.formats.psd.datareaders.UncompressedDataReader;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 public class PsdImageParser extends AbstractImageParser<PsdImagingParameters> implements XmpEmbeddable {
 
@@ -111,7 +113,9 @@ public class PsdImageParser extends AbstractImageParser<PsdImagingParameters> im
 
     @Override
     public BufferedImage getBufferedImage(final ByteSource byteSource, final PsdImagingParameters params) throws ImagingException, IOException {
-        final PsdImageContents imageContents = readImageContents(byteSource);
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.PSD);
+        instrumentation.enter(ImagingPhase.HEADER);
+        final PsdImageContents imageContents = readImageContents(byteSource, instrumentation);
         // ImageContents imageContents = readImage(byteSource, false);
 
         final PsdHeaderInfo header = imageContents.header;
@@ -140,7 +144,9 @@ public class PsdImageParser extends AbstractImageParser<PsdImagingParameters> im
         // transfer_type = DataBuffer.TYPE_BYTE;
 
         final boolean hasAlpha = false;
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
         final BufferedImage result = getBufferedImageFactory(params).getColorBufferedImage(width, height, hasAlpha);
+        instrumentation.enter(ImagingPhase.HEADER);
 
         DataParser dataParser;
         switch (imageContents.header.mode) {
@@ -195,7 +201,9 @@ public class PsdImageParser extends AbstractImageParser<PsdImagingParameters> im
             throw new ImagingException("Unknown Compression: " + imageContents.compression);
         }
 
-        try (InputStream is = getInputStream(byteSource, PSD_SECTION_IMAGE_DATA)) {
+        // the channels are decompressed and converted to pixels together
+        instrumentation.enter(ImagingPhase.DECOMPRESS);
+        try (InputStream is = instrumentation.count(getInputStream(byteSource, PSD_SECTION_IMAGE_DATA))) {
             fDataReader.readData(is, result, imageContents, this);
 
             // is.
@@ -203,6 +211,7 @@ public class PsdImageParser extends AbstractImageParser<PsdImagingParameters> im
             // return imageContents;
         }
 
+        instrumentation.finish();
         return result;
 
     }
@@ -517,7 +526,11 @@ public class PsdImageParser extends AbstractImageParser<PsdImagingParameters> im
     }
 
     private PsdImageContents readImageContents(final ByteSource byteSource) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
+        return readImageContents(byteSource, Instrumentation.disabled());
+    }
+
+    private PsdImageContents readImageContents(final ByteSource byteSource, final Instrumentation instrumentation) throws ImagingException, IOException {
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             return readImageContents(is);
         }
     }
@@ -36,6 +36,8 @@ import org.apache.commons.imaging.ImageInfo;
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 /**
  * Parser for Radiance HDR images
@@ -54,16 +56,25 @@ public class RgbeImageParser extends AbstractImageParser<RgbeImagingParameters>
 
     @Override
     public BufferedImage getBufferedImage(final ByteSource byteSource, final RgbeImagingParameters params) throws ImagingException, IOException {
-        try (RgbeInfo info = new RgbeInfo(byteSource)) {
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.RGBE);
+        instrumentation.enter(ImagingPhase.HEADER);
+        try (RgbeInfo info = new RgbeInfo(instrumentation.count(byteSource.getInputStream()))) {
+            final int width = info.getWidth();
+            final int height = info.getHeight();
+            // the run-length decoding and the conversion to floats are done per scan line
+            instrumentation.enter(ImagingPhase.DECOMPRESS);
+            final float[][] pixelData = info.getPixelData();
+            instrumentation.enter(ImagingPhase.RASTER_BUILD);
             // It is necessary to create our own BufferedImage here as the
             // org.apache.commons.imaging.common.IBufferedImageFactory interface does
             // not expose this complexity
-            final DataBuffer buffer = new DataBufferFloat(info.getPixelData(), info.getWidth() * info.getHeight());
+            final DataBuffer buffer = new DataBufferFloat(pixelData, width * height);
 
-            return new BufferedImage(
+            final BufferedImage image = new BufferedImage(
                     new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), false, false, Transparency.OPAQUE, buffer.getDataType()),
-                    Raster.createWritableRaster(new BandedSampleModel(buffer.getDataType(), info.getWidth(), info.getHeight(), 3), buffer, new Point()), false,
-                    null);
+                    Raster.createWritableRaster(new BandedSampleModel(buffer.getDataType(), width, height, 3), buffer, new Point()), false, null);
+            instrumentation.finish();
+            return image;
         }
     }
 
@@ -70,7 +70,11 @@ final class RgbeInfo implements Closeable {
     private int height = -1;
 
     RgbeInfo(final ByteSource byteSource) throws IOException {
-        this.in = byteSource.getInputStream();
+        this(byteSource.getInputStream());
+    }
+
+    RgbeInfo(final InputStream in) {
+        this.in = in;
     }
 
     @Override
@@ -16,6 +16,7 @@
  */
 package org.apache.commons.imaging.formats.tiff;
 
+import java.io.IOException;
 import java.util.Comparator;
 
 public abstract class AbstractTiffElement {
@@ -35,6 +36,17 @@ public abstract class AbstractTiffElement {
         public int getDataLength() {
             return data.length;
         }
+
+        /**
+         * Reads the data, from the underlying byte source if it was not read along with the directory.
+         *
+         * @return a copy of the data.
+         * @throws IOException if the data cannot be read.
+         * @since 1.0.0-alpha6
+         */
+        public byte[] readData() throws IOException {
+            return getData();
+        }
     }
 
     public static final class Stub extends AbstractTiffElement {
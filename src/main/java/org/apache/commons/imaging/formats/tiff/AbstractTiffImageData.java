@@ -17,6 +17,7 @@
 package org.apache.commons.imaging.formats.tiff;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteOrder;
 
 import org.apache.commons.imaging.ImagingException;
@@ -29,10 +30,47 @@ import org.apache.commons.imaging.formats.tiff.photometricinterpreters.Photometr
 
 public abstract class AbstractTiffImageData {
 
+    /**
+     * A strip or tile, either holding its bytes or reading them on demand.
+     */
     public static class Data extends AbstractTiffElement.DataElement {
 
+        // reads the bytes on demand, null if they are held
+        private final ImageDataCache cache;
+
         public Data(final long offset, final int length, final byte[] data) {
             super(offset, length, data);
+            this.cache = null;
+        }
+
+        /**
+         * Constructs a strip or tile that is read on demand.
+         */
+        Data(final long offset, final int length, final ImageDataCache cache) {
+            super(offset, length, null);
+            this.cache = cache;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @throws UncheckedIOException if the data is read on demand and cannot be read.
+         */
+        @Override
+        public byte[] getData() {
+            if (cache == null) {
+                return super.getData();
+            }
+            try {
+                return cache.read(offset, length);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public int getDataLength() {
+            return cache == null ? super.getDataLength() : length;
         }
 
         @Override
@@ -40,6 +78,11 @@ public abstract class AbstractTiffImageData {
             return "TIFF image data: " + getDataLength() + " bytes";
         }
 
+        @Override
+        public byte[] readData() throws IOException {
+            return cache == null ? super.getData() : cache.read(offset, length);
+        }
+
     }
 
     public static class Strips extends AbstractTiffImageData {
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.tiff;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.imaging.bytesource.ByteSource;
+
+/**
+ * Reads the strips and tiles of TIFF images on demand, keeping the most recently used ones up to a budget in bytes.
+ *
+ * <p>
+ * Reads are done outside the lock, so that several threads can fetch different blocks at once.
+ * </p>
+ */
+final class ImageDataCache {
+
+    /** The default number of bytes to cache, 16 MiB. */
+    static final long DEFAULT_SIZE = 16L * 1024 * 1024;
+
+    private final ByteSource byteSource;
+    private final long capacity;
+    // blocks by offset, least recently used first
+    private final LinkedHashMap<Long, byte[]> blocks = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Constructs a cache over a byte source.
+     *
+     * @param byteSource the source of the image data.
+     * @param capacity   the number of bytes to cache at most, 0 to cache nothing.
+     */
+    ImageDataCache(final ByteSource byteSource, final long capacity) {
+        this.byteSource = byteSource;
+        this.capacity = capacity;
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Reads a block of image data.
+     *
+     * @param offset the offset of the block in the byte source.
+     * @param length the length of the block.
+     * @return a copy of the block that the caller may modify.
+     * @throws IOException if the block cannot be read.
+     */
+    byte[] read(final long offset, final int length) throws IOException {
+        synchronized (this) {
+            final byte[] cached = blocks.get(offset);
+            if (cached != null && cached.length == length) {
+                return cached.clone();
+            }
+        }
+        final byte[] bytes = byteSource.getByteArray(offset, length);
+        if (length == 0 || length > capacity) {
+            return bytes;
+        }
+        synchronized (this) {
+            final byte[] previous = blocks.put(offset, bytes);
+            if (previous != null) {
+                size -= previous.length;
+            }
+            size += length;
+            final Iterator<Map.Entry<Long, byte[]>> eldest = blocks.entrySet().iterator();
+            while (size > capacity) {
+                size -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+        return bytes.clone();
+    }
+}
@@ -582,7 +582,7 @@ public class TiffDirectory extends AbstractTiffElement implements Iterable<TiffF
         final TiffField jpegInterchangeFormatLength = findField(TiffTagConstants.TIFF_TAG_JPEG_INTERCHANGE_FORMAT_LENGTH);
 
         if (jpegInterchangeFormat != null && jpegInterchangeFormatLength != null) {
-            final int offSet = jpegInterchangeFormat.getIntArrayValue()[0];
+            final long offSet = jpegInterchangeFormat.getLongArrayValue()[0];
             final int byteCount = jpegInterchangeFormatLength.getIntArrayValue()[0];
 
             return new ImageDataElement(offSet, byteCount);
@@ -27,7 +27,7 @@ public class TiffHeader extends AbstractTiffElement {
     public final boolean bigTiff;
 
     public TiffHeader(final ByteOrder byteOrder, final int tiffVersion, final long offsetToFirstIFD, final boolean bigTiff) {
-        super(0, TiffConstants.HEADER_SIZE);
+        super(0, bigTiff ? TiffConstants.HEADER_SIZE_BIG : TiffConstants.HEADER_SIZE);
 
         this.byteOrder = byteOrder;
         this.tiffVersion = tiffVersion;
@@ -37,6 +37,7 @@ import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.ImageBuilder;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
 import org.apache.commons.imaging.common.XmpEmbeddable;
 import org.apache.commons.imaging.common.XmpImagingParameters;
 import org.apache.commons.imaging.formats.tiff.TiffDirectory.ImageDataElement;
@@ -54,6 +55,7 @@ import org.apache.commons.imaging.formats.tiff.photometricinterpreters.Photometr
 import org.apache.commons.imaging.formats.tiff.photometricinterpreters.PhotometricInterpreterRgb;
 import org.apache.commons.imaging.formats.tiff.photometricinterpreters.PhotometricInterpreterYCbCr;
 import org.apache.commons.imaging.formats.tiff.write.TiffImageWriterLossy;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 /**
  * Implements methods for reading and writing TIFF files. Instances of this class are invoked from the general Imaging class. Applications that require the use
@@ -162,7 +164,8 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
     @Override
     public List<BufferedImage> getAllBufferedImages(final ByteSource byteSource) throws ImagingException, IOException {
         final FormatCompliance formatCompliance = FormatCompliance.getDefault();
-        final TiffReader tiffReader = new TiffReader(true);
+        // every strip and tile is decoded once, so there is no point in caching them
+        final TiffReader tiffReader = new TiffReader(true, 0);
         final TiffContents contents = tiffReader.readDirectories(byteSource, true, formatCompliance);
         final List<BufferedImage> results = new ArrayList<>();
         for (int i = 0; i < contents.directories.size(); i++) {
@@ -216,20 +219,33 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
         if (params == null) {
             params = new TiffImagingParameters();
         }
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.TIFF);
+        instrumentation.enter(ImagingPhase.HEADER);
         final FormatCompliance formatCompliance = FormatCompliance.getDefault();
-        final TiffReader reader = new TiffReader(params.isStrict());
+        final TiffReader reader = new TiffReader(params.isStrict(), 0);
         final TiffContents contents = reader.readFirstDirectory(byteSource, true, formatCompliance);
         final ByteOrder byteOrder = reader.getByteOrder();
         final TiffDirectory directory = contents.directories.get(0);
-        final BufferedImage result = directory.getTiffImage(byteOrder, params);
-        if (null == result) {
+        // the file header and the directory; the image data is counted as it is decompressed
+        instrumentation.addBytesRead(TiffConstants.HEADER_SIZE + directory.length);
+        if (directory.getTiffImageData() == null) {
             throw new ImagingException("TIFF does not contain an image.");
         }
+        final BufferedImage result = getBufferedImage(directory, byteOrder, params, instrumentation);
+        instrumentation.finish();
         return result;
     }
 
     protected BufferedImage getBufferedImage(final TiffDirectory directory, final ByteOrder byteOrder, final TiffImagingParameters params)
             throws ImagingException, IOException {
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.TIFF);
+        final BufferedImage result = getBufferedImage(directory, byteOrder, params, instrumentation);
+        instrumentation.finish();
+        return result;
+    }
+
+    private BufferedImage getBufferedImage(final TiffDirectory directory, final ByteOrder byteOrder, final TiffImagingParameters params,
+            final Instrumentation instrumentation) throws ImagingException, IOException {
         final short compressionFieldValue;
         if (directory.findField(TiffTagConstants.TIFF_TAG_COMPRESSION) != null) {
             compressionFieldValue = directory.getFieldValue(TiffTagConstants.TIFF_TAG_COMPRESSION);
@@ -356,8 +372,12 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
 
         final ImageDataReader dataReader = imageData.getDataReader(directory, photometricInterpreter, bitsPerPixel, bitsPerSample, predictor, samplesPerPixel,
                 width, height, compression, planarConfiguration, byteOrder);
+        dataReader.setPixelBufferPool(params == null ? null : params.getPixelBufferPool());
+        dataReader.setInstrumentation(instrumentation);
+        dataReader.setExecutor(params == null ? null : params.getImageDataExecutor());
 
         final ImageBuilder iBuilder = dataReader.readImageData(subImage, hasAlpha, isAlphaPremultiplied);
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
         return iBuilder.getBufferedImage();
     }
 
@@ -831,6 +851,7 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
 
         final ImageDataReader dataReader = imageData.getDataReader(directory, photometricInterpreter, bitsPerPixel, bitsPerSample, predictor, samplesPerPixel,
                 width, height, compression, planarConfiguration, byteOrder);
+        dataReader.setPixelBufferPool(params.getPixelBufferPool());
 
         return dataReader.readRasterData(subImage);
     }
@@ -15,6 +15,8 @@
 
 package org.apache.commons.imaging.formats.tiff;
 
+import java.util.concurrent.Executor;
+
 import org.apache.commons.imaging.common.XmpImagingParameters;
 import org.apache.commons.imaging.formats.tiff.photometricinterpreters.PhotometricInterpreter;
 import org.apache.commons.imaging.formats.tiff.write.TiffOutputSet;
@@ -75,12 +77,41 @@ public class TiffImagingParameters extends XmpImagingParameters<TiffImagingParam
      */
     private Integer compression;
 
+    /**
+     * Used in write operations to write BigTIFF, with 8-byte offsets, even if the output would fit classic TIFF.
+     *
+     * <p>
+     * Default value is {@code false}, which writes BigTIFF only when the output would pass 4 GB.
+     * </p>
+     */
+    private boolean bigTiff;
+
+    /**
+     * Executor used to decompress and interpret strips and tiles in parallel when reading, and to compress them in parallel when writing, for example
+     * {@code ForkJoinPool.commonPool()}.
+     *
+     * <p>
+     * Default value is {@code null}, which reads and writes them on the calling thread.
+     * </p>
+     */
+    private Executor imageDataExecutor;
+
     /**
      * Specifies the amount of memory in bytes to be used for a strip or tile size when employing LZW compression. The default is 8000 (roughly 8K). Minimum
      * value is 8000.
      */
     private Integer lzwCompressionBlockSize;
 
+    /**
+     * Used in write operations to write tiles of this width instead of strips, 0 to write strips.
+     */
+    private int tileWidth;
+
+    /**
+     * Used in write operations to write tiles of this length instead of strips, 0 to write strips.
+     */
+    private int tileLength;
+
     /**
      * Used in write operations to indicate the desired T.4 options to use when using TIFF_COMPRESSION_CCITT_GROUP_3.
      *
@@ -116,6 +147,16 @@ public class TiffImagingParameters extends XmpImagingParameters<TiffImagingParam
         return customPhotometricInterpreter;
     }
 
+    /**
+     * Gets the executor used to read strips and tiles in parallel.
+     *
+     * @return the executor, or {@code null} to read on the calling thread.
+     * @since 1.0.0-alpha6
+     */
+    public Executor getImageDataExecutor() {
+        return imageDataExecutor;
+    }
+
     public Integer getLzwCompressionBlockSize() {
         return lzwCompressionBlockSize;
     }
@@ -173,6 +214,36 @@ public class TiffImagingParameters extends XmpImagingParameters<TiffImagingParam
         return t6Options;
     }
 
+    /**
+     * Gets the length of the tiles to write.
+     *
+     * @return the tile length, or 0 to write strips.
+     * @since 1.0.0-alpha6
+     */
+    public int getTileLength() {
+        return tileLength;
+    }
+
+    /**
+     * Gets the width of the tiles to write.
+     *
+     * @return the tile width, or 0 to write strips.
+     * @since 1.0.0-alpha6
+     */
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * Tests whether BigTIFF is written even if the output would fit classic TIFF.
+     *
+     * @return whether BigTIFF is forced.
+     * @since 1.0.0-alpha6
+     */
+    public boolean isBigTiff() {
+        return bigTiff;
+    }
+
     public boolean isReadThumbnails() {
         return readThumbnails;
     }
@@ -186,6 +257,19 @@ public class TiffImagingParameters extends XmpImagingParameters<TiffImagingParam
         return subImageWidth > 0 && subImageHeight > 0;
     }
 
+    /**
+     * Sets whether to write BigTIFF, with 8-byte offsets, even if the output would fit classic TIFF. Outputs that would pass 4 GB are written as BigTIFF
+     * either way.
+     *
+     * @param bigTiff whether to force BigTIFF.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public TiffImagingParameters setBigTiff(final boolean bigTiff) {
+        this.bigTiff = bigTiff;
+        return asThis();
+    }
+
     public TiffImagingParameters setCompression(final Integer compression) {
         this.compression = compression;
         return asThis();
@@ -196,6 +280,25 @@ public class TiffImagingParameters extends XmpImagingParameters<TiffImagingParam
         return asThis();
     }
 
+    /**
+     * Sets the executor used to decompress and interpret strips and tiles in parallel, and to compress them in parallel when writing with LZW, Packbits or
+     * Zlib Deflate compression. Strips and tiles are independent of each other, so decoding and encoding large compressed images scales with the threads
+     * of the executor.
+     *
+     * <p>
+     * Floating-point images are still read on the calling thread. A {@link #setCustomPhotometricInterpreter(PhotometricInterpreter) custom photometric
+     * interpreter} must allow pixels of different strips or tiles to be interpreted at the same time.
+     * </p>
+     *
+     * @param imageDataExecutor the executor, or {@code null} to read on the calling thread.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public TiffImagingParameters setImageDataExecutor(final Executor imageDataExecutor) {
+        this.imageDataExecutor = imageDataExecutor;
+        return asThis();
+    }
+
     public TiffImagingParameters setLzwCompressionBlockSize(final Integer lzwCompressionBlockSize) {
         this.lzwCompressionBlockSize = lzwCompressionBlockSize;
         return asThis();
@@ -254,4 +357,23 @@ public class TiffImagingParameters extends XmpImagingParameters<TiffImagingParam
         return asThis();
     }
 
+    /**
+     * Sets the size of the tiles to write instead of strips. Tiles are compressed independently of each other, which suits viewers and readers of sub-images
+     * that only need part of a large image. Tiles can be written with LZW, Packbits, Zlib Deflate or no compression.
+     *
+     * @param tileWidth  the width of the tiles, a multiple of 16, or 0 to write strips.
+     * @param tileLength the length of the tiles, a multiple of 16, or 0 to write strips.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the size is not a multiple of 16, as the TIFF specification requires.
+     * @since 1.0.0-alpha6
+     */
+    public TiffImagingParameters setTileSize(final int tileWidth, final int tileLength) {
+        if ((tileWidth != 0 || tileLength != 0) && (tileWidth <= 0 || tileLength <= 0 || tileWidth % 16 != 0 || tileLength % 16 != 0)) {
+            throw new IllegalArgumentException("Invalid tile size " + tileWidth + "x" + tileLength + ": width and length must be positive multiples of 16");
+        }
+        this.tileWidth = tileWidth;
+        this.tileLength = tileLength;
+        return asThis();
+    }
+
 }
@@ -18,6 +18,8 @@ package org.apache.commons.imaging.formats.tiff;
 
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.ENTRY_MAX_VALUE_LENGTH;
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.ENTRY_MAX_VALUE_LENGTH_BIG;
+import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.HEADER_SIZE;
+import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.HEADER_SIZE_BIG;
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.VERSION_BIG;
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.VERSION_STANDARD;
 
@@ -25,11 +27,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.imaging.FormatCompliance;
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.bytesource.FileChannelByteSource;
+import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BinaryFileParser;
 import org.apache.commons.imaging.common.BinaryFunctions;
 import org.apache.commons.imaging.common.ByteConversions;
@@ -123,12 +128,48 @@ public class TiffReader extends BinaryFileParser {
     }
 
     private final boolean strict;
+    // whether strips and tiles are read when they are decoded rather than along with their directory
+    private final boolean readImageDataOnDemand;
+    private final long imageDataCacheSize;
+    // reads the strips and tiles of the byte source being read on demand
+    private ImageDataCache imageDataCache;
     private boolean bigTiff;
     private boolean standardTiff;
     private int entryMaxValueLength;
-
+    // reused for the entries of every directory
+    private byte[] directoryBuffer = new byte[256];
+
+    /**
+     * Constructs a reader that reads strips and tiles along with their directory, so the directories do not depend on the byte source once read.
+     *
+     * @param strict whether to fail on invalid data that could be skipped.
+     */
     public TiffReader(final boolean strict) {
         this.strict = strict;
+        this.readImageDataOnDemand = false;
+        this.imageDataCacheSize = 0;
+    }
+
+    /**
+     * Constructs a reader that reads strips and tiles on demand.
+     *
+     * <p>
+     * Strips and tiles are not read along with their directory but when they are decoded, so that reading a sub-image only reads the strips or tiles it
+     * intersects. Up to {@code imageDataCacheSize} bytes of them are kept for the images read again. The directories keep reading from the byte source, so
+     * it must stay open and unchanged while their image data is used.
+     * </p>
+     *
+     * @param strict             whether to fail on invalid data that could be skipped.
+     * @param imageDataCacheSize the number of bytes of strips and tiles to keep at most, 0 to keep none.
+     * @since 1.0.0-alpha6
+     */
+    public TiffReader(final boolean strict, final long imageDataCacheSize) {
+        if (imageDataCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid image data cache size " + imageDataCacheSize + ", must not be negative");
+        }
+        this.strict = strict;
+        this.readImageDataOnDemand = true;
+        this.imageDataCacheSize = imageDataCacheSize;
     }
 
     private JpegImageData getJpegRawImageData(final ByteSource byteSource, final TiffDirectory directory) throws ImagingException, IOException {
@@ -162,10 +203,19 @@ public class TiffReader extends BinaryFileParser {
         final List<ImageDataElement> elements = directory.getTiffRawImageDataElements();
         final AbstractTiffImageData.Data[] data = new AbstractTiffImageData.Data[elements.size()];
 
+        final long sourceSize = byteSource.size();
         for (int i = 0; i < elements.size(); i++) {
             final TiffDirectory.ImageDataElement element = elements.get(i);
-            final byte[] bytes = byteSource.getByteArray(element.offset, element.length);
-            data[i] = new AbstractTiffImageData.Data(element.offset, element.length, bytes);
+            // check the range up front, the bytes may only be read when the strip or tile is decoded
+            if (element.offset < 0 || element.length < 0 || element.offset + element.length > sourceSize) {
+                throw new ImagingException(
+                        "Could not read block (block start: " + element.offset + ", block length: " + element.length + ", data length: " + sourceSize + ").");
+            }
+            if (readImageDataOnDemand) {
+                data[i] = new AbstractTiffImageData.Data(element.offset, element.length, imageDataCache);
+            } else {
+                data[i] = new AbstractTiffImageData.Data(element.offset, element.length, byteSource.getByteArray(element.offset, element.length));
+            }
         }
 
         if (directory.imageDataInStrips()) {
@@ -254,16 +304,22 @@ public class TiffReader extends BinaryFileParser {
 
     private void readDirectories(final ByteSource byteSource, final FormatCompliance formatCompliance, final Listener listener)
             throws ImagingException, IOException {
-        final TiffHeader tiffHeader = readTiffHeader(byteSource);
-        if (!listener.setTiffHeader(tiffHeader)) {
-            return;
-        }
+        // strips and tiles read on demand are read after the directories, from the byte source itself
+        imageDataCache = readImageDataOnDemand ? new ImageDataCache(byteSource, imageDataCacheSize) : null;
+        // the file of a file source is opened once for all directories
+        try (FileChannelByteSource channel = byteSource.openChannel()) {
+            final ByteSource source = channel != null ? channel : byteSource;
+            final TiffHeader tiffHeader = readTiffHeader(source);
+            if (!listener.setTiffHeader(tiffHeader)) {
+                return;
+            }
 
-        final long offset = tiffHeader.offsetToFirstIFD;
-        final int dirType = TiffDirectoryConstants.DIRECTORY_TYPE_ROOT;
+            final long offset = tiffHeader.offsetToFirstIFD;
+            final int dirType = TiffDirectoryConstants.DIRECTORY_TYPE_ROOT;
 
-        final List<Number> visited = new ArrayList<>();
-        readDirectory(byteSource, offset, dirType, formatCompliance, listener, visited);
+            final List<Number> visited = new ArrayList<>();
+            readDirectory(source, offset, dirType, formatCompliance, listener, visited);
+        }
     }
 
     private boolean readDirectory(final ByteSource byteSource, final long directoryOffset, final int dirType, final FormatCompliance formatCompliance,
@@ -274,142 +330,167 @@ public class TiffReader extends BinaryFileParser {
         }
         visited.add(directoryOffset);
 
-        try (InputStream is = byteSource.getInputStream()) {
-            if (directoryOffset >= byteSource.size()) {
-                return true;
-            }
-
-            BinaryFunctions.skipBytes(is, directoryOffset);
+        final long sourceSize = byteSource.size();
+        if (directoryOffset >= sourceSize) {
+            return true;
+        }
+        final int entryCountLength = standardTiff ? 2 : 8;
+        final int valueOffsetLength = standardTiff ? 4 : 8;
+        final int entryLength = 4 + 2 * valueOffsetLength;
 
-            final List<TiffField> fields = new ArrayList<>();
+        final List<TiffField> fields = new ArrayList<>();
 
-            long entryCount;
-            try {
-                if (standardTiff) {
-                    entryCount = BinaryFunctions.read2Bytes("DirectoryEntryCount", is, "Not a Valid TIFF File", getByteOrder());
-                } else {
-                    entryCount = BinaryFunctions.read8Bytes("DirectoryEntryCount", is, "Not a Valid TIFF File", getByteOrder());
-                }
-            } catch (final IOException e) {
-                if (strict) {
-                    throw e;
-                }
-                return true;
+        long entryCount;
+        try {
+            byteSource.readInto(directoryOffset, directoryBuffer, 0, entryCountLength);
+            if (standardTiff) {
+                entryCount = ByteConversions.toUInt16(directoryBuffer, getByteOrder());
+            } else {
+                entryCount = Math.max(0, ByteConversions.toLong(directoryBuffer, getByteOrder()));
             }
+        } catch (final IOException e) {
+            if (strict) {
+                throw new IOException("Not a Valid TIFF File", e);
+            }
+            return true;
+        }
 
-            for (int i = 0; i < entryCount; i++) {
-                final int tag = BinaryFunctions.read2Bytes("Tag", is, "Not a Valid TIFF File", getByteOrder());
-                final int type = BinaryFunctions.read2Bytes("Type", is, "Not a Valid TIFF File", getByteOrder());
-                final long count;
-                final byte[] offsetBytes;
-                final long offset;
-                if (standardTiff) {
-                    count = 0xFFFFffffL & BinaryFunctions.read4Bytes("Count", is, "Not a Valid TIFF File", getByteOrder());
-                    offsetBytes = BinaryFunctions.readBytes("Offset", is, 4, "Not a Valid TIFF File");
-                    offset = 0xFFFFffffL & ByteConversions.toInt(offsetBytes, getByteOrder());
-                } else {
-                    count = BinaryFunctions.read8Bytes("Count", is, "Not a Valid TIFF File", getByteOrder());
-                    offsetBytes = BinaryFunctions.readBytes("Offset", is, 8, "Not a Valid TIFF File");
-                    offset = ByteConversions.toLong(offsetBytes, getByteOrder());
-                }
+        // read the entries and the next directory offset at once, as far as the file goes
+        final long entriesOffset = directoryOffset + entryCountLength;
+        final int directoryLength = (int) Math.min(Math.min(entryCount, Integer.MAX_VALUE / entryLength) * entryLength + valueOffsetLength,
+                sourceSize - entriesOffset);
+        if (directoryBuffer.length < directoryLength) {
+            directoryBuffer = Allocator.byteArray(Math.max(directoryLength, 2 * directoryBuffer.length));
+        }
+        byteSource.readInto(entriesOffset, directoryBuffer, 0, directoryLength);
 
-                if (tag == 0) {
-                    // skip invalid fields.
-                    // These are seen very rarely, but can have invalid value
-                    // lengths,
-                    // which can cause OOM problems.
-                    continue;
-                }
+        for (int i = 0; i < entryCount; i++) {
+            final int entryOffset = i * entryLength;
+            if (entryOffset + entryLength > directoryLength) {
+                throw new IOException("Not a Valid TIFF File");
+            }
+            final int tag = ByteConversions.toUInt16(directoryBuffer, entryOffset, getByteOrder());
+            final int type = ByteConversions.toUInt16(directoryBuffer, entryOffset + 2, getByteOrder());
+            final long count;
+            final byte[] offsetBytes = Arrays.copyOfRange(directoryBuffer, entryOffset + 4 + valueOffsetLength, entryOffset + entryLength);
+            final long offset;
+            if (standardTiff) {
+                count = 0xFFFFffffL & ByteConversions.toInt(directoryBuffer, entryOffset + 4, getByteOrder());
+                offset = 0xFFFFffffL & ByteConversions.toInt(offsetBytes, getByteOrder());
+            } else {
+                count = ByteConversions.toLong(directoryBuffer, entryOffset + 4, getByteOrder());
+                offset = ByteConversions.toLong(offsetBytes, getByteOrder());
+            }
 
-                final AbstractFieldType abstractFieldType;
-                try {
-                    abstractFieldType = AbstractFieldType.getFieldType(type);
-                } catch (final ImagingException imageReadEx) {
-                    // skip over unknown fields types, since we
-                    // can't calculate their size without
-                    // knowing their type
-                    continue;
-                }
-                final long valueLength = count * abstractFieldType.getSize();
-                final byte[] value;
-                if (valueLength > entryMaxValueLength) {
-                    if (offset < 0 || offset + valueLength > byteSource.size()) {
-                        if (strict) {
-                            throw new IOException("Attempt to read byte range starting from " + offset + " " + "of length " + valueLength + " "
-                                    + "which is outside the file's size of " + byteSource.size());
-                        }
-                        // corrupt field, ignore it
-                        continue;
+            if (tag == 0) {
+                // skip invalid fields.
+                // These are seen very rarely, but can have invalid value
+                // lengths,
+                // which can cause OOM problems.
+                continue;
+            }
+
+            final AbstractFieldType abstractFieldType;
+            try {
+                abstractFieldType = AbstractFieldType.getFieldType(type);
+            } catch (final ImagingException imageReadEx) {
+                // skip over unknown fields types, since we
+                // can't calculate their size without
+                // knowing their type
+                continue;
+            }
+            final long valueLength = count * abstractFieldType.getSize();
+            final byte[] value;
+            if (valueLength > entryMaxValueLength) {
+                if (offset < 0 || offset + valueLength > sourceSize) {
+                    if (strict) {
+                        throw new IOException("Attempt to read byte range starting from " + offset + " " + "of length " + valueLength + " "
+                                + "which is outside the file's size of " + sourceSize);
                     }
-                    value = byteSource.getByteArray(offset, (int) valueLength);
-                } else {
-                    value = offsetBytes;
+                    // corrupt field, ignore it
+                    continue;
                 }
+                value = byteSource.getByteArray(offset, (int) valueLength);
+            } else {
+                value = offsetBytes;
+            }
 
-                final TiffField field = new TiffField(tag, dirType, abstractFieldType, count, offset, value, getByteOrder(), i);
+            final TiffField field = new TiffField(tag, dirType, abstractFieldType, count, offset, value, getByteOrder(), i);
 
-                fields.add(field);
+            fields.add(field);
 
-                if (!listener.addField(field)) {
-                    return true;
-                }
+            if (!listener.addField(field)) {
+                return true;
             }
+        }
 
-            final long nextDirectoryOffset = 0xFFFFffffL & BinaryFunctions.read4Bytes("nextDirectoryOffset", is, "Not a Valid TIFF File", getByteOrder());
+        if (entryCount * entryLength + valueOffsetLength > directoryLength) {
+            throw new IOException("Not a Valid TIFF File");
+        }
+        final long nextDirectoryOffset;
+        if (standardTiff) {
+            nextDirectoryOffset = 0xFFFFffffL & ByteConversions.toInt(directoryBuffer, (int) entryCount * entryLength, getByteOrder());
+        } else {
+            nextDirectoryOffset = ByteConversions.toLong(directoryBuffer, (int) entryCount * entryLength, getByteOrder());
+        }
 
-            final TiffDirectory directory = new TiffDirectory(dirType, fields, directoryOffset, nextDirectoryOffset, getByteOrder());
+        final TiffDirectory directory = new TiffDirectory(dirType, fields, directoryOffset, nextDirectoryOffset, getByteOrder());
 
-            if (listener.readImageData()) {
-                if (directory.hasTiffImageData()) {
-                    final AbstractTiffImageData rawImageData = getTiffRawImageData(byteSource, directory);
-                    directory.setTiffImageData(rawImageData);
-                }
-                if (directory.hasJpegImageData()) {
-                    final JpegImageData rawJpegImageData = getJpegRawImageData(byteSource, directory);
-                    directory.setJpegImageData(rawJpegImageData);
-                }
+        if (listener.readImageData()) {
+            if (directory.hasTiffImageData()) {
+                final AbstractTiffImageData rawImageData = getTiffRawImageData(byteSource, directory);
+                directory.setTiffImageData(rawImageData);
             }
-
-            if (!listener.addDirectory(directory)) {
-                return true;
+            if (directory.hasJpegImageData()) {
+                final JpegImageData rawJpegImageData = getJpegRawImageData(byteSource, directory);
+                directory.setJpegImageData(rawJpegImageData);
             }
+        }
 
-            if (listener.readOffsetDirectories()) {
-                final TagInfoDirectory[] offsetFields = { ExifTagConstants.EXIF_TAG_EXIF_OFFSET, ExifTagConstants.EXIF_TAG_GPSINFO,
-                        ExifTagConstants.EXIF_TAG_INTEROP_OFFSET };
-                final int[] directoryTypes = { TiffDirectoryConstants.DIRECTORY_TYPE_EXIF, TiffDirectoryConstants.DIRECTORY_TYPE_GPS,
-                        TiffDirectoryConstants.DIRECTORY_TYPE_INTEROPERABILITY };
-                for (int i = 0; i < offsetFields.length; i++) {
-                    final TagInfoDirectory offsetField = offsetFields[i];
-                    final TiffField field = directory.findField(offsetField);
-                    if (field != null) {
-                        long subDirectoryOffset;
-                        int subDirectoryType;
-                        boolean subDirectoryRead = false;
-                        try {
-                            subDirectoryOffset = directory.getFieldValue(offsetField);
-                            subDirectoryType = directoryTypes[i];
-                            subDirectoryRead = readDirectory(byteSource, subDirectoryOffset, subDirectoryType, formatCompliance, listener, true, visited);
+        if (!listener.addDirectory(directory)) {
+            return true;
+        }
 
-                        } catch (final ImagingException imageReadException) {
-                            if (strict) {
-                                throw imageReadException;
-                            }
+        if (listener.readOffsetDirectories()) {
+            final TagInfoDirectory[] offsetFields = { ExifTagConstants.EXIF_TAG_EXIF_OFFSET, ExifTagConstants.EXIF_TAG_GPSINFO,
+                    ExifTagConstants.EXIF_TAG_INTEROP_OFFSET };
+            final int[] directoryTypes = { TiffDirectoryConstants.DIRECTORY_TYPE_EXIF, TiffDirectoryConstants.DIRECTORY_TYPE_GPS,
+                    TiffDirectoryConstants.DIRECTORY_TYPE_INTEROPERABILITY };
+            for (int i = 0; i < offsetFields.length; i++) {
+                final TagInfoDirectory offsetField = offsetFields[i];
+                final TiffField field = directory.findField(offsetField);
+                if (field != null) {
+                    long subDirectoryOffset;
+                    int subDirectoryType;
+                    boolean subDirectoryRead = false;
+                    try {
+                        if (field.getFieldType().getSize() == 8) {
+                            // BigTIFF points to its sub-directories with LONG8 or IFD8 values
+                            subDirectoryOffset = field.getLongValue();
+                        } else {
+                            subDirectoryOffset = directory.getFieldValue(offsetField);
                         }
-                        if (!subDirectoryRead) {
-                            fields.remove(field);
+                        subDirectoryType = directoryTypes[i];
+                        subDirectoryRead = readDirectory(byteSource, subDirectoryOffset, subDirectoryType, formatCompliance, listener, true, visited);
+
+                    } catch (final ImagingException imageReadException) {
+                        if (strict) {
+                            throw imageReadException;
                         }
                     }
+                    if (!subDirectoryRead) {
+                        fields.remove(field);
+                    }
                 }
             }
+        }
 
-            if (!ignoreNextDirectory && directory.getNextDirectoryOffset() > 0) {
-                // Debug.debug("next dir", directory.nextDirectoryOffset );
-                readDirectory(byteSource, directory.getNextDirectoryOffset(), dirType + 1, formatCompliance, listener, visited);
-            }
-
-            return true;
+        if (!ignoreNextDirectory && directory.getNextDirectoryOffset() > 0) {
+            // Debug.debug("next dir", directory.nextDirectoryOffset );
+            readDirectory(byteSource, directory.getNextDirectoryOffset(), dirType + 1, formatCompliance, listener, visited);
         }
+
+        return true;
     }
 
     private boolean readDirectory(final ByteSource byteSource, final long offset, final int dirType, final FormatCompliance formatCompliance,
@@ -471,7 +552,7 @@ public class TiffReader extends BinaryFileParser {
             throw new ImagingException("Unknown TIFF Version: " + tiffVersion);
         }
 
-        BinaryFunctions.skipBytes(is, offsetToFirstIFD - 8, "Not a Valid TIFF File: couldn't find IFDs");
+        BinaryFunctions.skipBytes(is, offsetToFirstIFD - (bigTiff ? HEADER_SIZE_BIG : HEADER_SIZE), "Not a Valid TIFF File: couldn't find IFDs");
 
         return new TiffHeader(byteOrder, tiffVersion, offsetToFirstIFD, bigTiff);
     }
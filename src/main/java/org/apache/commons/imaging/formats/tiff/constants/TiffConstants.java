@@ -33,7 +33,32 @@ public final class TiffConstants {
     public static final int DIRECTORY_FOOTER_LENGTH = 4;
     public static final int ENTRY_LENGTH = 12;
     public static final int ENTRY_MAX_VALUE_LENGTH = 4;
-    public static final int ENTRY_LENGTH_BIG = 12;
+
+    /**
+     * The size of a BigTIFF header: byte order, version, offset byte size, a reserved zero and the 8-byte offset of the first directory.
+     *
+     * @since 1.0.0-alpha6
+     */
+    public static final int HEADER_SIZE_BIG = 16;
+
+    /**
+     * The size of the 8-byte entry count of a BigTIFF directory.
+     *
+     * @since 1.0.0-alpha6
+     */
+    public static final int DIRECTORY_HEADER_LENGTH_BIG = 8;
+
+    /**
+     * The size of the 8-byte next directory offset of a BigTIFF directory.
+     *
+     * @since 1.0.0-alpha6
+     */
+    public static final int DIRECTORY_FOOTER_LENGTH_BIG = 8;
+
+    /**
+     * The size of a BigTIFF directory entry: tag, type, 8-byte count and 8-byte value or offset.
+     */
+    public static final int ENTRY_LENGTH_BIG = 20;
     public static final int ENTRY_MAX_VALUE_LENGTH_BIG = 8;
 
     public static final int COMPRESSION_UNCOMPRESSED_1 = 1;
@@ -22,10 +22,12 @@ import java.awt.Rectangle;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.ImageBuilder;
+import org.apache.commons.imaging.common.ImagingPhase;
 import org.apache.commons.imaging.formats.tiff.AbstractTiffImageData;
 import org.apache.commons.imaging.formats.tiff.TiffDirectory;
 import org.apache.commons.imaging.formats.tiff.TiffRasterData;
@@ -35,6 +37,7 @@ import org.apache.commons.imaging.formats.tiff.constants.TiffPlanarConfiguration
 import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
 import org.apache.commons.imaging.formats.tiff.photometricinterpreters.PhotometricInterpreter;
 import org.apache.commons.imaging.formats.tiff.photometricinterpreters.PhotometricInterpreterRgb;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 /**
  * Provides a data reader for TIFF file images organized by tiles.
@@ -48,8 +51,6 @@ public final class DataReaderStrips extends ImageDataReader {
     private final int rowsPerStrip;
     private final TiffPlanarConfiguration planarConfiguration;
     private final ByteOrder byteOrder;
-    private int x;
-    private int y;
     private final AbstractTiffImageData.Strips imageData;
 
     public DataReaderStrips(final TiffDirectory directory, final PhotometricInterpreter photometricInterpreter, final int bitsPerPixel,
@@ -66,8 +67,20 @@ public final class DataReaderStrips extends ImageDataReader {
         this.byteOrder = byteOrder;
     }
 
-    private void interpretStrip(final ImageBuilder imageBuilder, final byte[] bytes, final int pixelsPerStrip, final int yLimit)
-            throws ImagingException, IOException {
+    /**
+     * Interprets the pixels of a strip.
+     *
+     * @param imageBuilder   receives the pixels.
+     * @param bytes          the decompressed strip.
+     * @param pixelsPerStrip the number of pixels in the strip.
+     * @param yStart         the row of the image builder that the strip starts at.
+     * @param yLimit         the row of the image builder to stop at.
+     * @param phases         measures the phases of reading the strip.
+     */
+    private void interpretStrip(final ImageBuilder imageBuilder, final byte[] bytes, final int pixelsPerStrip, final int yStart, final int yLimit,
+            final Instrumentation phases) throws ImagingException, IOException {
+        int x = 0;
+        int y = yStart;
         if (y >= yLimit) {
             return;
         }
@@ -81,8 +94,6 @@ public final class DataReaderStrips extends ImageDataReader {
             }
             final int i0 = y;
             final int i1 = y + nRows;
-            x = 0;
-            y += nRows;
             final int[] samples = new int[1];
             final int[] b = unpackFloatingPointSamples(width, i1 - i0, width, bytes, bitsPerPixel, byteOrder);
 
@@ -93,6 +104,7 @@ public final class DataReaderStrips extends ImageDataReader {
                     photometricInterpreter.interpretPixel(imageBuilder, samples, j, i);
                 }
             }
+            release(b);
 
             return;
         }
@@ -148,8 +160,6 @@ public final class DataReaderStrips extends ImageDataReader {
             }
             final int i0 = y;
             final int i1 = y + nRows;
-            x = 0;
-            y += nRows;
             final int[] samples = new int[1];
             for (int i = i0; i < i1; i++) {
                 for (int j = 0; j < width; j++) {
@@ -167,10 +177,10 @@ public final class DataReaderStrips extends ImageDataReader {
             }
             final int i0 = y;
             final int i1 = y + nRows;
-            x = 0;
-            y += nRows;
             if (predictor == TiffTagConstants.PREDICTOR_VALUE_HORIZONTAL_DIFFERENCING) {
+                phases.enter(ImagingPhase.UNFILTER);
                 applyPredictorToBlock(width, nRows, samplesPerPixel, bytes);
+                phases.enter(ImagingPhase.COLOR_CONVERT);
             }
 
             if (bitsPerPixel == 24) {
@@ -202,12 +212,12 @@ public final class DataReaderStrips extends ImageDataReader {
         try (BitInputStream bis = new BitInputStream(new ByteArrayInputStream(bytes), byteOrder)) {
 
             int[] samples = Allocator.intArray(bitsPerSampleLength);
-            resetPredictor();
+            final int[] last = Allocator.intArray(samplesPerPixel);
             for (int i = 0; i < pixelsPerStrip; i++) {
                 getSamplesAsBytes(bis, samples);
 
                 if (x < width) {
-                    samples = applyPredictor(samples);
+                    samples = applyPredictor(samples, last);
 
                     photometricInterpreter.interpretPixel(imageBuilder, samples, x, y);
                 }
@@ -215,7 +225,7 @@ public final class DataReaderStrips extends ImageDataReader {
                 x++;
                 if (x >= width) {
                     x = 0;
-                    resetPredictor();
+                    Arrays.fill(last, 0);
                     y++;
                     bis.flushCache();
                     if (y >= yLimit) {
@@ -249,11 +259,10 @@ public final class DataReaderStrips extends ImageDataReader {
         final int strip1 = (subImage.y + subImage.height - 1) / rowsPerStrip;
         final int workingHeight = (strip1 - strip0 + 1) * rowsPerStrip;
 
-        // the legacy code uses a member element "y" to keep track
-        // of the row index of the output image that is being processed
-        // by interpretStrip. y is set to zero before the first
-        // call to interpretStrip. y0 will be the index of the first row
-        // in the full image (the source image) that will be processed.
+        // interpretStrip works in the rows of the working image, where
+        // the first strip starts at row zero. y0 will be the index of
+        // the first row in the full image (the source image) that will
+        // be processed.
         final int y0 = strip0 * rowsPerStrip;
         final int yLimit = subImage.y - y0 + subImage.height;
 
@@ -264,7 +273,8 @@ public final class DataReaderStrips extends ImageDataReader {
         // is extracted from the workingBuilder at the end of this method.
         // This approach avoids the need for the interpretStrips method
         // to implement bounds checking for a subimage.
-        final ImageBuilder workingBuilder = new ImageBuilder(width, workingHeight, hasAlpha, isAlphaPreMultiplied);
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
+        final ImageBuilder workingBuilder = new ImageBuilder(width, workingHeight, hasAlpha, isAlphaPreMultiplied, pixelBufferPool);
 
         // the following statement accounts for cases where planar configuration
         // is not specified and the default (CHUNKY) is assumed.
@@ -273,7 +283,8 @@ public final class DataReaderStrips extends ImageDataReader {
             // Pixel definitions are organized in an interleaved format
             // For example, red-green-blue values for each pixel
             // would appear contiguous in input sequence.
-            for (int strip = strip0; strip <= strip1; strip++) {
+            readBlocks(strip1 - strip0 + 1, (block, phases) -> {
+                final int strip = strip0 + block;
                 final long rowsPerStripLong = 0xFFFFffffL & rowsPerStrip;
                 final long rowsRemaining = height - strip * rowsPerStripLong;
                 final long rowsInThisStrip = Math.min(rowsRemaining, rowsPerStripLong);
@@ -281,19 +292,22 @@ public final class DataReaderStrips extends ImageDataReader {
                 final long bytesPerStrip = rowsInThisStrip * bytesPerRow;
                 final long pixelsPerStrip = rowsInThisStrip * width;
 
-                final byte[] compressed = imageData.getImageData(strip).getData();
+                phases.enter(ImagingPhase.DECOMPRESS);
+                final byte[] compressed = imageData.getImageData(strip).readData();
 
                 if (compression == COMPRESSION_JPEG) {
                     final int yBlock = strip * rowsPerStrip;
                     final int yWork = yBlock - y0;
                     DataInterpreterJpeg.intepretBlock(directory, workingBuilder, 0, yWork, width, (int) rowsInThisStrip, compressed);
-                    continue;
+                    return compressed.length;
                 }
 
                 final byte[] decompressed = decompress(compressed, compression, (int) bytesPerStrip, width, (int) rowsInThisStrip);
 
-                interpretStrip(workingBuilder, decompressed, (int) pixelsPerStrip, yLimit);
-            }
+                phases.enter(ImagingPhase.COLOR_CONVERT);
+                interpretStrip(workingBuilder, decompressed, (int) pixelsPerStrip, workingRow(block), yLimit, phases);
+                return compressed.length;
+            });
         } else {
             // pixel definitions are organized in a 3 separate sections of input
             // sequence. For example, red-green-blue values would be given as
@@ -303,7 +317,8 @@ public final class DataReaderStrips extends ImageDataReader {
                 throw new ImagingException("TIFF file in non-supported configuration: JPEG compression used in planar configuration.");
             }
             final int nStripsInPlane = imageData.getImageDataLength() / 3;
-            for (int strip = strip0; strip <= strip1; strip++) {
+            readBlocks(strip1 - strip0 + 1, (block, phases) -> {
+                final int strip = strip0 + block;
                 final long rowsPerStripLong = 0xFFFFffffL & rowsPerStrip;
                 final long rowsRemaining = height - strip * rowsPerStripLong;
                 final long rowsInThisStrip = Math.min(rowsRemaining, rowsPerStripLong);
@@ -311,10 +326,13 @@ public final class DataReaderStrips extends ImageDataReader {
                 final long bytesPerStrip = rowsInThisStrip * bytesPerRow;
                 final long pixelsPerStrip = rowsInThisStrip * width;
 
-                final byte[] b = Allocator.byteArray((int) bytesPerStrip);
+                phases.enter(ImagingPhase.DECOMPRESS);
+                long bytesRead = 0;
+                final byte[] b = byteArray((int) bytesPerStrip);
                 for (int iPlane = 0; iPlane < 3; iPlane++) {
                     final int planeStrip = iPlane * nStripsInPlane + strip;
-                    final byte[] compressed = imageData.getImageData(planeStrip).getData();
+                    final byte[] compressed = imageData.getImageData(planeStrip).readData();
+                    bytesRead += compressed.length;
                     final byte[] decompressed = decompress(compressed, compression, (int) bytesPerStrip, width, (int) rowsInThisStrip);
                     int index = iPlane;
                     for (final byte element : decompressed) {
@@ -322,8 +340,11 @@ public final class DataReaderStrips extends ImageDataReader {
                         index += 3;
                     }
                 }
-                interpretStrip(workingBuilder, b, (int) pixelsPerStrip, height);
-            }
+                phases.enter(ImagingPhase.COLOR_CONVERT);
+                interpretStrip(workingBuilder, b, (int) pixelsPerStrip, workingRow(block), height, phases);
+                release(b);
+                return bytesRead;
+            });
         }
 
         if (subImage.x == 0 && subImage.y == y0 && subImage.width == width && subImage.height == workingHeight) {
@@ -331,7 +352,10 @@ public final class DataReaderStrips extends ImageDataReader {
             // so we can return that.
             return workingBuilder;
         }
-        return workingBuilder.getSubset(subImage.x, subImage.y - y0, subImage.width, subImage.height);
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
+        final ImageBuilder subset = workingBuilder.getSubset(subImage.x, subImage.y - y0, subImage.width, subImage.height);
+        workingBuilder.release();
+        return subset;
     }
 
     @Override
@@ -382,11 +406,12 @@ public final class DataReaderStrips extends ImageDataReader {
             final int bytesPerRow = (bitsPerPixel * width + 7) / 8;
             final int bytesPerStrip = rowsInThisStrip * bytesPerRow;
 
-            final byte[] compressed = imageData.getImageData(strip).getData();
+            final byte[] compressed = imageData.getImageData(strip).readData();
             final byte[] decompressed = decompress(compressed, compression, bytesPerStrip, width, rowsInThisStrip);
 
             final int[] blockData = unpackFloatingPointSamples(width, rowsInThisStrip, width, decompressed, bitsPerPixel, byteOrder);
             transferBlockToRaster(0, yStrip, width, rowsInThisStrip, blockData, xRaster, yRaster, rasterWidth, rasterHeight, samplesPerPixel, rasterDataFloat);
+            release(blockData);
         }
         return new TiffRasterDataFloat(rasterWidth, rasterHeight, samplesPerPixel, rasterDataFloat);
     }
@@ -427,11 +452,22 @@ public final class DataReaderStrips extends ImageDataReader {
             final int bytesPerRow = (bitsPerPixel * width + 7) / 8;
             final int bytesPerStrip = rowsInThisStrip * bytesPerRow;
 
-            final byte[] compressed = imageData.getImageData(strip).getData();
+            final byte[] compressed = imageData.getImageData(strip).readData();
             final byte[] decompressed = decompress(compressed, compression, bytesPerStrip, width, rowsInThisStrip);
             final int[] blockData = unpackIntSamples(width, rowsInThisStrip, width, decompressed, predictor, bitsPerPixel, byteOrder);
             transferBlockToRaster(0, yStrip, width, rowsInThisStrip, blockData, xRaster, yRaster, rasterWidth, rasterHeight, rasterDataInt);
+            release(blockData);
         }
         return new TiffRasterDataInt(rasterWidth, rasterHeight, rasterDataInt);
     }
+
+    /**
+     * Gets the row of the working image that a strip starts at, the strips before it in the working image being complete.
+     *
+     * @param block the index of the strip in the working image.
+     * @return the first row of the strip.
+     */
+    private int workingRow(final int block) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) block * rowsPerStrip);
+    }
 }
@@ -28,10 +28,12 @@ import java.awt.Rectangle;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.ImageBuilder;
+import org.apache.commons.imaging.common.ImagingPhase;
 import org.apache.commons.imaging.formats.tiff.AbstractTiffImageData;
 import org.apache.commons.imaging.formats.tiff.TiffDirectory;
 import org.apache.commons.imaging.formats.tiff.TiffRasterData;
@@ -41,6 +43,7 @@ import org.apache.commons.imaging.formats.tiff.constants.TiffPlanarConfiguration
 import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
 import org.apache.commons.imaging.formats.tiff.photometricinterpreters.PhotometricInterpreter;
 import org.apache.commons.imaging.formats.tiff.photometricinterpreters.PhotometricInterpreterRgb;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 /**
  * Provides a data reader for TIFF file images organized by tiles.
@@ -73,8 +76,8 @@ public final class DataReaderTiled extends ImageDataReader {
         this.byteOrder = byteOrder;
     }
 
-    private void interpretTile(final ImageBuilder imageBuilder, final byte[] bytes, final int startX, final int startY, final int xLimit, final int yLimit)
-            throws ImagingException, IOException {
+    private void interpretTile(final ImageBuilder imageBuilder, final byte[] bytes, final int startX, final int startY, final int xLimit, final int yLimit,
+            final Instrumentation phases) throws ImagingException, IOException {
 
         // March 2020 change to handle floating-point with compression
         // for the compressed floating-point, there is a standard that allows
@@ -108,6 +111,7 @@ public final class DataReaderTiled extends ImageDataReader {
                     photometricInterpreter.interpretPixel(imageBuilder, samples, j, i);
                 }
             }
+            release(b);
             return;
         }
 
@@ -135,7 +139,9 @@ public final class DataReaderTiled extends ImageDataReader {
             }
 
             if (predictor == TiffTagConstants.PREDICTOR_VALUE_HORIZONTAL_DIFFERENCING) {
+                phases.enter(ImagingPhase.UNFILTER);
                 applyPredictorToBlock(tileWidth, i1 - startY, samplesPerPixel, bytes);
+                phases.enter(ImagingPhase.COLOR_CONVERT);
             }
 
             if (bitsPerPixel == 24) {
@@ -172,7 +178,7 @@ public final class DataReaderTiled extends ImageDataReader {
             int tileY = 0;
 
             int[] samples = Allocator.intArray(bitsPerSampleLength);
-            resetPredictor();
+            final int[] last = Allocator.intArray(samplesPerPixel);
             for (int i = 0; i < pixelsPerTile; i++) {
 
                 final int x = tileX + startX;
@@ -181,7 +187,7 @@ public final class DataReaderTiled extends ImageDataReader {
                 getSamplesAsBytes(bis, samples);
 
                 if (x < xLimit && y < yLimit) {
-                    samples = applyPredictor(samples);
+                    samples = applyPredictor(samples, last);
                     photometricInterpreter.interpretPixel(imageBuilder, samples, x, y);
                 }
 
@@ -189,7 +195,7 @@ public final class DataReaderTiled extends ImageDataReader {
 
                 if (tileX >= tileWidth) {
                     tileX = 0;
-                    resetPredictor();
+                    Arrays.fill(last, 0);
                     tileY++;
                     bis.flushCache();
                     if (tileY >= tileLength) {
@@ -240,34 +246,42 @@ public final class DataReaderTiled extends ImageDataReader {
         // If necessary, the subimage is extracted from the workingBuilder
         // at the end of this method. This approach avoids the need for the
         // interpretTile method to implement bounds checking for a subimage.
-        final ImageBuilder workingBuilder = new ImageBuilder(workingWidth, workingHeight, hasAlpha, isAlphaPreMultiplied);
-
-        for (int iRow = row0; iRow <= row1; iRow++) {
-            for (int iCol = col0; iCol <= col1; iCol++) {
-                final int tile = iRow * nColumnsOfTiles + iCol;
-                final byte[] compressed = imageData.tiles[tile].getData();
-                final int x = iCol * tileWidth - x0;
-                final int y = iRow * tileLength - y0;
-                // Handle JPEG based compression
-                if (compression == COMPRESSION_JPEG) {
-                    if (planarConfiguration == TiffPlanarConfiguration.PLANAR) {
-                        throw new ImagingException("TIFF file in non-supported configuration: JPEG compression used in planar configuration.");
-                    }
-                    DataInterpreterJpeg.intepretBlock(directory, workingBuilder, x, y, tileWidth, tileLength, compressed);
-                    continue;
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
+        final ImageBuilder workingBuilder = new ImageBuilder(workingWidth, workingHeight, hasAlpha, isAlphaPreMultiplied, pixelBufferPool);
+
+        // the tiles write disjoint parts of the working image, so they can be read in any order
+        readBlocks(nRow * nCol, (block, phases) -> {
+            final int iRow = row0 + block / nCol;
+            final int iCol = col0 + block % nCol;
+            final int tile = iRow * nColumnsOfTiles + iCol;
+            phases.enter(ImagingPhase.DECOMPRESS);
+            final byte[] compressed = imageData.tiles[tile].readData();
+            final int x = iCol * tileWidth - x0;
+            final int y = iRow * tileLength - y0;
+            // Handle JPEG based compression
+            if (compression == COMPRESSION_JPEG) {
+                if (planarConfiguration == TiffPlanarConfiguration.PLANAR) {
+                    throw new ImagingException("TIFF file in non-supported configuration: JPEG compression used in planar configuration.");
                 }
+                DataInterpreterJpeg.intepretBlock(directory, workingBuilder, x, y, tileWidth, tileLength, compressed);
+                return compressed.length;
+            }
 
-                final byte[] decompressed = decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
+            final byte[] decompressed = decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
 
-                interpretTile(workingBuilder, decompressed, x, y, width, height);
-            }
-        }
+            phases.enter(ImagingPhase.COLOR_CONVERT);
+            interpretTile(workingBuilder, decompressed, x, y, width, height, phases);
+            return compressed.length;
+        });
 
         if (subImage.x == x0 && subImage.y == y0 && subImage.width == workingWidth && subImage.height == workingHeight) {
             return workingBuilder;
         }
 
-        return workingBuilder.getSubset(subImage.x - x0, subImage.y - y0, subImage.width, subImage.height);
+        instrumentation.enter(ImagingPhase.RASTER_BUILD);
+        final ImageBuilder subset = workingBuilder.getSubset(subImage.x - x0, subImage.y - y0, subImage.width, subImage.height);
+        workingBuilder.release();
+        return subset;
     }
 
     @Override
@@ -315,13 +329,14 @@ public final class DataReaderTiled extends ImageDataReader {
         for (int iRow = row0; iRow <= row1; iRow++) {
             for (int iCol = col0; iCol <= col1; iCol++) {
                 final int tile = iRow * nColumnsOfTiles + iCol;
-                final byte[] compressed = imageData.tiles[tile].getData();
+                final byte[] compressed = imageData.tiles[tile].readData();
                 final byte[] decompressed = decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
                 final int x = iCol * tileWidth;
                 final int y = iRow * tileLength;
 
                 final int[] blockData = unpackFloatingPointSamples(tileWidth, tileLength, tileWidth, decompressed, bitsPerPixel, byteOrder);
                 transferBlockToRaster(x, y, tileWidth, tileLength, blockData, xRaster, yRaster, rasterWidth, rasterHeight, samplesPerPixel, rasterDataFloat);
+                release(blockData);
             }
         }
 
@@ -361,12 +376,13 @@ public final class DataReaderTiled extends ImageDataReader {
         for (int iRow = row0; iRow <= row1; iRow++) {
             for (int iCol = col0; iCol <= col1; iCol++) {
                 final int tile = iRow * nColumnsOfTiles + iCol;
-                final byte[] compressed = imageData.tiles[tile].getData();
+                final byte[] compressed = imageData.tiles[tile].readData();
                 final byte[] decompressed = decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
                 final int x = iCol * tileWidth;
                 final int y = iRow * tileLength;
                 final int[] blockData = unpackIntSamples(tileWidth, tileLength, tileWidth, decompressed, predictor, bitsPerPixel, byteOrder);
                 transferBlockToRaster(x, y, tileWidth, tileLength, blockData, xRaster, yRaster, rasterWidth, rasterHeight, rasterDataInt);
+                release(blockData);
             }
         }
         return new TiffRasterDataInt(rasterWidth, rasterHeight, rasterDataInt);
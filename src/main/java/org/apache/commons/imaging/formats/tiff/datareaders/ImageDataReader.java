@@ -20,13 +20,23 @@ import java.awt.Rectangle;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.ImageBuilder;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.common.Interrupts;
 import org.apache.commons.imaging.common.PackBits;
+import org.apache.commons.imaging.common.PixelBufferPool;
 import org.apache.commons.imaging.common.ZlibDeflate;
 import org.apache.commons.imaging.formats.tiff.TiffDirectory;
 import org.apache.commons.imaging.formats.tiff.TiffField;
@@ -36,6 +46,8 @@ import org.apache.commons.imaging.formats.tiff.constants.TiffPlanarConfiguration
 import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
 import org.apache.commons.imaging.formats.tiff.itu_t4.T4AndT6Compression;
 import org.apache.commons.imaging.formats.tiff.photometricinterpreters.PhotometricInterpreter;
+import org.apache.commons.imaging.formats.tiff.photometricinterpreters.floatingpoint.PhotometricInterpreterFloat;
+import org.apache.commons.imaging.internal.Instrumentation;
 import org.apache.commons.imaging.mylzw.MyLzwDecompressor;
 
 /**
@@ -131,6 +143,24 @@ import org.apache.commons.imaging.mylzw.MyLzwDecompressor;
  */
 public abstract class ImageDataReader {
 
+    /**
+     * Reads one strip or tile into the image.
+     */
+    @FunctionalInterface
+    interface BlockReader {
+
+        /**
+         * Reads a strip or tile.
+         *
+         * @param block  the index of the block among the blocks being read.
+         * @param phases measures the phases of reading the block.
+         * @return the number of bytes of image data read.
+         * @throws ImagingException if the image data is invalid.
+         * @throws IOException      if the image data cannot be read.
+         */
+        long read(int block, Instrumentation phases) throws ImagingException, IOException;
+    }
+
     protected final TiffDirectory directory;
     protected final PhotometricInterpreter photometricInterpreter;
     private final int[] bitsPerSample;
@@ -145,6 +175,15 @@ public abstract class ImageDataReader {
 
     protected final TiffPlanarConfiguration planarConfiguration;
 
+    /** Supplies the pixel and sample arrays, null to allocate new arrays. */
+    protected PixelBufferPool pixelBufferPool;
+
+    /** Measures the phases of reading the image. */
+    protected Instrumentation instrumentation = Instrumentation.disabled();
+
+    /** Reads strips and tiles in parallel, null to read them on the calling thread. */
+    protected Executor executor;
+
     public ImageDataReader(final TiffDirectory directory, final PhotometricInterpreter photometricInterpreter, final int[] bitsPerSample, final int predictor,
             final int samplesPerPixel, final int sampleFormat, final int width, final int height, final TiffPlanarConfiguration planarConfiguration) {
         this.directory = directory;
@@ -162,6 +201,17 @@ public abstract class ImageDataReader {
     }
 
     protected int[] applyPredictor(final int[] samples) {
+        return applyPredictor(samples, last);
+    }
+
+    /**
+     * Applies the horizontal differencing predictor, if the image uses it.
+     *
+     * @param samples the samples of a pixel, replaced by the predicted samples.
+     * @param last    the predicted samples of the previous pixel in the row, all zero at the start of a row.
+     * @return the samples.
+     */
+    int[] applyPredictor(final int[] samples, final int[] last) {
         if (predictor == 2) {
             // Horizontal differencing.
             for (int i = 0; i < samples.length; i++) {
@@ -184,8 +234,19 @@ public abstract class ImageDataReader {
         }
     }
 
+    /**
+     * Allocates a byte array, from the pixel buffer pool if there is one. The array may be longer than requested.
+     *
+     * @param length the minimum length.
+     * @return a cleared array.
+     */
+    protected byte[] byteArray(final int length) {
+        return pixelBufferPool != null ? pixelBufferPool.byteArray(length) : Allocator.byteArray(length);
+    }
+
     protected byte[] decompress(final byte[] compressedInput, final int compression, final int expectedSize, final int tileWidth, final int tileHeight)
             throws ImagingException, IOException {
+        Interrupts.check();
         final TiffField fillOrderField = directory.findField(TiffTagConstants.TIFF_TAG_FILL_ORDER);
         int fillOrder = TiffTagConstants.FILL_ORDER_VALUE_NORMAL;
         if (fillOrderField != null) {
@@ -286,6 +347,16 @@ public abstract class ImageDataReader {
         }
     }
 
+    /**
+     * Allocates an int array, from the pixel buffer pool if there is one. The array may be longer than requested.
+     *
+     * @param length the minimum length.
+     * @return a cleared array.
+     */
+    protected int[] intArray(final int length) {
+        return pixelBufferPool != null ? pixelBufferPool.intArray(length) : Allocator.intArray(length);
+    }
+
     /**
      * Checks if all the bits per sample entries are the same size
      *
@@ -301,6 +372,71 @@ public abstract class ImageDataReader {
         return true;
     }
 
+    /**
+     * Reads strips or tiles, in parallel on the {@link #executor} if there is one. Blocks read in parallel must write disjoint parts of the image.
+     *
+     * <p>
+     * Floating-point images are always read on the calling thread, since their photometric interpreter collects statistics over all pixels. When reading in
+     * parallel, the phases of the blocks overlap, so the whole read is measured as {@link ImagingPhase#DECOMPRESS}.
+     * </p>
+     *
+     * @param count  the number of blocks.
+     * @param reader reads one block.
+     * @throws ImagingException if the image data is invalid.
+     * @throws IOException      if the image data cannot be read, or an {@link InterruptedIOException} if the thread is interrupted while waiting for the
+     *                          blocks.
+     */
+    void readBlocks(final int count, final BlockReader reader) throws ImagingException, IOException {
+        if (executor == null || count < 2 || photometricInterpreter instanceof PhotometricInterpreterFloat) {
+            for (int block = 0; block < count; block++) {
+                instrumentation.addBytesRead(reader.read(block, instrumentation));
+            }
+            return;
+        }
+        instrumentation.enter(ImagingPhase.DECOMPRESS);
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        // a few tasks per core even out blocks that take longer than others, each task reads a run of consecutive blocks
+        final int taskCount = Math.min(count, 4 * Runtime.getRuntime().availableProcessors());
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[taskCount];
+        for (int t = 0; t < taskCount; t++) {
+            final int firstBlock = (int) ((long) count * t / taskCount);
+            final int lastBlock = (int) ((long) count * (t + 1) / taskCount);
+            tasks[t] = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int block = firstBlock; block < lastBlock && !cancelled.get(); block++) {
+                        bytesRead.addAndGet(reader.read(block, Instrumentation.disabled()));
+                    }
+                } catch (final IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(tasks).get();
+        } catch (final InterruptedException e) {
+            // tasks not yet started are dropped, running ones stop after their current block
+            cancelled.set(true);
+            for (final CompletableFuture<?> task : tasks) {
+                task.cancel(false);
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing the image");
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new ImagingException("Reading the image data failed", e.getCause());
+        }
+        instrumentation.addBytesRead(bytesRead.get());
+    }
+
     /**
      * Read the image data from the IFD associated with this instance of ImageDataReader using the optional sub-image specification if desired.
      *
@@ -325,10 +461,62 @@ public abstract class ImageDataReader {
      */
     public abstract TiffRasterData readRasterData(Rectangle subImage) throws ImagingException, IOException;
 
+    /**
+     * Gives a temporary array back to the pixel buffer pool, if there is one.
+     *
+     * @param array the array, which must not be used afterwards.
+     */
+    protected void release(final byte[] array) {
+        if (pixelBufferPool != null) {
+            pixelBufferPool.release(array);
+        }
+    }
+
+    /**
+     * Gives a temporary array back to the pixel buffer pool, if there is one.
+     *
+     * @param array the array, which must not be used afterwards.
+     */
+    protected void release(final int[] array) {
+        if (pixelBufferPool != null) {
+            pixelBufferPool.release(array);
+        }
+    }
+
     protected void resetPredictor() {
         Arrays.fill(last, 0);
     }
 
+    /**
+     * Sets the executor that reads strips and tiles in parallel.
+     *
+     * @param executor the executor, or null to read on the calling thread.
+     * @since 1.0.0-alpha6
+     */
+    public void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the instrumentation that measures the phases of reading the image.
+     *
+     * @param instrumentation the instrumentation of the decode.
+     * @since 1.0.0-alpha6
+     */
+    public void setInstrumentation(final Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * Sets the pool of the pixel and sample arrays.
+     *
+     * @param pixelBufferPool the pool, or null to allocate new arrays.
+     * @since 1.0.0-alpha6
+     */
+    public void setPixelBufferPool(final PixelBufferPool pixelBufferPool) {
+        this.pixelBufferPool = pixelBufferPool;
+    }
+
     /**
      * Transfer samples obtained from the TIFF file to a floating-point raster.
      *
@@ -550,7 +738,7 @@ public abstract class ImageDataReader {
         final int bytesPerScan = scanSize * samplesPerPixel * bytesPerSample;
         final int nBytes = bytesPerScan * height;
         final int length = bytes.length < nBytes ? nBytes / bytesPerScan : height;
-        final int[] samples = Allocator.intArray(scanSize * samplesPerPixel * height);
+        final int[] samples = intArray(scanSize * samplesPerPixel * height);
         // floating-point differencing is indicated by a predictor value of 3.
         if (predictor == TiffTagConstants.PREDICTOR_VALUE_FLOATING_POINT_DIFFERENCING) {
             // at this time, this class supports the 32-bit format. The
@@ -706,7 +894,7 @@ public abstract class ImageDataReader {
         final int nBytes = bytesPerSample * scanSize * height;
         final int length = bytes.length < nBytes ? nBytes / scanSize : height;
 
-        final int[] samples = Allocator.intArray(scanSize * height);
+        final int[] samples = intArray(scanSize * height);
         // At this time, Commons Imaging only supports two-byte
         // two's complement short integers. It is assumed that
         // the calling module already checked the arguments for
@@ -34,9 +34,7 @@ import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.PixelDensity;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BinaryOutputStream;
-import org.apache.commons.imaging.common.PackBits;
 import org.apache.commons.imaging.common.RationalNumber;
-import org.apache.commons.imaging.common.ZlibDeflate;
 import org.apache.commons.imaging.formats.tiff.AbstractTiffElement;
 import org.apache.commons.imaging.formats.tiff.AbstractTiffImageData;
 import org.apache.commons.imaging.formats.tiff.TiffImagingParameters;
@@ -45,12 +43,14 @@ import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
 import org.apache.commons.imaging.formats.tiff.constants.TiffDirectoryConstants;
 import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
 import org.apache.commons.imaging.formats.tiff.itu_t4.T4AndT6Compression;
-import org.apache.commons.imaging.mylzw.MyLzwCompressor;
 
 public abstract class AbstractTiffImageWriter {
 
     private static final int MAX_PIXELS_FOR_RGB = 1024 * 1024;
 
+    // the largest offset classic TIFF can address
+    static final long MAX_CLASSIC_OFFSET = 0xFFFFFFFFL;
+
     protected static int imageDataPaddingLength(final int dataLength) {
         return (4 - dataLength % 4) % 4;
     }
@@ -65,17 +65,6 @@ public abstract class AbstractTiffImageWriter {
         this.byteOrder = byteOrder;
     }
 
-    private void applyPredictor(final int width, final int bytesPerSample, final byte[] b) {
-        final int nBytesPerRow = bytesPerSample * width;
-        final int nRows = b.length / nBytesPerRow;
-        for (int iRow = 0; iRow < nRows; iRow++) {
-            final int offset = iRow * nBytesPerRow;
-            for (int i = nBytesPerRow - 1; i >= bytesPerSample; i--) {
-                b[offset + i] -= b[offset + i - bytesPerSample];
-            }
-        }
-    }
-
     /**
      * Check an image to see if any of its pixels are non-opaque.
      *
@@ -125,6 +114,108 @@ public abstract class AbstractTiffImageWriter {
         }
     }
 
+    /**
+     * Creates the output set of an image, its root directory holding the fields that describe the image data. The strips or tiles themselves are set on
+     * the root directory by the caller.
+     *
+     * @param tileWidth    the width of the tiles, or 0 if the image is written in strips.
+     * @param tileLength   the length of the tiles.
+     * @param rowsPerStrip the rows of each strip.
+     */
+    TiffOutputSet createOutputSet(final TiffImagingParameters params, final int width, final int height, final int photometricInterpretation,
+            final int compression, final int samplesPerPixel, final int bitsPerSample, final short predictor, final int t4Options, final int t6Options,
+            final int tileWidth, final int tileLength, final int rowsPerStrip) throws ImagingException {
+        final TiffOutputSet userExif = params.getOutputSet();
+
+        final String xmpXml = params.getXmpXml();
+
+        PixelDensity pixelDensity = params.getPixelDensity();
+        if (pixelDensity == null) {
+            pixelDensity = PixelDensity.createFromPixelsPerInch(72, 72);
+        }
+
+        final TiffOutputSet outputSet = new TiffOutputSet(byteOrder);
+        outputSet.setBigTiff(params.isBigTiff());
+        final TiffOutputDirectory directory = outputSet.addRootDirectory();
+
+        // WriteField stripOffsetsField;
+
+        directory.add(TiffTagConstants.TIFF_TAG_IMAGE_WIDTH, width);
+        directory.add(TiffTagConstants.TIFF_TAG_IMAGE_LENGTH, height);
+        directory.add(TiffTagConstants.TIFF_TAG_PHOTOMETRIC_INTERPRETATION, (short) photometricInterpretation);
+        directory.add(TiffTagConstants.TIFF_TAG_COMPRESSION, (short) compression);
+        directory.add(TiffTagConstants.TIFF_TAG_SAMPLES_PER_PIXEL, (short) samplesPerPixel);
+
+        switch (samplesPerPixel) {
+        case 3:
+            directory.add(TiffTagConstants.TIFF_TAG_BITS_PER_SAMPLE, (short) bitsPerSample, (short) bitsPerSample, (short) bitsPerSample);
+            break;
+        case 4:
+            directory.add(TiffTagConstants.TIFF_TAG_BITS_PER_SAMPLE, (short) bitsPerSample, (short) bitsPerSample, (short) bitsPerSample,
+                    (short) bitsPerSample);
+            directory.add(TiffTagConstants.TIFF_TAG_EXTRA_SAMPLES, (short) TiffTagConstants.EXTRA_SAMPLE_UNASSOCIATED_ALPHA);
+            break;
+        case 1:
+            directory.add(TiffTagConstants.TIFF_TAG_BITS_PER_SAMPLE, (short) bitsPerSample);
+            break;
+        default:
+            break;
+        }
+        // {
+        // stripOffsetsField = new WriteField(TIFF_TAG_STRIP_OFFSETS,
+        // FIELD_TYPE_LONG, stripOffsets.length, FIELD_TYPE_LONG
+        // .writeData(stripOffsets, byteOrder));
+        // directory.add(stripOffsetsField);
+        // }
+        // {
+        // WriteField field = new WriteField(TIFF_TAG_STRIP_BYTE_COUNTS,
+        // FIELD_TYPE_LONG, stripByteCounts.length,
+        // FIELD_TYPE_LONG.writeData(stripByteCounts,
+        // WRITE_BYTE_ORDER));
+        // directory.add(field);
+        // }
+        if (tileWidth > 0) {
+            directory.add(TiffTagConstants.TIFF_TAG_TILE_WIDTH, tileWidth);
+            directory.add(TiffTagConstants.TIFF_TAG_TILE_LENGTH, tileLength);
+        } else {
+            directory.add(TiffTagConstants.TIFF_TAG_ROWS_PER_STRIP, rowsPerStrip);
+        }
+        if (pixelDensity.isUnitless()) {
+            directory.add(TiffTagConstants.TIFF_TAG_RESOLUTION_UNIT, (short) 0);
+            directory.add(TiffTagConstants.TIFF_TAG_XRESOLUTION, RationalNumber.valueOf(pixelDensity.getRawHorizontalDensity()));
+            directory.add(TiffTagConstants.TIFF_TAG_YRESOLUTION, RationalNumber.valueOf(pixelDensity.getRawVerticalDensity()));
+        } else if (pixelDensity.isInInches()) {
+            directory.add(TiffTagConstants.TIFF_TAG_RESOLUTION_UNIT, (short) 2);
+            directory.add(TiffTagConstants.TIFF_TAG_XRESOLUTION, RationalNumber.valueOf(pixelDensity.horizontalDensityInches()));
+            directory.add(TiffTagConstants.TIFF_TAG_YRESOLUTION, RationalNumber.valueOf(pixelDensity.verticalDensityInches()));
+        } else {
+            directory.add(TiffTagConstants.TIFF_TAG_RESOLUTION_UNIT, (short) 1);
+            directory.add(TiffTagConstants.TIFF_TAG_XRESOLUTION, RationalNumber.valueOf(pixelDensity.horizontalDensityCentimetres()));
+            directory.add(TiffTagConstants.TIFF_TAG_YRESOLUTION, RationalNumber.valueOf(pixelDensity.verticalDensityCentimetres()));
+        }
+        if (t4Options != 0) {
+            directory.add(TiffTagConstants.TIFF_TAG_T4_OPTIONS, t4Options);
+        }
+        if (t6Options != 0) {
+            directory.add(TiffTagConstants.TIFF_TAG_T6_OPTIONS, t6Options);
+        }
+
+        if (null != xmpXml) {
+            final byte[] xmpXmlBytes = xmpXml.getBytes(StandardCharsets.UTF_8);
+            directory.add(TiffTagConstants.TIFF_TAG_XMP, xmpXmlBytes);
+        }
+
+        if (predictor == TiffTagConstants.PREDICTOR_VALUE_HORIZONTAL_DIFFERENCING) {
+            directory.add(TiffTagConstants.TIFF_TAG_PREDICTOR, predictor);
+        }
+
+        if (userExif != null) {
+            combineUserExifIntoFinalExif(userExif, outputSet);
+        }
+
+        return outputSet;
+    }
+
     private byte[][] getStrips(final BufferedImage src, final int samplesPerPixel, final int bitsPerSample, final int rowsPerStrip) {
         final int width = src.getWidth();
         final int height = src.getHeight();
@@ -133,6 +224,8 @@ public abstract class AbstractTiffImageWriter {
 
         // Write Strips
         final byte[][] result = new byte[Allocator.check(stripCount)][];
+        // pixels are read a row at a time, single getRGB(x, y) calls go through the color model for every pixel
+        final int[] row = Allocator.intArray(width);
 
         int remainingRows = height;
 
@@ -151,10 +244,11 @@ public abstract class AbstractTiffImageWriter {
             final int stop = i * rowsPerStrip + rowsPerStrip;
 
             for (; y < height && y < stop; y++) {
+                src.getRGB(0, y, width, 1, row, 0, width);
                 int bitCache = 0;
                 int bitsInCache = 0;
                 for (int x = 0; x < width; x++) {
-                    final int rgb = src.getRGB(x, y);
+                    final int rgb = row[x];
                     final int red = 0xff & rgb >> 16;
                     final int green = 0xff & rgb >> 8;
                     final int blue = 0xff & rgb >> 0;
@@ -198,7 +292,79 @@ public abstract class AbstractTiffImageWriter {
         return result;
     }
 
+    private byte[][] getTiles(final BufferedImage src, final int samplesPerPixel, final int tileWidth, final int tileLength) {
+        final int width = src.getWidth();
+        final int height = src.getHeight();
+        final int tilesAcross = (width + tileWidth - 1) / tileWidth;
+        final int tilesDown = (height + tileLength - 1) / tileLength;
+
+        final byte[][] result = new byte[Allocator.check(tilesAcross * tilesDown)][];
+        final int[] argb = Allocator.intArray(tileWidth * tileLength);
+        for (int tileRow = 0; tileRow < tilesDown; tileRow++) {
+            for (int tileColumn = 0; tileColumn < tilesAcross; tileColumn++) {
+                // tiles always have the full size, the ones on the right and bottom edges are padded with zeros
+                final int x0 = tileColumn * tileWidth;
+                final int y0 = tileRow * tileLength;
+                final int w = Math.min(tileWidth, width - x0);
+                final int h = Math.min(tileLength, height - y0);
+                src.getRGB(x0, y0, w, h, argb, 0, tileWidth);
+
+                final byte[] tile = Allocator.byteArray((long) tileWidth * tileLength * samplesPerPixel);
+                for (int y = 0; y < h; y++) {
+                    packSamples(argb, y * tileWidth, w, samplesPerPixel, tile, y * tileWidth * samplesPerPixel);
+                }
+                result[tileRow * tilesAcross + tileColumn] = tile;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Packs ARGB pixels into 8-bit RGB or RGBA samples.
+     *
+     * @param argb            the pixels.
+     * @param argbOffset      the index of the first pixel.
+     * @param pixels          the number of pixels.
+     * @param samplesPerPixel 3 for RGB or 4 for RGBA.
+     * @param samples         receives the samples.
+     * @param samplesOffset   the index of the first sample.
+     */
+    static void packSamples(final int[] argb, final int argbOffset, final int pixels, final int samplesPerPixel, final byte[] samples,
+            final int samplesOffset) {
+        int counter = samplesOffset;
+        for (int i = argbOffset; i < argbOffset + pixels; i++) {
+            final int rgb = argb[i];
+            samples[counter++] = (byte) (rgb >> 16);
+            samples[counter++] = (byte) (rgb >> 8);
+            samples[counter++] = (byte) rgb;
+            if (samplesPerPixel == 4) {
+                samples[counter++] = (byte) (rgb >> 24);
+            }
+        }
+    }
+
+    /**
+     * Replaces a directory offset field whose size does not match the layout, for example one read from a classic TIFF file that is now written as BigTIFF.
+     */
+    private TiffOutputField resizeOffsetField(final TiffOutputSet outputSet, final TiffOutputField field, final boolean bigTiff) throws ImagingException {
+        if (field == null || field.abstractFieldType.getSize() == (bigTiff ? 8 : 4)) {
+            return field;
+        }
+        final TiffOutputField resized = TiffOutputField.createOffsetField(field.tagInfo, byteOrder, bigTiff);
+        for (final TiffOutputDirectory directory : outputSet) {
+            if (directory.findField(field.tag) == field) {
+                directory.removeField(field.tag);
+                directory.add(resized);
+            }
+        }
+        return resized;
+    }
+
     protected TiffOutputSummary validateDirectories(final TiffOutputSet outputSet) throws ImagingException {
+        return validateDirectories(outputSet, false);
+    }
+
+    TiffOutputSummary validateDirectories(final TiffOutputSet outputSet, final boolean bigTiff) throws ImagingException {
         if (outputSet.isEmpty()) {
             throw new ImagingException("No directories.");
         }
@@ -282,6 +448,10 @@ public abstract class AbstractTiffImageWriter {
             throw new ImagingException("Missing root directory.");
         }
 
+        exifDirectoryOffsetField = resizeOffsetField(outputSet, exifDirectoryOffsetField, bigTiff);
+        gpsDirectoryOffsetField = resizeOffsetField(outputSet, gpsDirectoryOffsetField, bigTiff);
+        interoperabilityDirectoryOffsetField = resizeOffsetField(outputSet, interoperabilityDirectoryOffsetField, bigTiff);
+
         // "normal" TIFF directories should have continous indices starting with
         // 0, ie. 0, 1, 2...
         Collections.sort(directoryIndices);
@@ -304,7 +474,7 @@ public abstract class AbstractTiffImageWriter {
         final TiffOutputDirectory rootDirectory = directoryTypeMap.get(TiffDirectoryConstants.DIRECTORY_TYPE_ROOT);
 
         // prepare results
-        final TiffOutputSummary result = new TiffOutputSummary(byteOrder, rootDirectory, directoryTypeMap);
+        final TiffOutputSummary result = new TiffOutputSummary(byteOrder, rootDirectory, directoryTypeMap, bigTiff);
 
         if (interoperabilityDirectory == null && interoperabilityDirectoryOffsetField != null) {
             // perhaps we should just discard field?
@@ -316,7 +486,7 @@ public abstract class AbstractTiffImageWriter {
             }
 
             if (interoperabilityDirectoryOffsetField == null) {
-                interoperabilityDirectoryOffsetField = TiffOutputField.createOffsetField(ExifTagConstants.EXIF_TAG_INTEROP_OFFSET, byteOrder);
+                interoperabilityDirectoryOffsetField = TiffOutputField.createOffsetField(ExifTagConstants.EXIF_TAG_INTEROP_OFFSET, byteOrder, bigTiff);
                 exifDirectory.add(interoperabilityDirectoryOffsetField);
             }
 
@@ -330,7 +500,7 @@ public abstract class AbstractTiffImageWriter {
         }
         if (exifDirectory != null) {
             if (exifDirectoryOffsetField == null) {
-                exifDirectoryOffsetField = TiffOutputField.createOffsetField(ExifTagConstants.EXIF_TAG_EXIF_OFFSET, byteOrder);
+                exifDirectoryOffsetField = TiffOutputField.createOffsetField(ExifTagConstants.EXIF_TAG_EXIF_OFFSET, byteOrder, bigTiff);
                 rootDirectory.add(exifDirectoryOffsetField);
             }
 
@@ -343,7 +513,7 @@ public abstract class AbstractTiffImageWriter {
         }
         if (gpsDirectory != null) {
             if (gpsDirectoryOffsetField == null) {
-                gpsDirectoryOffsetField = TiffOutputField.createOffsetField(ExifTagConstants.EXIF_TAG_GPSINFO, byteOrder);
+                gpsDirectoryOffsetField = TiffOutputField.createOffsetField(ExifTagConstants.EXIF_TAG_GPSINFO, byteOrder, bigTiff);
                 rootDirectory.add(gpsDirectoryOffsetField);
             }
 
@@ -358,15 +528,6 @@ public abstract class AbstractTiffImageWriter {
     public abstract void write(OutputStream os, TiffOutputSet outputSet) throws IOException, ImagingException;
 
     public void writeImage(final BufferedImage src, final OutputStream os, final TiffImagingParameters params) throws ImagingException, IOException {
-        final TiffOutputSet userExif = params.getOutputSet();
-
-        final String xmpXml = params.getXmpXml();
-
-        PixelDensity pixelDensity = params.getPixelDensity();
-        if (pixelDensity == null) {
-            pixelDensity = PixelDensity.createFromPixelsPerInch(72, 72);
-        }
-
         final int width = src.getWidth();
         final int height = src.getHeight();
 
@@ -420,10 +581,18 @@ public abstract class AbstractTiffImageWriter {
             photometricInterpretation = 2;
         }
 
+        final int tileWidth = params.getTileWidth();
+        final int tileLength = params.getTileLength();
+        final boolean tiled = tileWidth > 0;
+        if (tiled && !ImageDataEncoder.isSupported(compression)) {
+            throw new ImagingException("Tiles can only be written with LZW, Packbits, Zlib Deflate or no compression.");
+        }
+
         int rowsPerStrip = stripSizeInBits / (width * bitsPerSample * samplesPerPixel);
         rowsPerStrip = Math.max(1, rowsPerStrip); // must have at least one.
 
-        final byte[][] strips = getStrips(src, samplesPerPixel, bitsPerSample, rowsPerStrip);
+        // tiles are laid out in rows, from left to right, so they can be read or written one row of tiles at a time
+        final byte[][] blocks = tiled ? getTiles(src, samplesPerPixel, tileWidth, tileLength) : getStrips(src, samplesPerPixel, bitsPerSample, rowsPerStrip);
 
         // System.out.println("width: " + width);
         // System.out.println("height: " + height);
@@ -435,8 +604,8 @@ public abstract class AbstractTiffImageWriter {
         int t6Options = 0;
         switch (compression) {
         case TiffConstants.COMPRESSION_CCITT_1D:
-            for (int i = 0; i < strips.length; i++) {
-                strips[i] = T4AndT6Compression.compressModifiedHuffman(strips[i], width, strips[i].length / ((width + 7) / 8));
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = T4AndT6Compression.compressModifiedHuffman(blocks[i], width, blocks[i].length / ((width + 7) / 8));
             }
             break;
         case TiffConstants.COMPRESSION_CCITT_GROUP_3: {
@@ -451,11 +620,11 @@ public abstract class AbstractTiffImageWriter {
                 throw new ImagingException("T.4 compression with the uncompressed mode extension is not yet supported");
             }
             final boolean hasFillBitsBeforeEOL = (t4Options & 4) != 0;
-            for (int i = 0; i < strips.length; i++) {
+            for (int i = 0; i < blocks.length; i++) {
                 if (is2D) {
-                    strips[i] = T4AndT6Compression.compressT4_2D(strips[i], width, strips[i].length / ((width + 7) / 8), hasFillBitsBeforeEOL, rowsPerStrip);
+                    blocks[i] = T4AndT6Compression.compressT4_2D(blocks[i], width, blocks[i].length / ((width + 7) / 8), hasFillBitsBeforeEOL, rowsPerStrip);
                 } else {
-                    strips[i] = T4AndT6Compression.compressT4_1D(strips[i], width, strips[i].length / ((width + 7) / 8), hasFillBitsBeforeEOL);
+                    blocks[i] = T4AndT6Compression.compressT4_1D(blocks[i], width, blocks[i].length / ((width + 7) / 8), hasFillBitsBeforeEOL);
                 }
             }
             break;
@@ -470,120 +639,37 @@ public abstract class AbstractTiffImageWriter {
             if (usesUncompressedMode) {
                 throw new ImagingException("T.6 compression with the uncompressed mode extension is not yet supported");
             }
-            for (int i = 0; i < strips.length; i++) {
-                strips[i] = T4AndT6Compression.compressT6(strips[i], width, strips[i].length / ((width + 7) / 8));
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = T4AndT6Compression.compressT6(blocks[i], width, blocks[i].length / ((width + 7) / 8));
             }
             break;
         }
         case TiffConstants.COMPRESSION_PACKBITS:
-            for (int i = 0; i < strips.length; i++) {
-                strips[i] = PackBits.compress(strips[i]);
-            }
-            break;
         case TiffConstants.COMPRESSION_LZW:
-            predictor = TiffTagConstants.PREDICTOR_VALUE_HORIZONTAL_DIFFERENCING;
-            for (int i = 0; i < strips.length; i++) {
-                final byte[] uncompressed = strips[i];
-                applyPredictor(width, samplesPerPixel, strips[i]);
-
-                final int LZW_MINIMUM_CODE_SIZE = 8;
-                final MyLzwCompressor compressor = new MyLzwCompressor(LZW_MINIMUM_CODE_SIZE, ByteOrder.BIG_ENDIAN, true);
-                final byte[] compressed = compressor.compress(uncompressed);
-                strips[i] = compressed;
-            }
-            break;
         case TiffConstants.COMPRESSION_DEFLATE_ADOBE:
-            predictor = TiffTagConstants.PREDICTOR_VALUE_HORIZONTAL_DIFFERENCING;
-            for (int i = 0; i < strips.length; i++) {
-                applyPredictor(width, samplesPerPixel, strips[i]);
-                strips[i] = ZlibDeflate.compress(strips[i]);
-            }
-            break;
-        case TiffConstants.COMPRESSION_UNCOMPRESSED:
+        case TiffConstants.COMPRESSION_UNCOMPRESSED: {
+            final ImageDataEncoder encoder = new ImageDataEncoder(compression, tiled ? tileWidth : width, samplesPerPixel, params.getImageDataExecutor());
+            predictor = encoder.getPredictor();
+            encoder.encode(blocks);
             break;
+        }
         default:
             throw new ImagingException(
                     "Invalid compression parameter (Only CCITT 1D/Group 3/Group 4, LZW, Packbits, Zlib Deflate and uncompressed supported).");
         }
 
-        final AbstractTiffElement.DataElement[] imageData = new AbstractTiffElement.DataElement[strips.length];
-        Arrays.setAll(imageData, i -> new AbstractTiffImageData.Data(0, strips[i].length, strips[i]));
+        final AbstractTiffElement.DataElement[] imageData = new AbstractTiffElement.DataElement[blocks.length];
+        Arrays.setAll(imageData, i -> new AbstractTiffImageData.Data(0, blocks[i].length, blocks[i]));
 
-        final TiffOutputSet outputSet = new TiffOutputSet(byteOrder);
-        final TiffOutputDirectory directory = outputSet.addRootDirectory();
-
-        // WriteField stripOffsetsField;
-
-        directory.add(TiffTagConstants.TIFF_TAG_IMAGE_WIDTH, width);
-        directory.add(TiffTagConstants.TIFF_TAG_IMAGE_LENGTH, height);
-        directory.add(TiffTagConstants.TIFF_TAG_PHOTOMETRIC_INTERPRETATION, (short) photometricInterpretation);
-        directory.add(TiffTagConstants.TIFF_TAG_COMPRESSION, (short) compression);
-        directory.add(TiffTagConstants.TIFF_TAG_SAMPLES_PER_PIXEL, (short) samplesPerPixel);
-
-        switch (samplesPerPixel) {
-        case 3:
-            directory.add(TiffTagConstants.TIFF_TAG_BITS_PER_SAMPLE, (short) bitsPerSample, (short) bitsPerSample, (short) bitsPerSample);
-            break;
-        case 4:
-            directory.add(TiffTagConstants.TIFF_TAG_BITS_PER_SAMPLE, (short) bitsPerSample, (short) bitsPerSample, (short) bitsPerSample,
-                    (short) bitsPerSample);
-            directory.add(TiffTagConstants.TIFF_TAG_EXTRA_SAMPLES, (short) TiffTagConstants.EXTRA_SAMPLE_UNASSOCIATED_ALPHA);
-            break;
-        case 1:
-            directory.add(TiffTagConstants.TIFF_TAG_BITS_PER_SAMPLE, (short) bitsPerSample);
-            break;
-        default:
-            break;
-        }
-        // {
-        // stripOffsetsField = new WriteField(TIFF_TAG_STRIP_OFFSETS,
-        // FIELD_TYPE_LONG, stripOffsets.length, FIELD_TYPE_LONG
-        // .writeData(stripOffsets, byteOrder));
-        // directory.add(stripOffsetsField);
-        // }
-        // {
-        // WriteField field = new WriteField(TIFF_TAG_STRIP_BYTE_COUNTS,
-        // FIELD_TYPE_LONG, stripByteCounts.length,
-        // FIELD_TYPE_LONG.writeData(stripByteCounts,
-        // WRITE_BYTE_ORDER));
-        // directory.add(field);
-        // }
-        directory.add(TiffTagConstants.TIFF_TAG_ROWS_PER_STRIP, rowsPerStrip);
-        if (pixelDensity.isUnitless()) {
-            directory.add(TiffTagConstants.TIFF_TAG_RESOLUTION_UNIT, (short) 0);
-            directory.add(TiffTagConstants.TIFF_TAG_XRESOLUTION, RationalNumber.valueOf(pixelDensity.getRawHorizontalDensity()));
-            directory.add(TiffTagConstants.TIFF_TAG_YRESOLUTION, RationalNumber.valueOf(pixelDensity.getRawVerticalDensity()));
-        } else if (pixelDensity.isInInches()) {
-            directory.add(TiffTagConstants.TIFF_TAG_RESOLUTION_UNIT, (short) 2);
-            directory.add(TiffTagConstants.TIFF_TAG_XRESOLUTION, RationalNumber.valueOf(pixelDensity.horizontalDensityInches()));
-            directory.add(TiffTagConstants.TIFF_TAG_YRESOLUTION, RationalNumber.valueOf(pixelDensity.verticalDensityInches()));
+        final AbstractTiffImageData abstractTiffImageData;
+        if (tiled) {
+            abstractTiffImageData = new AbstractTiffImageData.Tiles(imageData, tileWidth, tileLength);
         } else {
-            directory.add(TiffTagConstants.TIFF_TAG_RESOLUTION_UNIT, (short) 1);
-            directory.add(TiffTagConstants.TIFF_TAG_XRESOLUTION, RationalNumber.valueOf(pixelDensity.horizontalDensityCentimetres()));
-            directory.add(TiffTagConstants.TIFF_TAG_YRESOLUTION, RationalNumber.valueOf(pixelDensity.verticalDensityCentimetres()));
-        }
-        if (t4Options != 0) {
-            directory.add(TiffTagConstants.TIFF_TAG_T4_OPTIONS, t4Options);
-        }
-        if (t6Options != 0) {
-            directory.add(TiffTagConstants.TIFF_TAG_T6_OPTIONS, t6Options);
-        }
-
-        if (null != xmpXml) {
-            final byte[] xmpXmlBytes = xmpXml.getBytes(StandardCharsets.UTF_8);
-            directory.add(TiffTagConstants.TIFF_TAG_XMP, xmpXmlBytes);
-        }
-
-        if (predictor == TiffTagConstants.PREDICTOR_VALUE_HORIZONTAL_DIFFERENCING) {
-            directory.add(TiffTagConstants.TIFF_TAG_PREDICTOR, predictor);
-        }
-
-        final AbstractTiffImageData abstractTiffImageData = new AbstractTiffImageData.Strips(imageData, rowsPerStrip);
-        directory.setTiffImageData(abstractTiffImageData);
-
-        if (userExif != null) {
-            combineUserExifIntoFinalExif(userExif, outputSet);
+            abstractTiffImageData = new AbstractTiffImageData.Strips(imageData, rowsPerStrip);
         }
+        final TiffOutputSet outputSet = createOutputSet(params, width, height, photometricInterpretation, compression, samplesPerPixel, bitsPerSample,
+                predictor, t4Options, t6Options, tileWidth, tileLength, rowsPerStrip);
+        outputSet.getRootDirectory().setTiffImageData(abstractTiffImageData);
 
         write(os, outputSet);
     }
@@ -606,4 +692,23 @@ public abstract class AbstractTiffImageWriter {
         bos.write4Bytes((int) offsetToFirstIFD);
     }
 
+    void writeImageFileHeader(final BinaryOutputStream bos, final long offsetToFirstIFD, final boolean bigTiff) throws IOException {
+        if (!bigTiff) {
+            writeImageFileHeader(bos, offsetToFirstIFD);
+            return;
+        }
+        if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
+            bos.write('I');
+            bos.write('I');
+        } else {
+            bos.write('M');
+            bos.write('M');
+        }
+
+        bos.write2Bytes(TiffConstants.VERSION_BIG);
+        bos.write2Bytes(8); // bytesize of offsets
+        bos.write2Bytes(0);
+        bos.write8Bytes(offsetToFirstIFD);
+    }
+
 }
@@ -57,6 +57,36 @@ abstract class AbstractTiffOutputItem {
         }
     }
 
+    /**
+     * Image data that was written before the layout, keeping its offset.
+     */
+    static final class Written extends AbstractTiffOutputItem {
+
+        private final String name;
+        private final int length;
+
+        Written(final String name, final long offset, final int length) {
+            this.name = name;
+            this.length = length;
+            setOffset(offset);
+        }
+
+        @Override
+        public String getItemDescription() {
+            return name;
+        }
+
+        @Override
+        public int getItemLength() {
+            return length;
+        }
+
+        @Override
+        public void writeItem(final BinaryOutputStream bos) throws ImagingException {
+            throw new ImagingException(name + " has already been written at offset " + getOffset());
+        }
+    }
+
     public static final long UNDEFINED_VALUE = -1;
 
     private long offset = UNDEFINED_VALUE;
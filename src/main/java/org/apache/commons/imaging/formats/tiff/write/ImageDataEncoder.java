@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.tiff.write;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.PackBits;
+import org.apache.commons.imaging.common.ZlibDeflate;
+import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
+import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
+import org.apache.commons.imaging.mylzw.MyLzwCompressor;
+
+/**
+ * Compresses strips or tiles of 8-bit samples. Each block is compressed independently of the others, so blocks can be compressed in parallel.
+ */
+final class ImageDataEncoder {
+
+    private static final int LZW_MINIMUM_CODE_SIZE = 8;
+
+    static boolean isSupported(final int compression) {
+        return compression == TiffConstants.COMPRESSION_UNCOMPRESSED || compression == TiffConstants.COMPRESSION_PACKBITS
+                || compression == TiffConstants.COMPRESSION_LZW || compression == TiffConstants.COMPRESSION_DEFLATE_ADOBE;
+    }
+
+    private final int compression;
+    private final int width;
+    private final int samplesPerPixel;
+    private final Executor executor;
+
+    /**
+     * Constructs an encoder.
+     *
+     * @param compression     uncompressed, PackBits, LZW or Deflate.
+     * @param width           the number of pixels in each row of a block.
+     * @param samplesPerPixel the number of 8-bit samples of each pixel.
+     * @param executor        the executor to compress blocks in parallel, or null to compress them on the calling thread.
+     */
+    ImageDataEncoder(final int compression, final int width, final int samplesPerPixel, final Executor executor) {
+        this.compression = compression;
+        this.width = width;
+        this.samplesPerPixel = samplesPerPixel;
+        this.executor = executor;
+    }
+
+    private void applyPredictor(final byte[] b) {
+        final int nBytesPerRow = samplesPerPixel * width;
+        final int nRows = b.length / nBytesPerRow;
+        for (int iRow = 0; iRow < nRows; iRow++) {
+            final int offset = iRow * nBytesPerRow;
+            for (int i = nBytesPerRow - 1; i >= samplesPerPixel; i--) {
+                b[offset + i] -= b[offset + i - samplesPerPixel];
+            }
+        }
+    }
+
+    /**
+     * Compresses a block. A predictor is applied to the uncompressed block in place.
+     *
+     * @param block the uncompressed block.
+     * @return the compressed block.
+     * @throws ImagingException if the compression is not supported.
+     * @throws IOException      if the block cannot be compressed.
+     */
+    byte[] encode(final byte[] block) throws ImagingException, IOException {
+        switch (compression) {
+        case TiffConstants.COMPRESSION_PACKBITS:
+            return PackBits.compress(block);
+        case TiffConstants.COMPRESSION_LZW:
+            applyPredictor(block);
+            return new MyLzwCompressor(LZW_MINIMUM_CODE_SIZE, ByteOrder.BIG_ENDIAN, true).compress(block);
+        case TiffConstants.COMPRESSION_DEFLATE_ADOBE:
+            applyPredictor(block);
+            return ZlibDeflate.compress(block);
+        case TiffConstants.COMPRESSION_UNCOMPRESSED:
+            return block;
+        default:
+            throw new ImagingException("Unsupported compression for strips and tiles: " + compression);
+        }
+    }
+
+    /**
+     * Compresses blocks in place, in parallel if there is an executor.
+     *
+     * @param blocks the uncompressed blocks, replaced with the compressed ones.
+     * @throws ImagingException if the compression is not supported.
+     * @throws IOException      if a block cannot be compressed.
+     */
+    void encode(final byte[][] blocks) throws ImagingException, IOException {
+        if (executor == null || blocks.length < 2 || compression == TiffConstants.COMPRESSION_UNCOMPRESSED) {
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = encode(blocks[i]);
+            }
+            return;
+        }
+        // a few tasks per core even out blocks that take longer than others, each task compresses a run of consecutive blocks
+        final int taskCount = Math.min(blocks.length, 4 * Runtime.getRuntime().availableProcessors());
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[taskCount];
+        for (int t = 0; t < taskCount; t++) {
+            final int firstBlock = (int) ((long) blocks.length * t / taskCount);
+            final int lastBlock = (int) ((long) blocks.length * (t + 1) / taskCount);
+            tasks[t] = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = firstBlock; i < lastBlock; i++) {
+                        blocks[i] = encode(blocks[i]);
+                    }
+                } catch (final IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the predictor applied before compression.
+     *
+     * @return horizontal differencing for LZW and Deflate, none otherwise.
+     */
+    short getPredictor() {
+        if (compression == TiffConstants.COMPRESSION_LZW || compression == TiffConstants.COMPRESSION_DEFLATE_ADOBE) {
+            return TiffTagConstants.PREDICTOR_VALUE_HORIZONTAL_DIFFERENCING;
+        }
+        return TiffTagConstants.PREDICTOR_VALUE_NONE;
+    }
+}
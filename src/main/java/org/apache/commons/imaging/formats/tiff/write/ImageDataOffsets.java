@@ -22,16 +22,19 @@ import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.formats.tiff.AbstractTiffElement;
 
 final class ImageDataOffsets {
-    final int[] imageDataOffsets;
+    final long[] imageDataOffsets;
     final TiffOutputField imageDataOffsetsField;
     final AbstractTiffOutputItem[] outputItems;
 
-    ImageDataOffsets(final AbstractTiffElement.DataElement[] imageData, final int[] imageDataOffsets, final TiffOutputField imageDataOffsetsField) {
+    ImageDataOffsets(final AbstractTiffElement[] imageData, final long[] imageDataOffsets, final TiffOutputField imageDataOffsetsField) {
         this.imageDataOffsets = imageDataOffsets;
         this.imageDataOffsetsField = imageDataOffsetsField;
 
         outputItems = Allocator.array(imageData.length, AbstractTiffOutputItem[]::new, AbstractTiffOutputItem.Value.SHALLOW_SIZE);
-        Arrays.setAll(outputItems, i -> new AbstractTiffOutputItem.Value("TIFF image data", imageData[i].getData()));
+        // stubs are strips or tiles already in the output, they keep their offsets and are not written again
+        Arrays.setAll(outputItems, i -> imageData[i] instanceof AbstractTiffElement.Stub
+                ? new AbstractTiffOutputItem.Written("TIFF image data", imageData[i].offset, imageData[i].length)
+                : new AbstractTiffOutputItem.Value("TIFF image data", ((AbstractTiffElement.DataElement) imageData[i]).getData()));
 
     }
 
@@ -17,6 +17,7 @@
 package org.apache.commons.imaging.formats.tiff.write;
 
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.HEADER_SIZE;
+import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.HEADER_SIZE_BIG;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -36,8 +37,8 @@ public class TiffImageWriterLossy extends AbstractTiffImageWriter {
         super(byteOrder);
     }
 
-    private void updateOffsetsStep(final List<AbstractTiffOutputItem> outputItems) {
-        int offset = HEADER_SIZE;
+    private long updateOffsetsStep(final List<AbstractTiffOutputItem> outputItems, final boolean bigTiff) {
+        long offset = bigTiff ? HEADER_SIZE_BIG : HEADER_SIZE;
 
         for (final AbstractTiffOutputItem outputItem : outputItems) {
             outputItem.setOffset(offset);
@@ -47,26 +48,36 @@ public class TiffImageWriterLossy extends AbstractTiffImageWriter {
             final int remainder = imageDataPaddingLength(itemLength);
             offset += remainder;
         }
+        return offset;
     }
 
     @Override
     public void write(final OutputStream os, final TiffOutputSet outputSet) throws IOException, ImagingException {
-        final TiffOutputSummary outputSummary = validateDirectories(outputSet);
-
-        final List<AbstractTiffOutputItem> outputItems = outputSet.getOutputItems(outputSummary);
-
-        updateOffsetsStep(outputItems);
+        boolean bigTiff = outputSet.isBigTiff();
+        TiffOutputSummary outputSummary = validateDirectories(outputSet, bigTiff);
+
+        List<AbstractTiffOutputItem> outputItems = outputSet.getOutputItems(outputSummary);
+
+        final long length = updateOffsetsStep(outputItems, bigTiff);
+        if (!bigTiff && length > MAX_CLASSIC_OFFSET) {
+            // the offsets would not fit in 32 bits, lay the output out again as BigTIFF
+            bigTiff = true;
+            outputSummary = validateDirectories(outputSet, true);
+            outputItems = outputSet.getOutputItems(outputSummary);
+            updateOffsetsStep(outputItems, true);
+        }
 
         outputSummary.updateOffsets(byteOrder);
 
         final BinaryOutputStream bos = BinaryOutputStream.create(os, byteOrder);
 
         // NB: resource is intentionally left open
-        writeStep(bos, outputItems);
+        writeStep(bos, outputItems, bigTiff);
     }
 
-    private void writeStep(final BinaryOutputStream bos, final List<AbstractTiffOutputItem> outputItems) throws IOException, ImagingException {
-        writeImageFileHeader(bos);
+    private void writeStep(final BinaryOutputStream bos, final List<AbstractTiffOutputItem> outputItems, final boolean bigTiff)
+            throws IOException, ImagingException {
+        writeImageFileHeader(bos, bigTiff ? HEADER_SIZE_BIG : HEADER_SIZE, bigTiff);
 
         for (final AbstractTiffOutputItem outputItem : outputItems) {
             outputItem.writeItem(bos);
@@ -17,9 +17,11 @@
 package org.apache.commons.imaging.formats.tiff.write;
 
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.DIRECTORY_FOOTER_LENGTH;
+import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.DIRECTORY_FOOTER_LENGTH_BIG;
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.DIRECTORY_HEADER_LENGTH;
+import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.DIRECTORY_HEADER_LENGTH_BIG;
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.ENTRY_LENGTH;
-import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.ENTRY_MAX_VALUE_LENGTH;
+import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.ENTRY_LENGTH_BIG;
 
 import java.io.IOException;
 import java.nio.ByteOrder;
@@ -80,6 +82,11 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
     private TiffOutputDirectory nextDirectory;
     private JpegImageData jpegImageData;
     private AbstractTiffImageData abstractTiffImageData;
+    // strips or tiles already in the output, as written by TiffStreamingImageWriter
+    private AbstractTiffElement.Stub[] writtenImageData;
+    private boolean writtenStripsNotTiles;
+    // whether the directory is laid out as BigTIFF, set with the output items
+    private boolean bigTiff;
 
     public TiffOutputDirectory(final int type, final ByteOrder byteOrder) {
         this.type = type;
@@ -450,19 +457,24 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
 
     @Override
     public int getItemLength() {
+        if (bigTiff) {
+            return ENTRY_LENGTH_BIG * fields.size() + DIRECTORY_HEADER_LENGTH_BIG + DIRECTORY_FOOTER_LENGTH_BIG;
+        }
         return ENTRY_LENGTH * fields.size() + DIRECTORY_HEADER_LENGTH + DIRECTORY_FOOTER_LENGTH;
     }
 
     protected List<AbstractTiffOutputItem> getOutputItems(final TiffOutputSummary outputSummary) throws ImagingException {
         // first validate directory fields.
+        bigTiff = outputSummary.bigTiff;
+        // BigTIFF files hold all their offsets in 8 bytes
+        final AbstractFieldType offsetType = bigTiff ? AbstractFieldType.LONG8 : AbstractFieldType.LONG;
 
         removeFieldIfPresent(TiffTagConstants.TIFF_TAG_JPEG_INTERCHANGE_FORMAT);
         removeFieldIfPresent(TiffTagConstants.TIFF_TAG_JPEG_INTERCHANGE_FORMAT_LENGTH);
 
         TiffOutputField jpegOffsetField = null;
         if (null != jpegImageData) {
-            jpegOffsetField = new TiffOutputField(TiffTagConstants.TIFF_TAG_JPEG_INTERCHANGE_FORMAT, AbstractFieldType.LONG, 1,
-                    new byte[ENTRY_MAX_VALUE_LENGTH]);
+            jpegOffsetField = new TiffOutputField(TiffTagConstants.TIFF_TAG_JPEG_INTERCHANGE_FORMAT, offsetType, 1, new byte[offsetType.getSize()]);
             add(jpegOffsetField);
 
             final byte[] lengthValue = AbstractFieldType.LONG.writeData(jpegImageData.length, outputSummary.byteOrder);
@@ -480,8 +492,16 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
 
         TiffOutputField imageDataOffsetField;
         ImageDataOffsets imageDataInfo = null;
+        final AbstractTiffElement[] imageData;
+        final boolean stripsNotTiles;
         if (null != abstractTiffImageData) {
-            final boolean stripsNotTiles = abstractTiffImageData.stripsNotTiles();
+            imageData = abstractTiffImageData.getImageData();
+            stripsNotTiles = abstractTiffImageData.stripsNotTiles();
+        } else {
+            imageData = writtenImageData;
+            stripsNotTiles = writtenStripsNotTiles;
+        }
+        if (null != imageData) {
 
             TagInfo offsetTag;
             TagInfo byteCountsTag;
@@ -493,17 +513,15 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
                 byteCountsTag = TiffTagConstants.TIFF_TAG_TILE_BYTE_COUNTS;
             }
 
-            final AbstractTiffElement.DataElement[] imageData = abstractTiffImageData.getImageData();
-
             // TiffOutputField imageDataOffsetsField = null;
 
-            final int[] imageDataOffsets = Allocator.intArray(imageData.length);
+            final long[] imageDataOffsets = Allocator.longArray(imageData.length);
             final int[] imageDataByteCounts = Allocator.intArray(imageData.length);
             Arrays.setAll(imageDataByteCounts, i -> imageData[i].length);
 
             // Append imageData-related fields to first directory
-            imageDataOffsetField = new TiffOutputField(offsetTag, AbstractFieldType.LONG, imageDataOffsets.length,
-                    AbstractFieldType.LONG.writeData(imageDataOffsets, outputSummary.byteOrder));
+            imageDataOffsetField = new TiffOutputField(offsetTag, offsetType, imageDataOffsets.length,
+                    Allocator.byteArray((long) offsetType.getSize() * imageDataOffsets.length));
             add(imageDataOffsetField);
 
             final byte[] data = AbstractFieldType.LONG.writeData(imageDataByteCounts, outputSummary.byteOrder);
@@ -518,7 +536,7 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
         sortFields();
 
         for (final TiffOutputField field : fields) {
-            if (field.isLocalValue()) {
+            if (field.isLocalValue(bigTiff)) {
                 continue;
             }
 
@@ -590,6 +608,19 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
 
     public void setTiffImageData(final AbstractTiffImageData rawTiffImageData) {
         this.abstractTiffImageData = rawTiffImageData;
+        this.writtenImageData = null;
+    }
+
+    /**
+     * Sets strips or tiles that have already been written to the output, so only their offsets and byte counts are added to the directory.
+     *
+     * @param imageData      the offset and length of each strip or tile.
+     * @param stripsNotTiles whether the image is written in strips.
+     */
+    void setWrittenImageData(final AbstractTiffElement.Stub[] imageData, final boolean stripsNotTiles) {
+        this.abstractTiffImageData = null;
+        this.writtenImageData = imageData;
+        this.writtenStripsNotTiles = stripsNotTiles;
     }
 
     public void sortFields() {
@@ -605,11 +636,15 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
     @Override
     public void writeItem(final BinaryOutputStream bos) throws IOException, ImagingException {
         // Write Directory Field Count
-        bos.write2Bytes(fields.size()); // DirectoryFieldCount
+        if (bigTiff) {
+            bos.write8Bytes(fields.size());
+        } else {
+            bos.write2Bytes(fields.size()); // DirectoryFieldCount
+        }
 
         // Write Fields
         for (final TiffOutputField field : fields) {
-            field.writeField(bos);
+            field.writeField(bos, bigTiff);
 
             // Debug.debug("\t" + "writing field (" + field.tag + ", 0x" +
             // Integer.toHexString(field.tag) + ")", field.tagInfo);
@@ -624,7 +659,10 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
 
         // Write nextDirectoryOffset
         if (nextDirectoryOffset == UNDEFINED_VALUE) {
-            bos.write4Bytes(0);
+            nextDirectoryOffset = 0;
+        }
+        if (bigTiff) {
+            bos.write8Bytes(nextDirectoryOffset);
         } else {
             bos.write4Bytes((int) nextDirectoryOffset);
         }
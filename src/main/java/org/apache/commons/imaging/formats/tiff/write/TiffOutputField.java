@@ -17,6 +17,7 @@
 package org.apache.commons.imaging.formats.tiff.write;
 
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.ENTRY_MAX_VALUE_LENGTH;
+import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.ENTRY_MAX_VALUE_LENGTH_BIG;
 
 import java.io.IOException;
 import java.nio.ByteOrder;
@@ -31,6 +32,13 @@ public class TiffOutputField {
     private static final String NEWLINE = System.lineSeparator();
 
     protected static TiffOutputField createOffsetField(final TagInfo tagInfo, final ByteOrder byteOrder) throws ImagingException {
+        return createOffsetField(tagInfo, byteOrder, false);
+    }
+
+    static TiffOutputField createOffsetField(final TagInfo tagInfo, final ByteOrder byteOrder, final boolean bigTiff) throws ImagingException {
+        if (bigTiff) {
+            return new TiffOutputField(tagInfo, AbstractFieldType.IFD8, 1, AbstractFieldType.IFD8.writeData(0L, byteOrder));
+        }
         return new TiffOutputField(tagInfo, AbstractFieldType.LONG, 1, AbstractFieldType.LONG.writeData(0, byteOrder));
     }
 
@@ -79,7 +87,14 @@ public class TiffOutputField {
     }
 
     protected final boolean isLocalValue() {
-        return bytes.length <= ENTRY_MAX_VALUE_LENGTH;
+        return isLocalValue(false);
+    }
+
+    /**
+     * Tests whether the value fits in the entry itself, which holds up to 8 bytes in BigTIFF.
+     */
+    final boolean isLocalValue(final boolean bigTiff) {
+        return bytes.length <= (bigTiff ? ENTRY_MAX_VALUE_LENGTH_BIG : ENTRY_MAX_VALUE_LENGTH);
     }
 
     /**
@@ -139,20 +154,30 @@ public class TiffOutputField {
     }
 
     protected void writeField(final BinaryOutputStream bos) throws IOException, ImagingException {
+        writeField(bos, false);
+    }
+
+    void writeField(final BinaryOutputStream bos, final boolean bigTiff) throws IOException, ImagingException {
         bos.write2Bytes(tag);
         bos.write2Bytes(abstractFieldType.getType());
-        bos.write4Bytes(count);
+        if (bigTiff) {
+            bos.write8Bytes(count);
+        } else {
+            bos.write4Bytes(count);
+        }
 
-        if (isLocalValue()) {
-            if (separateValueItem != null) {
+        if (isLocalValue(bigTiff)) {
+            // a BigTIFF entry also holds the 5 to 8 byte values that are kept apart in classic TIFF
+            if (!bigTiff && separateValueItem != null) {
                 throw new ImagingException("Unexpected separate value item.");
             }
-            if (bytes.length > 4) {
+            final int maxValueLength = bigTiff ? ENTRY_MAX_VALUE_LENGTH_BIG : ENTRY_MAX_VALUE_LENGTH;
+            if (bytes.length > maxValueLength) {
                 throw new ImagingException("Local value has invalid length: " + bytes.length);
             }
 
             bos.write(bytes);
-            final int remainder = ENTRY_MAX_VALUE_LENGTH - bytes.length;
+            final int remainder = maxValueLength - bytes.length;
             for (int i = 0; i < remainder; i++) {
                 bos.write(0);
             }
@@ -161,7 +186,11 @@ public class TiffOutputField {
                 throw new ImagingException("Missing separate value item.");
             }
 
-            bos.write4Bytes((int) separateValueItem.getOffset());
+            if (bigTiff) {
+                bos.write8Bytes(separateValueItem.getOffset());
+            } else {
+                bos.write4Bytes((int) separateValueItem.getOffset());
+            }
         }
     }
 }
@@ -35,6 +35,7 @@ public final class TiffOutputSet implements Iterable<TiffOutputDirectory> {
     private static final String NEWLINE = System.lineSeparator();
     public final ByteOrder byteOrder;
     private final List<TiffOutputDirectory> directories = new ArrayList<>();
+    private boolean bigTiff;
 
     public TiffOutputSet() {
         this(DEFAULT_TIFF_BYTE_ORDER);
@@ -164,6 +165,16 @@ public final class TiffOutputSet implements Iterable<TiffOutputDirectory> {
         return findDirectory(TiffDirectoryConstants.DIRECTORY_TYPE_ROOT);
     }
 
+    /**
+     * Tests whether the output is written as BigTIFF even if it would fit classic TIFF.
+     *
+     * @return whether BigTIFF is forced.
+     * @since 1.0.0-alpha6
+     */
+    public boolean isBigTiff() {
+        return bigTiff;
+    }
+
     public boolean isEmpty() {
         return directories.isEmpty();
     }
@@ -183,6 +194,17 @@ public final class TiffOutputSet implements Iterable<TiffOutputDirectory> {
         removeField(tagInfo.tag);
     }
 
+    /**
+     * Sets whether to write BigTIFF, with 8-byte offsets, even if the output would fit classic TIFF. Outputs that would pass 4 GB are written as BigTIFF
+     * either way.
+     *
+     * @param bigTiff whether to force BigTIFF.
+     * @since 1.0.0-alpha6
+     */
+    public void setBigTiff(final boolean bigTiff) {
+        this.bigTiff = bigTiff;
+    }
+
     /**
      * A convenience method to update GPS values in EXIF metadata.
      *
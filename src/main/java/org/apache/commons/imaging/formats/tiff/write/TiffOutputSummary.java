@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.formats.tiff.fieldtypes.AbstractFieldType;
 
 final class TiffOutputSummary {
@@ -36,6 +37,8 @@ final class TiffOutputSummary {
     }
 
     public final ByteOrder byteOrder;
+    // whether offsets are laid out with 8 bytes
+    final boolean bigTiff;
     public final TiffOutputDirectory rootDirectory;
     public final Map<Integer, TiffOutputDirectory> directoryTypeMap;
     private final List<OffsetItem> offsetItems = new ArrayList<>();
@@ -43,7 +46,13 @@ final class TiffOutputSummary {
     private final List<ImageDataOffsets> imageDataItems = new ArrayList<>();
 
     TiffOutputSummary(final ByteOrder byteOrder, final TiffOutputDirectory rootDirectory, final Map<Integer, TiffOutputDirectory> directoryTypeMap) {
+        this(byteOrder, rootDirectory, directoryTypeMap, false);
+    }
+
+    TiffOutputSummary(final ByteOrder byteOrder, final TiffOutputDirectory rootDirectory, final Map<Integer, TiffOutputDirectory> directoryTypeMap,
+            final boolean bigTiff) {
         this.byteOrder = byteOrder;
+        this.bigTiff = bigTiff;
         this.rootDirectory = rootDirectory;
         this.directoryTypeMap = directoryTypeMap;
     }
@@ -58,18 +67,31 @@ final class TiffOutputSummary {
 
     public void updateOffsets(final ByteOrder byteOrder) throws ImagingException {
         for (final OffsetItem offset : offsetItems) {
-            final byte[] value = AbstractFieldType.LONG.writeData((int) offset.item.getOffset(), byteOrder);
-            offset.itemOffsetField.setData(value);
+            offset.itemOffsetField.setData(writeOffsets(offset.itemOffsetField, byteOrder, offset.item.getOffset()));
         }
 
         for (final ImageDataOffsets imageDataInfo : imageDataItems) {
             for (int j = 0; j < imageDataInfo.outputItems.length; j++) {
                 final AbstractTiffOutputItem item = imageDataInfo.outputItems[j];
-                imageDataInfo.imageDataOffsets[j] = (int) item.getOffset();
+                imageDataInfo.imageDataOffsets[j] = item.getOffset();
             }
 
-            imageDataInfo.imageDataOffsetsField.setData(AbstractFieldType.LONG.writeData(imageDataInfo.imageDataOffsets, byteOrder));
+            imageDataInfo.imageDataOffsetsField.setData(writeOffsets(imageDataInfo.imageDataOffsetsField, byteOrder, imageDataInfo.imageDataOffsets));
+        }
+    }
+
+    private byte[] writeOffsets(final TiffOutputField field, final ByteOrder byteOrder, final long... offsets) throws ImagingException {
+        if (field.abstractFieldType.getSize() == 8) {
+            return field.abstractFieldType.writeData(offsets, byteOrder);
+        }
+        final int[] values = Allocator.intArray(offsets.length);
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] > AbstractTiffImageWriter.MAX_CLASSIC_OFFSET) {
+                throw new ImagingException("Offset " + offsets[i] + " of " + field.tagInfo.getDescription() + " does not fit in 32 bits");
+            }
+            values[i] = (int) offsets[i];
         }
+        return AbstractFieldType.LONG.writeData(values, byteOrder);
     }
 
 }
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.tiff.write;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
+import org.apache.commons.imaging.common.BinaryOutputStream;
+import org.apache.commons.imaging.formats.tiff.AbstractTiffElement;
+import org.apache.commons.imaging.formats.tiff.TiffImagingParameters;
+import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
+
+/**
+ * Writes a TIFF image incrementally, compressing and writing each strip or tile as soon as its rows have been supplied.
+ *
+ * <p>
+ * Only the strips or tiles being compressed are held in memory, not the whole image. The image data is written first and the image file directory after
+ * it, the header is patched to point at the directory when the writer is closed. This needs a seekable output, for example a
+ * {@link java.nio.channels.FileChannel}.
+ * </p>
+ * <p>
+ * The compression, block size, tile size, executor, BigTIFF flag, pixel density, XMP and output set of the parameters are used as by
+ * {@link AbstractTiffImageWriter#writeImage(BufferedImage, java.io.OutputStream, TiffImagingParameters)}, except that CCITT compression is not supported.
+ * The output is written as BigTIFF if it grows past 4 GB.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+public final class TiffStreamingImageWriter implements Closeable {
+
+    private final SeekableByteChannel channel;
+    private final long start;
+    private final TiffImagingParameters params;
+    // lays out the directories and writes the header
+    private final TiffImageWriterLossy writer = new TiffImageWriterLossy();
+    private final int width;
+    private final int height;
+    private final int samplesPerPixel;
+    private final int compression;
+    private final int tileWidth;
+    private final int tileLength;
+    private final int rowsPerStrip;
+    // the rows of a strip or a row of tiles
+    private final int rowsPerBlock;
+    private final int blocksAcross;
+    private final ImageDataEncoder encoder;
+    // the offset and length of each strip or tile written so far
+    private final AbstractTiffElement.Stub[] imageData;
+    private int blockCount;
+    // strips or tiles that are waiting to be compressed, together if there is an executor
+    private final byte[][] pending;
+    private int pendingCount;
+    private int rows;
+    // the end of the output, relative to the start of the TIFF
+    private long position;
+    private boolean closed;
+
+    /**
+     * Constructs a writer, writing a placeholder for the header at the current position of the channel.
+     *
+     * @param channel  the output, it is not closed by the writer.
+     * @param width    the width of the image.
+     * @param height   the height of the image.
+     * @param hasAlpha whether an alpha channel is written.
+     * @param params   the parameters of the image.
+     * @throws ImagingException if the size or parameters are invalid.
+     * @throws IOException      if the header cannot be written.
+     */
+    public TiffStreamingImageWriter(final SeekableByteChannel channel, final int width, final int height, final boolean hasAlpha,
+            final TiffImagingParameters params) throws ImagingException, IOException {
+        if (width < 1 || height < 1) {
+            throw new ImagingException("Invalid image size: " + width + "x" + height);
+        }
+        final Integer compressionParameter = params.getCompression();
+        compression = compressionParameter == null ? TiffConstants.COMPRESSION_LZW : compressionParameter;
+        if (!ImageDataEncoder.isSupported(compression)) {
+            throw new ImagingException("Images can only be streamed with LZW, Packbits, Zlib Deflate or no compression.");
+        }
+        int stripSizeInBits = 64000;
+        final Integer stripSizeInBytes = params.getLzwCompressionBlockSize();
+        if (stripSizeInBytes != null) {
+            if (stripSizeInBytes < 8000) {
+                throw new ImagingException("Block size parameter " + stripSizeInBytes + " is less than 8000 minimum");
+            }
+            stripSizeInBits = stripSizeInBytes * 8;
+        }
+
+        this.channel = channel;
+        this.start = channel.position();
+        this.params = params;
+        this.width = width;
+        this.height = height;
+        this.samplesPerPixel = hasAlpha ? 4 : 3;
+        this.tileWidth = params.getTileWidth();
+        this.tileLength = params.getTileLength();
+        this.rowsPerStrip = Math.max(1, stripSizeInBits / (width * 8 * samplesPerPixel));
+        final boolean tiled = tileWidth > 0;
+        this.rowsPerBlock = tiled ? tileLength : rowsPerStrip;
+        this.blocksAcross = tiled ? (width + tileWidth - 1) / tileWidth : 1;
+        final int blocksDown = (height + rowsPerBlock - 1) / rowsPerBlock;
+        this.imageData = new AbstractTiffElement.Stub[Allocator.check((long) blocksAcross * blocksDown, 8)];
+        this.encoder = new ImageDataEncoder(compression, tiled ? tileWidth : width, samplesPerPixel, params.getImageDataExecutor());
+        // a row of tiles is compressed at a time, strips are compressed one per core if there is an executor
+        this.pending = new byte[tiled || params.getImageDataExecutor() == null ? blocksAcross : Runtime.getRuntime().availableProcessors()][];
+
+        // room for a BigTIFF header, a classic header leaves the rest unused
+        write(new byte[TiffConstants.HEADER_SIZE_BIG]);
+    }
+
+    /**
+     * Writes the remaining image data and the image file directory, then patches the header. The channel is left positioned at the end of the TIFF.
+     *
+     * @throws ImagingException if fewer rows were written than the height of the image, or the directory cannot be laid out.
+     * @throws IOException      if the output cannot be written.
+     */
+    @Override
+    public void close() throws ImagingException, IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (rows < height) {
+            throw new ImagingException("Only " + rows + " of " + height + " rows were written.");
+        }
+
+        final TiffOutputSet outputSet = writer.createOutputSet(params, width, height, 2, compression, samplesPerPixel, 8, encoder.getPredictor(), 0, 0,
+                tileWidth, tileLength, rowsPerStrip);
+        outputSet.getRootDirectory().setWrittenImageData(imageData, tileWidth == 0);
+
+        boolean bigTiff = outputSet.isBigTiff();
+        TiffOutputSummary outputSummary = writer.validateDirectories(outputSet, bigTiff);
+        List<AbstractTiffOutputItem> outputItems = outputSet.getOutputItems(outputSummary);
+        final long length = updateOffsetsStep(outputItems);
+        if (!bigTiff && length > AbstractTiffImageWriter.MAX_CLASSIC_OFFSET) {
+            bigTiff = true;
+            outputSummary = writer.validateDirectories(outputSet, true);
+            outputItems = outputSet.getOutputItems(outputSummary);
+            updateOffsetsStep(outputItems);
+        }
+        outputSummary.updateOffsets(writer.byteOrder);
+
+        // NB: the channel is intentionally left open
+        final BinaryOutputStream bos = BinaryOutputStream.create(new BufferedOutputStream(Channels.newOutputStream(channel)), writer.byteOrder);
+        for (final AbstractTiffOutputItem outputItem : outputItems) {
+            if (outputItem instanceof AbstractTiffOutputItem.Written) {
+                continue;
+            }
+            outputItem.writeItem(bos);
+            for (int j = 0; j < AbstractTiffImageWriter.imageDataPaddingLength(outputItem.getItemLength()); j++) {
+                bos.write(0);
+            }
+        }
+        bos.flush();
+
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        writer.writeImageFileHeader(BinaryOutputStream.create(header, writer.byteOrder), outputSummary.rootDirectory.getOffset(), bigTiff);
+        final long end = channel.position();
+        channel.position(start);
+        writeFully(header.toByteArray());
+        channel.position(end);
+    }
+
+    private void flush() throws ImagingException, IOException {
+        final byte[][] blocks = Arrays.copyOf(pending, pendingCount);
+        Arrays.fill(pending, null);
+        pendingCount = 0;
+        encoder.encode(blocks);
+        for (final byte[] block : blocks) {
+            imageData[blockCount++] = new AbstractTiffElement.Stub(position, block.length);
+            write(block);
+            write(new byte[AbstractTiffImageWriter.imageDataPaddingLength(block.length)]);
+        }
+    }
+
+    private long updateOffsetsStep(final List<AbstractTiffOutputItem> outputItems) {
+        long offset = position;
+        for (final AbstractTiffOutputItem outputItem : outputItems) {
+            if (outputItem instanceof AbstractTiffOutputItem.Written) {
+                continue;
+            }
+            outputItem.setOffset(offset);
+            final int itemLength = outputItem.getItemLength();
+            offset += itemLength + AbstractTiffImageWriter.imageDataPaddingLength(itemLength);
+        }
+        return offset;
+    }
+
+    private void write(final byte[] bytes) throws IOException {
+        writeFully(bytes);
+        position += bytes.length;
+    }
+
+    private void writeFully(final byte[] bytes) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes all rows of an image, reading them a strip or a row of tiles at a time.
+     *
+     * @param image the image, of the size given to the writer.
+     * @throws ImagingException if the image does not match the writer or rows were already written.
+     * @throws IOException      if the image data cannot be written.
+     */
+    public void writeImage(final RenderedImage image) throws ImagingException, IOException {
+        if (image.getWidth() != width || image.getHeight() != height) {
+            throw new ImagingException("Image size " + image.getWidth() + "x" + image.getHeight() + " does not match " + width + "x" + height);
+        }
+        if (rows > 0) {
+            throw new ImagingException(rows + " rows have already been written.");
+        }
+        final ColorModel colorModel = image.getColorModel();
+        final int[] argb = Allocator.intArray(Allocator.check((long) width * rowsPerBlock, Integer.BYTES));
+        for (int y = 0; y < height; y += rowsPerBlock) {
+            final int rowCount = Math.min(rowsPerBlock, height - y);
+            final WritableRaster raster = Raster.createWritableRaster(image.getSampleModel().createCompatibleSampleModel(width, rowCount), null);
+            image.copyData(raster.createWritableTranslatedChild(image.getMinX(), image.getMinY() + y));
+            new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null).getRGB(0, 0, width, rowCount, argb, 0, width);
+            writeRows(argb, 0, width, rowCount);
+        }
+    }
+
+    /**
+     * Writes the next rows of the image. Each strip or tile is compressed and written once all of its rows have been supplied.
+     *
+     * @param argb     the pixels of the rows, in the format of {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+     * @param offset   the index of the first pixel.
+     * @param scanSize the distance between rows in {@code argb}.
+     * @param rowCount the number of rows.
+     * @throws ImagingException if the writer is closed or more rows are written than the height of the image.
+     * @throws IOException      if the image data cannot be written.
+     */
+    public void writeRows(final int[] argb, final int offset, final int scanSize, final int rowCount) throws ImagingException, IOException {
+        if (closed) {
+            throw new ImagingException("The writer is closed.");
+        }
+        if (rowCount > height - rows) {
+            throw new ImagingException("Writing " + rowCount + " rows after " + rows + " exceeds the image height " + height);
+        }
+        for (int r = 0; r < rowCount; r++) {
+            final int y = rows % rowsPerBlock;
+            if (y == 0) {
+                // start the next strip or row of tiles, tiles on the right and bottom edges are padded with zeros
+                final long blockLength = tileWidth > 0 ? (long) tileWidth * tileLength * samplesPerPixel
+                        : (long) Math.min(rowsPerStrip, height - rows) * width * samplesPerPixel;
+                for (int i = 0; i < blocksAcross; i++) {
+                    pending[pendingCount + i] = Allocator.byteArray(blockLength);
+                }
+            }
+            final int blockWidth = tileWidth > 0 ? tileWidth : width;
+            for (int i = 0; i < blocksAcross; i++) {
+                final int x0 = i * blockWidth;
+                AbstractTiffImageWriter.packSamples(argb, offset + r * scanSize + x0, Math.min(blockWidth, width - x0), samplesPerPixel,
+                        pending[pendingCount + i], y * blockWidth * samplesPerPixel);
+            }
+            rows++;
+            if (rows % rowsPerBlock == 0 || rows == height) {
+                pendingCount += blocksAcross;
+                if (pendingCount == pending.length || rows == height) {
+                    flush();
+                }
+            }
+        }
+    }
+}
@@ -38,6 +38,8 @@ import org.apache.commons.imaging.ImageInfo;
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 public class WbmpImageParser extends AbstractImageParser<WbmpImagingParameters> {
 
@@ -86,9 +88,15 @@ public class WbmpImageParser extends AbstractImageParser<WbmpImagingParameters>
 
     @Override
     public final BufferedImage getBufferedImage(final ByteSource byteSource, final WbmpImagingParameters params) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.WBMP);
+        instrumentation.enter(ImagingPhase.HEADER);
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             final WbmpHeader wbmpHeader = readWbmpHeader(is);
-            return readImage(wbmpHeader, is);
+            // the pixels are read straight into the raster
+            instrumentation.enter(ImagingPhase.RASTER_BUILD);
+            final BufferedImage image = readImage(wbmpHeader, is);
+            instrumentation.finish();
+            return image;
         }
     }
 
@@ -45,6 +45,8 @@ import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BasicCParser;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.internal.Instrumentation;
 
 public class XbmImageParser extends AbstractImageParser<XbmImagingParameters> {
 
@@ -136,8 +138,14 @@ public class XbmImageParser extends AbstractImageParser<XbmImagingParameters> {
 
     @Override
     public final BufferedImage getBufferedImage(final ByteSource byteSource, final XbmImagingParameters params) throws ImagingException, IOException {
-        final XbmParseResult result = parseXbmHeader(byteSource);
-        return readXbmImage(result.xbmHeader, result.cParser);
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.XBM);
+        instrumentation.enter(ImagingPhase.HEADER);
+        final XbmParseResult result = parseXbmHeader(byteSource, instrumentation);
+        // the pixels are parsed from the C source straight into the raster
+        instrumentation.enter(ImagingPhase.DECOMPRESS);
+        final BufferedImage image = readXbmImage(result.xbmHeader, result.cParser);
+        instrumentation.finish();
+        return image;
     }
 
     @Override
@@ -179,7 +187,11 @@ public class XbmImageParser extends AbstractImageParser<XbmImagingParameters> {
     }
 
     private XbmParseResult parseXbmHeader(final ByteSource byteSource) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
+        return parseXbmHeader(byteSource, Instrumentation.disabled());
+    }
+
+    private XbmParseResult parseXbmHeader(final ByteSource byteSource, final Instrumentation instrumentation) throws ImagingException, IOException {
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             final Map<String, String> defines = new HashMap<>();
             final ByteArrayOutputStream preprocessedFile = BasicCParser.preprocess(is, null, defines);
             int width = -1;
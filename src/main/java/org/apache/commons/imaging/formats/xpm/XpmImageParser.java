@@ -48,6 +48,8 @@ import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BasicCParser;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.common.ImagingPhase;
+import org.apache.commons.imaging.internal.Instrumentation;
 import org.apache.commons.imaging.palette.PaletteFactory;
 import org.apache.commons.imaging.palette.SimplePalette;
 
@@ -188,8 +190,14 @@ public class XpmImageParser extends AbstractImageParser<XpmImagingParameters> {
 
     @Override
     public final BufferedImage getBufferedImage(final ByteSource byteSource, final XpmImagingParameters params) throws ImagingException, IOException {
-        final XpmParseResult result = parseXpmHeader(byteSource);
-        return readXpmImage(result.xpmHeader, result.cParser);
+        final Instrumentation instrumentation = Instrumentation.of(params, ImageFormats.XPM);
+        instrumentation.enter(ImagingPhase.HEADER);
+        final XpmParseResult result = parseXpmHeader(byteSource, instrumentation);
+        // the pixels are parsed from the C source straight into the raster
+        instrumentation.enter(ImagingPhase.DECOMPRESS);
+        final BufferedImage image = readXpmImage(result.xpmHeader, result.cParser);
+        instrumentation.finish();
+        return image;
     }
 
     @Override
@@ -409,7 +417,11 @@ public class XpmImageParser extends AbstractImageParser<XpmImagingParameters> {
     }
 
     private XpmParseResult parseXpmHeader(final ByteSource byteSource) throws ImagingException, IOException {
-        try (InputStream is = byteSource.getInputStream()) {
+        return parseXpmHeader(byteSource, Instrumentation.disabled());
+    }
+
+    private XpmParseResult parseXpmHeader(final ByteSource byteSource, final Instrumentation instrumentation) throws ImagingException, IOException {
+        try (InputStream is = instrumentation.count(byteSource.getInputStream())) {
             final StringBuilder firstComment = new StringBuilder();
             final ByteArrayOutputStream preprocessedFile = BasicCParser.preprocess(is, firstComment, null);
             if (!"XPM".equals(firstComment.toString().trim())) {
@@ -17,8 +17,19 @@
 package org.apache.commons.imaging.internal;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.commons.imaging.AbstractImageParser;
 import org.apache.commons.imaging.ImageFormat;
@@ -30,10 +41,45 @@ import org.apache.commons.imaging.bytesource.ByteSource;
 /**
  * Internal utilities.
  *
+ * <p>
+ * Parsers are looked up in a registry of shared instances: the parsers of {@link AbstractImageParser#getAllImageParsers()}, followed by any parser
+ * registered as a {@link ServiceLoader} provider of {@link AbstractImageParser}. A lookup returns the first of them that accepts the format or file
+ * extension, and is remembered so that later lookups of the same key are a single map access.
+ * </p>
+ *
  * @since 1.0-alpha3
  */
 public final class ImageParserFactory {
 
+    private static final class Registry {
+
+        static final List<AbstractImageParser<?>> PARSERS = loadParsers();
+
+        static final Map<ImageFormat, AbstractImageParser<?>> BY_FORMAT = new ConcurrentHashMap<>();
+
+        static final Map<String, AbstractImageParser<?>> BY_EXTENSION = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("rawtypes")
+        private static List<AbstractImageParser<?>> loadParsers() {
+            final List<AbstractImageParser<?>> parsers = new ArrayList<>(AbstractImageParser.getAllImageParsers());
+            final Iterator<AbstractImageParser> providers = ServiceLoader.load(AbstractImageParser.class).iterator();
+            while (true) {
+                try {
+                    if (!providers.hasNext()) {
+                        break;
+                    }
+                    parsers.add(providers.next());
+                } catch (final ServiceConfigurationError e) {
+                    // a broken provider must not break the built-in formats
+                    LOGGER.log(Level.WARNING, "Ignoring image parser that could not be loaded", e);
+                }
+            }
+            return Collections.unmodifiableList(parsers);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ImageParserFactory.class.getName());
+
     public static <T extends ImagingParameters<T>> AbstractImageParser<T> getImageParser(final ByteSource byteSource) throws IOException {
         // TODO: circular dependency between Imaging and internal Util class below.
         final ImageFormat format = Imaging.guessFormat(byteSource);
@@ -50,19 +96,46 @@ public final class ImageParserFactory {
     }
 
     public static <T extends ImagingParameters<T>> AbstractImageParser<T> getImageParser(final ImageFormat format) {
-        return getImageParser(parser -> parser.canAcceptType(format), () -> new IllegalArgumentException("Unknown ImageFormat: " + format));
+        return getImageParser(Registry.BY_FORMAT, format, parser -> parser.canAcceptType(format),
+                () -> new IllegalArgumentException("Unknown ImageFormat: " + format));
     }
 
     // This generics suppression is as good as the predicate given. If the predicate violates a generics design,
     // then there will be an error during runtime.
     @SuppressWarnings("unchecked")
-    private static <T extends ImagingParameters<T>> AbstractImageParser<T> getImageParser(final Predicate<AbstractImageParser<?>> pred,
-            final Supplier<? extends RuntimeException> supplier) {
-        return (AbstractImageParser<T>) AbstractImageParser.getAllImageParsers().stream().filter(pred).findFirst().orElseThrow(supplier);
+    private static <K, T extends ImagingParameters<T>> AbstractImageParser<T> getImageParser(final Map<K, AbstractImageParser<?>> cache, final K key,
+            final Predicate<AbstractImageParser<?>> pred, final Supplier<? extends RuntimeException> supplier) {
+        AbstractImageParser<?> parser = key == null ? null : cache.get(key);
+        if (parser == null) {
+            // misses are not remembered, so that arbitrary keys cannot grow the cache
+            parser = Registry.PARSERS.stream().filter(pred).findFirst().orElseThrow(supplier);
+            if (key != null) {
+                cache.putIfAbsent(key, parser);
+            }
+        }
+        return (AbstractImageParser<T>) parser;
     }
 
     public static <T extends ImagingParameters<T>> AbstractImageParser<T> getImageParser(final String fileExtension) {
-        return getImageParser(parser -> parser.canAcceptExtension(fileExtension), () -> new IllegalArgumentException("Unknown extension: " + fileExtension));
+        // AbstractImageParser.canAcceptExtension only looks at what follows the last dot
+        final int index = fileExtension.lastIndexOf('.');
+        final String key = index < 0 ? null : fileExtension.substring(index + 1).toLowerCase(Locale.ROOT);
+        return getImageParser(Registry.BY_EXTENSION, key, parser -> parser.canAcceptExtension(fileExtension),
+                () -> new IllegalArgumentException("Unknown extension: " + fileExtension));
+    }
+
+    /**
+     * Gets the shared parsers of all supported formats, including those registered with {@link ServiceLoader}.
+     *
+     * <p>
+     * The parsers are shared by all threads, so they must not be modified.
+     * </p>
+     *
+     * @return an unmodifiable list of parsers.
+     * @since 1.0.0-alpha6
+     */
+    public static List<AbstractImageParser<?>> getImageParsers() {
+        return Registry.PARSERS;
     }
 
     private ImageParserFactory() {
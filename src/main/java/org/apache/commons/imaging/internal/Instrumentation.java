@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.internal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+import org.apache.commons.imaging.ImageFormat;
+import org.apache.commons.imaging.ImagingParameters;
+import org.apache.commons.imaging.common.ImagingListener;
+import org.apache.commons.imaging.common.ImagingPhase;
+
+/**
+ * Measures the phases of one decode for an {@link ImagingListener}.
+ *
+ * <p>
+ * Decoders get an instance with {@link #of(ImagingParameters, ImageFormat)}, mark each phase they enter with {@link #enter(ImagingPhase)}, and call
+ * {@link #finish()} at the end. Phases may be entered repeatedly, for example once per strip, their measurements add up. Without a listener all methods
+ * return at once. Instances are not thread-safe; only the thread running the decode may use them.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+public final class Instrumentation {
+
+    /**
+     * Reads the bytes allocated by the current thread, if the JVM can tell.
+     */
+    private static final class AllocatedBytes {
+
+        private static final Object THREAD_MX_BEAN;
+        private static final Method GET_THREAD_ALLOCATED_BYTES;
+
+        static {
+            Object bean = null;
+            Method method = null;
+            try {
+                // com.sun.management is not part of the Java SE API, so it is only looked up
+                final Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+                final Object threadMXBean = ManagementFactory.getThreadMXBean();
+                if (type.isInstance(threadMXBean) && (Boolean) type.getMethod("isThreadAllocatedMemoryEnabled").invoke(threadMXBean)) {
+                    method = type.getMethod("getThreadAllocatedBytes", long.class);
+                    bean = threadMXBean;
+                }
+            } catch (final ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // not measured
+            }
+            THREAD_MX_BEAN = bean;
+            GET_THREAD_ALLOCATED_BYTES = method;
+        }
+
+        static long get() {
+            if (GET_THREAD_ALLOCATED_BYTES == null) {
+                return -1;
+            }
+            try {
+                return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_MX_BEAN, Thread.currentThread().getId());
+            } catch (final ReflectiveOperationException | RuntimeException e) {
+                return -1;
+            }
+        }
+    }
+
+    private static final ImagingPhase[] PHASES = ImagingPhase.values();
+
+    private static final Instrumentation DISABLED = new Instrumentation(null, null);
+
+    /**
+     * Gets an instance that measures nothing, for decodes without parameters.
+     *
+     * @return the shared instance.
+     */
+    public static Instrumentation disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Gets the instrumentation of a decode.
+     *
+     * @param params the parameters of the decode, may be null.
+     * @param format the format being decoded, may be refined with {@link #setFormat(ImageFormat)} once the header has been read.
+     * @return a new instance if the parameters have a listener, otherwise a shared instance that measures nothing.
+     */
+    public static Instrumentation of(final ImagingParameters<?> params, final ImageFormat format) {
+        final ImagingListener listener = params != null ? params.getImagingListener() : null;
+        return listener != null ? new Instrumentation(listener, format) : DISABLED;
+    }
+
+    private final ImagingListener listener;
+    private ImageFormat format;
+    private final boolean[] entered;
+    private final long[] elapsedNanos;
+    private final long[] bytesRead;
+    private final long[] bytesAllocated;
+    private ImagingPhase phase;
+    private long phaseStartNanos;
+    private long phaseStartAllocated;
+
+    private Instrumentation(final ImagingListener listener, final ImageFormat format) {
+        this.listener = listener;
+        this.format = format;
+        final int count = listener != null ? PHASES.length : 0;
+        this.entered = new boolean[count];
+        this.elapsedNanos = new long[count];
+        this.bytesRead = new long[count];
+        this.bytesAllocated = new long[count];
+    }
+
+    /**
+     * Adds to the bytes read by the current phase.
+     *
+     * @param count the number of bytes.
+     */
+    public void addBytesRead(final long count) {
+        if (phase != null) {
+            bytesRead[phase.ordinal()] += count;
+        }
+    }
+
+    /**
+     * Wraps a stream to add the bytes read from it to the current phase.
+     *
+     * @param inputStream the stream.
+     * @return the stream itself if nothing is measured, otherwise a stream that counts the bytes read.
+     */
+    public InputStream count(final InputStream inputStream) {
+        if (listener == null) {
+            return inputStream;
+        }
+        return new FilterInputStream(inputStream) {
+
+            @Override
+            public int read() throws IOException {
+                final int b = super.read();
+                if (b >= 0) {
+                    addBytesRead(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int n = super.read(b, off, len);
+                if (n > 0) {
+                    addBytesRead(n);
+                }
+                return n;
+            }
+        };
+    }
+
+    private void endPhase(final long nanos, final long allocated) {
+        if (phase != null) {
+            final int index = phase.ordinal();
+            elapsedNanos[index] += nanos - phaseStartNanos;
+            if (allocated >= 0 && phaseStartAllocated >= 0 && bytesAllocated[index] >= 0) {
+                bytesAllocated[index] += allocated - phaseStartAllocated;
+            } else {
+                bytesAllocated[index] = -1;
+            }
+        }
+    }
+
+    /**
+     * Ends the current phase, if any, and starts measuring another.
+     *
+     * @param next the phase entered.
+     */
+    public void enter(final ImagingPhase next) {
+        if (listener == null || next == phase) {
+            return;
+        }
+        final long nanos = System.nanoTime();
+        final long allocated = AllocatedBytes.get();
+        endPhase(nanos, allocated);
+        entered[next.ordinal()] = true;
+        phase = next;
+        phaseStartNanos = nanos;
+        phaseStartAllocated = allocated;
+    }
+
+    /**
+     * Ends the current phase and reports all phases entered to the listener. Later calls have no effect.
+     */
+    public void finish() {
+        if (listener == null || phase == null) {
+            return;
+        }
+        endPhase(System.nanoTime(), AllocatedBytes.get());
+        phase = null;
+        for (final ImagingPhase reported : PHASES) {
+            final int index = reported.ordinal();
+            if (entered[index]) {
+                entered[index] = false;
+                listener.phaseCompleted(format, reported, elapsedNanos[index], bytesRead[index], bytesAllocated[index]);
+            }
+        }
+    }
+
+    /**
+     * Sets the format reported, for parsers of several formats that only know which one once they have read the header.
+     *
+     * @param format the format.
+     */
+    public void setFormat(final ImageFormat format) {
+        if (listener != null) {
+            this.format = format;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.imaging.common.Interrupts;
+import org.apache.commons.imaging.formats.jpeg.JpegImageParser;
+import org.apache.commons.imaging.formats.jpeg.JpegImagingParameters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ImagingAsyncTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCancelInterruptsDecoding() throws Exception {
+        final ImagingAsync imagingAsync = new ImagingAsync(executor, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CompletableFuture<Throwable> stopped = new CompletableFuture<>();
+        final CompletableFuture<Object> future = imagingAsync.submit(() -> {
+            started.countDown();
+            try {
+                while (true) {
+                    Interrupts.check();
+                }
+            } catch (final InterruptedIOException e) {
+                stopped.complete(e);
+                throw e;
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+        assertInstanceOf(InterruptedIOException.class, stopped.get(10, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, future::join);
+        // the slot of the cancelled call is free again
+        assertEquals("next", imagingAsync.submit(() -> "next").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelInterruptsRestartIntervalDecoding() throws Exception {
+        final BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JpegImageParser().writeImage(image, out, new JpegImagingParameters().setRestartInterval(4));
+        final byte[] bytes = out.toByteArray();
+        // an executor that never runs the intervals, so the decode waits until it is interrupted
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final JpegImagingParameters params = new JpegImagingParameters().setRestartIntervalExecutor(task -> waiting.countDown());
+        final ImagingAsync imagingAsync = new ImagingAsync(executor, 1);
+        final CompletableFuture<Throwable> stopped = new CompletableFuture<>();
+        final CompletableFuture<BufferedImage> future = imagingAsync.submit(() -> {
+            try {
+                return new JpegImageParser().getBufferedImage(bytes, params);
+            } catch (final InterruptedIOException e) {
+                stopped.complete(e);
+                throw e;
+            }
+        });
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+        assertInstanceOf(InterruptedIOException.class, stopped.get(10, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, future::join);
+    }
+
+    @Test
+    public void testFailure() {
+        final ImagingAsync imagingAsync = new ImagingAsync(executor, 2);
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> imagingAsync.getBufferedImage(new byte[] { 1, 2, 3, 4 }).get());
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
+    @Test
+    public void testGetBufferedImage() throws Exception {
+        final BufferedImage image = new BufferedImage(7, 5, BufferedImage.TYPE_INT_RGB);
+        final byte[] bytes = Imaging.writeImageToBytes(image, ImageFormats.PNG);
+        final ImagingAsync imagingAsync = new ImagingAsync();
+        final BufferedImage read = imagingAsync.getBufferedImage(bytes).get(10, TimeUnit.SECONDS);
+        assertEquals(7, read.getWidth());
+        assertEquals(new Dimension(7, 5), imagingAsync.getImageSize(bytes).get(10, TimeUnit.SECONDS));
+        assertEquals(ImageFormats.PNG, imagingAsync.getImageInfo(bytes).get(10, TimeUnit.SECONDS).getFormat());
+    }
+
+    @Test
+    public void testMaxInFlight() throws Exception {
+        final ImagingAsync imagingAsync = new ImagingAsync(executor, 2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int value = i;
+            futures.add(imagingAsync.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(Integer.valueOf(i), futures.get(i).get(10, TimeUnit.SECONDS));
+        }
+        assertTrue(maxRunning.get() <= 2, () -> "max running " + maxRunning);
+    }
+
+    @Test
+    public void testInvalidMaxInFlight() {
+        assertThrows(IllegalArgumentException.class, () -> new ImagingAsync(executor, 0));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ImagingBatchTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    public void afterEach() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testCallbackException() {
+        final List<ByteSource> byteSources = new ArrayList<>();
+        byteSources.add(ByteSource.array(new byte[] { 1, 2, 3, 4 }, "broken.png"));
+        final ImagingBatch.Callback callback = new ImagingBatch.Callback() {
+
+            @Override
+            public void onFailure(final ByteSource byteSource, final Exception exception) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void onImage(final ByteSource byteSource, final BufferedImage image) {
+                // not reached
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> new ImagingBatch(pool).decode(byteSources, callback));
+    }
+
+    @Test
+    public void testDecode() throws Exception {
+        final List<ByteSource> byteSources = new ArrayList<>();
+        long byteCount = 0;
+        for (int i = 1; i <= 20; i++) {
+            final byte[] bytes = Imaging.writeImageToBytes(new BufferedImage(i, 2 * i, BufferedImage.TYPE_INT_RGB), ImageFormats.PNG);
+            byteSources.add(ByteSource.array(bytes, i + ".png"));
+            byteCount += bytes.length;
+        }
+        final ByteSource broken = ByteSource.array(new byte[] { (byte) 0x89, 0x50, 0x4E, 0x47 }, "broken.png");
+        byteSources.add(5, broken);
+
+        final Map<ByteSource, BufferedImage> images = new ConcurrentHashMap<>();
+        final Map<ByteSource, Exception> failures = new ConcurrentHashMap<>();
+        final ImagingBatch.Statistics statistics = new ImagingBatch(pool).decode(byteSources, new ImagingBatch.Callback() {
+
+            @Override
+            public void onFailure(final ByteSource byteSource, final Exception exception) {
+                failures.put(byteSource, exception);
+            }
+
+            @Override
+            public void onImage(final ByteSource byteSource, final BufferedImage image) {
+                images.put(byteSource, image);
+            }
+        });
+
+        assertEquals(20, images.size());
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(broken));
+        for (final Map.Entry<ByteSource, BufferedImage> entry : images.entrySet()) {
+            assertEquals(entry.getKey().getFileName(), entry.getValue().getWidth() + ".png");
+        }
+        assertEquals(20, statistics.getImageCount());
+        assertEquals(1, statistics.getFailureCount());
+        assertEquals(byteCount, statistics.getByteCount());
+        assertTrue(statistics.getImagesPerSecond() > 0);
+    }
+}
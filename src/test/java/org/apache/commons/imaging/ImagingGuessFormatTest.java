@@ -18,12 +18,15 @@
 package org.apache.commons.imaging;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.File;
 import java.util.Arrays;
 import java.util.stream.Stream;
 
+import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.io.FilenameUtils;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -70,4 +73,20 @@ public class ImagingGuessFormatTest extends AbstractImagingTest {
         assertEquals(expectedFormat, guessedFormat);
     }
 
+    @Test
+    public void testGuessFormats() throws Exception {
+        final ByteSource jbig2 = ByteSource.array(new byte[] { (byte) 0x97, 0x4A, 0x42, 0x32, 0x0D, 0x0A, 0x1A, 0x0A });
+        final ByteSource webp = ByteSource.array(new byte[] { 0x52, 0x49, 0x46, 0x46, 0x10, 0, 0, 0, 0x57, 0x45, 0x42, 0x50, 0x56, 0x50, 0x38, 0x20 });
+        final ByteSource wave = ByteSource.array(new byte[] { 0x52, 0x49, 0x46, 0x46, 0x10, 0, 0, 0, 0x57, 0x41, 0x56, 0x45 });
+        final ByteSource tiff = ByteSource.array(new byte[] { 0x49, 0x49, 0x2A, 0 });
+        assertEquals(Arrays.asList(ImageFormats.JBIG2, ImageFormats.WEBP, ImageFormats.UNKNOWN, ImageFormats.TIFF, ImageFormats.UNKNOWN),
+                Imaging.guessFormats(Arrays.asList(jbig2, webp, wave, tiff, null)));
+    }
+
+    @Test
+    public void testGuessFormatTruncated() {
+        assertThrows(IllegalArgumentException.class, () -> Imaging.guessFormat(new byte[] { 0x47 }));
+        assertThrows(IllegalArgumentException.class, () -> Imaging.guessFormat(new byte[] { (byte) 0x97, 0x4A, 0x42 }));
+        assertThrows(IllegalArgumentException.class, () -> Imaging.guessFormat(new byte[] { 0x52, 0x49, 0x46, 0x46, 0x10, 0 }));
+    }
 }
@@ -19,18 +19,22 @@ package org.apache.commons.imaging.bytesource;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.stream.Stream;
 
+import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -41,6 +45,22 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
         ByteSource getByteSource(byte[] src) throws IOException;
     }
 
+    private static final class ByteSourceArrayFactory implements ByteSourceFactory {
+
+        @Override
+        public ByteSource getByteSource(final byte[] src) {
+            return ByteSource.array(src);
+        }
+    }
+
+    private final class ByteSourceChannelFactory implements ByteSourceFactory {
+
+        @Override
+        public ByteSource getByteSource(final byte[] src) throws IOException {
+            return ByteSource.channel(createTempFile(src).toPath());
+        }
+    }
+
     private final class ByteSourceFileFactory implements ByteSourceFactory {
 
         @Override
@@ -72,6 +92,24 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
 
     }
 
+    private static final class ByteSourceInputStreamSpillFactory implements ByteSourceFactory {
+
+        @Override
+        public ByteSource getByteSource(final byte[] src) throws IOException {
+            final ByteArrayInputStream is = new ByteArrayInputStream(src);
+            return ByteSource.inputStream(is, null, 2 * InputStreamByteSource.BLOCK_SIZE);
+        }
+
+    }
+
+    private final class ByteSourceMappedFactory implements ByteSourceFactory {
+
+        @Override
+        public ByteSource getByteSource(final byte[] src) throws IOException {
+            return ByteSource.mapped(createTempFile(src).toPath());
+        }
+    }
+
     private final class ByteSourcePathFactory implements ByteSourceFactory {
 
         @Override
@@ -87,6 +125,18 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
         return Arrays.asList(getTestByteArrays()).stream();
     }
 
+    @ParameterizedTest
+    @MethodSource("data")
+    public void testByteSourceArrayFactory(final byte[] testByteArray) throws Exception {
+        writeAndReadBytes(new ByteSourceArrayFactory(), testByteArray);
+    }
+
+    @ParameterizedTest
+    @MethodSource("data")
+    public void testByteSourceChannelFactory(final byte[] testByteArray) throws Exception {
+        writeAndReadBytes(new ByteSourceChannelFactory(), testByteArray);
+    }
+
     @ParameterizedTest
     @MethodSource("data")
     public void testByteSourceFileFactory(final byte[] testByteArray) throws Exception {
@@ -105,14 +155,25 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
         writeAndReadBytes(new ByteSourceInputStreamRawFactory(), testByteArray);
     }
 
+    @ParameterizedTest
+    @MethodSource("data")
+    public void testByteSourceInputStreamSpillFactory(final byte[] testByteArray) throws Exception {
+        writeAndReadBytes(new ByteSourceInputStreamSpillFactory(), testByteArray);
+    }
+
+    @ParameterizedTest
+    @MethodSource("data")
+    public void testByteSourceMappedFactory(final byte[] testByteArray) throws Exception {
+        writeAndReadBytes(new ByteSourceMappedFactory(), testByteArray);
+    }
+
     @ParameterizedTest
     @MethodSource("data")
     public void testByteSourcePathFactory(final byte[] testByteArray) throws Exception {
         writeAndReadBytes(new ByteSourcePathFactory(), testByteArray);
     }
 
-    protected void writeAndReadBytes(final ByteSourceFactory byteSourceFactory, final byte[] src) throws IOException {
-        final ByteSource byteSource = byteSourceFactory.getByteSource(src);
+    private void readBytes(final ByteSource byteSource, final byte[] src) throws IOException {
         // test cache during interrupted read cache by reading only first N
         // bytes.
         {
@@ -143,6 +204,30 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
                 }
             }
         }
+        // test positional reads.
+        {
+            final byte[] dst = new byte[src.length + 2];
+            byteSource.readInto(src.length / 3, dst, 1, src.length - src.length / 3);
+            assertArrayEquals(Arrays.copyOfRange(src, src.length / 3, src.length), Arrays.copyOfRange(dst, 1, 1 + src.length - src.length / 3));
+            assertThrows(ImagingException.class, () -> byteSource.readInto(src.length / 2, dst, 0, src.length - src.length / 2 + 1));
+
+            final ByteBuffer buffer = ByteBuffer.allocate(src.length + 1);
+            assertEquals(src.length == 0 ? -1 : src.length, byteSource.read(0, buffer));
+            assertArrayEquals(src, Arrays.copyOf(buffer.array(), src.length));
+            assertEquals(-1, byteSource.read(src.length, buffer));
+        }
 
     }
+
+    protected void writeAndReadBytes(final ByteSourceFactory byteSourceFactory, final byte[] src) throws IOException {
+        final ByteSource byteSource = byteSourceFactory.getByteSource(src);
+        try {
+            readBytes(byteSource, src);
+        } finally {
+            // channel sources hold their file open, spilling stream sources their spill file
+            if (byteSource instanceof Closeable) {
+                ((Closeable) byteSource).close();
+            }
+        }
+    }
 }
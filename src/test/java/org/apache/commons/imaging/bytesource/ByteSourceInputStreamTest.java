@@ -16,13 +16,21 @@
  */
 package org.apache.commons.imaging.bytesource;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.apache.commons.imaging.Imaging;
 import org.apache.commons.imaging.ImagingException;
@@ -36,6 +44,45 @@ final class ByteSourceInputStreamTest {
     public static final int ICO_IMAGE_WIDTH = 300;
     public static final int ICO_IMAGE_HEIGHT = 225;
 
+    private static byte[] randomBytes(final int length) {
+        final byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testGetByteArrayReadsOnlyAsFarAsNeeded() throws IOException {
+        final byte[] bytes = randomBytes(10 * InputStreamByteSource.BLOCK_SIZE);
+        final ByteArrayInputStream is = new ByteArrayInputStream(bytes);
+        final ByteSource byteSource = ByteSource.inputStream(is, null);
+        assertArrayEquals(Arrays.copyOfRange(bytes, 100, 200), byteSource.getByteArray(100, 100));
+        assertEquals(9 * InputStreamByteSource.BLOCK_SIZE, is.available());
+        assertEquals(bytes.length, byteSource.size());
+        assertThrows(ImagingException.class, () -> byteSource.getByteArray(bytes.length - 1, 2));
+    }
+
+    @Test
+    public void testRandomAccessWithSpill() throws IOException {
+        final int blockSize = InputStreamByteSource.BLOCK_SIZE;
+        final byte[] bytes = randomBytes(7 * blockSize + 123);
+        final ByteSource byteSource = ByteSource.inputStream(new ByteArrayInputStream(bytes), null, 2 * blockSize);
+        final Random random = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            final int position = random.nextInt(bytes.length);
+            final int length = random.nextInt(Math.min(bytes.length - position, 3 * blockSize) + 1);
+            assertArrayEquals(Arrays.copyOfRange(bytes, position, position + length), byteSource.getByteArray(position, length));
+        }
+        try (InputStream is = ByteSource.getInputStream(byteSource, 3 * blockSize - 1)) {
+            assertEquals(0xff & bytes[3 * blockSize - 1], is.read());
+            assertEquals(0xff & bytes[3 * blockSize], is.read());
+        }
+        assertEquals(bytes.length, byteSource.size());
+        // closing deletes the spill file
+        ((Closeable) byteSource).close();
+        assertThrows(ClosedChannelException.class, () -> byteSource.getByteArray(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> ByteSource.inputStream(new ByteArrayInputStream(bytes), null, -1));
+    }
+
     @Test
     public void testReadFromStream() throws IOException, ImagingException {
 
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.bytesource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+public class FileChannelByteSourceTest extends AbstractByteSourceTest {
+
+    private static byte[] randomBytes(final int length) {
+        final byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testOpenChannel() throws IOException {
+        final byte[] bytes = randomBytes(3 * FileChannelByteSource.HEADER_SIZE);
+        final File file = createTempFile(bytes);
+        try (FileChannelByteSource byteSource = ByteSource.file(file).openChannel()) {
+            assertArrayEquals(Arrays.copyOfRange(bytes, 100, 9000), byteSource.getByteArray(100, 8900));
+            assertNull(byteSource.openChannel());
+        }
+        assertNull(ByteSource.array(bytes).openChannel());
+        assertNull(ByteSource.mapped(file).openChannel());
+    }
+
+    @Test
+    public void testReadAcrossHeader() throws IOException {
+        final byte[] bytes = randomBytes(3 * FileChannelByteSource.HEADER_SIZE);
+        try (FileChannelByteSource byteSource = ByteSource.channel(createTempFile(bytes))) {
+            final int position = FileChannelByteSource.HEADER_SIZE - 10;
+            final ByteBuffer buffer = ByteBuffer.allocate(100);
+            assertEquals(100, byteSource.read(position, buffer));
+            assertArrayEquals(Arrays.copyOfRange(bytes, position, position + 100), buffer.array());
+            final int length = 2 * FileChannelByteSource.HEADER_SIZE;
+            assertArrayEquals(Arrays.copyOfRange(bytes, 5, 5 + length), byteSource.getByteArray(5, length));
+            try (InputStream is = ByteSource.getInputStream(byteSource, 7)) {
+                assertArrayEquals(Arrays.copyOfRange(bytes, 7, bytes.length), IOUtils.toByteArray(is));
+            }
+        }
+    }
+
+    @Test
+    public void testReadAfterClose() throws IOException {
+        final byte[] bytes = randomBytes(2 * FileChannelByteSource.HEADER_SIZE);
+        final FileChannelByteSource byteSource = ByteSource.channel(createTempFile(bytes));
+        assertArrayEquals(Arrays.copyOf(bytes, 4), byteSource.getByteArray(0, 4));
+        byteSource.close();
+        assertThrows(ClosedChannelException.class, () -> byteSource.getByteArray(0, 4));
+        assertThrows(ClosedChannelException.class, () -> byteSource.getByteArray(bytes.length - 4, 4));
+        byteSource.close();
+    }
+
+    @Test
+    public void testReadAfterInterrupt() throws IOException {
+        final byte[] bytes = randomBytes(2 * FileChannelByteSource.HEADER_SIZE);
+        try (FileChannelByteSource byteSource = ByteSource.channel(createTempFile(bytes))) {
+            assertArrayEquals(Arrays.copyOf(bytes, 4), byteSource.getByteArray(0, 4));
+            Thread.currentThread().interrupt();
+            try {
+                assertThrows(ClosedByInterruptException.class, () -> byteSource.getByteArray(bytes.length - 4, 4));
+            } finally {
+                Thread.interrupted();
+            }
+            // the channel closed by the interrupt is replaced
+            assertArrayEquals(Arrays.copyOfRange(bytes, bytes.length - 4, bytes.length), byteSource.getByteArray(bytes.length - 4, 4));
+        }
+    }
+}
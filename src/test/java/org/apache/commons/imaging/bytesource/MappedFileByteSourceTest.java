@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.bytesource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+public class MappedFileByteSourceTest extends AbstractByteSourceTest {
+
+    private static final int WINDOW_STRIDE = 64;
+    private static final int WINDOW_OVERLAP = 16;
+
+    private byte[] bytes;
+    private ByteSource byteSource;
+
+    private void map(final int length) throws IOException {
+        bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 7);
+        }
+        byteSource = new MappedFileByteSource(createTempFile(bytes).toPath(), WINDOW_STRIDE, WINDOW_OVERLAP);
+    }
+
+    @Test
+    public void testGetByteArrayAcrossWindows() throws IOException {
+        map(5 * WINDOW_STRIDE + 3);
+        assertEquals(bytes.length, byteSource.size());
+        for (int position = 0; position < bytes.length; position += 5) {
+            for (final int length : new int[] { 0, 1, WINDOW_OVERLAP, WINDOW_STRIDE + 1, 3 * WINDOW_STRIDE }) {
+                if (position + length <= bytes.length) {
+                    assertArrayEquals(Arrays.copyOfRange(bytes, position, position + length), byteSource.getByteArray(position, length));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGetByteBuffer() throws IOException {
+        map(3 * WINDOW_STRIDE);
+        for (final int position : new int[] { 0, 10, WINDOW_STRIDE - 4, 2 * WINDOW_STRIDE + 1 }) {
+            for (final int length : new int[] { 1, WINDOW_OVERLAP, 2 * WINDOW_STRIDE }) {
+                if (position + length <= bytes.length) {
+                    final ByteBuffer buffer = byteSource.getByteBuffer(position, length);
+                    assertTrue(buffer.isReadOnly());
+                    assertEquals(length, buffer.remaining());
+                    final byte[] actual = new byte[length];
+                    buffer.get(actual);
+                    assertArrayEquals(Arrays.copyOfRange(bytes, position, position + length), actual);
+                }
+            }
+        }
+        // slices within a window and its overlap are views of the mapping
+        assertTrue(byteSource.getByteBuffer(WINDOW_STRIDE - 4, WINDOW_OVERLAP).isDirect());
+    }
+
+    @Test
+    public void testGetInputStream() throws IOException {
+        map(4 * WINDOW_STRIDE + 9);
+        try (InputStream is = byteSource.getInputStream()) {
+            assertArrayEquals(bytes, IOUtils.toByteArray(is));
+        }
+        try (InputStream is = ByteSource.getInputStream(byteSource, WINDOW_STRIDE + 1)) {
+            assertEquals(0xff & bytes[WINDOW_STRIDE + 1], is.read());
+        }
+    }
+
+    @Test
+    public void testOutOfRange() throws IOException {
+        map(WINDOW_STRIDE);
+        assertThrows(ImagingException.class, () -> byteSource.getByteArray(WINDOW_STRIDE - 1, 2));
+        assertThrows(ImagingException.class, () -> byteSource.getByteArray(-1, 1));
+        assertThrows(ImagingException.class, () -> byteSource.getByteBuffer(0, WINDOW_STRIDE + 1));
+    }
+}
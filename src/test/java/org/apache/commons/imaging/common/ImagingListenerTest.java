@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.imaging.ImageFormat;
+import org.apache.commons.imaging.ImageFormats;
+import org.apache.commons.imaging.Imaging;
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.bmp.BmpImageParser;
+import org.apache.commons.imaging.formats.bmp.BmpImagingParameters;
+import org.apache.commons.imaging.formats.gif.GifImageParser;
+import org.apache.commons.imaging.formats.gif.GifImagingParameters;
+import org.apache.commons.imaging.formats.jpeg.JpegImageParser;
+import org.apache.commons.imaging.formats.jpeg.JpegImagingParameters;
+import org.apache.commons.imaging.formats.png.PngImageParser;
+import org.apache.commons.imaging.formats.png.PngImagingParameters;
+import org.apache.commons.imaging.formats.tiff.TiffImageParser;
+import org.apache.commons.imaging.formats.tiff.TiffImagingParameters;
+import org.apache.commons.imaging.test.TestResources;
+import org.junit.jupiter.api.Test;
+
+public class ImagingListenerTest {
+
+    private static final class Recorder implements ImagingListener {
+
+        private final List<ImagingPhase> phases = new ArrayList<>();
+        private ImageFormat format;
+        private long bytesRead;
+
+        private void assertPhases(final ImageFormat expectedFormat, final long length, final ImagingPhase... expectedPhases) {
+            assertSame(expectedFormat, format);
+            final Set<ImagingPhase> expected = EnumSet.noneOf(ImagingPhase.class);
+            for (final ImagingPhase phase : expectedPhases) {
+                expected.add(phase);
+            }
+            assertEquals(expected, EnumSet.copyOf(phases));
+            // each phase is reported once, in order
+            assertEquals(new ArrayList<>(EnumSet.copyOf(phases)), phases);
+            assertTrue(bytesRead > 0 && bytesRead <= length, () -> bytesRead + " bytes read of " + length);
+        }
+
+        @Override
+        public void phaseCompleted(final ImageFormat format, final ImagingPhase phase, final long elapsedNanos, final long bytesRead,
+                final long bytesAllocated) {
+            this.format = format;
+            phases.add(phase);
+            this.bytesRead += bytesRead;
+            assertTrue(elapsedNanos >= 0);
+            assertTrue(bytesAllocated >= -1);
+        }
+    }
+
+    private static BufferedImage createImage() {
+        final BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x & 3) * 0x400000 + (y & 3) * 0x4000);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    public void testBmp() throws ImagingException, IOException {
+        final byte[] bytes = Imaging.writeImageToBytes(createImage(), ImageFormats.BMP);
+        final Recorder recorder = new Recorder();
+        new BmpImageParser().getBufferedImage(ByteSource.array(bytes), new BmpImagingParameters().setImagingListener(recorder));
+        recorder.assertPhases(ImageFormats.BMP, bytes.length, ImagingPhase.HEADER, ImagingPhase.COLOR_CONVERT, ImagingPhase.RASTER_BUILD);
+    }
+
+    @Test
+    public void testGif() throws ImagingException, IOException {
+        final byte[] bytes = Imaging.writeImageToBytes(createImage(), ImageFormats.GIF);
+        final Recorder recorder = new Recorder();
+        new GifImageParser().getBufferedImage(ByteSource.array(bytes), new GifImagingParameters().setImagingListener(recorder));
+        recorder.assertPhases(ImageFormats.GIF, bytes.length, ImagingPhase.HEADER, ImagingPhase.DECOMPRESS, ImagingPhase.COLOR_CONVERT,
+                ImagingPhase.RASTER_BUILD);
+    }
+
+    @Test
+    public void testJpeg() throws ImagingException, IOException {
+        final File file = TestResources.resourceToFile("/images/jpeg/iptc/IMAGING-168/111083453-c07f1880-851e-11eb-8b61-2757f7d934bf.jpg");
+        final Recorder recorder = new Recorder();
+        new JpegImageParser().getBufferedImage(ByteSource.file(file), new JpegImagingParameters().setImagingListener(recorder));
+        recorder.assertPhases(ImageFormats.JPEG, Files.size(file.toPath()), ImagingPhase.HEADER, ImagingPhase.DECOMPRESS, ImagingPhase.RASTER_BUILD);
+    }
+
+    @Test
+    public void testNoListener() throws ImagingException, IOException {
+        final BufferedImage image = createImage();
+        final byte[] bytes = Imaging.writeImageToBytes(image, ImageFormats.PNG);
+        assertEquals(image.getRGB(5, 7), new PngImageParser().getBufferedImage(ByteSource.array(bytes), new PngImagingParameters()).getRGB(5, 7));
+    }
+
+    @Test
+    public void testPng() throws ImagingException, IOException {
+        final byte[] bytes = Imaging.writeImageToBytes(createImage(), ImageFormats.PNG);
+        final Recorder recorder = new Recorder();
+        new PngImageParser().getBufferedImage(ByteSource.array(bytes), new PngImagingParameters().setImagingListener(recorder));
+        recorder.assertPhases(ImageFormats.PNG, bytes.length, ImagingPhase.HEADER, ImagingPhase.DECOMPRESS, ImagingPhase.UNFILTER,
+                ImagingPhase.COLOR_CONVERT, ImagingPhase.RASTER_BUILD);
+    }
+
+    @Test
+    public void testTiff() throws ImagingException, IOException {
+        final byte[] bytes = Imaging.writeImageToBytes(createImage(), ImageFormats.TIFF);
+        final Recorder recorder = new Recorder();
+        new TiffImageParser().getBufferedImage(ByteSource.array(bytes), new TiffImagingParameters().setImagingListener(recorder));
+        recorder.assertPhases(ImageFormats.TIFF, bytes.length, ImagingPhase.HEADER, ImagingPhase.DECOMPRESS, ImagingPhase.UNFILTER,
+                ImagingPhase.COLOR_CONVERT, ImagingPhase.RASTER_BUILD);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.imaging.ImageFormats;
+import org.apache.commons.imaging.Imaging;
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.bmp.BmpImageParser;
+import org.apache.commons.imaging.formats.bmp.BmpImagingParameters;
+import org.apache.commons.imaging.formats.tiff.TiffImageParser;
+import org.apache.commons.imaging.formats.tiff.TiffImagingParameters;
+import org.apache.commons.imaging.roundtrip.ImageAsserts;
+import org.apache.commons.imaging.roundtrip.TestImages;
+import org.junit.jupiter.api.Test;
+
+public class PixelBufferPoolTest {
+
+    @Test
+    public void testArraysAreReusedAndCleared() {
+        final PixelBufferPool pool = new PixelBufferPool(1 << 20);
+        final int[] ints = pool.intArray(5000);
+        assertEquals(5120, ints.length);
+        ints[0] = 1;
+        ints[4999] = 2;
+        pool.release(ints);
+        assertEquals(5120L * Integer.BYTES, pool.getRetainedBytes());
+        final int[] reused = pool.intArray(5100);
+        assertSame(ints, reused);
+        assertEquals(0, reused[0]);
+        assertEquals(0, reused[4999]);
+        assertEquals(0, pool.getRetainedBytes());
+
+        final byte[] bytes = pool.byteArray(10_000);
+        bytes[9_999] = 1;
+        pool.release(bytes);
+        assertSame(bytes, pool.byteArray(bytes.length));
+        assertEquals(0, bytes[9_999]);
+    }
+
+    @Test
+    public void testClassLength() {
+        assertEquals(4096, PixelBufferPool.classLength(4096));
+        assertEquals(5120, PixelBufferPool.classLength(4097));
+        assertEquals(6144, PixelBufferPool.classLength(5121));
+        assertEquals(7168, PixelBufferPool.classLength(6145));
+        assertEquals(8192, PixelBufferPool.classLength(7169));
+        assertEquals(1 << 30, PixelBufferPool.classLength((1 << 30) - 1));
+        for (int length = PixelBufferPool.MIN_POOLED_LENGTH; length < 1 << 20; length += 997) {
+            final int classLength = PixelBufferPool.classLength(length);
+            assertEquals(classLength, PixelBufferPool.classLength(classLength));
+            assertTrue(classLength >= length && classLength - length <= length / 4);
+        }
+    }
+
+    @Test
+    public void testDecodeWithPool() throws ImagingException, IOException {
+        final BufferedImage source = TestImages.createPatternImage(100, 70, BufferedImage.TYPE_INT_RGB);
+        final PixelBufferPool pool = new PixelBufferPool(1 << 20);
+
+        final byte[] bmp = Imaging.writeImageToBytes(source, ImageFormats.BMP);
+        final BufferedImage first = new BmpImageParser().getBufferedImage(ByteSource.array(bmp), new BmpImagingParameters().setPixelBufferPool(pool));
+        ImageAsserts.assertImageEquals(source, first);
+        final int[] pixels = ((DataBufferInt) first.getRaster().getDataBuffer()).getData();
+        pool.release(first);
+
+        final byte[] tiff = Imaging.writeImageToBytes(source, ImageFormats.TIFF);
+        final BufferedImage second = new TiffImageParser().getBufferedImage(ByteSource.array(tiff), new TiffImagingParameters().setPixelBufferPool(pool));
+        assertSame(pixels, ((DataBufferInt) second.getRaster().getDataBuffer()).getData());
+        ImageAsserts.assertImageEquals(source, second);
+    }
+
+    @Test
+    public void testSubImageReleasesWorkingPixels() throws ImagingException, IOException {
+        // 3 strips of 26 rows
+        final BufferedImage source = TestImages.createPatternImage(100, 78, BufferedImage.TYPE_INT_RGB);
+        final TiffImageParser parser = new TiffImageParser();
+
+        // strips are read whole, all rows of the image are decoded before the sub-image is copied out
+        final byte[] strips = Imaging.writeImageToBytes(source, ImageFormats.TIFF);
+        PixelBufferPool pool = new PixelBufferPool(1 << 20);
+        ImageAsserts.assertImageEquals(source.getSubimage(10, 0, 50, 78),
+                parser.getBufferedImage(ByteSource.array(strips), new TiffImagingParameters().setPixelBufferPool(pool).setSubImage(10, 0, 50, 78)));
+        long retainedBytes = pool.getRetainedBytes();
+        pool.intArray(100 * 78);
+        assertEquals(retainedBytes - PixelBufferPool.classLength(100 * 78) * Integer.BYTES, pool.getRetainedBytes());
+
+        // the 2 x 2 tiles covering the sub-image are decoded before it is copied out
+        final ByteArrayOutputStream tiles = new ByteArrayOutputStream();
+        parser.writeImage(source, tiles, new TiffImagingParameters().setTileSize(32, 32));
+        pool = new PixelBufferPool(1 << 20);
+        ImageAsserts.assertImageEquals(source.getSubimage(1, 0, 63, 64),
+                parser.getBufferedImage(ByteSource.array(tiles.toByteArray()), new TiffImagingParameters().setPixelBufferPool(pool).setSubImage(1, 0, 63, 64)));
+        retainedBytes = pool.getRetainedBytes();
+        pool.intArray(64 * 64);
+        assertEquals(retainedBytes - PixelBufferPool.classLength(64 * 64) * Integer.BYTES, pool.getRetainedBytes());
+    }
+
+    @Test
+    public void testLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new PixelBufferPool(-1));
+        final PixelBufferPool pool = new PixelBufferPool(8192);
+        // too short to be pooled
+        final int[] small = pool.intArray(100);
+        assertEquals(100, small.length);
+        pool.release(small);
+        // not the length of a size class
+        pool.release(new int[4097]);
+        assertEquals(0, pool.getRetainedBytes());
+        // over the limit
+        pool.release(new int[4096]);
+        pool.release(pool.byteArray(4096));
+        assertEquals(4096, pool.getRetainedBytes());
+    }
+}
@@ -123,6 +123,49 @@ public class DctTest {
         }
     }
 
+    @Test
+    public void testReducedInverseDct() {
+        final double[][] coefficients = new double[8][8];
+        for (int v = 0; v < 8; v++) {
+            for (int u = 0; u < 8; u++) {
+                coefficients[v][u] = 100.0 / (1 + u + 2 * v) - 7 * ((u + v) % 3);
+            }
+        }
+        for (final int size : new int[] { 1, 2, 4 }) {
+            final float[] data = new float[64];
+            for (int v = 0; v < 8; v++) {
+                for (int u = 0; u < 8; u++) {
+                    data[8 * v + u] = (float) coefficients[v][u];
+                }
+            }
+            Dct.inverseDctReduced(data, size);
+            // the size-point inverse DCT of the lowest frequencies, with the normalization of the 8-point one
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    double sum = 0;
+                    for (int v = 0; v < size; v++) {
+                        for (int u = 0; u < size; u++) {
+                            final double cu = u == 0 ? 1.0 / Math.sqrt(2) : 1;
+                            final double cv = v == 0 ? 1.0 / Math.sqrt(2) : 1;
+                            sum += cu * cv * coefficients[v][u] * Math.cos((2 * x + 1) * u * Math.PI / (2 * size))
+                                    * Math.cos((2 * y + 1) * v * Math.PI / (2 * size));
+                        }
+                    }
+                    assertEquals(0.25 * sum, data[size * y + x], 0.001);
+                }
+            }
+        }
+
+        // with only a DC coefficient, every size gives the average of the full inverse DCT
+        final double[][] dcOnly = new double[8][8];
+        dcOnly[0][0] = 80;
+        final double[][] reference = REFERENCE_inverseDCT(dcOnly);
+        final float[] data = new float[64];
+        data[0] = 80;
+        Dct.inverseDctReduced(data, 1);
+        assertEquals(reference[3][5], data[0], 0.001);
+    }
+
     @Test
     public void testVectors() {
         final float[] originalData = new float[8];
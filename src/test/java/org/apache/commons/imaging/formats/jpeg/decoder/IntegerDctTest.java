@@ -0,0 +1,77 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IntegerDctTest {
+
+    private static double[] referenceInverseDct(final int[] coefficients) {
+        final double[] samples = new double[64];
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                double sum = 0;
+                for (int v = 0; v < 8; v++) {
+                    for (int u = 0; u < 8; u++) {
+                        final double cu = u == 0 ? 1.0 / Math.sqrt(2) : 1;
+                        final double cv = v == 0 ? 1.0 / Math.sqrt(2) : 1;
+                        sum += cu * cv * coefficients[8 * v + u] * Math.cos((2 * x + 1) * u * Math.PI / 16) * Math.cos((2 * y + 1) * v * Math.PI / 16);
+                    }
+                }
+                samples[8 * y + x] = 0.25 * sum;
+            }
+        }
+        return samples;
+    }
+
+    @Test
+    public void testInverseDct() {
+        final Random random = new Random(1);
+        for (final int q : new int[] { 1, 2, 16, 50 }) {
+            final int[] quantizationMatrix = new int[64];
+            Arrays.fill(quantizationMatrix, q);
+            final int[] fastMatrix = IntegerDct.fastDequantizationMatrix(quantizationMatrix);
+            for (int n = 0; n < 1000; n++) {
+                final int[] quantized = new int[64];
+                final int nonZero = 1 + random.nextInt(64);
+                for (int i = 0; i < nonZero; i++) {
+                    final int k = random.nextInt(64);
+                    quantized[k] = (int) (random.nextGaussian() * (k == 0 ? 300 : 60) / q);
+                }
+                final int[] dequantized = new int[64];
+                for (int i = 0; i < 64; i++) {
+                    dequantized[i] = quantized[i] * q;
+                }
+                final double[] expected = referenceInverseDct(dequantized);
+
+                final int[] accurate = dequantized.clone();
+                IntegerDct.inverseDctAccurate(accurate);
+                final int[] fast = quantized.clone();
+                IntegerDct.dequantizeFast(fast, fastMatrix);
+                IntegerDct.inverseDctFast(fast);
+                for (int i = 0; i < 64; i++) {
+                    assertTrue(Math.abs(accurate[i] - expected[i]) <= 1.5);
+                    assertTrue(Math.abs(fast[i] - expected[i]) <= 2.5);
+                }
+            }
+        }
+    }
+}
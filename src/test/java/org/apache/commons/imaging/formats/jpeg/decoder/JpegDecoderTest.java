@@ -17,12 +17,24 @@
 
 package org.apache.commons.imaging.formats.jpeg.decoder;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageIO;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.jpeg.JpegIdctMethod;
+import org.apache.commons.imaging.formats.jpeg.JpegImagingParameters;
 import org.apache.commons.imaging.test.TestResources;
 import org.junit.jupiter.api.Test;
 
@@ -41,4 +53,181 @@ public class JpegDecoderTest {
         final ByteSource byteSourceFile = ByteSource.file(inputFile);
         assertThrows(ImagingException.class, () -> new JpegDecoder().decode(byteSourceFile));
     }
+
+    @Test
+    public void testDecodeIntegerIdct() throws ImagingException, IOException {
+        final File inputFile = TestResources.resourceToFile("/images/jpeg/photoshop/IMAGING-246/FallHarvestKitKat_07610.jpg");
+        final BufferedImage expected = new JpegDecoder().decode(ByteSource.file(inputFile));
+        for (final JpegIdctMethod idctMethod : new JpegIdctMethod[] { JpegIdctMethod.INTEGER_ACCURATE, JpegIdctMethod.INTEGER_FAST }) {
+            final BufferedImage image = new JpegDecoder(new JpegImagingParameters().setIdctMethod(idctMethod)).decode(ByteSource.file(inputFile));
+            long difference = 0;
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    final int rgb = image.getRGB(x, y);
+                    final int expectedRgb = expected.getRGB(x, y);
+                    for (int shift = 0; shift < 24; shift += 8) {
+                        final int d = Math.abs((rgb >> shift & 0xff) - (expectedRgb >> shift & 0xff));
+                        assertTrue(d <= 4);
+                        difference += d;
+                    }
+                }
+            }
+            assertTrue(difference < 3L * image.getWidth() * image.getHeight() / 4);
+        }
+    }
+
+    @Test
+    public void testDecodeProgressive() throws ImagingException, IOException {
+        // progressive JPEG with spectral selection and successive approximation scans
+        final File inputFile = TestResources.resourceToFile("/images/jpeg/iptc/IMAGING-168/111083453-c07f1880-851e-11eb-8b61-2757f7d934bf.jpg");
+        final BufferedImage image = new JpegDecoder().decode(ByteSource.file(inputFile));
+        final BufferedImage expected = ImageIO.read(inputFile);
+
+        assertEquals(expected.getWidth(), image.getWidth());
+        assertEquals(expected.getHeight(), image.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                final int rgb = image.getRGB(x, y);
+                final int expectedRgb = expected.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    // the IDCT and color conversion round differently
+                    assertTrue(Math.abs((rgb >> shift & 0xff) - (expectedRgb >> shift & 0xff)) <= 4);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeRestartIntervalsInParallel() throws ImagingException, IOException {
+        // baseline JPEG with a DRI segment
+        final File inputFile = TestResources.resourceToFile("/images/jpeg/photoshop/IMAGING-246/FallHarvestKitKat_07610.jpg");
+        final BufferedImage sequential = new JpegDecoder().decode(ByteSource.file(inputFile));
+        final JpegImagingParameters params = new JpegImagingParameters().setRestartIntervalExecutor(ForkJoinPool.commonPool());
+        final BufferedImage parallel = new JpegDecoder(params).decode(ByteSource.file(inputFile));
+
+        assertEquals(sequential.getWidth(), parallel.getWidth());
+        assertEquals(sequential.getHeight(), parallel.getHeight());
+        for (int y = 0; y < sequential.getHeight(); y++) {
+            for (int x = 0; x < sequential.getWidth(); x++) {
+                assertEquals(sequential.getRGB(x, y), parallel.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeScaled() throws ImagingException, IOException {
+        final File inputFile = TestResources.resourceToFile("/images/jpeg/photoshop/IMAGING-246/FallHarvestKitKat_07610.jpg");
+        final BufferedImage full = new JpegDecoder().decode(ByteSource.file(inputFile));
+        for (final int scale : new int[] { 2, 4, 8 }) {
+            final JpegImagingParameters params = new JpegImagingParameters().setScaleDenominator(scale);
+            final BufferedImage scaled = new JpegDecoder(params).decode(ByteSource.file(inputFile));
+
+            assertEquals((full.getWidth() + scale - 1) / scale, scaled.getWidth());
+            assertEquals((full.getHeight() + scale - 1) / scale, scaled.getHeight());
+            // the scaled image is close to the average of the full size pixels it covers
+            long difference = 0;
+            for (int y = 0; y < full.getHeight() / scale; y++) {
+                for (int x = 0; x < full.getWidth() / scale; x++) {
+                    final int rgb = scaled.getRGB(x, y);
+                    for (int shift = 0; shift < 24; shift += 8) {
+                        int sum = 0;
+                        for (int yy = 0; yy < scale; yy++) {
+                            for (int xx = 0; xx < scale; xx++) {
+                                sum += full.getRGB(scale * x + xx, scale * y + yy) >> shift & 0xff;
+                            }
+                        }
+                        difference += Math.abs(sum / (scale * scale) - (rgb >> shift & 0xff));
+                    }
+                }
+            }
+            assertTrue(difference < 2L * 3 * (full.getWidth() / scale) * (full.getHeight() / scale));
+        }
+    }
+
+    @Test
+    public void testDecodeSubImage() throws ImagingException, IOException {
+        // baseline JPEG with a DRI segment, so whole restart intervals are skipped, and a progressive JPEG
+        for (final String path : new String[] { "/images/jpeg/photoshop/IMAGING-246/FallHarvestKitKat_07610.jpg",
+                "/images/jpeg/iptc/IMAGING-168/111083453-c07f1880-851e-11eb-8b61-2757f7d934bf.jpg" }) {
+            final File inputFile = TestResources.resourceToFile(path);
+            final BufferedImage full = new JpegDecoder().decode(ByteSource.file(inputFile));
+            final int x = full.getWidth() / 3 + 5;
+            final int y = full.getHeight() / 2 + 3;
+            final int width = full.getWidth() / 4;
+            final int height = full.getHeight() / 5;
+            final JpegImagingParameters params = new JpegImagingParameters().setSubImage(x, y, width, height);
+            final BufferedImage subImage = new JpegDecoder(params).decode(ByteSource.file(inputFile));
+
+            assertEquals(width, subImage.getWidth());
+            assertEquals(height, subImage.getHeight());
+            for (int yy = 0; yy < height; yy++) {
+                for (int xx = 0; xx < width; xx++) {
+                    assertEquals(full.getRGB(x + xx, y + yy), subImage.getRGB(xx, yy));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeSubImageOutsideRaster() {
+        final File inputFile = TestResources.resourceToFile("/images/jpeg/photoshop/IMAGING-246/FallHarvestKitKat_07610.jpg");
+        final JpegImagingParameters params = new JpegImagingParameters().setSubImage(1900, 0, 100, 100);
+        assertThrows(ImagingException.class, () -> new JpegDecoder(params).decode(ByteSource.file(inputFile)));
+    }
+
+    @Test
+    public void testDecodeToSink() throws ImagingException, IOException {
+        final File baseline = TestResources.resourceToFile("/images/jpeg/photoshop/IMAGING-246/FallHarvestKitKat_07610.jpg");
+        final File progressive = TestResources.resourceToFile("/images/jpeg/iptc/IMAGING-168/111083453-c07f1880-851e-11eb-8b61-2757f7d934bf.jpg");
+        final JpegImagingParameters[] paramsList = { new JpegImagingParameters(),
+                new JpegImagingParameters().setRestartIntervalExecutor(ForkJoinPool.commonPool()), new JpegImagingParameters().setSubImage(17, 21, 50, 40),
+                new JpegImagingParameters().setScaleDenominator(4) };
+        for (final File inputFile : new File[] { baseline, progressive }) {
+            for (final JpegImagingParameters params : paramsList) {
+                final BufferedImage expected = new JpegDecoder(params).decode(ByteSource.file(inputFile));
+                final int[] pixels = new int[expected.getWidth() * expected.getHeight()];
+                final int[] nextRow = new int[1];
+                new JpegDecoder(params).decode(ByteSource.file(inputFile), new JpegScanlineSink() {
+                    @Override
+                    public void begin(final int width, final int height) {
+                        assertEquals(expected.getWidth(), width);
+                        assertEquals(expected.getHeight(), height);
+                    }
+
+                    @Override
+                    public void rows(final int y, final int height, final int[] rowPixels) {
+                        // rows arrive in order, at most an MCU row at a time
+                        assertEquals(nextRow[0], y);
+                        assertTrue(height > 0 && height <= 16);
+                        System.arraycopy(rowPixels, 0, pixels, y * expected.getWidth(), height * expected.getWidth());
+                        nextRow[0] += height;
+                    }
+                });
+                assertEquals(expected.getHeight(), nextRow[0]);
+                assertArrayEquals(expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+                        Arrays.stream(pixels).map(rgb -> 0xff000000 | rgb).toArray());
+            }
+        }
+    }
+
+    @Test
+    public void testSetInvalidScaleDenominator() {
+        assertThrows(IllegalArgumentException.class, () -> new JpegImagingParameters().setScaleDenominator(3));
+    }
+
+    @Test
+    public void testSplitByRstMarkersWithOffset() throws ImagingException {
+        // two header bytes, then 0x12 RST0 0x34 0x56 RST1 0x78
+        final byte[] imageData = { 0x00, 0x02, 0x12, (byte) 0xff, (byte) 0xd0, 0x34, 0x56, (byte) 0xff, (byte) 0xd1, 0x78 };
+        assertEquals(Arrays.asList(2, 5, 9), JpegDecoder.getIntervalStartPositions(imageData, 2, imageData.length - 2));
+
+        final JpegInputStream[] streams = JpegDecoder.splitByRstMarkers(imageData, 2, imageData.length - 2);
+        assertEquals(3, streams.length);
+        assertEquals(0x12, streams[0].getBits(8));
+        assertFalse(streams[0].hasNext());
+        assertEquals(0x3456, streams[1].getBits(16));
+        assertFalse(streams[1].hasNext());
+        assertEquals(0x78, streams[2].getBits(8));
+        assertFalse(streams[2].hasNext());
+    }
 }
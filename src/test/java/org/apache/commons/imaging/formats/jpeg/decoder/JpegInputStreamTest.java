@@ -16,7 +16,10 @@
  */
 package org.apache.commons.imaging.formats.jpeg.decoder;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.commons.imaging.ImagingException;
 import org.junit.jupiter.api.Test;
@@ -28,9 +31,24 @@ import org.junit.jupiter.api.Test;
  **/
 public class JpegInputStreamTest {
 
+    @Test
+    public void testGetBitsRemovesByteStuffing() throws ImagingException {
+        final byte[] byteArray = { (byte) 0xa5, (byte) 0xff, 0x00, 0x3c };
+        final JpegInputStream jpegInputStream = new JpegInputStream(byteArray);
+
+        assertEquals(0xa, jpegInputStream.peekBits(4));
+        assertEquals(0xa, jpegInputStream.getBits(4));
+        assertEquals(0x5ff, jpegInputStream.getBits(12));
+        assertTrue(jpegInputStream.hasNext());
+        assertEquals(0x3, jpegInputStream.getBits(4));
+        assertFalse(jpegInputStream.hasNext());
+        assertEquals(0xc0, jpegInputStream.peekBits(8));
+        assertThrows(IllegalStateException.class, () -> jpegInputStream.skipBits(5));
+    }
+
     @Test
     public void testNextBitThrowsImageReadExceptionOne() {
-        final int[] byteArray = new int[6];
+        final byte[] byteArray = new byte[6];
         byteArray[0] = (byte) -1;
         byteArray[1] = (byte) 74;
         final JpegInputStream jpegInputStream = new JpegInputStream(byteArray);
@@ -41,7 +59,7 @@ public class JpegInputStreamTest {
 
     @Test
     public void testNextBitThrowsImageReadExceptionTwo() {
-        final int[] byteArray = {};
+        final byte[] byteArray = {};
         final JpegInputStream jpegInputStream = new JpegInputStream(byteArray);
 
         assertThrows(IllegalStateException.class, jpegInputStream::nextBit);
@@ -0,0 +1,49 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class YCbCrConverterTest {
+
+    private static int clamp(final int x) {
+        return Math.min(255, Math.max(0, x));
+    }
+
+    private static int REFERENCE_convertYCbCrToRgb(final int y, final int cb, final int cr) {
+        // rounded the way the lookup tables the converter used to have were filled
+        final int r = clamp(y + (int) (1.402f * (cr - 128) + 0.5f));
+        final int g = clamp(y - (int) (0.34414f * (cb - 128) + 0.71414f * (cr - 128) + 0.5f));
+        final int b = clamp(y + (int) (1.772f * (cb - 128) + 0.5f));
+        return r << 16 | g << 8 | b;
+    }
+
+    @Test
+    public void testConvertYCbCrToRgb() {
+        for (int y = 0; y < 256; y++) {
+            for (int cb = 0; cb < 256; cb++) {
+                for (int cr = 0; cr < 256; cr++) {
+                    final int expected = REFERENCE_convertYCbCrToRgb(y, cb, cr);
+                    assertEquals(expected, YCbCrConverter.convertYCbCrToRgb(y, cb, cr));
+                    assertEquals(expected,
+                            YCbCrConverter.toRgb(y, YCbCrConverter.redTerm(cr), YCbCrConverter.greenTerm(cb, cr), YCbCrConverter.blueTerm(cb)));
+                }
+            }
+        }
+    }
+}
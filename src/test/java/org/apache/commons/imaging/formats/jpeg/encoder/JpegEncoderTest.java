@@ -0,0 +1,168 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.encoder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.imaging.ImageFormats;
+import org.apache.commons.imaging.ImageInfo;
+import org.apache.commons.imaging.Imaging;
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.jpeg.JpegChromaSubsampling;
+import org.apache.commons.imaging.formats.jpeg.JpegImageParser;
+import org.apache.commons.imaging.formats.jpeg.JpegImagingParameters;
+import org.apache.commons.imaging.formats.jpeg.decoder.JpegDecoder;
+import org.apache.commons.imaging.roundtrip.ImageAsserts;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the JpegEncoder.
+ */
+public class JpegEncoderTest {
+
+    private static BufferedImage createImage(final int width, final int height, final int type) {
+        final BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int r = 255 * x / width;
+                final int g = 255 * y / height;
+                final int b = (int) (127.5 + 127.5 * Math.sin((x + y) / 9.0));
+                image.setRGB(x, y, 0xff000000 | r << 16 | g << 8 | b);
+            }
+        }
+        return image;
+    }
+
+    private static byte[] encode(final BufferedImage image, final JpegImagingParameters params) throws ImagingException, IOException {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new JpegEncoder(params).encode(image, os);
+        return os.toByteArray();
+    }
+
+    private static double meanDifference(final BufferedImage expected, final BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        long sum = 0;
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                final int expectedRgb = expected.getRGB(x, y);
+                final int rgb = actual.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    sum += Math.abs((expectedRgb >> shift & 0xff) - (rgb >> shift & 0xff));
+                }
+            }
+        }
+        return sum / (3.0 * expected.getWidth() * expected.getHeight());
+    }
+
+    private static int[] pixels(final BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    @Test
+    public void testEncodeChromaSubsampling() throws ImagingException, IOException {
+        // a size that is not a multiple of the MCU size, so the edges are padded
+        final BufferedImage image = createImage(101, 75, BufferedImage.TYPE_INT_RGB);
+        for (final JpegChromaSubsampling chromaSubsampling : JpegChromaSubsampling.values()) {
+            final byte[] bytes = encode(image, new JpegImagingParameters().setQuality(95).setChromaSubsampling(chromaSubsampling));
+            assertEquals(ImageFormats.JPEG, Imaging.guessFormat(bytes));
+            assertTrue(meanDifference(image, ImageIO.read(new ByteArrayInputStream(bytes))) < 2);
+            // JpegDecoder replicates chroma samples instead of interpolating them
+            assertTrue(meanDifference(image, new JpegDecoder().decode(ByteSource.array(bytes))) < 4);
+        }
+    }
+
+    @Test
+    public void testEncodeGrayscale() throws ImagingException, IOException {
+        final BufferedImage image = createImage(50, 40, BufferedImage.TYPE_BYTE_GRAY);
+        final byte[] bytes = encode(image, new JpegImagingParameters().setQuality(95));
+        assertEquals(ImageInfo.ColorType.GRAYSCALE, Imaging.getImageInfo(bytes).getColorType());
+        final int[] decoded = pixels(new JpegDecoder().decode(ByteSource.array(bytes)));
+        final int[] expected = new int[50 * 40];
+        image.getRaster().getSamples(0, 0, 50, 40, 0, expected);
+        long sum = 0;
+        for (int i = 0; i < expected.length; i++) {
+            sum += Math.abs(expected[i] - (decoded[i] & 0xff));
+        }
+        assertTrue(sum < expected.length);
+    }
+
+    @Test
+    public void testEncodeOptimizedHuffmanTables() throws ImagingException, IOException {
+        final BufferedImage image = createImage(200, 150, BufferedImage.TYPE_INT_RGB);
+        final byte[] standard = encode(image, new JpegImagingParameters());
+        final byte[] optimized = encode(image, new JpegImagingParameters().setOptimizeHuffmanTables(true));
+        assertTrue(optimized.length < standard.length);
+        // only the entropy coding differs
+        assertArrayEquals(pixels(ImageIO.read(new ByteArrayInputStream(standard))), pixels(ImageIO.read(new ByteArrayInputStream(optimized))));
+    }
+
+    @Test
+    public void testEncodeRestartIntervals() throws ImagingException, IOException {
+        final BufferedImage image = createImage(200, 150, BufferedImage.TYPE_INT_ARGB);
+        final byte[] expected = encode(image, new JpegImagingParameters());
+        for (final int restartInterval : new int[] { 1, 3, 13 }) {
+            final byte[] bytes = encode(image, new JpegImagingParameters().setRestartInterval(restartInterval));
+            assertArrayEquals(pixels(new JpegDecoder().decode(ByteSource.array(expected))), pixels(new JpegDecoder().decode(ByteSource.array(bytes))));
+            assertArrayEquals(pixels(ImageIO.read(new ByteArrayInputStream(expected))), pixels(ImageIO.read(new ByteArrayInputStream(bytes))));
+        }
+    }
+
+    @Test
+    public void testQualityReducesSize() throws ImagingException, IOException {
+        final BufferedImage image = createImage(200, 150, BufferedImage.TYPE_3BYTE_BGR);
+        final byte[] low = encode(image, new JpegImagingParameters().setQuality(10));
+        final byte[] high = encode(image, new JpegImagingParameters().setQuality(100));
+        assertTrue(low.length < high.length);
+        assertTrue(meanDifference(image, ImageIO.read(new ByteArrayInputStream(high))) < 1);
+    }
+
+    @Test
+    public void testRoundTrip() throws ImagingException, IOException {
+        final BufferedImage image = createImage(101, 75, BufferedImage.TYPE_INT_RGB);
+        final JpegImagingParameters params = new JpegImagingParameters().setQuality(100).setChromaSubsampling(JpegChromaSubsampling.YCBCR_444);
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new JpegImageParser().writeImage(image, os, params);
+        // the channels of each pixel differ from the original by at most 12 levels in total
+        ImageAsserts.assertImageEquals(image, Imaging.getBufferedImage(os.toByteArray()), 12);
+    }
+
+    @Test
+    public void testSetInvalidQuality() {
+        final JpegImagingParameters params = new JpegImagingParameters();
+        assertThrows(IllegalArgumentException.class, () -> params.setQuality(0));
+        assertThrows(IllegalArgumentException.class, () -> params.setQuality(101));
+        assertThrows(IllegalArgumentException.class, () -> params.setRestartInterval(-1));
+    }
+
+    @Test
+    public void testWriteImage() throws ImagingException, IOException {
+        final BufferedImage image = createImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        final byte[] bytes = Imaging.writeImageToBytes(image, ImageFormats.JPEG);
+        assertTrue(meanDifference(image, Imaging.getBufferedImage(bytes)) < 4);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.tiff;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.commons.imaging.FormatCompliance;
+import org.apache.commons.imaging.Imaging;
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
+import org.apache.commons.imaging.formats.tiff.write.TiffImageWriterLossy;
+import org.apache.commons.imaging.formats.tiff.write.TiffOutputSet;
+import org.apache.commons.imaging.roundtrip.ImageAsserts;
+import org.apache.commons.imaging.roundtrip.TestImages;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ImageDataCacheTest {
+
+    private static final int WIDTH = 100;
+    private static final int HEIGHT = 200;
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] writeImage() throws ImagingException, IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TiffImageParser().writeImage(TestImages.createPatternImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB), out,
+                new TiffImagingParameters().setCompression(TiffConstants.COMPRESSION_UNCOMPRESSED));
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        final byte[] bytes = new byte[100];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        final ImageDataCache cache = new ImageDataCache(ByteSource.array(bytes), 25);
+        final byte[] first = cache.read(0, 10);
+        assertArrayEquals(Arrays.copyOf(bytes, 10), first);
+        // the caller owns the copy it gets
+        first[0] = 42;
+        assertEquals(0, cache.read(0, 10)[0]);
+        cache.read(10, 10);
+        assertEquals(20, cache.getSize());
+        // evicts the block at 0, which was used least recently
+        cache.read(0, 10);
+        cache.read(20, 10);
+        assertEquals(20, cache.getSize());
+        bytes[0] = 1;
+        bytes[10] = 1;
+        assertEquals(0, cache.read(0, 10)[0]);
+        assertEquals(1, cache.read(10, 10)[0]);
+        // too large to be cached
+        cache.read(50, 50);
+        assertEquals(20, cache.getSize());
+    }
+
+    @Test
+    public void testRewriteMetadataInPlace() throws ImagingException, IOException {
+        // the metadata must hold its strips, the file is truncated before they are written back
+        final File file = tempDir.resolve("image.tif").toFile();
+        Files.write(file.toPath(), writeImage());
+        final TiffImageMetadata metadata = (TiffImageMetadata) Imaging.getMetadata(file);
+        final TiffOutputSet outputSet = metadata.getOutputSet();
+        try (OutputStream out = new FileOutputStream(file)) {
+            new TiffImageWriterLossy().write(out, outputSet);
+        }
+        ImageAsserts.assertImageEquals(TestImages.createPatternImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB), Imaging.getBufferedImage(file));
+    }
+
+    @Test
+    public void testStripsAreReadOnDemand() throws ImagingException, IOException {
+        final byte[] bytes = writeImage();
+        final TiffReader reader = new TiffReader(true, 0);
+        final TiffContents contents = reader.readFirstDirectory(ByteSource.array(bytes), true, FormatCompliance.getDefault());
+        final TiffDirectory directory = contents.directories.get(0);
+        final AbstractTiffImageData.Strips strips = (AbstractTiffImageData.Strips) directory.getTiffImageData();
+        assertTrue(strips.getImageDataLength() > 2);
+        final BufferedImage reference = directory.getTiffImage(reader.getByteOrder());
+
+        // overwrite the last strip after the directory was read
+        final AbstractTiffElement.DataElement last = strips.getImageData(strips.getImageDataLength() - 1);
+        assertEquals(last.length, last.getDataLength());
+        Arrays.fill(bytes, (int) last.offset, (int) last.offset + last.length, (byte) 0xff);
+        assertEquals((byte) 0xff, last.readData()[0]);
+
+        // a sub-image in the first strip doesn't read it
+        final TiffImagingParameters params = new TiffImagingParameters().setSubImage(10, 0, 20, strips.rowsPerStrip);
+        ImageAsserts.assertImageEquals(reference.getSubimage(10, 0, 20, strips.rowsPerStrip), directory.getTiffImage(reader.getByteOrder(), params));
+        assertNotEquals(reference.getRGB(0, HEIGHT - 1), directory.getTiffImage(reader.getByteOrder()).getRGB(0, HEIGHT - 1));
+    }
+}
@@ -16,15 +16,26 @@
  */
 package org.apache.commons.imaging.formats.tiff;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteOrder;
 
+import org.apache.commons.imaging.FormatCompliance;
 import org.apache.commons.imaging.Imaging;
 import org.apache.commons.imaging.ImagingTestConstants;
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.common.ByteConversions;
+import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
+import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
+import org.apache.commons.imaging.formats.tiff.fieldtypes.AbstractFieldType;
+import org.apache.commons.imaging.formats.tiff.write.TiffImageWriterLossy;
+import org.apache.commons.imaging.formats.tiff.write.TiffOutputSet;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -78,4 +89,36 @@ public class TiffBigTiffTest extends TiffBaseTest {
         assertTrue(nTest > 0, "JUnit test failed to find sample BigTIFF files");
     }
 
+    @Test
+    public void testWriteBigTiff() throws IOException {
+        final BufferedImage source = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                source.setRGB(x, y, x * 5 + y * 11 << 8 | x ^ y);
+            }
+        }
+        final int[] sourceRgb = source.getRGB(0, 0, 300, 200, null, 0, 300);
+
+        for (final ByteOrder byteOrder : new ByteOrder[] { ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN }) {
+            final TiffOutputSet outputSet = new TiffOutputSet(byteOrder);
+            outputSet.setGpsInDegrees(-74.0, 40.5);
+            final TiffImagingParameters params = new TiffImagingParameters();
+            params.setBigTiff(true);
+            params.setOutputSet(outputSet);
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            new TiffImageWriterLossy(byteOrder).writeImage(source, bos, params);
+            final byte[] bytes = bos.toByteArray();
+
+            assertEquals(TiffConstants.VERSION_BIG, ByteConversions.toUInt16(bytes, 2, byteOrder));
+            assertEquals(TiffConstants.HEADER_SIZE_BIG, ByteConversions.toLong(bytes, 8, byteOrder));
+            assertTrue(doImagesMatch(300, 200, sourceRgb, Imaging.getBufferedImage(bytes)));
+
+            final TiffContents contents = new TiffReader(true).readDirectories(ByteSource.array(bytes), true, FormatCompliance.getDefault());
+            assertEquals(AbstractFieldType.LONG8, contents.directories.get(0).findField(TiffTagConstants.TIFF_TAG_STRIP_OFFSETS).getFieldType());
+            final TiffImageMetadata.GpsInfo gpsInfo = ((TiffImageMetadata) new TiffImageParser().getMetadata(ByteSource.array(bytes))).getGpsInfo();
+            assertEquals(-74.0, gpsInfo.getLongitudeAsDegreesEast(), 1e-6);
+            assertEquals(40.5, gpsInfo.getLatitudeAsDegreesNorth(), 1e-6);
+        }
+    }
+
 }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.tiff;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
+import org.apache.commons.imaging.roundtrip.ImageAsserts;
+import org.apache.commons.imaging.roundtrip.TestImages;
+import org.junit.jupiter.api.Test;
+
+public class TiffParallelReadTest extends TiffBaseTest {
+
+    @Test
+    public void testInterruptWhileWaiting() throws ImagingException, IOException {
+        final BufferedImage image = new BufferedImage(300, 500, BufferedImage.TYPE_INT_RGB);
+        final TiffImageParser parser = new TiffImageParser();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        parser.writeImage(image, out, new TiffImagingParameters());
+        final byte[] bytes = out.toByteArray();
+
+        // an executor that never runs its tasks, so only an interrupt ends the wait
+        final TiffImagingParameters params = new TiffImagingParameters().setImageDataExecutor(task -> {
+        });
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedIOException.class, () -> parser.getBufferedImage(bytes, params));
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void testLzwStrips() throws ImagingException, IOException {
+        final BufferedImage image = TestImages.createPatternImage(300, 500, BufferedImage.TYPE_INT_RGB);
+        final TiffImageParser parser = new TiffImageParser();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        parser.writeImage(image, out, new TiffImagingParameters().setCompression(TiffConstants.COMPRESSION_LZW));
+        final byte[] bytes = out.toByteArray();
+
+        final TiffImagingParameters params = new TiffImagingParameters().setImageDataExecutor(ForkJoinPool.commonPool());
+        ImageAsserts.assertImageEquals(image, parser.getBufferedImage(bytes, params));
+        params.setSubImage(7, 130, 250, 300);
+        ImageAsserts.assertImageEquals(image.getSubimage(7, 130, 250, 300), parser.getBufferedImage(bytes, params));
+    }
+
+    @Test
+    public void testSamePixelsAsSerialRead() throws ImagingException, IOException {
+        final TiffImageParser parser = new TiffImageParser();
+        final TiffImagingParameters params = new TiffImagingParameters().setImageDataExecutor(ForkJoinPool.commonPool());
+        for (final File file : getTiffImages()) {
+            final BufferedImage expected;
+            try {
+                expected = parser.getBufferedImage(file, new TiffImagingParameters());
+            } catch (final ImagingException e) {
+                // not readable either way
+                continue;
+            }
+            ImageAsserts.assertImageEquals(expected, parser.getBufferedImage(file, params));
+        }
+    }
+}
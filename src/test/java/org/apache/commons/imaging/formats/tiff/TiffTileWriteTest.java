@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.tiff;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.imaging.FormatCompliance;
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
+import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
+import org.apache.commons.imaging.roundtrip.ImageAsserts;
+import org.apache.commons.imaging.roundtrip.TestImages;
+import org.junit.jupiter.api.Test;
+
+public class TiffTileWriteTest {
+
+    private static byte[] write(final BufferedImage image, final TiffImagingParameters params) throws ImagingException, IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TiffImageParser().writeImage(image, out, params);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testInvalidTiles() {
+        assertThrows(IllegalArgumentException.class, () -> new TiffImagingParameters().setTileSize(100, 64));
+        assertThrows(IllegalArgumentException.class, () -> new TiffImagingParameters().setTileSize(64, 0));
+        final TiffImagingParameters params = new TiffImagingParameters().setTileSize(64, 64).setCompression(TiffConstants.COMPRESSION_CCITT_GROUP_4);
+        assertThrows(ImagingException.class, () -> write(TestImages.createPatternImage(10, 10, BufferedImage.TYPE_INT_RGB), params));
+    }
+
+    @Test
+    public void testParallelTiles() throws ImagingException, IOException {
+        final BufferedImage image = TestImages.createPatternImage(500, 300, BufferedImage.TYPE_INT_RGB);
+        final TiffImagingParameters params = new TiffImagingParameters().setTileSize(64, 32).setCompression(TiffConstants.COMPRESSION_DEFLATE_ADOBE);
+        final byte[] serial = write(image, params);
+        params.setImageDataExecutor(ForkJoinPool.commonPool());
+        assertArrayEquals(serial, write(image, params));
+    }
+
+    @Test
+    public void testRoundTrip() throws ImagingException, IOException {
+        final int[] compressions = { TiffConstants.COMPRESSION_UNCOMPRESSED, TiffConstants.COMPRESSION_PACKBITS, TiffConstants.COMPRESSION_LZW,
+                TiffConstants.COMPRESSION_DEFLATE_ADOBE };
+        final TiffImageParser parser = new TiffImageParser();
+        for (final int type : new int[] { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB }) {
+            final BufferedImage image = TestImages.createPatternImage(150, 100, type);
+            for (final int compression : compressions) {
+                final byte[] bytes = write(image, new TiffImagingParameters().setTileSize(64, 48).setCompression(compression));
+
+                final TiffDirectory directory = new TiffReader(true).readFirstDirectory(ByteSource.array(bytes), true, FormatCompliance.getDefault())
+                        .directories.get(0);
+                assertEquals(64, directory.getSingleFieldValue(TiffTagConstants.TIFF_TAG_TILE_WIDTH));
+                assertEquals(48, directory.getSingleFieldValue(TiffTagConstants.TIFF_TAG_TILE_LENGTH));
+                assertNull(directory.findField(TiffTagConstants.TIFF_TAG_ROWS_PER_STRIP));
+                // 3 by 3 tiles, the last column and row padded
+                assertEquals(9, directory.getTiffImageData().getImageData().length);
+
+                ImageAsserts.assertImageEquals(image, parser.getBufferedImage(bytes, new TiffImagingParameters()));
+                final TiffImagingParameters params = new TiffImagingParameters().setSubImage(70, 30, 60, 70);
+                ImageAsserts.assertImageEquals(image.getSubimage(70, 30, 60, 70), parser.getBufferedImage(bytes, params));
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.tiff.write;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.imaging.FormatCompliance;
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.tiff.TiffDirectory;
+import org.apache.commons.imaging.formats.tiff.TiffImageParser;
+import org.apache.commons.imaging.formats.tiff.TiffImagingParameters;
+import org.apache.commons.imaging.formats.tiff.TiffReader;
+import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
+import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
+import org.apache.commons.imaging.roundtrip.ImageAsserts;
+import org.apache.commons.imaging.roundtrip.TestImages;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TiffStreamingImageWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static FileChannel open(final File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static TiffDirectory readDirectory(final File file) throws ImagingException, IOException {
+        return new TiffReader(true).readFirstDirectory(ByteSource.file(file), true, FormatCompliance.getDefault()).directories.get(0);
+    }
+
+    @Test
+    public void testIncompleteImage() throws IOException {
+        final File file = tempDir.resolve("incomplete.tif").toFile();
+        try (FileChannel channel = open(file)) {
+            final TiffStreamingImageWriter writer = new TiffStreamingImageWriter(channel, 10, 10, false, new TiffImagingParameters());
+            final int[] argb = new int[100];
+            writer.writeRows(argb, 0, 10, 4);
+            assertThrows(ImagingException.class, () -> writer.writeRows(argb, 0, 10, 7));
+            assertThrows(ImagingException.class, writer::close);
+            assertThrows(ImagingException.class, () -> writer.writeRows(argb, 0, 10, 1));
+        }
+        final TiffImagingParameters ccitt = new TiffImagingParameters().setCompression(TiffConstants.COMPRESSION_CCITT_GROUP_4);
+        try (FileChannel channel = open(file)) {
+            assertThrows(ImagingException.class, () -> new TiffStreamingImageWriter(channel, 10, 10, false, ccitt));
+        }
+    }
+
+    @Test
+    public void testStreamedStrips() throws ImagingException, IOException {
+        final BufferedImage image = TestImages.createPatternImage(300, 200, BufferedImage.TYPE_INT_ARGB);
+        final File file = tempDir.resolve("strips.tif").toFile();
+        final TiffImagingParameters params = new TiffImagingParameters().setLzwCompressionBlockSize(16000).setXmpXml("<xmp/>");
+        try (FileChannel channel = open(file); TiffStreamingImageWriter writer = new TiffStreamingImageWriter(channel, 300, 200, true, params)) {
+            // rows arrive in chunks that do not line up with the 13 rows of each strip
+            final int[] argb = image.getRGB(0, 0, 300, 200, null, 0, 300);
+            for (int y = 0; y < 200; y += 7) {
+                writer.writeRows(argb, y * 300, 300, Math.min(7, 200 - y));
+                if (y == 98) {
+                    // the strips are written as they are completed
+                    assertTrue(channel.size() > TiffConstants.HEADER_SIZE_BIG);
+                }
+            }
+        }
+
+        final TiffDirectory directory = readDirectory(file);
+        assertEquals(13, directory.getSingleFieldValue(TiffTagConstants.TIFF_TAG_ROWS_PER_STRIP));
+        assertEquals(16, directory.getTiffImageData().getImageData().length);
+        assertEquals("<xmp/>", new TiffImageParser().getXmpXml(ByteSource.file(file), null));
+        ImageAsserts.assertImageEquals(image, new TiffImageParser().getBufferedImage(ByteSource.file(file), new TiffImagingParameters()));
+    }
+
+    @Test
+    public void testStreamedTiles() throws ImagingException, IOException {
+        final BufferedImage image = TestImages.createPatternImage(150, 100, BufferedImage.TYPE_3BYTE_BGR);
+        final File file = tempDir.resolve("tiles.tif").toFile();
+        final TiffImagingParameters params = new TiffImagingParameters().setTileSize(64, 48).setCompression(TiffConstants.COMPRESSION_DEFLATE_ADOBE)
+                .setImageDataExecutor(ForkJoinPool.commonPool()).setBigTiff(true);
+        try (FileChannel channel = open(file); TiffStreamingImageWriter writer = new TiffStreamingImageWriter(channel, 150, 100, false, params)) {
+            writer.writeImage(image);
+        }
+
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        assertEquals(43, bytes[2]);
+        final TiffDirectory directory = readDirectory(file);
+        assertEquals(64, directory.getSingleFieldValue(TiffTagConstants.TIFF_TAG_TILE_WIDTH));
+        assertEquals(9, directory.getTiffImageData().getImageData().length);
+        ImageAsserts.assertImageEquals(image, new TiffImageParser().getBufferedImage(bytes, new TiffImagingParameters()));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.internal;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.commons.imaging.AbstractImageParser;
+import org.apache.commons.imaging.ImageFormats;
+import org.apache.commons.imaging.formats.png.PngImageParser;
+import org.apache.commons.imaging.formats.tiff.TiffImageParser;
+import org.junit.jupiter.api.Test;
+
+public class ImageParserFactoryTest {
+
+    @Test
+    public void testGetImageParserByExtension() {
+        final AbstractImageParser<?> parser = ImageParserFactory.getImageParser("image.tif");
+        assertTrue(parser instanceof TiffImageParser);
+        assertSame(parser, ImageParserFactory.getImageParser("other/IMAGE.TIF"));
+        assertSame(parser, ImageParserFactory.getImageParser(ImageFormats.TIFF));
+        assertThrows(IllegalArgumentException.class, () -> ImageParserFactory.getImageParser("image.unknown"));
+        assertThrows(IllegalArgumentException.class, () -> ImageParserFactory.getImageParser("image"));
+    }
+
+    @Test
+    public void testGetImageParserByFormat() {
+        final AbstractImageParser<?> parser = ImageParserFactory.getImageParser(ImageFormats.PNG);
+        assertTrue(parser instanceof PngImageParser);
+        assertSame(parser, ImageParserFactory.getImageParser(ImageFormats.PNG));
+        assertThrows(IllegalArgumentException.class, () -> ImageParserFactory.getImageParser(ImageFormats.UNKNOWN));
+    }
+
+    @Test
+    public void testGetImageParsers() {
+        assertTrue(ImageParserFactory.getImageParsers().size() >= AbstractImageParser.getAllImageParsers().size());
+        assertThrows(UnsupportedOperationException.class, () -> ImageParserFactory.getImageParsers().clear());
+    }
+}
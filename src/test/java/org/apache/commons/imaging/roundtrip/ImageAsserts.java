@@ -27,7 +27,7 @@ import java.io.IOException;
 import org.apache.commons.imaging.internal.Debug;
 import org.apache.commons.io.FileUtils;
 
-final class ImageAsserts {
+public final class ImageAsserts {
 
     static void assertFileEquals(final File a, final File b) throws IOException {
         assertTrue(a.exists() && a.isFile());
@@ -52,11 +52,11 @@ final class ImageAsserts {
         }
     }
 
-    static void assertImageEquals(final BufferedImage a, final BufferedImage b) {
+    public static void assertImageEquals(final BufferedImage a, final BufferedImage b) {
         assertImageEquals(a, b, 0);
     }
 
-    static void assertImageEquals(final BufferedImage a, final BufferedImage b, final int tolerance) {
+    public static void assertImageEquals(final BufferedImage a, final BufferedImage b, final int tolerance) {
         assertEquals(a.getWidth(), b.getWidth());
         assertEquals(a.getHeight(), b.getHeight());
 
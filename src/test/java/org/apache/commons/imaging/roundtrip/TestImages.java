@@ -18,7 +18,7 @@ package org.apache.commons.imaging.roundtrip;
 
 import java.awt.image.BufferedImage;
 
-final class TestImages {
+public final class TestImages {
 
     static BufferedImage createArgbBitmapImage(final int width, final int height) {
         final BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
@@ -99,6 +99,17 @@ final class TestImages {
         return result;
     }
 
+    public static BufferedImage createPatternImage(final int width, final int height, final int type) {
+        final BufferedImage result = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // neighbors differ in every channel, so misplaced or mixed up samples show
+                result.setRGB(x, y, (x * y & 0x7f) + 0x80 << 24 | (x * 3 & 0xff) << 16 | (y * 5 & 0xff) << 8 | (x ^ y) & 0xff);
+            }
+        }
+        return result;
+    }
+
     private TestImages() {
     }
 }